@@ -0,0 +1,154 @@
+package com.cms.concurrent;
+
+import com.cms.util.CMSLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor that limits how many tasks run at once on a thread-per-task
+ * executor with a {@link Semaphore} rather than a fixed number of threads.
+ *
+ * <p>
+ * Used by {@link ThreadPoolManager} in
+ * {@link ThreadPoolManager.IOExecutionMode#VIRTUAL} mode, where each blocking
+ * I/O task gets its own (virtual) thread and the permit count, not the pool
+ * size, bounds the load on files, mail servers and webhooks.
+ * </p>
+ *
+ * <p>
+ * <strong>Backlog:</strong> A task submitted while no permit is free is
+ * queued instead of blocking the submitter. A thread finishing a task keeps
+ * its permit and runs the next queued task itself, so with a platform-thread
+ * fallback there are never more threads than permits.
+ * </p>
+ *
+ * @see ThreadPoolManager#setIOExecutionMode(ThreadPoolManager.IOExecutionMode, int)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class BoundedTaskExecutor implements Executor {
+
+    private static final CMSLogger logger = CMSLogger.getInstance();
+
+    private final String name;
+    private final Executor delegate;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Queue<Runnable> backlog = new ConcurrentLinkedQueue<>();
+
+    // Metrics
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+
+    /**
+     * Creates a bounded executor.
+     *
+     * @param name           Name used in statistics
+     * @param delegate       Executor starting one thread per task
+     * @param maxConcurrency Maximum number of tasks running at once
+     */
+    BoundedTaskExecutor(String name, Executor delegate, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency must be > 0");
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("Task cannot be null");
+        }
+        submitted.incrementAndGet();
+        if (permits.tryAcquire()) {
+            start(task);
+            return;
+        }
+
+        backlog.add(task);
+        deferred.incrementAndGet();
+        // A permit may have been released between the failed acquire and the add
+        drainBacklog();
+    }
+
+    private void drainBacklog() {
+        while (!backlog.isEmpty() && permits.tryAcquire()) {
+            Runnable next = backlog.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            start(next);
+        }
+    }
+
+    /** Runs a task on a new thread; the caller holds a permit for it */
+    private void start(Runnable task) {
+        try {
+            delegate.execute(() -> runWithPermit(task));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void runWithPermit(Runnable first) {
+        int running = active.incrementAndGet();
+        peakActive.accumulateAndGet(running, Math::max);
+        try {
+            Runnable task = first;
+            while (task != null) {
+                try {
+                    task.run();
+                    completed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.logError("Task failed in " + name, e);
+                }
+                task = backlog.poll();
+            }
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+        drainBacklog();
+    }
+
+    /**
+     * Returns concurrency and backlog statistics.
+     *
+     * @return Map of statistic name to value
+     */
+    Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("name", name);
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("active", active.get());
+        stats.put("peakActive", peakActive.get());
+        stats.put("queued", backlog.size());
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("deferred", deferred.get());
+        return stats;
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
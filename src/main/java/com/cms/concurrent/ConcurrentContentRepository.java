@@ -3,16 +3,24 @@ package com.cms.concurrent;
 import com.cms.core.model.Content;
 import com.cms.core.model.ContentStatus;
 import com.cms.core.exception.ContentManagementException;
+import com.cms.core.repository.BitmapIndex;
+import com.cms.core.repository.CompressedBitmap;
+import com.cms.core.repository.ContentIdInterner;
+import com.cms.core.repository.ContentPageKey;
+import com.cms.core.repository.Page;
 import com.cms.util.CMSLogger;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.function.Predicate;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -46,10 +54,13 @@ import java.time.LocalDateTime;
  * <li>Thread-safe CRUD operations with ConcurrentHashMap storage</li>
  * <li>ReadWriteLock optimization for concurrent read operations</li>
  * <li>Atomic operations for counters and statistics</li>
- * <li>ConcurrentLinkedQueue for operation history tracking</li>
+ * <li>Preallocated, lock-free ring buffer for operation history tracking with
+ * optional sampling of reads</li>
  * <li>Thread-safe search and filtering with parallel streams</li>
  * <li>Concurrent bulk operations with batch processing</li>
  * <li>Lock-free statistics and performance monitoring</li>
+ * <li>Optional lock-free snapshot read mode with versioned entries</li>
+ * <li>Optional striped per-content-ID write locking</li>
  * </ul>
  *
  * <p>
@@ -59,13 +70,22 @@ import java.time.LocalDateTime;
  * <li><strong>Storage:</strong> ConcurrentHashMap for thread-safe content
  * storage</li>
  * <li><strong>Indexing:</strong> Concurrent indexes for fast lookups by various
- * criteria</li>
+ * criteria, stored as compressed bitmaps of interned content ordinals so
+ * multi-criteria queries become bitmap intersections</li>
  * <li><strong>Locking:</strong> ReadWriteLock for optimized read-heavy
  * workloads</li>
  * <li><strong>Atomic Operations:</strong> AtomicLong for counters and
  * statistics</li>
  * <li><strong>Collections:</strong> Concurrent collections throughout for
  * thread safety</li>
+ * <li><strong>Snapshots:</strong> Each stored entry is an immutable
+ * {@link ContentSnapshot} replaced atomically by writers, so readers in
+ * {@link ReadMode#SNAPSHOT} need neither the read lock nor a defensive
+ * clone</li>
+ * <li><strong>Write Striping:</strong> In {@link WriteMode#STRIPED}, writers
+ * lock only the stripe owning the content ID and hold the repository read
+ * lock, so unrelated saves proceed in parallel while repository-wide
+ * operations such as {@link #clear()} still exclude them</li>
  * </ul>
  *
  * <p>
@@ -84,15 +104,24 @@ public class ConcurrentContentRepository {
     private static final CMSLogger logger = CMSLogger.getInstance();
 
     // Thread-safe storage using concurrent collections
-    private final ConcurrentHashMap<String, Content> contentStorage = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Set<String>> titleIndex = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<ContentStatus, Set<String>> statusIndex = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Set<String>> authorIndex = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, AtomicReference<LocalDateTime>> contentTimestamps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ContentSnapshot> contentStorage;
+    private final ContentIdInterner idInterner;
+    private final BitmapIndex<String> titleIndex = BitmapIndex.hashed();
+    private final BitmapIndex<ContentStatus> statusIndex = BitmapIndex.hashed();
+    private final BitmapIndex<String> authorIndex = BitmapIndex.hashed();
+    private final BitmapIndex<LocalDate> createdDateIndex = BitmapIndex.sorted();
+    private final ConcurrentSkipListSet<ContentPageKey> pageKeys = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, AtomicReference<LocalDateTime>> contentTimestamps;
 
     // ReadWriteLock for optimized concurrent access patterns
     private final ReadWriteLock repositoryLock = new ReentrantReadWriteLock();
 
+    // Per-content-ID lock stripes used in WriteMode.STRIPED
+    private final WriteMode writeMode;
+    private final ReentrantLock[] writeStripes;
+    private final AtomicLongArray stripeAcquisitions;
+    private final AtomicLongArray stripeContention;
+
     // Atomic counters for statistics and performance monitoring
     private final AtomicLong totalReads = new AtomicLong(0);
     private final AtomicLong totalWrites = new AtomicLong(0);
@@ -100,14 +129,22 @@ public class ConcurrentContentRepository {
     private final AtomicLong totalSearches = new AtomicLong(0);
     private final AtomicLong cacheHits = new AtomicLong(0);
     private final AtomicLong cacheMisses = new AtomicLong(0);
+    private final AtomicLong snapshotReads = new AtomicLong(0);
+    private final AtomicLong bulkLoadedItems = new AtomicLong(0);
+    private final AtomicLong conditionalSaves = new AtomicLong(0);
+    private final AtomicLong versionConflicts = new AtomicLong(0);
+
+    // Items per write-lock acquisition in saveBatch
+    private static final int BULK_CHUNK_SIZE = 8192;
 
     // Concurrent operation history and audit trail
-    private final ConcurrentLinkedQueue<OperationRecord> operationHistory = new ConcurrentLinkedQueue<>();
-    private final int MAX_HISTORY_SIZE = 10000;
+    private static final int MAX_HISTORY_SIZE = 10000;
+    private final OperationHistory operationHistory = new OperationHistory(MAX_HISTORY_SIZE);
 
     // Thread-safe configuration
     private volatile int maxConcurrentOperations = 100;
     private volatile boolean enableDetailedLogging = false;
+    private volatile ReadMode readMode;
 
     /**
      * Constructs a new ConcurrentContentRepository with thread-safe initialization.
@@ -115,8 +152,68 @@ public class ConcurrentContentRepository {
      * performance.
      */
     public ConcurrentContentRepository() {
-        initializeIndexes();
-        logger.logSystemOperation("ConcurrentContentRepository initialized with thread-safe operations");
+        this(ReadMode.LOCKED_CLONE);
+    }
+
+    /**
+     * Constructs a new ConcurrentContentRepository using the given read mode.
+     *
+     * @param readMode How reads are served (must not be null)
+     */
+    public ConcurrentContentRepository(ReadMode readMode) {
+        this(readMode, WriteMode.GLOBAL_LOCK, 1);
+    }
+
+    /**
+     * Constructs a new ConcurrentContentRepository with the given read and write
+     * modes.
+     *
+     * @param readMode    How reads are served (must not be null)
+     * @param writeMode   How writers are serialized (must not be null)
+     * @param stripeCount Number of lock stripes for {@link WriteMode#STRIPED};
+     *                    rounded up to a power of two, ignored otherwise
+     */
+    public ConcurrentContentRepository(ReadMode readMode, WriteMode writeMode, int stripeCount) {
+        this(readMode, writeMode, stripeCount, 16);
+    }
+
+    /**
+     * Constructs a new ConcurrentContentRepository presized for the expected
+     * number of items, so that cold-loading through {@link #saveBatch(List)}
+     * does not repeatedly rehash the storage maps.
+     *
+     * @param readMode     How reads are served (must not be null)
+     * @param writeMode    How writers are serialized (must not be null)
+     * @param stripeCount  Number of lock stripes for {@link WriteMode#STRIPED};
+     *                     rounded up to a power of two, ignored otherwise
+     * @param expectedSize Expected number of stored items
+     */
+    public ConcurrentContentRepository(ReadMode readMode, WriteMode writeMode, int stripeCount, int expectedSize) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        this.contentStorage = new ConcurrentHashMap<>(expectedSize);
+        this.contentTimestamps = new ConcurrentHashMap<>(expectedSize);
+        this.idInterner = new ContentIdInterner(expectedSize);
+        this.readMode = Objects.requireNonNull(readMode, "Read mode cannot be null");
+        this.writeMode = Objects.requireNonNull(writeMode, "Write mode cannot be null");
+
+        int stripes = 1;
+        while (writeMode == WriteMode.STRIPED && stripes < stripeCount) {
+            stripes <<= 1;
+        }
+        this.writeStripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            writeStripes[i] = new ReentrantLock();
+        }
+        this.stripeAcquisitions = new AtomicLongArray(stripes);
+        this.stripeContention = new AtomicLongArray(stripes);
+
+        logger.logSystemOperation("ConcurrentContentRepository initialized with thread-safe operations (read mode: "
+                + readMode + ", write mode: " + writeMode + ", stripes: " + stripes + ")");
     }
 
     /**
@@ -134,34 +231,40 @@ public class ConcurrentContentRepository {
             throw new ContentManagementException("Content cannot be null", "Invalid content provided");
         }
 
-        repositoryLock.writeLock().lock();
+        // Defensive copy taken outside the lock; once published it is never mutated
+        Content savedContent;
         try {
-            String contentId = content.getId();
-            boolean isUpdate = contentStorage.containsKey(contentId);
+            savedContent = content.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new ContentManagementException("Content cloning failed", "Unable to save content", e);
+        }
+
+        String contentId = content.getId();
+        lockForWrite(contentId);
+        try {
+            ContentSnapshot previous = contentStorage.get(contentId);
+            boolean isUpdate = previous != null;
 
             // Update timestamps atomically
             contentTimestamps.put(contentId, new AtomicReference<>(LocalDateTime.now()));
 
-            // Remove from old indexes if updating
+            // Publish the new version first so lock-free readers never see a gap,
+            // then move the index entries over
+            ContentSnapshot snapshot = new ContentSnapshot(savedContent,
+                    isUpdate ? previous.getVersion() + 1 : 1L, LocalDateTime.now());
+            int ordinal = idInterner.intern(contentId);
+            contentStorage.put(contentId, snapshot);
+            addToIndexes(savedContent, ordinal);
             if (isUpdate) {
-                removeFromIndexes(contentStorage.get(contentId));
+                removeStaleIndexEntries(previous.getContent(), savedContent, ordinal);
             }
 
-            // Store content and update indexes atomically
-            Content savedContent;
-            try {
-                savedContent = content.clone(); // Defensive copy
-            } catch (CloneNotSupportedException e) {
-                throw new ContentManagementException("Content cloning failed", "Unable to save content", e);
-            }
-            contentStorage.put(contentId, savedContent);
-            addToIndexes(savedContent);
-
             // Update statistics
             totalWrites.incrementAndGet();
 
             // Record operation
-            recordOperation("SAVE", contentId, isUpdate ? "UPDATE" : "CREATE");
+            recordOperation(OperationHistory.Operation.SAVE, OperationHistory.TargetKind.CONTENT, contentId,
+                    isUpdate ? OperationHistory.Outcome.UPDATE : OperationHistory.Outcome.CREATE, 0);
 
             logger.logContentOperation(
                     (isUpdate ? "Updated" : "Created") + " content: " + content.getTitle() +
@@ -173,7 +276,88 @@ public class ConcurrentContentRepository {
             logger.logError("Failed to save content: " + content.getTitle(), e);
             throw new ContentManagementException("Save operation failed", "Unable to save content", e);
         } finally {
-            repositoryLock.writeLock().unlock();
+            unlockForWrite(contentId);
+        }
+    }
+
+    /**
+     * Saves content only if the stored version still equals
+     * {@code expectedVersion} (compare-and-set), detecting lost updates between
+     * concurrent editors.
+     *
+     * <p>
+     * Use the version of the {@link ContentSnapshot} the edit started from, or
+     * 0 to create content that must not exist yet. The version check and the
+     * replacement happen in one atomic per-entry update of the storage map,
+     * guarded only by the lock stripe of the content ID. Conditional saves
+     * never take the repository-wide write lock, so editors of different
+     * content do not block each other in either write mode. In
+     * {@link WriteMode#GLOBAL_LOCK} there is a single stripe, though, so
+     * {@link WriteMode#STRIPED} is preferable for heavy editor traffic.
+     * </p>
+     *
+     * @param content         The content to save (must not be null)
+     * @param expectedVersion The version the caller last read, or 0 for new
+     *                        content
+     * @return The new snapshot, or empty if another writer changed the version
+     *         first
+     * @throws ContentManagementException if the save fails for another reason
+     */
+    public Optional<ContentSnapshot> saveIfVersion(Content content, long expectedVersion)
+            throws ContentManagementException {
+        if (content == null) {
+            throw new ContentManagementException("Content cannot be null", "Invalid content provided");
+        }
+        if (expectedVersion < 0) {
+            throw new IllegalArgumentException("Expected version cannot be negative");
+        }
+
+        Content savedContent;
+        try {
+            savedContent = content.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new ContentManagementException("Content cloning failed", "Unable to save content", e);
+        }
+
+        String contentId = content.getId();
+        conditionalSaves.incrementAndGet();
+        lockEntry(contentId);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            ContentSnapshot[] previous = new ContentSnapshot[1];
+            ContentSnapshot current = contentStorage.compute(contentId, (id, stored) -> {
+                previous[0] = stored;
+                long storedVersion = stored != null ? stored.getVersion() : 0L;
+                return storedVersion == expectedVersion
+                        ? new ContentSnapshot(savedContent, storedVersion + 1, now)
+                        : stored;
+            });
+
+            if (current == null || current.getContent() != savedContent) {
+                versionConflicts.incrementAndGet();
+                recordOperation(OperationHistory.Operation.SAVE, OperationHistory.TargetKind.CONTENT, contentId,
+                        OperationHistory.Outcome.CONFLICT, current != null ? current.getVersion() : 0L);
+                return Optional.empty();
+            }
+
+            contentTimestamps.put(contentId, new AtomicReference<>(now));
+            int ordinal = idInterner.intern(contentId);
+            addToIndexes(savedContent, ordinal);
+            if (previous[0] != null) {
+                removeStaleIndexEntries(previous[0].getContent(), savedContent, ordinal);
+            }
+
+            totalWrites.incrementAndGet();
+            recordOperation(OperationHistory.Operation.SAVE, OperationHistory.TargetKind.CONTENT, contentId,
+                    previous[0] != null ? OperationHistory.Outcome.UPDATE : OperationHistory.Outcome.CREATE, 0);
+
+            return Optional.of(current);
+
+        } catch (Exception e) {
+            logger.logError("Failed to save content: " + content.getTitle(), e);
+            throw new ContentManagementException("Save operation failed", "Unable to save content", e);
+        } finally {
+            unlockEntry(contentId);
         }
     }
 
@@ -189,14 +373,20 @@ public class ConcurrentContentRepository {
             return Optional.empty();
         }
 
+        if (readMode == ReadMode.SNAPSHOT) {
+            return findSnapshotById(contentId).map(ContentSnapshot::getContent);
+        }
+
         repositoryLock.readLock().lock();
         try {
-            Content content = contentStorage.get(contentId);
+            ContentSnapshot snapshot = contentStorage.get(contentId);
+            Content content = snapshot != null ? snapshot.getContent() : null;
             totalReads.incrementAndGet();
 
             if (content != null) {
                 cacheHits.incrementAndGet();
-                recordOperation("READ", contentId, "CACHE_HIT");
+                recordOperation(OperationHistory.Operation.READ, OperationHistory.TargetKind.CONTENT, contentId,
+                        OperationHistory.Outcome.CACHE_HIT, 0);
 
                 if (enableDetailedLogging) {
                     logger.logContentOperation("Found content by ID: " + contentId);
@@ -210,7 +400,8 @@ public class ConcurrentContentRepository {
                 }
             } else {
                 cacheMisses.incrementAndGet();
-                recordOperation("READ", contentId, "CACHE_MISS");
+                recordOperation(OperationHistory.Operation.READ, OperationHistory.TargetKind.CONTENT, contentId,
+                        OperationHistory.Outcome.CACHE_MISS, 0);
                 return Optional.empty();
             }
 
@@ -219,6 +410,40 @@ public class ConcurrentContentRepository {
         }
     }
 
+    /**
+     * Returns the current published snapshot of a content item without taking
+     * the repository lock or copying the content.
+     *
+     * <p>
+     * The returned content instance is shared with other readers and must be
+     * treated as read-only; clone it before making changes and save the clone.
+     * </p>
+     *
+     * @param contentId The unique identifier of the content
+     * @return Optional containing the current snapshot if found, empty otherwise
+     */
+    public Optional<ContentSnapshot> findSnapshotById(String contentId) {
+        if (contentId == null || contentId.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        ContentSnapshot snapshot = contentStorage.get(contentId);
+        totalReads.incrementAndGet();
+        snapshotReads.incrementAndGet();
+
+        if (snapshot != null) {
+            cacheHits.incrementAndGet();
+            recordOperation(OperationHistory.Operation.READ, OperationHistory.TargetKind.CONTENT, contentId,
+                    OperationHistory.Outcome.SNAPSHOT_HIT, 0);
+            return Optional.of(snapshot);
+        }
+
+        cacheMisses.incrementAndGet();
+        recordOperation(OperationHistory.Operation.READ, OperationHistory.TargetKind.CONTENT, contentId,
+                OperationHistory.Outcome.SNAPSHOT_MISS, 0);
+        return Optional.empty();
+    }
+
     /**
      * Finds all content with the specified status using concurrent index lookup.
      * Leverages concurrent collections and parallel streams for optimal
@@ -232,36 +457,16 @@ public class ConcurrentContentRepository {
             return new ArrayList<>();
         }
 
-        repositoryLock.readLock().lock();
-        try {
-            Set<String> contentIds = statusIndex.get(status);
-            if (contentIds == null) {
-                return new ArrayList<>();
-            }
-
-            List<Content> results = contentIds.parallelStream()
-                    .map(contentStorage::get)
-                    .filter(Objects::nonNull)
-                    .map(content -> {
-                        try {
-                            return content.clone();
-                        } catch (CloneNotSupportedException e) {
-                            logger.logError("Failed to clone content: " + content.getId(), e);
-                            return content;
-                        }
-                    }) // Defensive copies
-                    .collect(Collectors.toList());
-
-            totalSearches.incrementAndGet();
-            recordOperation("SEARCH", "status:" + status, "FOUND_" + results.size());
+        List<Content> results = findIndexed(statusIndex.get(status),
+                content -> content.getStatus() == status);
 
-            logger.logContentOperation("Found " + results.size() + " content items with status: " + status);
+        totalSearches.incrementAndGet();
+        recordOperation(OperationHistory.Operation.SEARCH, OperationHistory.TargetKind.STATUS, status,
+                OperationHistory.Outcome.FOUND, results.size());
 
-            return results;
+        logger.logContentOperation("Found " + results.size() + " content items with status: " + status);
 
-        } finally {
-            repositoryLock.readLock().unlock();
-        }
+        return results;
     }
 
     /**
@@ -276,36 +481,65 @@ public class ConcurrentContentRepository {
             return new ArrayList<>();
         }
 
-        repositoryLock.readLock().lock();
-        try {
-            Set<String> contentIds = authorIndex.get(author);
-            if (contentIds == null) {
-                return new ArrayList<>();
-            }
+        List<Content> results = findIndexed(authorIndex.get(author),
+                content -> author.equals(content.getCreatedBy()));
 
-            List<Content> results = contentIds.parallelStream()
-                    .map(contentStorage::get)
-                    .filter(Objects::nonNull)
-                    .map(content -> {
-                        try {
-                            return content.clone();
-                        } catch (CloneNotSupportedException e) {
-                            logger.logError("Failed to clone content: " + content.getId(), e);
-                            return content;
-                        }
-                    }) // Defensive copies
-                    .collect(Collectors.toList());
+        totalSearches.incrementAndGet();
+        recordOperation(OperationHistory.Operation.SEARCH, OperationHistory.TargetKind.AUTHOR, author,
+                OperationHistory.Outcome.FOUND, results.size());
 
-            totalSearches.incrementAndGet();
-            recordOperation("SEARCH", "author:" + author, "FOUND_" + results.size());
+        logger.logContentOperation("Found " + results.size() + " content items by author: " + author);
 
-            logger.logContentOperation("Found " + results.size() + " content items by author: " + author);
+        return results;
+    }
 
-            return results;
+    /**
+     * Finds content matching all given criteria by intersecting the status,
+     * author and creation-date index postings. Any criterion may be null to
+     * leave it unconstrained.
+     *
+     * @param status      The required status, or null
+     * @param author      The required author, or null
+     * @param createdFrom Earliest creation time (inclusive), or null
+     * @param createdTo   Latest creation time (inclusive), or null
+     * @return List of content items matching every given criterion
+     */
+    public List<Content> findByCriteria(ContentStatus status, String author,
+            LocalDateTime createdFrom, LocalDateTime createdTo) {
+        Predicate<Content> matches = content -> (status == null || content.getStatus() == status)
+                && (author == null || author.equals(content.getCreatedBy()))
+                && (createdFrom == null || !content.getCreatedDate().isBefore(createdFrom))
+                && (createdTo == null || !content.getCreatedDate().isAfter(createdTo));
+
+        if (status == null && author == null && createdFrom == null && createdTo == null) {
+            return search(matches);
+        }
 
-        } finally {
-            repositoryLock.readLock().unlock();
+        CompressedBitmap candidates = null;
+        if (status != null) {
+            candidates = statusIndex.get(status);
+        }
+        if (author != null) {
+            CompressedBitmap byAuthor = authorIndex.get(author);
+            candidates = candidates == null ? byAuthor : candidates.and(byAuthor);
         }
+        if (createdFrom != null || createdTo != null) {
+            // Day buckets narrow the candidates; exact bounds are applied by the re-check
+            CompressedBitmap byDate = createdDateIndex.range(
+                    createdFrom != null ? createdFrom.toLocalDate() : null,
+                    createdTo != null ? createdTo.toLocalDate() : null);
+            candidates = candidates == null ? byDate : candidates.and(byDate);
+        }
+
+        List<Content> results = findIndexed(candidates, matches);
+
+        totalSearches.incrementAndGet();
+        recordOperation(OperationHistory.Operation.SEARCH, OperationHistory.TargetKind.CRITERIA, null,
+                OperationHistory.Outcome.FOUND, results.size());
+
+        logger.logContentOperation("Criteria search found " + results.size() + " content items");
+
+        return results;
     }
 
     /**
@@ -320,32 +554,153 @@ public class ConcurrentContentRepository {
             return new ArrayList<>();
         }
 
-        repositoryLock.readLock().lock();
-        try {
-            List<Content> results = contentStorage.values().parallelStream()
+        List<Content> results;
+        if (readMode == ReadMode.SNAPSHOT) {
+            snapshotReads.incrementAndGet();
+            results = contentStorage.values().parallelStream()
+                    .map(ContentSnapshot::getContent)
                     .filter(predicate)
-                    .map(content -> {
-                        try {
-                            return content.clone();
-                        } catch (CloneNotSupportedException e) {
-                            logger.logError("Failed to clone content: " + content.getId(), e);
-                            return content;
-                        }
-                    }) // Defensive copies
                     .collect(Collectors.toList());
+        } else {
+            repositoryLock.readLock().lock();
+            try {
+                results = contentStorage.values().parallelStream()
+                        .map(ContentSnapshot::getContent)
+                        .filter(predicate)
+                        .map(this::defensiveCopy)
+                        .collect(Collectors.toList());
+            } finally {
+                repositoryLock.readLock().unlock();
+            }
+        }
+
+        totalSearches.incrementAndGet();
+        recordOperation(OperationHistory.Operation.SEARCH, OperationHistory.TargetKind.PREDICATE, null,
+                OperationHistory.Outcome.FOUND, results.size());
+
+        logger.logContentOperation("Predicate search found " + results.size() + " content items");
+
+        return results;
+    }
+
+    /**
+     * Returns a page of content in creation order using keyset pagination.
+     *
+     * <p>
+     * The page resumes strictly after the key encoded in the continuation
+     * token, so its cost is independent of how deep it is and items saved or
+     * deleted between calls never shift the remaining ones. In
+     * {@link ReadMode#SNAPSHOT} the page is served without locking.
+     * </p>
+     *
+     * @param continuationToken Token from the previous page, or null for the
+     *                          first page
+     * @param size              The maximum number of items
+     * @return The page, whose token is null when no items follow
+     * @throws IllegalArgumentException if size is not positive or the token is
+     *                                  invalid
+     */
+    public Page<Content> findPage(String continuationToken, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0");
+        }
+        NavigableSet<ContentPageKey> remaining = continuationToken == null
+                ? pageKeys
+                : pageKeys.tailSet(ContentPageKey.fromToken(continuationToken), false);
+
+        Page<Content> page;
+        if (readMode == ReadMode.SNAPSHOT) {
+            snapshotReads.incrementAndGet();
+            page = Page.collect(remaining.iterator(), size, this::pageItem, ContentPageKey::toToken);
+        } else {
+            repositoryLock.readLock().lock();
+            try {
+                page = Page.collect(remaining.iterator(), size,
+                        key -> {
+                            Content content = pageItem(key);
+                            return content != null ? defensiveCopy(content) : null;
+                        },
+                        ContentPageKey::toToken);
+            } finally {
+                repositoryLock.readLock().unlock();
+            }
+        }
+
+        totalSearches.incrementAndGet();
+        recordOperation(OperationHistory.Operation.SEARCH, OperationHistory.TargetKind.PAGE, null,
+                OperationHistory.Outcome.FOUND, page.size());
+        return page;
+    }
 
-            totalSearches.incrementAndGet();
-            recordOperation("SEARCH", "predicate", "FOUND_" + results.size());
+    /**
+     * Resolves a page key to the current content, skipping keys a concurrent
+     * writer has already replaced.
+     */
+    private Content pageItem(ContentPageKey key) {
+        ContentSnapshot snapshot = contentStorage.get(key.getContentId());
+        if (snapshot == null || !key.equals(ContentPageKey.of(snapshot.getContent()))) {
+            return null;
+        }
+        return snapshot.getContent();
+    }
 
-            logger.logContentOperation("Predicate search found " + results.size() + " content items");
+    /**
+     * Resolves index postings to content according to the current read mode.
+     *
+     * <p>
+     * In {@link ReadMode#SNAPSHOT}, or when striped writers run alongside
+     * readers, a concurrent writer may have moved an item between index sets;
+     * the {@code stillMatches} check drops such entries instead of returning
+     * stale hits.
+     * </p>
+     */
+    private List<Content> findIndexed(CompressedBitmap postings, Predicate<Content> stillMatches) {
+        if (postings.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int[] ordinals = postings.toArray();
 
-            return results;
+        if (readMode == ReadMode.SNAPSHOT) {
+            snapshotReads.incrementAndGet();
+            return Arrays.stream(ordinals).parallel()
+                    .mapToObj(idInterner::resolve)
+                    .filter(Objects::nonNull)
+                    .map(contentStorage::get)
+                    .filter(Objects::nonNull)
+                    .map(ContentSnapshot::getContent)
+                    .filter(stillMatches)
+                    .collect(Collectors.toList());
+        }
 
+        repositoryLock.readLock().lock();
+        try {
+            return Arrays.stream(ordinals).parallel()
+                    .mapToObj(idInterner::resolve)
+                    .filter(Objects::nonNull)
+                    .map(contentStorage::get)
+                    .filter(Objects::nonNull)
+                    .map(ContentSnapshot::getContent)
+                    .filter(stillMatches)
+                    .map(this::defensiveCopy)
+                    .collect(Collectors.toList());
         } finally {
             repositoryLock.readLock().unlock();
         }
     }
 
+    /**
+     * Clones content for callers in {@link ReadMode#LOCKED_CLONE}, falling back to
+     * the stored instance if cloning fails.
+     */
+    private Content defensiveCopy(Content content) {
+        try {
+            return content.clone();
+        } catch (CloneNotSupportedException e) {
+            logger.logError("Failed to clone content: " + content.getId(), e);
+            return content;
+        }
+    }
+
     /**
      * Deletes content by ID using atomic operations with index cleanup.
      * Ensures strong consistency and proper resource cleanup in concurrent
@@ -360,23 +715,26 @@ public class ConcurrentContentRepository {
             return false;
         }
 
-        repositoryLock.writeLock().lock();
+        lockForWrite(contentId);
         try {
-            Content content = contentStorage.get(contentId);
-            if (content == null) {
+            ContentSnapshot snapshot = contentStorage.get(contentId);
+            if (snapshot == null) {
                 return false;
             }
+            Content content = snapshot.getContent();
 
             // Remove from storage and all indexes atomically
             contentStorage.remove(contentId);
-            removeFromIndexes(content);
+            removeFromIndexes(content, idInterner.ordinalOf(contentId));
+            idInterner.release(contentId);
             contentTimestamps.remove(contentId);
 
             // Update statistics
             totalDeletes.incrementAndGet();
 
             // Record operation
-            recordOperation("DELETE", contentId, "SUCCESS");
+            recordOperation(OperationHistory.Operation.DELETE, OperationHistory.TargetKind.CONTENT, contentId,
+                    OperationHistory.Outcome.SUCCESS, 0);
 
             logger.logContentOperation("Deleted content: " + content.getTitle() + " (ID: " + contentId + ")");
 
@@ -386,14 +744,29 @@ public class ConcurrentContentRepository {
             logger.logError("Failed to delete content: " + contentId, e);
             throw new ContentManagementException("Delete operation failed", "Unable to delete content", e);
         } finally {
-            repositoryLock.writeLock().unlock();
+            unlockForWrite(contentId);
         }
     }
 
     /**
      * Performs bulk save operations with optimized batch processing for high
      * throughput.
-     * Uses concurrent processing while maintaining consistency guarantees.
+     *
+     * <p>
+     * Items are cloned outside any lock and then published in chunks of
+     * {@value #BULK_CHUNK_SIZE}, taking the repository write lock once per
+     * chunk in both write modes. For new items, index postings are collected
+     * per key and merged into each index with a single union per key and chunk
+     * instead of one posting copy per item. Items that already exist take the
+     * regular per-item index maintenance. The whole batch is recorded as one
+     * history entry and one summary log line.
+     * </p>
+     *
+     * <p>
+     * For cold loads, construct the repository with
+     * {@link #ConcurrentContentRepository(ReadMode, WriteMode, int, int)} so the
+     * storage maps are presized.
+     * </p>
      *
      * @param contentList List of content items to save
      * @return List of successfully saved content items
@@ -404,29 +777,79 @@ public class ConcurrentContentRepository {
             return new ArrayList<>();
         }
 
-        repositoryLock.writeLock().lock();
+        long startNanos = System.nanoTime();
+        idInterner.ensureCapacity(idInterner.size() + contentList.size());
+        List<Content> savedContent = new ArrayList<>(contentList.size());
+        int created = 0;
+
         try {
-            List<Content> savedContent = new ArrayList<>();
+            for (int from = 0; from < contentList.size(); from += BULK_CHUNK_SIZE) {
+                List<Content> chunk = contentList.subList(from, Math.min(from + BULK_CHUNK_SIZE, contentList.size()));
+                List<Content> copies = new ArrayList<>(chunk.size());
+                for (Content content : chunk) {
+                    if (content != null) {
+                        copies.add(content.clone());
+                    }
+                }
 
-            for (Content content : contentList) {
-                if (content != null) {
-                    Content saved = save(content);
-                    savedContent.add(saved);
+                repositoryLock.writeLock().lock();
+                try {
+                    created += publishChunk(copies);
+                } finally {
+                    repositoryLock.writeLock().unlock();
                 }
+                savedContent.addAll(copies);
             }
+        } catch (Exception e) {
+            logger.logError("Bulk save operation failed after " + savedContent.size() + " items", e);
+            throw new ContentManagementException("Bulk save operation failed", "Unable to save content", e);
+        } finally {
+            totalWrites.addAndGet(savedContent.size());
+            bulkLoadedItems.addAndGet(savedContent.size());
+        }
 
-            recordOperation("BULK_SAVE", "batch", "COUNT_" + savedContent.size());
+        recordOperation(OperationHistory.Operation.BULK_SAVE, OperationHistory.TargetKind.BATCH, null,
+                OperationHistory.Outcome.COUNT, savedContent.size());
 
-            logger.logContentOperation("Bulk saved " + savedContent.size() + " content items");
+        logger.logContentOperation("Bulk saved " + savedContent.size() + " content items (" + created
+                + " created, " + (savedContent.size() - created) + " updated) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
 
-            return savedContent;
+        return savedContent;
+    }
 
-        } catch (Exception e) {
-            logger.logError("Bulk save operation failed", e);
-            throw new ContentManagementException("Bulk save operation failed", "Unable to save content", e);
-        } finally {
-            repositoryLock.writeLock().unlock();
+    /**
+     * Publishes one chunk of cloned content. Must be called with the write lock
+     * held.
+     *
+     * @return The number of newly created items
+     */
+    private int publishChunk(List<Content> copies) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkPostings postings = new BulkPostings();
+        int created = 0;
+
+        for (Content content : copies) {
+            String contentId = content.getId();
+            ContentSnapshot previous = contentStorage.get(contentId);
+            int ordinal = idInterner.intern(contentId);
+            contentTimestamps.put(contentId, new AtomicReference<>(now));
+
+            if (previous == null) {
+                contentStorage.put(contentId, new ContentSnapshot(content, 1L, now));
+                postings.add(content, ordinal);
+                created++;
+            } else {
+                // Pending postings may include an earlier copy of this ID
+                postings.flush();
+                contentStorage.put(contentId, new ContentSnapshot(content, previous.getVersion() + 1, now));
+                addToIndexes(content, ordinal);
+                removeStaleIndexEntries(previous.getContent(), content, ordinal);
+            }
         }
+
+        postings.flush();
+        return created;
     }
 
     /**
@@ -452,33 +875,57 @@ public class ConcurrentContentRepository {
         stats.put("cacheHits", cacheHits.get());
         stats.put("cacheMisses", cacheMisses.get());
         stats.put("cacheHitRatio", totalCacheOperations > 0 ? (double) cacheHits.get() / totalCacheOperations : 0.0);
+        stats.put("snapshotReads", snapshotReads.get());
+        stats.put("bulkLoadedItems", bulkLoadedItems.get());
+        stats.put("conditionalSaves", conditionalSaves.get());
+        stats.put("versionConflicts", versionConflicts.get());
 
         // Index statistics
         Map<String, Integer> indexSizes = new ConcurrentHashMap<>();
-        indexSizes.put("titleIndex", titleIndex.size());
-        indexSizes.put("statusIndex", statusIndex.size());
-        indexSizes.put("authorIndex", authorIndex.size());
+        indexSizes.put("titleIndex", titleIndex.keyCount());
+        indexSizes.put("statusIndex", statusIndex.keyCount());
+        indexSizes.put("authorIndex", authorIndex.keyCount());
+        indexSizes.put("createdDateIndex", createdDateIndex.keyCount());
         stats.put("indexSizes", indexSizes);
+        stats.put("indexPostingBytes", titleIndex.sizeInBytes() + statusIndex.sizeInBytes()
+                + authorIndex.sizeInBytes() + createdDateIndex.sizeInBytes());
+        stats.put("internedContentIds", idInterner.size());
 
         // Configuration
         stats.put("maxConcurrentOperations", maxConcurrentOperations);
         stats.put("enableDetailedLogging", enableDetailedLogging);
+        stats.put("readMode", readMode.name());
+        stats.put("writeMode", writeMode.name());
+
+        // Per-stripe lock usage; contention counts acquisitions that had to wait
+        List<Map<String, Long>> stripeStats = new ArrayList<>(writeStripes.length);
+        long totalContention = 0;
+        for (int i = 0; i < writeStripes.length; i++) {
+            Map<String, Long> stripe = new HashMap<>();
+            stripe.put("acquisitions", stripeAcquisitions.get(i));
+            stripe.put("contended", stripeContention.get(i));
+            stripeStats.add(stripe);
+            totalContention += stripeContention.get(i);
+        }
+        stats.put("writeStripes", stripeStats);
+        stats.put("writeStripeContention", totalContention);
         stats.put("operationHistorySize", operationHistory.size());
+        stats.put("operationHistoryCapacity", operationHistory.capacity());
+        stats.put("operationHistorySampleRate", operationHistory.getSampleRate());
 
         return stats;
     }
 
     /**
      * Gets recent operation history for audit and monitoring purposes.
-     * Returns thread-safe copy of recent operations for analysis.
+     * Merges the per-thread history stripes into a list ordered oldest first;
+     * records are only materialized here, never on the recording path.
      *
      * @param limit Maximum number of recent operations to return
      * @return List of recent operation records
      */
     public List<OperationRecord> getRecentOperations(int limit) {
-        return operationHistory.stream()
-                .skip(Math.max(0, operationHistory.size() - limit))
-                .collect(Collectors.toList());
+        return operationHistory.recent(limit);
     }
 
     /**
@@ -501,8 +948,13 @@ public class ConcurrentContentRepository {
             totalSearches.set(0);
             cacheHits.set(0);
             cacheMisses.set(0);
+            snapshotReads.set(0);
+            bulkLoadedItems.set(0);
+            conditionalSaves.set(0);
+            versionConflicts.set(0);
 
-            recordOperation("CLEAR", "repository", "SUCCESS");
+            recordOperation(OperationHistory.Operation.CLEAR, OperationHistory.TargetKind.REPOSITORY, null,
+                    OperationHistory.Outcome.SUCCESS, 0);
 
             logger.logSystemOperation("Repository cleared - all content and indexes reset");
 
@@ -514,64 +966,84 @@ public class ConcurrentContentRepository {
     // Private helper methods for index management and operations
 
     /**
-     * Initializes all concurrent indexes for optimal lookup performance.
+     * Adds content to all relevant indexes for fast lookups.
      */
-    private void initializeIndexes() {
-        // Initialize status index with all possible statuses
-        for (ContentStatus status : ContentStatus.values()) {
-            statusIndex.put(status, ConcurrentHashMap.newKeySet());
+    private void addToIndexes(Content content, int ordinal) {
+        // Title index (for exact title lookups)
+        titleIndex.add(content.getTitle().toLowerCase(), ordinal);
+
+        // Status index
+        statusIndex.add(content.getStatus(), ordinal);
+
+        // Author index
+        String author = content.getCreatedBy();
+        if (author != null) {
+            authorIndex.add(author, ordinal);
+        }
+
+        // Creation date index (day buckets for range queries)
+        if (content.getCreatedDate() != null) {
+            createdDateIndex.add(content.getCreatedDate().toLocalDate(), ordinal);
         }
+
+        // Keyset pagination order
+        pageKeys.add(ContentPageKey.of(content));
     }
 
     /**
-     * Adds content to all relevant indexes for fast lookups.
+     * Removes content from all indexes during deletes.
      */
-    private void addToIndexes(Content content) {
-        String contentId = content.getId();
+    private void removeFromIndexes(Content content, int ordinal) {
+        if (ordinal < 0) {
+            return;
+        }
 
-        // Title index (for partial title searches)
-        String titleKey = content.getTitle().toLowerCase();
-        titleIndex.computeIfAbsent(titleKey, k -> ConcurrentHashMap.newKeySet()).add(contentId);
+        titleIndex.remove(content.getTitle().toLowerCase(), ordinal);
+        statusIndex.remove(content.getStatus(), ordinal);
 
-        // Status index
-        statusIndex.get(content.getStatus()).add(contentId);
-
-        // Author index
         String author = content.getCreatedBy();
         if (author != null) {
-            authorIndex.computeIfAbsent(author, k -> ConcurrentHashMap.newKeySet()).add(contentId);
+            authorIndex.remove(author, ordinal);
+        }
+
+        if (content.getCreatedDate() != null) {
+            createdDateIndex.remove(content.getCreatedDate().toLocalDate(), ordinal);
         }
+
+        pageKeys.remove(ContentPageKey.of(content));
     }
 
     /**
-     * Removes content from all indexes during updates or deletes.
+     * Removes index entries of the previous version that the new version no
+     * longer occupies. Entries shared by both versions are left in place so
+     * lock-free readers never observe the content missing from an index it
+     * still belongs to.
      */
-    private void removeFromIndexes(Content content) {
-        String contentId = content.getId();
+    private void removeStaleIndexEntries(Content previous, Content current, int ordinal) {
+        String oldTitleKey = previous.getTitle().toLowerCase();
+        if (!oldTitleKey.equals(current.getTitle().toLowerCase())) {
+            titleIndex.remove(oldTitleKey, ordinal);
+        }
 
-        // Remove from title index
-        String titleKey = content.getTitle().toLowerCase();
-        Set<String> titleSet = titleIndex.get(titleKey);
-        if (titleSet != null) {
-            titleSet.remove(contentId);
-            if (titleSet.isEmpty()) {
-                titleIndex.remove(titleKey);
-            }
+        if (previous.getStatus() != current.getStatus()) {
+            statusIndex.remove(previous.getStatus(), ordinal);
         }
 
-        // Remove from status index
-        statusIndex.get(content.getStatus()).remove(contentId);
+        String oldAuthor = previous.getCreatedBy();
+        if (oldAuthor != null && !oldAuthor.equals(current.getCreatedBy())) {
+            authorIndex.remove(oldAuthor, ordinal);
+        }
 
-        // Remove from author index
-        String author = content.getCreatedBy();
-        if (author != null) {
-            Set<String> authorSet = authorIndex.get(author);
-            if (authorSet != null) {
-                authorSet.remove(contentId);
-                if (authorSet.isEmpty()) {
-                    authorIndex.remove(author);
-                }
-            }
+        LocalDateTime oldCreated = previous.getCreatedDate();
+        LocalDateTime newCreated = current.getCreatedDate();
+        if (oldCreated != null && (newCreated == null
+                || !oldCreated.toLocalDate().equals(newCreated.toLocalDate()))) {
+            createdDateIndex.remove(oldCreated.toLocalDate(), ordinal);
+        }
+
+        ContentPageKey oldKey = ContentPageKey.of(previous);
+        if (!oldKey.equals(ContentPageKey.of(current))) {
+            pageKeys.remove(oldKey);
         }
     }
 
@@ -582,24 +1054,76 @@ public class ConcurrentContentRepository {
         titleIndex.clear();
         statusIndex.clear();
         authorIndex.clear();
+        createdDateIndex.clear();
+        pageKeys.clear();
+        idInterner.clear();
+    }
 
-        // Reinitialize status index
-        for (ContentStatus status : ContentStatus.values()) {
-            statusIndex.put(status, ConcurrentHashMap.newKeySet());
+    /**
+     * Acquires the write lock protecting the given content ID. In
+     * {@link WriteMode#STRIPED} this is the repository read lock (to stay
+     * exclusive with {@link #clear()}) plus the ID's stripe; otherwise it is the
+     * global write lock.
+     */
+    private void lockForWrite(String contentId) {
+        if (writeMode == WriteMode.GLOBAL_LOCK) {
+            repositoryLock.writeLock().lock();
+            return;
         }
+
+        lockEntry(contentId);
     }
 
     /**
-     * Records an operation in the concurrent operation history for audit purposes.
+     * Acquires the repository read lock (to stay exclusive with
+     * {@link #clear()} and global-lock writers) plus the stripe of the content
+     * ID.
      */
-    private void recordOperation(String operation, String target, String result) {
-        OperationRecord record = new OperationRecord(operation, target, result, LocalDateTime.now());
-        operationHistory.offer(record);
+    private void lockEntry(String contentId) {
+        repositoryLock.readLock().lock();
+        int stripe = stripeFor(contentId);
+        ReentrantLock lock = writeStripes[stripe];
+        if (!lock.tryLock()) {
+            stripeContention.incrementAndGet(stripe);
+            lock.lock();
+        }
+        stripeAcquisitions.incrementAndGet(stripe);
+    }
 
-        // Maintain history size limit
-        while (operationHistory.size() > MAX_HISTORY_SIZE) {
-            operationHistory.poll();
+    /**
+     * Releases the locks taken by {@link #lockForWrite(String)}.
+     */
+    private void unlockForWrite(String contentId) {
+        if (writeMode == WriteMode.GLOBAL_LOCK) {
+            repositoryLock.writeLock().unlock();
+            return;
         }
+
+        unlockEntry(contentId);
+    }
+
+    /**
+     * Releases the locks taken by {@link #lockEntry(String)}.
+     */
+    private void unlockEntry(String contentId) {
+        writeStripes[stripeFor(contentId)].unlock();
+        repositoryLock.readLock().unlock();
+    }
+
+    /**
+     * Maps a content ID to its lock stripe, spreading the hash bits first.
+     */
+    private int stripeFor(String contentId) {
+        int h = contentId.hashCode();
+        return (h ^ (h >>> 16)) & (writeStripes.length - 1);
+    }
+
+    /**
+     * Records an operation in the concurrent operation history for audit purposes.
+     */
+    private void recordOperation(OperationHistory.Operation operation, OperationHistory.TargetKind targetKind,
+            Object target, OperationHistory.Outcome outcome, long value) {
+        operationHistory.record(operation, targetKind, target, outcome, value);
     }
 
     /**
@@ -613,6 +1137,157 @@ public class ConcurrentContentRepository {
         this.enableDetailedLogging = enableDetailedLogging;
     }
 
+    /**
+     * Sets how often read and search operations are recorded in the operation
+     * history: 1 records every read, n records one in n, 0 records none. Writes
+     * are always recorded.
+     */
+    public void setHistorySampleRate(int sampleRate) {
+        operationHistory.setSampleRate(sampleRate);
+    }
+
+    public void setReadMode(ReadMode readMode) {
+        this.readMode = Objects.requireNonNull(readMode, "Read mode cannot be null");
+    }
+
+    public ReadMode getReadMode() {
+        return readMode;
+    }
+
+    public WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    /**
+     * Strategies for serializing write operations.
+     */
+    public enum WriteMode {
+        /**
+         * Every save and delete takes the single repository write lock.
+         */
+        GLOBAL_LOCK,
+
+        /**
+         * Saves and deletes lock only the stripe owning the content ID, so
+         * writers of unrelated content run in parallel.
+         */
+        STRIPED
+    }
+
+    /**
+     * Strategies for serving read operations.
+     */
+    public enum ReadMode {
+        /**
+         * Reads take the repository read lock and return defensive clones, so
+         * callers may freely mutate the returned content.
+         */
+        LOCKED_CLONE,
+
+        /**
+         * Reads are lock-free and return the shared published snapshot without
+         * cloning. Returned content must be treated as read-only.
+         */
+        SNAPSHOT
+    }
+
+    /**
+     * Index postings of newly loaded items, grouped by key so each index key is
+     * updated with one bitmap union per chunk.
+     */
+    private final class BulkPostings {
+        private final Map<String, OrdinalList> titles = new HashMap<>();
+        private final Map<ContentStatus, OrdinalList> statuses = new HashMap<>();
+        private final Map<String, OrdinalList> authors = new HashMap<>();
+        private final Map<LocalDate, OrdinalList> createdDates = new HashMap<>();
+        private final List<ContentPageKey> keys = new ArrayList<>();
+
+        void add(Content content, int ordinal) {
+            titles.computeIfAbsent(content.getTitle().toLowerCase(), key -> new OrdinalList()).add(ordinal);
+            statuses.computeIfAbsent(content.getStatus(), key -> new OrdinalList()).add(ordinal);
+            if (content.getCreatedBy() != null) {
+                authors.computeIfAbsent(content.getCreatedBy(), key -> new OrdinalList()).add(ordinal);
+            }
+            if (content.getCreatedDate() != null) {
+                createdDates.computeIfAbsent(content.getCreatedDate().toLocalDate(), key -> new OrdinalList())
+                        .add(ordinal);
+            }
+            keys.add(ContentPageKey.of(content));
+        }
+
+        void flush() {
+            merge(titles, titleIndex);
+            merge(statuses, statusIndex);
+            merge(authors, authorIndex);
+            merge(createdDates, createdDateIndex);
+            pageKeys.addAll(keys);
+            keys.clear();
+        }
+
+        private <K> void merge(Map<K, OrdinalList> pending, BitmapIndex<K> index) {
+            for (Map.Entry<K, OrdinalList> entry : pending.entrySet()) {
+                index.addAll(entry.getKey(), entry.getValue().toBitmap());
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * Growable primitive ordinal list, avoiding boxing while collecting bulk
+     * postings.
+     */
+    private static final class OrdinalList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = ordinal;
+        }
+
+        CompressedBitmap toBitmap() {
+            Arrays.sort(values, 0, size);
+            return CompressedBitmap.fromSorted(values, size);
+        }
+    }
+
+    /**
+     * Immutable, versioned view of a content item as published by a writer.
+     * A save never modifies an existing snapshot; it replaces it with a new one
+     * carrying the next version number.
+     */
+    public static final class ContentSnapshot {
+        private final Content content;
+        private final long version;
+        private final LocalDateTime publishedAt;
+
+        ContentSnapshot(Content content, long version, LocalDateTime publishedAt) {
+            this.content = content;
+            this.version = version;
+            this.publishedAt = publishedAt;
+        }
+
+        public Content getContent() {
+            return content;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public LocalDateTime getPublishedAt() {
+            return publishedAt;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ContentSnapshot{id='%s', version=%d, publishedAt=%s}",
+                    content.getId(), version, publishedAt);
+        }
+    }
+
     /**
      * Immutable record representing a repository operation for audit purposes.
      */
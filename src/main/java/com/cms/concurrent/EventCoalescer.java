@@ -0,0 +1,233 @@
+package com.cms.concurrent;
+
+import com.cms.patterns.observer.ContentEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalescing stage in front of {@link EventProcessingService} dispatch that
+ * merges bursts of update events for the same content.
+ *
+ * <p>
+ * The first {@code UPDATED} or {@code METADATA_UPDATED} event for a content
+ * ID opens a window; further update events for that ID arriving within the
+ * window are folded into it. When the window closes, a single merged event is
+ * dispatched:
+ * </p>
+ * <ul>
+ * <li>content, user, timestamp and context come from the newest event</li>
+ * <li>{@code changedFields} is the union over all merged events</li>
+ * <li>{@code previousValues} keeps the oldest value of each field, i.e. the
+ * state before the burst</li>
+ * <li>the type is {@code UPDATED} if any merged event was, otherwise
+ * {@code METADATA_UPDATED}</li>
+ * <li>the priority is the highest of the merged events</li>
+ * </ul>
+ *
+ * <p>
+ * Windows are fixed from the first event rather than sliding, so continuous
+ * autosaving still produces one event per window instead of none. Any other
+ * event for the same content flushes its pending update first, so observers
+ * never see a delete or publish overtaken by an earlier edit.
+ * </p>
+ *
+ * <p>
+ * <strong>Ordering:</strong> A window is removed from the pending map
+ * atomically and dispatched outside the map while holding the lock stripe of
+ * its content ID, so the map is never locked during dispatch, yet a producer
+ * flushing the same content waits until the merged event has been handed
+ * downstream. Window timers run on the shared
+ * {@link ExecutorRegistry#EVENT_TIMERS} pool.
+ * </p>
+ *
+ * @see EventProcessingService#setCoalescingWindow(long)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class EventCoalescer {
+
+    /** Metadata key holding the number of events merged into a dispatched event */
+    static final String COALESCED_COUNT_KEY = "coalescedEvents";
+
+    /** Number of per-content ordering lock stripes, a power of two */
+    private static final int ORDERING_STRIPES = 64;
+
+    /** Merge state of one content ID's open window */
+    private static final class Pending {
+        ContentEvent latest;
+        boolean anyUpdated;
+        EventProcessingService.EventPriority priority;
+        int count;
+        final Set<String> changedFields = new LinkedHashSet<>();
+        final Map<String, Object> previousValues = new LinkedHashMap<>();
+        final Map<String, Object> metadata = new HashMap<>();
+        final Map<String, String> additionalContext = new HashMap<>();
+
+        void add(ContentEvent event, EventProcessingService.EventPriority eventPriority) {
+            latest = event;
+            anyUpdated |= event.getEventType() == ContentEvent.EventType.UPDATED;
+            if (priority == null || eventPriority.getValue() > priority.getValue()) {
+                priority = eventPriority;
+            }
+            count++;
+            changedFields.addAll(event.getChangedFields());
+            event.getPreviousValues().forEach(previousValues::putIfAbsent);
+            metadata.putAll(event.getMetadata());
+            additionalContext.putAll(event.getAdditionalContext());
+        }
+
+        ContentEvent toEvent() {
+            if (count == 1) {
+                return latest;
+            }
+            metadata.put(COALESCED_COUNT_KEY, count);
+            return ContentEvent.builder()
+                    .content(latest.getContent())
+                    .eventType(anyUpdated ? ContentEvent.EventType.UPDATED : ContentEvent.EventType.METADATA_UPDATED)
+                    .user(latest.getUser())
+                    .timestampNanos(latest.getTimestampNanos())
+                    .source(latest.getSource())
+                    .sessionId(latest.getSessionId())
+                    .reason(latest.getReason())
+                    .changedFields(changedFields)
+                    .previousValues(previousValues)
+                    .metadata(metadata)
+                    .additionalContext(additionalContext)
+                    .build();
+        }
+    }
+
+    private final long windowMillis;
+    private final BiConsumer<ContentEvent, EventProcessingService.EventPriority> downstream;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ReentrantLock[] orderingStripes = new ReentrantLock[ORDERING_STRIPES];
+    private volatile boolean closed;
+
+    private final AtomicLong absorbed = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param windowMillis How long update events for one content are collected
+     * @param downstream   Receives merged events and their priority
+     */
+    EventCoalescer(long windowMillis, BiConsumer<ContentEvent, EventProcessingService.EventPriority> downstream) {
+        this.windowMillis = windowMillis;
+        this.downstream = downstream;
+        this.timer = ExecutorRegistry.getInstance().scheduler(ExecutorRegistry.EVENT_TIMERS);
+        for (int i = 0; i < orderingStripes.length; i++) {
+            orderingStripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Takes an event into its content's window if it is an update event;
+     * otherwise flushes that content's pending update so the caller can
+     * dispatch the event after it.
+     *
+     * @param event    The produced event
+     * @param priority Its priority
+     * @return true if the event was absorbed and must not be dispatched now
+     */
+    boolean offer(ContentEvent event, EventProcessingService.EventPriority priority) {
+        if (closed || event.getContent() == null) {
+            return false;
+        }
+        String contentId = event.getContent().getId();
+        ContentEvent.EventType type = event.getEventType();
+        if (contentId == null) {
+            return false;
+        }
+        if (type != ContentEvent.EventType.UPDATED && type != ContentEvent.EventType.METADATA_UPDATED) {
+            flush(contentId);
+            return false;
+        }
+
+        boolean[] opened = new boolean[1];
+        pending.compute(contentId, (id, current) -> {
+            if (current == null) {
+                current = new Pending();
+                opened[0] = true;
+            }
+            current.add(event, priority);
+            return current;
+        });
+        absorbed.incrementAndGet();
+        if (opened[0]) {
+            timer.schedule(() -> flush(contentId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Dispatches the pending merged event for a content, if any. The window is
+     * removed atomically and dispatched under the content's ordering stripe,
+     * which orders it before any event whose producer is waiting to flush the
+     * same content.
+     */
+    void flush(String contentId) {
+        ReentrantLock ordering = orderingStripes[stripeFor(contentId)];
+        ordering.lock();
+        try {
+            Pending current = pending.remove(contentId);
+            if (current != null) {
+                downstream.accept(current.toEvent(), current.priority);
+                dispatched.incrementAndGet();
+            }
+        } finally {
+            ordering.unlock();
+        }
+    }
+
+    private static int stripeFor(String contentId) {
+        int h = contentId.hashCode();
+        return (h ^ (h >>> 16)) & (ORDERING_STRIPES - 1);
+    }
+
+    /**
+     * Dispatches every pending merged event.
+     */
+    void flushAll() {
+        for (String contentId : pending.keySet()) {
+            flush(contentId);
+        }
+    }
+
+    /**
+     * Stops absorbing events and flushes all pending ones. The shared timer
+     * pool keeps running; windows timing out later find nothing to flush.
+     */
+    void shutdown() {
+        closed = true;
+        flushAll();
+    }
+
+    /**
+     * Returns coalescing statistics.
+     *
+     * @return Map of statistic name to value
+     */
+    Map<String, Object> getStatistics() {
+        long in = absorbed.get();
+        long out = dispatched.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("windowMillis", windowMillis);
+        stats.put("updatesReceived", in);
+        stats.put("updatesDispatched", out);
+        stats.put("pendingContent", pending.size());
+        stats.put("reductionRatio", in == 0 ? 0.0 : 1.0 - (double) out / in);
+        return stats;
+    }
+}
@@ -0,0 +1,844 @@
+package com.cms.concurrent;
+
+import com.cms.core.model.Content;
+import com.cms.core.model.User;
+import com.cms.io.LogSegment;
+import com.cms.patterns.observer.ContentEvent;
+import com.cms.util.CMSLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent, append-only journal of the events dispatched by
+ * {@link EventProcessingService}, with a consumer offset per observer.
+ *
+ * <p>
+ * Events are appended to preallocated, memory-mapped {@link LogSegment}
+ * files before they enter a queue or ring lane. Records use the segment log's
+ * checksummed layout with an empty key; the type is EVENT, DEAD_LETTER or
+ * RESOLVED.
+ * </p>
+ *
+ * <p>
+ * <strong>Offsets:</strong> Observers are identified by
+ * {@link com.cms.patterns.observer.ContentObserver#getObserverName()}. An
+ * observer's committed offset is the highest sequence below which every
+ * event has been delivered to it, so it stays behind events that are still
+ * in a lane or a mailbox even when priority lanes deliver out of sequence
+ * order. Offsets only move forward and are written atomically to
+ * {@value #OFFSETS_FILE} at every checkpoint, after the consumer's
+ * {@link ConsumerCheckpoint} made the effects of those events durable.
+ * </p>
+ *
+ * <p>
+ * <strong>Replay:</strong> On startup every registered observer receives the
+ * events after its committed offset again, read sequentially from the mapped
+ * segments. Delivery is therefore at-least-once: events delivered after the
+ * last checkpoint before a crash are delivered twice.
+ * </p>
+ *
+ * <p>
+ * <strong>Dead letters:</strong> A dead-lettered event is recorded as a
+ * DEAD_LETTER marker referencing its sequence, and as RESOLVED once a retry
+ * delivered it or it was abandoned. Unresolved markers found on startup are
+ * retried again, reading the event from the journal.
+ * </p>
+ *
+ * <p>
+ * <strong>Durability:</strong> Appends are written into the page cache and
+ * survive a process crash. Segments are forced to the device at every
+ * checkpoint, or on every append when {@code syncOnAppend} is set. Whole
+ * segments below every offset and unresolved dead letter are deleted at
+ * checkpoints.
+ * </p>
+ *
+ * @see EventProcessingService#enableJournal(EventProcessingService.JournalOptions)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class EventJournal {
+
+    private static final CMSLogger logger = CMSLogger.getInstance();
+
+    static final byte TYPE_EVENT = 1;
+    static final byte TYPE_DEAD_LETTER = 2;
+    static final byte TYPE_RESOLVED = 3;
+
+    /** Consumer name used for dead letters that failed before reaching any observer */
+    static final String ALL_CONSUMERS = "*";
+
+    static final String OFFSETS_FILE = "consumer-offsets.properties";
+    private static final String FILE_PREFIX = "journal-";
+
+    /** Receives the events of a replay */
+    interface ReplayVisitor {
+        void accept(long sequence, ContentEvent event, EventProcessingService.EventPriority priority);
+    }
+
+    /**
+     * Makes what a consumer derived from its delivered events durable before
+     * its offset advances past them.
+     */
+    interface ConsumerCheckpoint {
+        /** @return false to keep the consumer's committed offset unchanged */
+        boolean flush(String consumer);
+    }
+
+    /** An unresolved dead letter, as recorded in the journal */
+    static final class DeadLetter {
+        final long sequence;
+        final String consumer;
+        final int retryCount;
+        final String reason;
+
+        DeadLetter(long sequence, String consumer, int retryCount, String reason) {
+            this.sequence = sequence;
+            this.consumer = consumer;
+            this.retryCount = retryCount;
+            this.reason = reason;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncOnAppend;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Object appendLock = new Object();
+    private final ScheduledFuture<?> checkpointer;
+
+    /** Last sequence written; guarded by appendLock for writes */
+    private volatile long headSequence;
+
+    /** Sequences appended but not yet offered to the observer mailboxes */
+    private final ConcurrentSkipListSet<Long> undispatched = new ConcurrentSkipListSet<>();
+    private final Map<String, Long> sequenceByEventId = new ConcurrentHashMap<>();
+
+    /** Per registered consumer, sequences offered to its mailbox and not yet delivered */
+    private final Map<String, ConcurrentSkipListSet<Long>> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> committedOffsets = new ConcurrentHashMap<>();
+
+    /** Unresolved dead letters keyed by sequence and consumer */
+    private final Map<String, DeadLetter> deadLetters = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+    private volatile ConsumerCheckpoint consumerCheckpoint = consumer -> true;
+
+    // Metrics
+    private final AtomicLong appendedEvents = new AtomicLong();
+    private final AtomicLong appendedBytes = new AtomicLong();
+    private final AtomicLong replayedEvents = new AtomicLong();
+    private final AtomicLong deletedSegments = new AtomicLong();
+    private volatile long recoveredRecords;
+    private final AtomicLong replayNanos = new AtomicLong();
+
+    private EventJournal(Path directory, int segmentSize, boolean syncOnAppend, long checkpointIntervalMillis) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncOnAppend = syncOnAppend;
+        this.checkpointer = ExecutorRegistry.getInstance().scheduler(ExecutorRegistry.EVENT_TIMERS)
+                .scheduleWithFixedDelay(this::checkpointQuietly, checkpointIntervalMillis, checkpointIntervalMillis,
+                        TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the journal in a directory, recovering existing segments,
+     * consumer offsets and unresolved dead letters.
+     *
+     * @param directory                Directory holding the journal files
+     * @param segmentSize              Size of each preallocated segment file
+     * @param syncOnAppend             Whether every append is forced to the device
+     * @param checkpointIntervalMillis Interval between offset checkpoints
+     * @return The opened journal
+     * @throws IOException if the directory or a segment cannot be read
+     */
+    static EventJournal open(Path directory, int segmentSize, boolean syncOnAppend, long checkpointIntervalMillis)
+            throws IOException {
+        Files.createDirectories(directory);
+        EventJournal journal = new EventJournal(directory, segmentSize, syncOnAppend, checkpointIntervalMillis);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.checkpointer.cancel(false);
+            throw e;
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> LogSegment.parseId(path, FILE_PREFIX) >= 0)
+                    .sorted(Comparator.comparingLong(path -> LogSegment.parseId(path, FILE_PREFIX)))
+                    .collect(Collectors.toList());
+        }
+
+        long lastSequence = 0;
+        long records = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            Segment segment = Segment.open(file, LogSegment.parseId(file, FILE_PREFIX), i == files.size() - 1);
+            records += segment.recover(lastSequence + 1, this::applyMarker);
+            lastSequence = Math.max(lastSequence, segment.lastSequence());
+            segments.add(segment);
+        }
+        headSequence = lastSequence;
+        recoveredRecords = records;
+
+        Path offsetsFile = directory.resolve(OFFSETS_FILE);
+        if (Files.exists(offsetsFile)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(offsetsFile)) {
+                properties.load(in);
+            }
+            for (String name : properties.stringPropertyNames()) {
+                committedOffsets.put(name, Long.parseLong(properties.getProperty(name)));
+            }
+        }
+
+        if (!segments.isEmpty()) {
+            logger.logSystemOperation("Event journal recovered " + records + " records in " + segments.size() +
+                    " segments, head sequence " + lastSequence + ", " + deadLetters.size() + " pending dead letters");
+        }
+    }
+
+    // Appending
+
+    /**
+     * Appends an event and tracks it as not yet dispatched.
+     *
+     * @return The event's sequence number
+     * @throws IOException if the event cannot be encoded or written
+     */
+    long append(ContentEvent event, EventProcessingService.EventPriority priority) throws IOException {
+        byte[] payload = encodeEvent(event, priority);
+        long sequence = write(TYPE_EVENT, payload, true);
+        sequenceByEventId.put(event.getEventId(), sequence);
+        appendedEvents.incrementAndGet();
+        return sequence;
+    }
+
+    private long write(byte type, byte[] payload, boolean trackUndispatched) throws IOException {
+        int length = LogSegment.recordSize(LogSegment.NO_KEY, payload);
+        if (length > segmentSize) {
+            throw new IOException("Journal record of " + length + " bytes exceeds the segment size");
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IOException("Event journal is closed");
+            }
+            Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (active == null || !active.hasRoomFor(length)) {
+                if (active != null) {
+                    active.seal();
+                }
+                active = Segment.create(directory, active == null ? 1 : active.id() + 1, segmentSize,
+                        headSequence + 1);
+                segments.add(active);
+            }
+            long sequence = headSequence + 1;
+            active.append(type, sequence, payload);
+            if (trackUndispatched) {
+                undispatched.add(sequence);
+            }
+            headSequence = sequence;
+            if (syncOnAppend) {
+                active.force();
+            }
+            appendedBytes.addAndGet(length);
+            return sequence;
+        }
+    }
+
+    /**
+     * Returns the sequence of an appended event that has not been dispatched
+     * yet, or -1 if it was not journaled.
+     */
+    long sequenceOf(ContentEvent event) {
+        Long sequence = sequenceByEventId.get(event.getEventId());
+        return sequence != null ? sequence : -1;
+    }
+
+    /**
+     * Records that an event has been offered to every mailbox. Must be called
+     * after {@link #track(String, long)} for each of them.
+     */
+    void markDispatched(ContentEvent event, long sequence) {
+        sequenceByEventId.remove(event.getEventId(), sequence);
+        undispatched.remove(sequence);
+        resolve(sequence, ALL_CONSUMERS);
+    }
+
+    /**
+     * Tracks a dead-lettered event that is dispatched to all observers again.
+     */
+    void requeue(ContentEvent event, long sequence) {
+        undispatched.add(sequence);
+        sequenceByEventId.put(event.getEventId(), sequence);
+    }
+
+    // Consumers
+
+    /**
+     * Registers a consumer and returns the sequence after which it needs
+     * events replayed. A consumer without a committed offset starts at the
+     * current head and receives no replay.
+     */
+    long registerConsumer(String name) {
+        pending.computeIfAbsent(name, k -> new ConcurrentSkipListSet<>());
+        return committedOffsets.computeIfAbsent(name, k -> headSequence);
+    }
+
+    void unregisterConsumer(String name) {
+        pending.remove(name);
+    }
+
+    /**
+     * Tracks an event offered to a consumer's mailbox until it is
+     * acknowledged.
+     */
+    void track(String name, long sequence) {
+        ConcurrentSkipListSet<Long> inFlight = pending.get(name);
+        if (inFlight != null) {
+            inFlight.add(sequence);
+        }
+    }
+
+    /**
+     * Acknowledges that a consumer is done with an event, either because it
+     * was delivered or because the mailbox discarded it by policy. Resolves a
+     * dead letter being retried for that consumer.
+     */
+    void acknowledge(String name, long sequence) {
+        ConcurrentSkipListSet<Long> inFlight = pending.get(name);
+        if (inFlight != null) {
+            inFlight.remove(sequence);
+        }
+        resolve(sequence, name);
+    }
+
+    // Dead letters
+
+    /**
+     * Records that an event was dead-lettered, for one consumer or, with a null
+     * consumer, before reaching any. The dead letter queue takes over
+     * responsibility for the event from the consumer offsets.
+     *
+     * @param event The event, or null if it is only known by sequence
+     */
+    void recordDeadLetter(ContentEvent event, long sequence, String consumer, int retryCount, String reason) {
+        String name = consumer != null ? consumer : ALL_CONSUMERS;
+        DeadLetter deadLetter = new DeadLetter(sequence, name, retryCount, reason != null ? reason : "");
+        deadLetters.put(key(sequence, name), deadLetter);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(sequence);
+            out.writeUTF(name);
+            out.writeInt(retryCount);
+            out.writeUTF(truncate(deadLetter.reason));
+            write(TYPE_DEAD_LETTER, bytes.toByteArray(), false);
+        } catch (IOException e) {
+            logger.logError("Failed to journal dead letter for sequence " + sequence, e);
+        }
+
+        if (consumer == null) {
+            undispatched.remove(sequence);
+            if (event != null) {
+                sequenceByEventId.remove(event.getEventId(), sequence);
+            }
+        } else {
+            ConcurrentSkipListSet<Long> inFlight = pending.get(consumer);
+            if (inFlight != null) {
+                inFlight.remove(sequence);
+            }
+        }
+    }
+
+    /**
+     * Marks a dead letter as resolved, after successful redelivery or when it
+     * is abandoned.
+     */
+    void resolve(long sequence, String consumer) {
+        if (deadLetters.isEmpty() || deadLetters.remove(key(sequence, consumer)) == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(sequence);
+            out.writeUTF(consumer);
+            write(TYPE_RESOLVED, bytes.toByteArray(), false);
+        } catch (IOException e) {
+            logger.logError("Failed to journal dead letter resolution for sequence " + sequence, e);
+        }
+    }
+
+    /**
+     * Returns the dead letters that were unresolved when the journal was
+     * opened or since.
+     */
+    Collection<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters.values());
+    }
+
+    boolean isDeadLettered(long sequence, String consumer) {
+        return !deadLetters.isEmpty() && (deadLetters.containsKey(key(sequence, consumer))
+                || deadLetters.containsKey(key(sequence, ALL_CONSUMERS)));
+    }
+
+    private void applyMarker(byte type, byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            long sequence = in.readLong();
+            String consumer = in.readUTF();
+            if (type == TYPE_DEAD_LETTER) {
+                int retryCount = in.readInt();
+                String reason = in.readUTF();
+                deadLetters.put(key(sequence, consumer), new DeadLetter(sequence, consumer, retryCount, reason));
+            } else {
+                deadLetters.remove(key(sequence, consumer));
+            }
+        } catch (IOException e) {
+            logger.logError("Skipping unreadable dead letter marker", e);
+        }
+    }
+
+    private static String key(long sequence, String consumer) {
+        return sequence + "/" + consumer;
+    }
+
+    // Reading
+
+    /**
+     * Reads a journaled event by sequence.
+     *
+     * @return The event, or null if its segment has been deleted
+     * @throws IOException if the record is damaged or cannot be decoded
+     */
+    ContentEvent read(long sequence) throws IOException {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (sequence >= segment.firstSequence) {
+                byte[] payload = segment.payloadOf(sequence);
+                return payload != null ? decodeEvent(payload) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replays every event after a sequence, in sequence order, reading the
+     * mapped segments sequentially.
+     *
+     * @param afterSequence Events with a greater sequence are replayed
+     * @param visitor       Receives each event
+     * @return The number of events replayed
+     */
+    long replay(long afterSequence, ReplayVisitor visitor) {
+        long start = System.nanoTime();
+        long count = 0;
+        for (Segment segment : segments) {
+            if (segment.lastSequence() <= afterSequence) {
+                continue;
+            }
+            try {
+                count += segment.scan(afterSequence, (sequence, payload) -> {
+                    try {
+                        visitor.accept(sequence, decodeEvent(payload), priorityOf(payload));
+                        return true;
+                    } catch (IOException e) {
+                        logger.logError("Skipping undecodable journaled event " + sequence, e);
+                        return false;
+                    }
+                });
+            } catch (IOException e) {
+                logger.logError("Stopping replay at a damaged record in " + segment.log.getPath().getFileName(), e);
+                break;
+            }
+        }
+        replayedEvents.addAndGet(count);
+        replayNanos.addAndGet(System.nanoTime() - start);
+        return count;
+    }
+
+    // Checkpointing
+
+    /**
+     * Persists consumer offsets, forces written segments to the device and
+     * deletes segments no longer needed by any consumer or dead letter.
+     *
+     * @throws IOException if the offsets cannot be written
+     */
+    void checkpoint() throws IOException {
+        long head;
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            head = headSequence;
+        }
+        // Read the undispatched set before the per-consumer sets: events move
+        // from the former to the latter, never the other way
+        long firstUndispatched = firstOrMax(undispatched);
+        long floor = Math.min(head, firstUndispatched - 1);
+
+        // Offsets are computed first: the consumer has already processed every
+        // event below its offset, so its checkpoint covers them
+        for (Map.Entry<String, ConcurrentSkipListSet<Long>> entry : pending.entrySet()) {
+            long offset = Math.min(floor, firstOrMax(entry.getValue()) - 1);
+            Long committed = committedOffsets.get(entry.getKey());
+            if ((committed == null || offset > committed) && consumerCheckpoint.flush(entry.getKey())) {
+                committedOffsets.merge(entry.getKey(), offset, Math::max);
+            }
+        }
+
+        Properties properties = new Properties();
+        committedOffsets.forEach((name, offset) -> properties.setProperty(name, Long.toString(offset)));
+        Path temp = directory.resolve(OFFSETS_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Event journal consumer offsets");
+        }
+        Files.move(temp, directory.resolve(OFFSETS_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        for (Segment segment : segments) {
+            segment.force();
+        }
+        deleteObsoleteSegments(floor);
+    }
+
+    private void deleteObsoleteSegments(long floor) {
+        long retainFrom = floor;
+        for (String name : pending.keySet()) {
+            Long offset = committedOffsets.get(name);
+            if (offset != null) {
+                retainFrom = Math.min(retainFrom, offset);
+            }
+        }
+        for (DeadLetter deadLetter : deadLetters.values()) {
+            retainFrom = Math.min(retainFrom, deadLetter.sequence - 1);
+        }
+
+        // Always keep the active segment; sealed ones go once fully consumed
+        while (segments.size() > 1) {
+            Segment oldest = segments.get(0);
+            if (oldest.lastSequence() > retainFrom || !oldest.isSealed()) {
+                break;
+            }
+            segments.remove(0);
+            try {
+                oldest.delete();
+                deletedSegments.incrementAndGet();
+            } catch (IOException e) {
+                logger.logError("Failed to delete journal segment " + oldest.log.getPath().getFileName(), e);
+            }
+        }
+    }
+
+    /**
+     * Sets the hook run for each consumer before its offset is committed.
+     */
+    void setConsumerCheckpoint(ConsumerCheckpoint consumerCheckpoint) {
+        this.consumerCheckpoint = consumerCheckpoint;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            logger.logError("Event journal checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Checkpoints and releases the journal; later appends fail.
+     */
+    void close() {
+        checkpointer.cancel(false);
+        checkpointQuietly();
+        synchronized (appendLock) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Returns journal statistics, including the replay throughput of the last
+     * startup.
+     *
+     * @return Map of statistic name to value
+     */
+    Map<String, Object> getStatistics() {
+        long replayed = replayedEvents.get();
+        long nanos = replayNanos.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("directory", directory.toString());
+        stats.put("segments", segments.size());
+        stats.put("headSequence", headSequence);
+        stats.put("recoveredRecords", recoveredRecords);
+        stats.put("appendedEvents", appendedEvents.get());
+        stats.put("appendedBytes", appendedBytes.get());
+        stats.put("undispatched", undispatched.size());
+        stats.put("pendingDeadLetters", deadLetters.size());
+        stats.put("deletedSegments", deletedSegments.get());
+        stats.put("replayedEvents", replayed);
+        stats.put("replayMillis", TimeUnit.NANOSECONDS.toMillis(nanos));
+        stats.put("replayEventsPerSecond", nanos == 0 ? 0.0 : replayed * 1_000_000_000.0 / nanos);
+        Map<String, Long> lag = new HashMap<>();
+        committedOffsets.forEach((name, offset) -> lag.put(name, Math.max(0, headSequence - offset)));
+        stats.put("consumerOffsets", new HashMap<>(committedOffsets));
+        stats.put("consumerLag", lag);
+        return stats;
+    }
+
+    // Encoding
+
+    private static byte[] encodeEvent(ContentEvent event, EventProcessingService.EventPriority priority)
+            throws IOException {
+        try {
+            return encodeEvent(event, priority, true);
+        } catch (NotSerializableException e) {
+            // A metadata value holds something unserializable; keep the event without the maps
+            return encodeEvent(event, priority, false);
+        }
+    }
+
+    private static byte[] encodeEvent(ContentEvent event, EventProcessingService.EventPriority priority,
+            boolean withMaps) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        bytes.write(priority.ordinal());
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event.getEventId());
+            out.writeObject(event.getEventType().name());
+            out.writeObject(event.getTimestamp());
+            out.writeObject(event.getContent());
+            out.writeObject(event.getUser());
+            out.writeObject(event.getSource());
+            out.writeObject(event.getSessionId());
+            out.writeObject(event.getReason());
+            out.writeObject(event.getPublicationDate());
+            out.writeBoolean(event.isTemporaryDeletion());
+            out.writeObject(new ArrayList<>(event.getChangedFields()));
+            out.writeObject(withMaps ? serializableCopy(event.getMetadata()) : new LinkedHashMap<>());
+            out.writeObject(withMaps ? serializableCopy(event.getPreviousValues()) : new LinkedHashMap<>());
+            out.writeObject(new LinkedHashMap<>(event.getAdditionalContext()));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LinkedHashMap<String, Object> serializableCopy(Map<String, Object> values) {
+        LinkedHashMap<String, Object> copy = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (value == null || value instanceof Serializable) {
+                copy.put(key, value);
+            }
+        });
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ContentEvent decodeEvent(byte[] payload) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+            ContentEvent.Builder builder = ContentEvent.builder()
+                    .eventId((String) in.readObject())
+                    .eventType(ContentEvent.EventType.valueOf((String) in.readObject()))
+                    .timestamp((LocalDateTime) in.readObject())
+                    .content((Content) in.readObject())
+                    .user((User) in.readObject())
+                    .source((String) in.readObject())
+                    .sessionId((String) in.readObject())
+                    .reason((String) in.readObject())
+                    .publicationDate((LocalDateTime) in.readObject())
+                    .temporaryDeletion(in.readBoolean());
+            builder.changedFields(new LinkedHashSet<>((List<String>) in.readObject()));
+            builder.metadata((Map<String, Object>) in.readObject());
+            builder.previousValues((Map<String, Object>) in.readObject());
+            builder.additionalContext((Map<String, String>) in.readObject());
+            return builder.build();
+        } catch (ClassNotFoundException | ClassCastException | IllegalArgumentException e) {
+            throw new IOException("Cannot decode journaled event", e);
+        }
+    }
+
+    private static EventProcessingService.EventPriority priorityOf(byte[] payload) {
+        EventProcessingService.EventPriority[] priorities = EventProcessingService.EventPriority.values();
+        int ordinal = payload[0];
+        return ordinal >= 0 && ordinal < priorities.length ? priorities[ordinal]
+                : EventProcessingService.EventPriority.NORMAL;
+    }
+
+    private static long firstOrMax(ConcurrentSkipListSet<Long> sequences) {
+        Long first = sequences.isEmpty() ? null : sequences.ceiling(Long.MIN_VALUE);
+        return first != null ? first : Long.MAX_VALUE;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > 1000 ? value.substring(0, 1000) : value;
+    }
+
+    /**
+     * One journal file, a {@link LogSegment} whose records carry no key.
+     * Sequences within a segment are contiguous, so a record is located by
+     * its index from the first sequence.
+     */
+    private static final class Segment {
+
+        /** Receives event records during a scan */
+        interface RecordVisitor {
+            boolean accept(long sequence, byte[] payload);
+        }
+
+        /** Receives marker records during recovery */
+        interface MarkerVisitor {
+            void accept(byte type, byte[] payload);
+        }
+
+        final LogSegment log;
+        long firstSequence;
+
+        /** Record offsets by index from firstSequence; guarded by the journal append lock for writes */
+        private volatile int[] offsets = new int[1024];
+        private volatile int count;
+
+        private Segment(LogSegment log, long firstSequence) {
+            this.log = log;
+            this.firstSequence = firstSequence;
+        }
+
+        static Segment create(Path directory, long id, int capacity, long firstSequence) throws IOException {
+            return new Segment(LogSegment.create(directory, FILE_PREFIX, id, capacity), firstSequence);
+        }
+
+        /**
+         * Maps an existing journal file. Only the newest segment stays
+         * writable; the others are sealed so retention can delete them.
+         */
+        static Segment open(Path path, long id, boolean writable) throws IOException {
+            return new Segment(LogSegment.open(path, id, writable), 0);
+        }
+
+        long id() {
+            return log.getId();
+        }
+
+        boolean isSealed() {
+            return log.isSealed();
+        }
+
+        boolean hasRoomFor(int length) {
+            return log.hasRoomFor(length);
+        }
+
+        void append(byte type, long sequence, byte[] payload) {
+            index(log.append(type, sequence, LogSegment.NO_KEY, payload));
+        }
+
+        private void index(int offset) {
+            int[] current = offsets;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[count] = offset;
+            offsets = current;
+            count++;
+        }
+
+        /**
+         * Scans intact records from the start, indexing them and setting the
+         * append position after the last one. Event payloads are not read.
+         */
+        long recover(long expectedFirstSequence, MarkerVisitor visitor) throws IOException {
+            firstSequence = expectedFirstSequence;
+            List<LogSegment.Record> markers = new ArrayList<>();
+            int records = log.recover(record -> {
+                if (count == 0) {
+                    firstSequence = record.getSequence();
+                }
+                index(record.getOffset());
+                if (record.getType() != TYPE_EVENT) {
+                    markers.add(record);
+                }
+            });
+            for (LogSegment.Record marker : markers) {
+                visitor.accept(marker.getType(), log.read(marker.getOffset()).getPayload());
+            }
+            return records;
+        }
+
+        /**
+         * Visits the event records after a sequence in order, reading the
+         * mapped file sequentially.
+         *
+         * @return The number of records the visitor counted
+         */
+        long scan(long afterSequence, RecordVisitor visitor) throws IOException {
+            int records = count;
+            int[] positions = offsets;
+            long counted = 0;
+            int from = (int) Math.max(0, afterSequence + 1 - firstSequence);
+            for (int i = from; i < records; i++) {
+                LogSegment.Record record = log.read(positions[i]);
+                if (record.getType() == TYPE_EVENT && visitor.accept(firstSequence + i, record.getPayload())) {
+                    counted++;
+                }
+            }
+            return counted;
+        }
+
+        byte[] payloadOf(long sequence) throws IOException {
+            long index = sequence - firstSequence;
+            if (index < 0 || index >= count) {
+                return null;
+            }
+            return log.read(offsets[(int) index]).getPayload();
+        }
+
+        long lastSequence() {
+            return firstSequence + count - 1;
+        }
+
+        void force() {
+            log.force();
+        }
+
+        void seal() {
+            log.seal();
+        }
+
+        void delete() throws IOException {
+            log.delete();
+        }
+    }
+}
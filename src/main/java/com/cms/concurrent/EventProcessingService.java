@@ -5,16 +5,21 @@ import com.cms.patterns.observer.ContentObserver;
 import com.cms.util.CMSLogger;
 import com.cms.util.AuditLogger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.Map;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.stream.Collectors;
 
 /**
@@ -47,7 +52,7 @@ import java.util.stream.Collectors;
  * </p>
  * <ul>
  * <li>BlockingQueue-based event distribution with multiple queues</li>
- * <li>Priority-based event processing with PriorityBlockingQueue</li>
+ * <li>Weighted fair priority lanes with starvation protection</li>
  * <li>Multiple consumer threads with work distribution</li>
  * <li>Event batching for high-throughput scenarios</li>
  * <li>Dead letter queue for failed event handling</li>
@@ -70,6 +75,44 @@ import java.util.stream.Collectors;
  * </ul>
  *
  * <p>
+ * <strong>Priority Lanes:</strong> In {@link DispatchMode#QUEUE} mode HIGH,
+ * NORMAL and LOW events wait in separate lanes that consumers serve by
+ * weighted round-robin, so HIGH events get most but not all of the
+ * consumers' time, and any lane whose oldest event has waited past the
+ * starvation threshold is served next. See {@link LaneOptions}; per-lane
+ * wait-time histograms are reported by {@link #getStatistics()}. With
+ * {@link #enableAutoscaling(AutoscaleOptions)} the number of consumers
+ * follows the backlog and dispatch latency.
+ * </p>
+ *
+ * <p>
+ * <strong>Ring Buffer Mode:</strong> With {@link DispatchMode#RING_BUFFER}
+ * the blocking queues are replaced by one preallocated
+ * {@link EventRingBuffer} per priority lane (high, standard, batch), each
+ * drained in batches by a dedicated consumer thread that idles according to
+ * the configured {@link WaitStrategy}. Producing an event then allocates
+ * nothing and consumers never sit in a poll timeout while another lane has
+ * work, which keeps delivery latency in the microsecond range.
+ * </p>
+ *
+ * <p>
+ * <strong>Observer Isolation:</strong> Every registered observer has its own
+ * bounded {@link ObserverMailbox} drained by a private thread, so consumers
+ * never run observer code themselves and a slow observer cannot delay the
+ * others. A full mailbox applies its {@link OverflowPolicy}; per-observer
+ * depth and lag are reported by {@link #getStatistics()}.
+ * </p>
+ *
+ * <p>
+ * <strong>Event Journal:</strong> Optionally, every dispatched event is first
+ * appended to a persistent {@link EventJournal} that tracks a consumer offset
+ * per observer. On {@link #start()} each observer is replayed the events it
+ * had not finished when the previous instance stopped or crashed, and dead
+ * letters that were still pending are retried from the journal. See
+ * {@link #enableJournal(JournalOptions)}.
+ * </p>
+ *
+ * <p>
  * <strong>Integration:</strong> Integrates with Observer Pattern for event
  * production,
  * ThreadPoolManager for consumer thread management, and AsyncContentProcessor
@@ -88,19 +131,45 @@ public class EventProcessingService {
 
     private final ThreadPoolManager threadPoolManager;
 
-    // Multiple queues for different event types and priorities
-    private final PriorityBlockingQueue<PriorityEvent> highPriorityQueue;
-    private final BlockingQueue<ContentEvent> standardQueue;
+    // Weighted fair HIGH/NORMAL/LOW lanes plus batch and dead letter queues
+    private final PriorityLaneScheduler laneScheduler;
     private final BlockingQueue<ContentEvent> batchQueue;
-    private final BlockingQueue<FailedEvent> deadLetterQueue;
+    private final DelayQueue<FailedEvent> deadLetterQueue;
+
+    // Ring buffer lanes, null in QUEUE mode
+    private final DispatchMode dispatchMode;
+    private final WaitStrategy waitStrategy;
+    private final EventRingBuffer highPriorityRing;
+    private final EventRingBuffer standardRing;
+    private final EventRingBuffer batchRing;
+    private final List<RingConsumer> ringConsumers = new ArrayList<>();
+
+    /** Update coalescing stage, null while disabled */
+    private volatile EventCoalescer coalescer;
+
+    /** Persistent event journal, null while disabled */
+    private volatile EventJournal journal;
 
     // Consumer thread management
-    private final List<EventConsumer> consumers = new ArrayList<>();
+    private final List<EventConsumer> consumers = new CopyOnWriteArrayList<>();
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private final AtomicInteger consumerSequence = new AtomicInteger(0);
     private final int numberOfConsumers;
 
-    // Event observers and handlers
-    private final Set<ContentObserver> eventObservers = ConcurrentHashMap.newKeySet();
+    // Consumer autoscaling, null while disabled
+    private volatile AutoscaleOptions autoscaleOptions;
+    private volatile ScheduledFuture<?> autoscaler;
+    private final AtomicLong dispatchCount = new AtomicLong(0);
+    private final AtomicLong dispatchNanos = new AtomicLong(0);
+    private final AtomicLong scaleUps = new AtomicLong(0);
+    private final AtomicLong scaleDowns = new AtomicLong(0);
+    private long lastDispatchCount;
+    private long lastDispatchNanos;
+    private volatile long averageDispatchNanos;
+    private int idleAutoscaleTicks;
+
+    // Event observers, each behind its own mailbox, and handlers
+    private final Map<ContentObserver, ObserverMailbox> mailboxes = new ConcurrentHashMap<>();
     private final Map<String, EventHandler> eventHandlers = new ConcurrentHashMap<>();
 
     // Statistics and monitoring
@@ -117,6 +186,9 @@ public class EventProcessingService {
     private static final long CONSUMER_POLL_TIMEOUT_MS = 1000;
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long RETRY_DELAY_BASE_MS = 100;
+    private static final int DEFAULT_RING_CAPACITY = 16384;
+    private static final int RING_BATCH_SIZE = 256;
+    private static final int DEFAULT_MAILBOX_CAPACITY = 1024;
 
     /**
      * Constructs EventProcessingService with configurable consumer thread count.
@@ -125,24 +197,60 @@ public class EventProcessingService {
      * @param numberOfConsumers Number of consumer threads for parallel processing
      */
     public EventProcessingService(int numberOfConsumers) {
+        this(numberOfConsumers, DispatchMode.QUEUE, WaitStrategy.PARK, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * Constructs EventProcessingService with a selectable dispatch mode.
+     *
+     * <p>
+     * In {@link DispatchMode#RING_BUFFER} mode every lane is consumed by
+     * exactly one dedicated thread, so {@code numberOfConsumers} only applies
+     * to {@link DispatchMode#QUEUE} mode.
+     * </p>
+     *
+     * @param numberOfConsumers Number of consumer threads in QUEUE mode
+     * @param dispatchMode      How events are handed to consumers
+     * @param waitStrategy      How idle ring consumers wait for events
+     * @param ringCapacity      Slots per ring lane, rounded up to a power of two
+     */
+    public EventProcessingService(int numberOfConsumers, DispatchMode dispatchMode, WaitStrategy waitStrategy,
+            int ringCapacity) {
+        if (dispatchMode == null || waitStrategy == null) {
+            throw new IllegalArgumentException("Dispatch mode and wait strategy cannot be null");
+        }
+        if (ringCapacity <= 0) {
+            throw new IllegalArgumentException("Ring capacity must be > 0");
+        }
         this.threadPoolManager = ThreadPoolManager.getInstance();
         this.numberOfConsumers = numberOfConsumers > 0 ? numberOfConsumers : Runtime.getRuntime().availableProcessors();
+        this.dispatchMode = dispatchMode;
+        this.waitStrategy = waitStrategy;
+
+        if (dispatchMode == DispatchMode.RING_BUFFER) {
+            this.highPriorityRing = new EventRingBuffer("high", ringCapacity, waitStrategy);
+            this.standardRing = new EventRingBuffer("standard", ringCapacity, waitStrategy);
+            this.batchRing = new EventRingBuffer("batch", ringCapacity, waitStrategy);
+        } else {
+            this.highPriorityRing = null;
+            this.standardRing = null;
+            this.batchRing = null;
+        }
 
-        // Initialize blocking queues with appropriate capacity and ordering
-        this.highPriorityQueue = new PriorityBlockingQueue<>(
-                DEFAULT_QUEUE_CAPACITY,
-                Comparator.comparing(PriorityEvent::getPriority).reversed()
-                        .thenComparing(PriorityEvent::getTimestamp));
-
-        this.standardQueue = new LinkedBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
+        // Initialize priority lanes and blocking queues with appropriate capacity
+        LaneOptions laneOptions = new LaneOptions();
+        this.laneScheduler = new PriorityLaneScheduler(DEFAULT_QUEUE_CAPACITY, laneOptions.getWeights(),
+                laneOptions.getStarvationThresholdMillis());
         this.batchQueue = new LinkedBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
-        this.deadLetterQueue = new LinkedBlockingQueue<>();
+        this.deadLetterQueue = new DelayQueue<>();
 
         initializeEventHandlers();
         initializeStatistics();
 
-        logger.logSystemOperation("EventProcessingService initialized with " +
-                this.numberOfConsumers + " consumer threads and Producer-Consumer pattern");
+        logger.logSystemOperation("EventProcessingService initialized in " + dispatchMode + " mode" +
+                (dispatchMode == DispatchMode.QUEUE
+                        ? " with " + this.numberOfConsumers + " consumer threads"
+                        : " with " + waitStrategy + " wait strategy"));
     }
 
     /**
@@ -151,24 +259,40 @@ public class EventProcessingService {
      */
     public void start() {
         if (isRunning.compareAndSet(false, true)) {
+            if (journal != null) {
+                recoverFromJournal();
+            }
+            if (dispatchMode == DispatchMode.RING_BUFFER) {
+                startRingConsumers();
+                return;
+            }
+            AutoscaleOptions scaling = autoscaleOptions;
+            int initialConsumers = scaling != null
+                    ? Math.max(scaling.getMinConsumers(), Math.min(scaling.getMaxConsumers(), numberOfConsumers))
+                    : numberOfConsumers;
             logger.logSystemOperation("Starting EventProcessingService with " +
-                    numberOfConsumers + " consumer threads");
-
-            // Start consumer threads
-            for (int i = 0; i < numberOfConsumers; i++) {
-                EventConsumer consumer = new EventConsumer("EventConsumer-" + i);
-                consumers.add(consumer);
-                threadPoolManager.submitBackgroundTask(consumer);
-                consumerStats.put(consumer.getName(), new AtomicLong(0));
+                    initialConsumers + " consumer threads");
+
+            // Start consumer threads; these loops run for the service's lifetime,
+            // so each gets its own thread rather than a pooled one
+            consumers.clear();
+            for (int i = 0; i < initialConsumers; i++) {
+                addConsumer();
             }
 
             // Start batch processing consumer
-            BatchEventConsumer batchConsumer = new BatchEventConsumer();
-            threadPoolManager.submitBackgroundTask(batchConsumer);
+            startThread(new BatchEventConsumer(), "EventBatchConsumer");
 
             // Start dead letter queue processor
-            DeadLetterQueueProcessor dlqProcessor = new DeadLetterQueueProcessor();
-            threadPoolManager.submitBackgroundTask(dlqProcessor);
+            startThread(new DeadLetterQueueProcessor(), "EventDeadLetterProcessor");
+
+            if (scaling != null) {
+                lastDispatchCount = dispatchCount.get();
+                lastDispatchNanos = dispatchNanos.get();
+                idleAutoscaleTicks = 0;
+                autoscaler = threadPoolManager.scheduleAtFixedRate(this::autoscale,
+                        scaling.getIntervalMillis(), scaling.getIntervalMillis(), TimeUnit.MILLISECONDS);
+            }
 
             auditLogger.logSecurityEvent("EventProcessingService started", "SYSTEM", "LOW");
             logger.logSystemOperation("EventProcessingService started successfully");
@@ -181,11 +305,23 @@ public class EventProcessingService {
      * Ensures all pending events are processed before shutdown.
      */
     public void stop() {
+        EventCoalescer currentCoalescer = coalescer;
+        if (currentCoalescer != null && isRunning.get()) {
+            // Release pending updates while consumers are still running
+            currentCoalescer.flushAll();
+        }
+
         if (isRunning.compareAndSet(true, false)) {
             logger.logSystemOperation("Stopping EventProcessingService...");
 
             // Signal all consumers to stop
+            ScheduledFuture<?> currentAutoscaler = autoscaler;
+            if (currentAutoscaler != null) {
+                currentAutoscaler.cancel(false);
+                autoscaler = null;
+            }
             consumers.forEach(EventConsumer::stop);
+            ringConsumers.forEach(RingConsumer::stop);
 
             // Wait for consumers to finish processing current events
             try {
@@ -194,6 +330,15 @@ public class EventProcessingService {
                 Thread.currentThread().interrupt();
             }
 
+            EventJournal currentJournal = journal;
+            if (currentJournal != null) {
+                try {
+                    currentJournal.checkpoint();
+                } catch (IOException e) {
+                    logger.logError("Failed to checkpoint event journal on stop", e);
+                }
+            }
+
             auditLogger.logSecurityEvent("EventProcessingService stopped", "SYSTEM", "LOW");
             logger.logSystemOperation("EventProcessingService stopped with " +
                     getQueueSizes().values().stream().mapToInt(Integer::intValue).sum() +
@@ -201,6 +346,100 @@ public class EventProcessingService {
         }
     }
 
+    /**
+     * Starts one dedicated consumer thread per ring lane plus the dead letter
+     * queue processor.
+     */
+    private void startRingConsumers() {
+        logger.logSystemOperation("Starting EventProcessingService ring consumers with " +
+                waitStrategy + " wait strategy");
+
+        for (EventRingBuffer ring : new EventRingBuffer[] { highPriorityRing, standardRing, batchRing }) {
+            RingConsumer consumer = new RingConsumer(ring);
+            ringConsumers.add(consumer);
+            consumerStats.put(consumer.getName(), new AtomicLong(0));
+            startThread(consumer, consumer.getName());
+        }
+
+        startThread(new DeadLetterQueueProcessor(), "EventDeadLetterProcessor");
+
+        auditLogger.logSecurityEvent("EventProcessingService started", "SYSTEM", "LOW");
+        logger.logSystemOperation("EventProcessingService started successfully");
+    }
+
+    /**
+     * Starts a daemon thread for one of the service's long-running loops.
+     */
+    private static void startThread(Runnable loop, String name) {
+        Thread thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts one more queue consumer thread.
+     */
+    private void addConsumer() {
+        EventConsumer consumer = new EventConsumer("EventConsumer-" + consumerSequence.getAndIncrement());
+        consumerStats.put(consumer.getName(), new AtomicLong(0));
+        consumers.add(consumer);
+        startThread(consumer, consumer.getName());
+    }
+
+    /**
+     * Resizes the consumer pool from the lane backlog and the recent dispatch
+     * time per event. Dispatch time includes waiting for full observer
+     * mailboxes, so it rises with observer latency. Adds consumers while the
+     * backlog would take longer than the target to drain or an event has
+     * waited that long; retires one after several idle intervals.
+     */
+    private void autoscale() {
+        AutoscaleOptions scaling = autoscaleOptions;
+        if (scaling == null || !isRunning.get()) {
+            return;
+        }
+        try {
+            long count = dispatchCount.get();
+            long nanos = dispatchNanos.get();
+            long windowCount = count - lastDispatchCount;
+            if (windowCount > 0) {
+                averageDispatchNanos = (nanos - lastDispatchNanos) / windowCount;
+            }
+            lastDispatchCount = count;
+            lastDispatchNanos = nanos;
+
+            int active = consumers.size();
+            int backlog = laneScheduler.size();
+            long targetNanos = TimeUnit.MILLISECONDS.toNanos(scaling.getTargetDrainMillis());
+            long drainNanos = active > 0 ? backlog * averageDispatchNanos / active : Long.MAX_VALUE;
+
+            if ((drainNanos > targetNanos || laneScheduler.oldestWaitNanos() > targetNanos) && backlog > 0 &&
+                    active < scaling.getMaxConsumers()) {
+                // Grow by half the current size so a burst is absorbed in a few intervals
+                int added = Math.min(scaling.getMaxConsumers() - active, Math.max(1, active / 2));
+                for (int i = 0; i < added; i++) {
+                    addConsumer();
+                }
+                scaleUps.incrementAndGet();
+                idleAutoscaleTicks = 0;
+                logger.logSystemOperation("Scaled event consumers up to " + consumers.size() + " (backlog " +
+                        backlog + ")");
+            } else if (backlog == 0 && active > scaling.getMinConsumers()) {
+                if (++idleAutoscaleTicks >= scaling.getScaleDownIdleIntervals()) {
+                    EventConsumer retired = consumers.remove(consumers.size() - 1);
+                    retired.stop();
+                    scaleDowns.incrementAndGet();
+                    idleAutoscaleTicks = 0;
+                    logger.logSystemOperation("Scaled event consumers down to " + consumers.size());
+                }
+            } else {
+                idleAutoscaleTicks = 0;
+            }
+        } catch (RuntimeException e) {
+            logger.logError("Event consumer autoscaling failed", e);
+        }
+    }
+
     /**
      * Produces an event for processing using the Producer pattern.
      * Routes events to appropriate queues based on priority and type.
@@ -219,15 +458,52 @@ public class EventProcessingService {
             return;
         }
 
+        EventCoalescer currentCoalescer = coalescer;
+        if (currentCoalescer != null && currentCoalescer.offer(event, priority)) {
+            return;
+        }
+        dispatchEvent(event, priority);
+    }
+
+    /**
+     * Journals an event, after any coalescing, and routes it to its queue or
+     * ring lane.
+     */
+    private void dispatchEvent(ContentEvent event, EventPriority priority) {
+        totalEventsProduced.incrementAndGet();
+        incrementEventTypeCount(event.getEventType().toString());
+
+        EventJournal currentJournal = journal;
+        if (currentJournal != null) {
+            try {
+                currentJournal.append(event, priority);
+            } catch (IOException e) {
+                // Still deliver the event, just without crash protection
+                logger.logError("Failed to journal event " + event.getEventId(), e);
+            }
+        }
+        route(event, priority);
+    }
+
+    /**
+     * Routes an event to its queue or ring lane.
+     */
+    private void route(ContentEvent event, EventPriority priority) {
         try {
-            totalEventsProduced.incrementAndGet();
-            incrementEventTypeCount(event.getEventType().toString());
+            if (dispatchMode == DispatchMode.RING_BUFFER) {
+                EventRingBuffer ring = priority == EventPriority.HIGH ? highPriorityRing
+                        : priority == EventPriority.BATCH ? batchRing : standardRing;
+                if (!ring.tryPublish(event)) {
+                    logger.logError("Ring lane " + ring.getName() + " is full, cannot produce event", null);
+                    handleFailedEvent(event, "Ring lane " + ring.getName() + " full");
+                }
+                return;
+            }
 
             // Route event based on priority
             switch (priority) {
                 case HIGH:
-                    PriorityEvent priorityEvent = new PriorityEvent(event, priority);
-                    if (!highPriorityQueue.offer(priorityEvent)) {
+                    if (!laneScheduler.offer(PriorityLaneScheduler.HIGH, event)) {
                         logger.logError("High priority queue is full, cannot produce event", null);
                         handleFailedEvent(event, "High priority queue full");
                     }
@@ -240,8 +516,15 @@ public class EventProcessingService {
                     }
                     break;
 
-                default: // NORMAL and LOW priority
-                    if (!standardQueue.offer(event)) {
+                case LOW:
+                    if (!laneScheduler.offer(PriorityLaneScheduler.LOW, event)) {
+                        logger.logError("Low priority queue is full, cannot produce event", null);
+                        handleFailedEvent(event, "Low priority queue full");
+                    }
+                    break;
+
+                default: // NORMAL priority
+                    if (!laneScheduler.offer(PriorityLaneScheduler.NORMAL, event)) {
                         logger.logError("Standard queue is full, cannot produce event", null);
                         handleFailedEvent(event, "Standard queue full");
                     }
@@ -259,6 +542,209 @@ public class EventProcessingService {
         }
     }
 
+    /**
+     * Sets the lane weights and starvation threshold used to share consumers
+     * between HIGH, NORMAL and LOW events in {@link DispatchMode#QUEUE} mode.
+     * Takes effect immediately.
+     *
+     * @param options Lane weights and starvation threshold
+     * @see LaneOptions
+     */
+    public void setLaneOptions(LaneOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("Lane options cannot be null");
+        }
+        laneScheduler.configure(options.getWeights(), options.getStarvationThresholdMillis());
+        logger.logSystemOperation("Event lane weights set to high=" + options.getHighWeight() + ", normal=" +
+                options.getNormalWeight() + ", low=" + options.getLowWeight() + " with starvation threshold " +
+                options.getStarvationThresholdMillis() + "ms");
+    }
+
+    /**
+     * Enables autoscaling of the queue consumers between the configured
+     * minimum and maximum, starting from {@code numberOfConsumers} clamped to
+     * that range. Must be called while the service is stopped; only applies to
+     * {@link DispatchMode#QUEUE} mode.
+     *
+     * @param options Consumer bounds and scaling thresholds, or null to disable
+     * @throws IllegalStateException if the service is running or in ring buffer mode
+     */
+    public synchronized void enableAutoscaling(AutoscaleOptions options) {
+        if (isRunning.get()) {
+            throw new IllegalStateException("Autoscaling must be configured while the service is stopped");
+        }
+        if (options != null && dispatchMode != DispatchMode.QUEUE) {
+            throw new IllegalStateException("Autoscaling only applies to QUEUE dispatch mode");
+        }
+        this.autoscaleOptions = options;
+        if (options != null) {
+            logger.logSystemOperation("Event consumer autoscaling enabled between " + options.getMinConsumers() +
+                    " and " + options.getMaxConsumers() + " consumers");
+        }
+    }
+
+    /**
+     * Enables or disables coalescing of update events.
+     *
+     * <p>
+     * With a positive window, {@code UPDATED} and {@code METADATA_UPDATED}
+     * events for the same content that are produced within the window are
+     * dispatched as one event whose {@code changedFields} is the union of
+     * theirs, so observer work follows the number of distinct contents edited
+     * rather than the number of saves. Any other event for that content first
+     * releases its pending update. A window of 0 disables coalescing; pending
+     * updates are dispatched immediately.
+     * </p>
+     *
+     * @param windowMillis Coalescing window in milliseconds, or 0 to disable
+     * @see EventCoalescer
+     */
+    public synchronized void setCoalescingWindow(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Coalescing window cannot be negative");
+        }
+        EventCoalescer previous = coalescer;
+        coalescer = windowMillis > 0 ? new EventCoalescer(windowMillis, this::dispatchEvent) : null;
+        if (previous != null) {
+            previous.shutdown();
+        }
+        logger.logSystemOperation("Event coalescing " +
+                (windowMillis > 0 ? "enabled with " + windowMillis + "ms window" : "disabled"));
+    }
+
+    /**
+     * Enables the persistent event journal. Must be called while the service
+     * is stopped, typically before the first {@link #start()}.
+     *
+     * <p>
+     * From then on every dispatched event is appended to the journal before it
+     * is queued, and each observer's progress is checkpointed as a consumer
+     * offset. When the service starts, every registered observer is replayed
+     * the journaled events after its offset, so events lost from the
+     * in-memory queues and mailboxes by a crash are delivered again. Delivery
+     * is at-least-once: observers may see events processed shortly before a
+     * crash a second time. Observers are identified across restarts by
+     * {@link ContentObserver#getObserverName()}, which must therefore be
+     * unique among the registered observers; an observer seen for the first
+     * time starts at the end of the journal. Dead-lettered events are recorded
+     * in the journal and retried with exponential backoff, also after a
+     * restart.
+     * </p>
+     *
+     * <p>
+     * Update events held in an open coalescing window are journaled only when
+     * the window closes.
+     * </p>
+     *
+     * @param options Journal location and tuning
+     * @throws IOException           if the journal cannot be opened or recovered
+     * @throws IllegalStateException if the service is running or a journal is
+     *                               already enabled
+     * @see EventJournal
+     */
+    public synchronized void enableJournal(JournalOptions options) throws IOException {
+        if (options == null || options.getDirectory() == null) {
+            throw new IllegalArgumentException("Journal options and directory cannot be null");
+        }
+        if (isRunning.get()) {
+            throw new IllegalStateException("Cannot enable the event journal while the service is running");
+        }
+        if (journal != null) {
+            throw new IllegalStateException("Event journal already enabled");
+        }
+        journal = EventJournal.open(options.getDirectory(), options.getSegmentSize(), options.isSyncOnAppend(),
+                options.getCheckpointIntervalMillis());
+        journal.setConsumerCheckpoint(this::checkpointObserver);
+        logger.logSystemOperation("Event journal enabled in " + options.getDirectory());
+    }
+
+    /**
+     * Checkpoints and closes the event journal, disabling it. Must be called
+     * while the service is stopped.
+     *
+     * @throws IllegalStateException if the service is running
+     */
+    public synchronized void closeJournal() {
+        if (isRunning.get()) {
+            throw new IllegalStateException("Cannot close the event journal while the service is running");
+        }
+        EventJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.close();
+            journal = null;
+            logger.logSystemOperation("Event journal closed");
+        }
+    }
+
+    /**
+     * Runs {@link ContentObserver#checkpoint()} on the observer behind a
+     * journal consumer before its offset is committed.
+     *
+     * @return false if the observer failed to persist its state
+     */
+    private boolean checkpointObserver(String name) {
+        for (ContentObserver observer : mailboxes.keySet()) {
+            if (observer.getObserverName().equals(name)) {
+                try {
+                    observer.checkpoint();
+                } catch (IOException | RuntimeException e) {
+                    logger.logError("Failed to checkpoint observer " + name + ", keeping its journal offset", e);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers every observer as a journal consumer, replays the events each
+     * has not finished, and queues the pending dead letters for retry.
+     */
+    private void recoverFromJournal() {
+        EventJournal currentJournal = journal;
+        Map<String, ObserverMailbox> byName = new HashMap<>();
+        Map<String, Long> offsets = new HashMap<>();
+        long from = Long.MAX_VALUE;
+        for (ObserverMailbox mailbox : mailboxes.values()) {
+            String name = mailbox.getObserver().getObserverName();
+            long offset = currentJournal.registerConsumer(name);
+            byName.put(name, mailbox);
+            offsets.put(name, offset);
+            from = Math.min(from, offset);
+        }
+
+        if (!byName.isEmpty()) {
+            long replayed = currentJournal.replay(from, (sequence, event, priority) -> {
+                for (Map.Entry<String, ObserverMailbox> entry : byName.entrySet()) {
+                    String name = entry.getKey();
+                    if (sequence > offsets.get(name) && !currentJournal.isDeadLettered(sequence, name)) {
+                        currentJournal.track(name, sequence);
+                        entry.getValue().offer(event, sequence);
+                    }
+                }
+            });
+            if (replayed > 0) {
+                logger.logSystemOperation("Replayed " + replayed + " journaled events to " + byName.size() +
+                        " observers");
+            }
+        }
+
+        Collection<EventJournal.DeadLetter> deadLetters = currentJournal.getDeadLetters();
+        for (EventJournal.DeadLetter deadLetter : deadLetters) {
+            ContentObserver target = null;
+            if (!EventJournal.ALL_CONSUMERS.equals(deadLetter.consumer)) {
+                ObserverMailbox mailbox = byName.get(deadLetter.consumer);
+                if (mailbox == null) {
+                    // Kept in the journal until that observer is registered again
+                    continue;
+                }
+                target = mailbox.getObserver();
+            }
+            deadLetterQueue.offer(new FailedEvent(null, deadLetter.sequence, deadLetter.reason,
+                    LocalDateTime.now(), deadLetter.retryCount, target));
+        }
+    }
+
     /**
      * Produces multiple events in batch for high-throughput scenarios.
      * Optimized for bulk event production with minimal overhead.
@@ -283,22 +769,65 @@ public class EventProcessingService {
      * Registers an event observer for processed events.
      * Enables Observer pattern integration with event processing.
      *
+     * <p>
+     * The observer gets a mailbox of {@value #DEFAULT_MAILBOX_CAPACITY} events
+     * with the {@link OverflowPolicy#BLOCK} policy.
+     * </p>
+     *
      * @param observer The observer to register
      */
     public void registerObserver(ContentObserver observer) {
-        if (observer != null) {
-            eventObservers.add(observer);
-            logger.logSystemOperation("Event observer registered: " + observer.getClass().getSimpleName());
+        registerObserver(observer, DEFAULT_MAILBOX_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Registers an event observer behind a mailbox of the given size and
+     * overflow policy. Registering an already registered observer has no
+     * effect.
+     *
+     * @param observer The observer to register
+     * @param capacity Maximum number of events waiting for the observer
+     * @param policy   What to do with events arriving while the mailbox is full
+     */
+    public void registerObserver(ContentObserver observer, int capacity, OverflowPolicy policy) {
+        if (observer == null) {
+            return;
+        }
+        if (capacity <= 0 || policy == null) {
+            throw new IllegalArgumentException("Mailbox capacity must be > 0 and policy cannot be null");
+        }
+        String name = observer.getObserverName();
+        ObserverMailbox mailbox = new ObserverMailbox(observer, capacity, policy,
+                (event, sequence, reason) -> handleFailedEvent(event, sequence, reason, observer),
+                sequence -> {
+                    EventJournal currentJournal = journal;
+                    if (currentJournal != null) {
+                        currentJournal.acknowledge(name, sequence);
+                    }
+                });
+        if (mailboxes.putIfAbsent(observer, mailbox) == null) {
+            EventJournal currentJournal = journal;
+            if (currentJournal != null && isRunning.get()) {
+                currentJournal.registerConsumer(name);
+            }
+            logger.logSystemOperation("Event observer registered: " + observer.getClass().getSimpleName() +
+                    " (mailbox " + capacity + ", " + policy + ")");
         }
     }
 
     /**
-     * Unregisters an event observer.
+     * Unregisters an event observer. Events still in its mailbox are discarded.
      *
      * @param observer The observer to unregister
      */
     public void unregisterObserver(ContentObserver observer) {
-        if (observer != null && eventObservers.remove(observer)) {
+        ObserverMailbox mailbox = observer != null ? mailboxes.remove(observer) : null;
+        if (mailbox != null) {
+            mailbox.shutdown();
+            EventJournal currentJournal = journal;
+            if (currentJournal != null) {
+                currentJournal.unregisterConsumer(observer.getObserverName());
+            }
             logger.logSystemOperation("Event observer unregistered: " + observer.getClass().getSimpleName());
         }
     }
@@ -318,16 +847,64 @@ public class EventProcessingService {
         stats.put("totalEventsRetried", totalEventsRetried.get());
         stats.put("isRunning", isRunning.get());
         stats.put("numberOfConsumers", numberOfConsumers);
-        stats.put("registeredObservers", eventObservers.size());
+        stats.put("activeConsumers", dispatchMode == DispatchMode.QUEUE ? consumers.size() : ringConsumers.size());
+        stats.put("registeredObservers", mailboxes.size());
+        stats.put("dispatchMode", dispatchMode.name());
+        if (dispatchMode == DispatchMode.RING_BUFFER) {
+            stats.put("waitStrategy", waitStrategy.name());
+            Map<String, Map<String, Object>> lanes = new ConcurrentHashMap<>();
+            for (EventRingBuffer ring : new EventRingBuffer[] { highPriorityRing, standardRing, batchRing }) {
+                Map<String, Object> lane = new ConcurrentHashMap<>();
+                lane.put("capacity", ring.getCapacity());
+                lane.put("published", ring.getPublished());
+                lane.put("consumed", ring.getConsumed());
+                lane.put("backlog", ring.getBacklog());
+                lane.put("rejected", ring.getRejected());
+                lane.put("batches", ring.getBatches());
+                lane.put("largestBatch", ring.getLargestBatch());
+                lanes.put(ring.getName(), lane);
+            }
+            stats.put("ringLanes", lanes);
+        }
 
-        // Queue statistics
+        // Queue statistics, with per-lane wait-time histograms
         stats.put("queueSizes", getQueueSizes());
+        if (dispatchMode == DispatchMode.QUEUE) {
+            stats.put("priorityLanes", laneScheduler.getStatistics());
+        }
+
+        AutoscaleOptions scaling = autoscaleOptions;
+        if (scaling != null) {
+            Map<String, Object> autoscaling = new ConcurrentHashMap<>();
+            autoscaling.put("minConsumers", scaling.getMinConsumers());
+            autoscaling.put("maxConsumers", scaling.getMaxConsumers());
+            autoscaling.put("scaleUps", scaleUps.get());
+            autoscaling.put("scaleDowns", scaleDowns.get());
+            autoscaling.put("averageDispatchMicros", averageDispatchNanos / 1_000);
+            stats.put("autoscaling", autoscaling);
+        }
 
         // Event type statistics
         Map<String, Long> eventTypes = new ConcurrentHashMap<>();
         eventTypeCounts.forEach((type, count) -> eventTypes.put(type, count.get()));
         stats.put("eventTypeCounts", eventTypes);
 
+        EventCoalescer currentCoalescer = coalescer;
+        if (currentCoalescer != null) {
+            stats.put("coalescing", currentCoalescer.getStatistics());
+        }
+
+        EventJournal currentJournal = journal;
+        if (currentJournal != null) {
+            stats.put("journal", currentJournal.getStatistics());
+        }
+
+        // Per-observer mailbox statistics
+        Map<String, Map<String, Object>> mailboxMetrics = new ConcurrentHashMap<>();
+        mailboxes.values().forEach(mailbox ->
+                mailboxMetrics.put(mailbox.getObserver().getObserverName(), mailbox.getStatistics()));
+        stats.put("observerMailboxes", mailboxMetrics);
+
         // Consumer statistics
         Map<String, Long> consumerMetrics = new ConcurrentHashMap<>();
         consumerStats.forEach((consumer, count) -> consumerMetrics.put(consumer, count.get()));
@@ -348,10 +925,16 @@ public class EventProcessingService {
      */
     public Map<String, Integer> getQueueSizes() {
         Map<String, Integer> sizes = new ConcurrentHashMap<>();
-        sizes.put("highPriorityQueue", highPriorityQueue.size());
-        sizes.put("standardQueue", standardQueue.size());
+        sizes.put("highPriorityQueue", laneScheduler.size(PriorityLaneScheduler.HIGH));
+        sizes.put("standardQueue", laneScheduler.size(PriorityLaneScheduler.NORMAL) +
+                laneScheduler.size(PriorityLaneScheduler.LOW));
         sizes.put("batchQueue", batchQueue.size());
         sizes.put("deadLetterQueue", deadLetterQueue.size());
+        if (dispatchMode == DispatchMode.RING_BUFFER) {
+            sizes.put("highPriorityRing", (int) highPriorityRing.getBacklog());
+            sizes.put("standardRing", (int) standardRing.getBacklog());
+            sizes.put("batchRing", (int) batchRing.getBacklog());
+        }
         return sizes;
     }
 
@@ -361,7 +944,21 @@ public class EventProcessingService {
      * Handles failed events by moving them to dead letter queue.
      */
     private void handleFailedEvent(ContentEvent event, String reason) {
-        FailedEvent failedEvent = new FailedEvent(event, reason, LocalDateTime.now(), 0);
+        EventJournal currentJournal = journal;
+        handleFailedEvent(event, currentJournal != null ? currentJournal.sequenceOf(event) : -1, reason, null);
+    }
+
+    /**
+     * Handles an event that could not be handed to one observer's mailbox, so
+     * its retry targets only that observer.
+     */
+    private void handleFailedEvent(ContentEvent event, long sequence, String reason, ContentObserver target) {
+        EventJournal currentJournal = journal;
+        if (currentJournal != null && sequence >= 0) {
+            currentJournal.recordDeadLetter(event, sequence, target != null ? target.getObserverName() : null, 0,
+                    reason);
+        }
+        FailedEvent failedEvent = new FailedEvent(event, sequence, reason, LocalDateTime.now(), 0, target);
         deadLetterQueue.offer(failedEvent);
         totalEventsFailed.incrementAndGet();
     }
@@ -390,6 +987,82 @@ public class EventProcessingService {
         logger.logSystemOperation("Event handlers initialized");
     }
 
+    /**
+     * Hands an event to the mailbox of every registered observer that observes
+     * its content type.
+     */
+    private void processEvent(ContentEvent event) {
+        try {
+            EventJournal currentJournal = journal;
+            long sequence = currentJournal != null ? currentJournal.sequenceOf(event) : -1;
+            Class<?> contentType = event.getContent() != null ? event.getContent().getClass() : null;
+            for (ObserverMailbox mailbox : mailboxes.values()) {
+                if (contentType != null && !mailbox.getObserver().shouldObserve(contentType)) {
+                    continue;
+                }
+                if (sequence >= 0) {
+                    currentJournal.track(mailbox.getObserver().getObserverName(), sequence);
+                }
+                mailbox.offer(event, sequence);
+            }
+            if (sequence >= 0) {
+                currentJournal.markDispatched(event, sequence);
+            }
+
+            totalEventsProcessed.incrementAndGet();
+
+        } catch (Exception e) {
+            logger.logError("Failed to process event: " + event.getEventType(), e);
+            handleFailedEvent(event, "Processing failure: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands a batch of events to every observer mailbox as a single delivery,
+     * so observers receive it through {@link ContentObserver#onEventsBatch(List)}.
+     *
+     * @param events The batch, not reused by the caller afterwards
+     */
+    private void processBatch(List<ContentEvent> events) {
+        logger.logSystemOperation("Processing event batch of " + events.size() + " events");
+
+        try {
+            EventJournal currentJournal = journal;
+            long[] sequences = new long[events.size()];
+            boolean journaled = false;
+            for (int i = 0; i < sequences.length; i++) {
+                sequences[i] = currentJournal != null ? currentJournal.sequenceOf(events.get(i)) : -1;
+                journaled |= sequences[i] >= 0;
+            }
+            for (ObserverMailbox mailbox : mailboxes.values()) {
+                if (journaled) {
+                    String name = mailbox.getObserver().getObserverName();
+                    for (long sequence : sequences) {
+                        if (sequence >= 0) {
+                            currentJournal.track(name, sequence);
+                        }
+                    }
+                }
+                mailbox.offerBatch(events, sequences);
+            }
+            if (journaled) {
+                for (int i = 0; i < sequences.length; i++) {
+                    if (sequences[i] >= 0) {
+                        currentJournal.markDispatched(events.get(i), sequences[i]);
+                    }
+                }
+            }
+
+            totalEventsProcessed.addAndGet(events.size());
+
+        } catch (Exception e) {
+            logger.logError("Failed to process event batch", e);
+            for (ContentEvent event : events) {
+                handleFailedEvent(event, "Batch processing failure: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Consumer thread implementation for processing events from multiple queues.
      */
@@ -407,18 +1080,13 @@ public class EventProcessingService {
 
             while (running && isRunning.get()) {
                 try {
-                    // Process high priority events first
-                    PriorityEvent priorityEvent = highPriorityQueue.poll(100, TimeUnit.MILLISECONDS);
-                    if (priorityEvent != null) {
-                        processEvent(priorityEvent.getEvent());
-                        consumerStats.get(name).incrementAndGet();
-                        continue;
-                    }
-
-                    // Process standard queue events
-                    ContentEvent standardEvent = standardQueue.poll(100, TimeUnit.MILLISECONDS);
-                    if (standardEvent != null) {
-                        processEvent(standardEvent);
+                    // Next event by lane weight, or from a lane past its starvation threshold
+                    ContentEvent event = laneScheduler.poll(100, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        long started = System.nanoTime();
+                        processEvent(event);
+                        dispatchNanos.addAndGet(System.nanoTime() - started);
+                        dispatchCount.incrementAndGet();
                         consumerStats.get(name).incrementAndGet();
                     }
 
@@ -433,51 +1101,65 @@ public class EventProcessingService {
             logger.logSystemOperation("Event consumer stopped: " + name);
         }
 
-        private void processEvent(ContentEvent event) {
-            try {
-                // Notify all registered observers
-                for (ContentObserver observer : eventObservers) {
-                    try {
-                        // Call appropriate observer method based on event type
-                        switch (event.getEventType()) {
-                            case CREATED:
-                                observer.onContentCreated(event);
-                                break;
-                            case UPDATED:
-                            case STATUS_CHANGED:
-                            case METADATA_UPDATED:
-                                observer.onContentUpdated(event);
-                                break;
-                            case PUBLISHED:
-                                observer.onContentPublished(event);
-                                break;
-                            case DELETED:
-                                observer.onContentDeleted(event);
-                                break;
-                            default:
-                                // For unknown event types, use a default handler or skip
-                                observer.onContentUpdated(event);
-                                break;
-                        }
-                    } catch (Exception e) {
-                        logger.logError("Observer failed to process event: " +
-                                observer.getClass().getSimpleName(), e);
-                    }
-                }
+        public void stop() {
+            running = false;
+        }
 
-                totalEventsProcessed.incrementAndGet();
+        public String getName() {
+            return name;
+        }
+    }
 
-            } catch (Exception e) {
-                logger.logError("Failed to process event: " + event.getEventType(), e);
-                handleFailedEvent(event, "Processing failure: " + e.getMessage());
+    /**
+     * Dedicated consumer of one ring lane, processing every available event
+     * as a batch before idling.
+     */
+    private class RingConsumer implements Runnable {
+        private final EventRingBuffer ring;
+        private final String name;
+        private final ContentEvent[] batch = new ContentEvent[RING_BATCH_SIZE];
+        private volatile boolean running = true;
+
+        RingConsumer(EventRingBuffer ring) {
+            this.ring = ring;
+            this.name = "EventRing-" + ring.getName();
+        }
+
+        @Override
+        public void run() {
+            logger.logSystemOperation("Ring consumer started: " + name);
+            AtomicLong processed = consumerStats.get(name);
+            int idleRounds = 0;
+
+            while (running && isRunning.get()) {
+                int count = ring.drainTo(batch);
+                if (count == 0) {
+                    idleRounds = ring.idle(idleRounds);
+                    continue;
+                }
+                idleRounds = 0;
+                if (ring == batchRing && count > 1) {
+                    processBatch(Arrays.asList(Arrays.copyOf(batch, count)));
+                    Arrays.fill(batch, 0, count, null);
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        ContentEvent event = batch[i];
+                        batch[i] = null;
+                        processEvent(event);
+                    }
+                }
+                processed.addAndGet(count);
             }
+
+            logger.logSystemOperation("Ring consumer stopped: " + name);
         }
 
-        public void stop() {
+        void stop() {
             running = false;
+            ring.wakeConsumer();
         }
 
-        public String getName() {
+        String getName() {
             return name;
         }
     }
@@ -521,41 +1203,6 @@ public class EventProcessingService {
 
             logger.logSystemOperation("Batch event consumer stopped");
         }
-
-        private void processBatch(List<ContentEvent> events) {
-            logger.logSystemOperation("Processing event batch of " + events.size() + " events");
-
-            for (ContentEvent event : events) {
-                try {
-                    for (ContentObserver observer : eventObservers) {
-                        // Call appropriate observer method based on event type
-                        switch (event.getEventType()) {
-                            case CREATED:
-                                observer.onContentCreated(event);
-                                break;
-                            case UPDATED:
-                            case STATUS_CHANGED:
-                            case METADATA_UPDATED:
-                                observer.onContentUpdated(event);
-                                break;
-                            case PUBLISHED:
-                                observer.onContentPublished(event);
-                                break;
-                            case DELETED:
-                                observer.onContentDeleted(event);
-                                break;
-                            default:
-                                observer.onContentUpdated(event);
-                                break;
-                        }
-                    }
-                    totalEventsProcessed.incrementAndGet();
-                } catch (Exception e) {
-                    logger.logError("Failed to process batch event", e);
-                    handleFailedEvent(event, "Batch processing failure");
-                }
-            }
-        }
     }
 
     /**
@@ -568,6 +1215,7 @@ public class EventProcessingService {
 
             while (isRunning.get()) {
                 try {
+                    // Only returns events whose backoff delay has elapsed
                     FailedEvent failedEvent = deadLetterQueue.poll(CONSUMER_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
                     if (failedEvent != null) {
                         processFailedEvent(failedEvent);
@@ -584,27 +1232,60 @@ public class EventProcessingService {
         }
 
         private void processFailedEvent(FailedEvent failedEvent) {
-            if (failedEvent.getRetryCount() < MAX_RETRY_ATTEMPTS) {
-                // Calculate exponential backoff delay
-                long delay = RETRY_DELAY_BASE_MS * (1L << failedEvent.getRetryCount());
+            EventJournal currentJournal = journal;
+            long sequence = currentJournal != null ? failedEvent.getSequence() : -1;
+            ContentObserver target = failedEvent.getTarget();
+            String consumer = target != null ? target.getObserverName() : EventJournal.ALL_CONSUMERS;
 
+            if (failedEvent.getRetryCount() < MAX_RETRY_ATTEMPTS) {
                 try {
-                    Thread.sleep(delay);
+                    ContentEvent event = failedEvent.getEvent();
+                    if (event == null && sequence >= 0) {
+                        // Recovered dead letter, only known by its journal sequence
+                        event = currentJournal.read(sequence);
+                    }
+                    if (event == null) {
+                        logger.logError("Dead-lettered event " + failedEvent.getSequence() +
+                                " is no longer in the journal", null);
+                        return;
+                    }
 
-                    // Retry event processing
-                    produceEvent(failedEvent.getEvent(), EventPriority.NORMAL);
+                    // Retry event processing, only for the observer it failed for if any
+                    if (target != null) {
+                        ObserverMailbox mailbox = mailboxes.get(target);
+                        if (mailbox != null) {
+                            if (sequence >= 0) {
+                                currentJournal.track(consumer, sequence);
+                            }
+                            if (!mailbox.tryOffer(event, sequence)) {
+                                if (sequence >= 0) {
+                                    currentJournal.recordDeadLetter(event, sequence, consumer,
+                                            failedEvent.getRetryCount() + 1, failedEvent.getReason());
+                                }
+                                deadLetterQueue.offer(new FailedEvent(event, sequence, failedEvent.getReason(),
+                                        LocalDateTime.now(), failedEvent.getRetryCount() + 1, target));
+                            }
+                        }
+                    } else if (sequence >= 0) {
+                        // Already journaled; route it again without appending a copy
+                        currentJournal.requeue(event, sequence);
+                        route(event, EventPriority.NORMAL);
+                    } else {
+                        produceEvent(event, EventPriority.NORMAL);
+                    }
                     totalEventsRetried.incrementAndGet();
 
                     logger.logSystemOperation("Retried failed event (attempt " +
                             (failedEvent.getRetryCount() + 1) + ")");
 
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
                 } catch (Exception e) {
                     logger.logError("Failed to retry event", e);
                 }
             } else {
                 // Maximum retries exceeded, log and discard
+                if (sequence >= 0) {
+                    currentJournal.resolve(sequence, consumer);
+                }
                 logger.logError("Event permanently failed after " + MAX_RETRY_ATTEMPTS +
                         " retries: " + failedEvent.getReason(), null);
                 auditLogger.logSecurityEvent("Event permanently failed", "SYSTEM", "MEDIUM");
@@ -632,52 +1313,83 @@ public class EventProcessingService {
     }
 
     /**
-     * Priority event wrapper for high-priority queue processing.
+     * What an observer mailbox does with an event that arrives while it is
+     * full.
      */
-    private static class PriorityEvent {
-        private final ContentEvent event;
-        private final EventPriority priority;
-        private final LocalDateTime timestamp;
-
-        public PriorityEvent(ContentEvent event, EventPriority priority) {
-            this.event = event;
-            this.priority = priority;
-            this.timestamp = LocalDateTime.now();
-        }
-
-        public ContentEvent getEvent() {
-            return event;
-        }
+    public enum OverflowPolicy {
+        /** Wait for space, dead-lettering the event if none frees up in time */
+        BLOCK,
+        /** Discard the oldest queued event to make room */
+        DROP_OLDEST,
+        /**
+         * Replace the queued event for the same content with the newer one,
+         * dead-lettering when there is none; only the latest state is
+         * delivered, so intermediate event types can be skipped
+         */
+        COALESCE_BY_CONTENT_ID,
+        /** Send the event to the dead letter queue for a delayed retry */
+        DEAD_LETTER
+    }
 
-        public EventPriority getPriority() {
-            return priority;
-        }
+    /**
+     * How produced events are handed to consumer threads.
+     */
+    public enum DispatchMode {
+        /** Blocking queues polled by a pool of consumer threads */
+        QUEUE,
+        /** Preallocated ring buffer per priority lane with dedicated consumers */
+        RING_BUFFER
+    }
 
-        public LocalDateTime getTimestamp() {
-            return timestamp;
-        }
+    /**
+     * How an idle ring buffer consumer waits for the next event, trading CPU
+     * for wake-up latency.
+     */
+    public enum WaitStrategy {
+        /** Spins continuously; lowest latency, occupies a core per lane */
+        BUSY_SPIN,
+        /** Spins briefly, then yields the processor between checks */
+        YIELD,
+        /** Spins briefly, then parks until a producer publishes */
+        PARK
     }
 
     /**
-     * Failed event representation for dead letter queue processing.
+     * Failed event representation for dead letter queue processing. It
+     * becomes available from the delay queue once its exponential backoff
+     * delay has elapsed.
      */
-    private static class FailedEvent {
+    private static class FailedEvent implements Delayed {
         private final ContentEvent event;
+        private final long sequence;
         private final String reason;
         private final LocalDateTime failureTime;
         private final int retryCount;
+        private final ContentObserver target;
+        private final long dueNanos;
 
-        public FailedEvent(ContentEvent event, String reason, LocalDateTime failureTime, int retryCount) {
+        public FailedEvent(ContentEvent event, long sequence, String reason, LocalDateTime failureTime,
+                int retryCount, ContentObserver target) {
             this.event = event;
+            this.sequence = sequence;
             this.reason = reason;
             this.failureTime = failureTime;
             this.retryCount = retryCount;
+            this.target = target;
+            this.dueNanos = System.nanoTime() +
+                    TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_BASE_MS << Math.min(retryCount, 20));
         }
 
+        /** The event, or null for a recovered dead letter that must be read from the journal */
         public ContentEvent getEvent() {
             return event;
         }
 
+        /** Journal sequence of the event, or -1 if it was not journaled */
+        public long getSequence() {
+            return sequence;
+        }
+
         public String getReason() {
             return reason;
         }
@@ -689,6 +1401,209 @@ public class EventProcessingService {
         public int getRetryCount() {
             return retryCount;
         }
+
+        /** Observer the event failed for, or null if it failed for all */
+        public ContentObserver getTarget() {
+            return target;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof FailedEvent) {
+                return Long.compare(dueNanos, ((FailedEvent) other).dueNanos);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Weights and starvation threshold of the HIGH, NORMAL and LOW lanes.
+     *
+     * <p>
+     * While all lanes have work, each lane receives a share of consumer time
+     * proportional to its weight; by default 8:3:1. An event that has waited
+     * longer than the starvation threshold is taken next whatever its lane.
+     * </p>
+     *
+     * @see EventProcessingService#setLaneOptions(LaneOptions)
+     */
+    public static class LaneOptions {
+        private int highWeight = 8;
+        private int normalWeight = 3;
+        private int lowWeight = 1;
+        private long starvationThresholdMillis = 500;
+
+        public int getHighWeight() {
+            return highWeight;
+        }
+
+        public void setHighWeight(int highWeight) {
+            this.highWeight = Math.max(1, highWeight);
+        }
+
+        public int getNormalWeight() {
+            return normalWeight;
+        }
+
+        public void setNormalWeight(int normalWeight) {
+            this.normalWeight = Math.max(1, normalWeight);
+        }
+
+        public int getLowWeight() {
+            return lowWeight;
+        }
+
+        public void setLowWeight(int lowWeight) {
+            this.lowWeight = Math.max(1, lowWeight);
+        }
+
+        public long getStarvationThresholdMillis() {
+            return starvationThresholdMillis;
+        }
+
+        /**
+         * Sets how long an event may wait before its lane is served ahead of
+         * the weights.
+         */
+        public void setStarvationThresholdMillis(long starvationThresholdMillis) {
+            this.starvationThresholdMillis = Math.max(1, starvationThresholdMillis);
+        }
+
+        int[] getWeights() {
+            return new int[] { highWeight, normalWeight, lowWeight };
+        }
+    }
+
+    /**
+     * Bounds and thresholds for autoscaling the queue consumers.
+     *
+     * @see EventProcessingService#enableAutoscaling(AutoscaleOptions)
+     */
+    public static class AutoscaleOptions {
+        private int minConsumers = 1;
+        private int maxConsumers = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        private long intervalMillis = 250;
+        private long targetDrainMillis = 100;
+        private int scaleDownIdleIntervals = 8;
+
+        public int getMinConsumers() {
+            return minConsumers;
+        }
+
+        public void setMinConsumers(int minConsumers) {
+            this.minConsumers = Math.max(1, minConsumers);
+            this.maxConsumers = Math.max(this.maxConsumers, this.minConsumers);
+        }
+
+        public int getMaxConsumers() {
+            return maxConsumers;
+        }
+
+        public void setMaxConsumers(int maxConsumers) {
+            this.maxConsumers = Math.max(1, maxConsumers);
+            this.minConsumers = Math.min(this.minConsumers, this.maxConsumers);
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        /**
+         * Sets how often the consumer count is re-evaluated.
+         */
+        public void setIntervalMillis(long intervalMillis) {
+            this.intervalMillis = Math.max(10, intervalMillis);
+        }
+
+        public long getTargetDrainMillis() {
+            return targetDrainMillis;
+        }
+
+        /**
+         * Sets the longest acceptable time to drain the backlog, or for an
+         * event to wait, before consumers are added.
+         */
+        public void setTargetDrainMillis(long targetDrainMillis) {
+            this.targetDrainMillis = Math.max(1, targetDrainMillis);
+        }
+
+        public int getScaleDownIdleIntervals() {
+            return scaleDownIdleIntervals;
+        }
+
+        /**
+         * Sets how many consecutive intervals without backlog retire one
+         * consumer.
+         */
+        public void setScaleDownIdleIntervals(int scaleDownIdleIntervals) {
+            this.scaleDownIdleIntervals = Math.max(1, scaleDownIdleIntervals);
+        }
+    }
+
+    /**
+     * Location and tuning of the persistent event journal.
+     *
+     * @see EventProcessingService#enableJournal(JournalOptions)
+     */
+    public static class JournalOptions {
+        private Path directory;
+        private int segmentSize = 16 * 1024 * 1024;
+        private long checkpointIntervalMillis = 1000;
+        private boolean syncOnAppend = false;
+
+        public JournalOptions(Path directory) {
+            this.directory = directory;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        /**
+         * Sets the size of each preallocated segment file; a single event
+         * must fit into one segment.
+         */
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = Math.max(64 * 1024, segmentSize);
+        }
+
+        public long getCheckpointIntervalMillis() {
+            return checkpointIntervalMillis;
+        }
+
+        /**
+         * Sets how often consumer offsets are persisted; events delivered
+         * since the last checkpoint are replayed after a crash.
+         */
+        public void setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+            this.checkpointIntervalMillis = Math.max(10, checkpointIntervalMillis);
+        }
+
+        public boolean isSyncOnAppend() {
+            return syncOnAppend;
+        }
+
+        /**
+         * Sets whether every append is forced to the storage device. Without
+         * it, appended events survive a process crash but not a power loss
+         * between checkpoints.
+         */
+        public void setSyncOnAppend(boolean syncOnAppend) {
+            this.syncOnAppend = syncOnAppend;
+        }
     }
 
     /**
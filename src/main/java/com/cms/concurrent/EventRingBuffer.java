@@ -0,0 +1,221 @@
+package com.cms.concurrent;
+
+import com.cms.patterns.observer.ContentEvent;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated multi-producer, single-consumer ring buffer used by
+ * {@link EventProcessingService} in {@link EventProcessingService.DispatchMode#RING_BUFFER}
+ * mode.
+ *
+ * <p>
+ * Producers claim a sequence number with a CAS on the shared cursor, store
+ * the event in the slot for that sequence and then mark the slot available
+ * by writing the sequence's lap number into an availability array. The
+ * consumer follows with its own sequence and only reads slots whose lap
+ * number matches, so it never sees a half-written slot. It processes every
+ * contiguous available event in one batch. The consumer sequence gates the
+ * producers, and a publish that would overwrite an unconsumed slot is
+ * refused instead of blocking.
+ * </p>
+ *
+ * <p>
+ * <strong>Waiting:</strong> When the ring is empty the consumer idles
+ * according to its {@link EventProcessingService.WaitStrategy}. With
+ * {@code PARK} the consumer announces that it is parked and producers unpark
+ * it after publishing, so an idle lane still wakes up within microseconds.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Any number of threads may call
+ * {@link #tryPublish(ContentEvent)}; {@link #drainTo(ContentEvent[])} and
+ * {@link #idle(int)} must only be called by the single consumer thread.
+ * </p>
+ *
+ * @see EventProcessingService
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class EventRingBuffer {
+
+    /** Spin iterations before yielding or parking */
+    private static final int SPIN_TRIES = 100;
+
+    /** Upper bound on a single park, so stop requests are noticed promptly */
+    private static final long PARK_TIMEOUT_NANOS = 1_000_000L;
+
+    private final String name;
+    private final ContentEvent[] slots;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray available;
+    private final EventProcessingService.WaitStrategy waitStrategy;
+
+    /** Highest sequence claimed by a producer */
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    /** Highest sequence handed to the consumer */
+    private final AtomicLong consumerSequence = new AtomicLong(-1);
+
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile Thread consumer;
+    private volatile boolean consumerParked;
+    private volatile long batches;
+    private volatile int largestBatch;
+
+    /**
+     * Creates a ring with all slots preallocated.
+     *
+     * @param name         Lane name used in statistics
+     * @param capacity     Number of slots, rounded up to a power of two
+     * @param waitStrategy How the consumer waits for events
+     */
+    EventRingBuffer(String name, int capacity, EventProcessingService.WaitStrategy waitStrategy) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.name = name;
+        this.slots = new ContentEvent[size];
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.available = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            available.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Publishes an event, or returns false without waiting if the ring is
+     * full.
+     *
+     * @param event The event to publish
+     * @return true if the event was published
+     */
+    boolean tryPublish(ContentEvent event) {
+        long current;
+        long next;
+        do {
+            current = cursor.get();
+            next = current + 1;
+            if (next - slots.length > consumerSequence.get()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        } while (!cursor.compareAndSet(current, next));
+
+        int index = (int) next & mask;
+        slots[index] = event;
+        available.set(index, (int) (next >>> indexShift));
+
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the next contiguous run of published events into the batch array
+     * and releases their slots to producers.
+     *
+     * @param batch Consumer-owned array receiving the events
+     * @return The number of events copied, 0 if none are available
+     */
+    int drainTo(ContentEvent[] batch) {
+        long next = consumerSequence.get() + 1;
+        long limit = Math.min(cursor.get(), next + batch.length - 1);
+        int count = 0;
+        for (long sequence = next; sequence <= limit; sequence++) {
+            int index = (int) sequence & mask;
+            if (available.get(index) != (int) (sequence >>> indexShift)) {
+                break;
+            }
+            batch[count++] = slots[index];
+            slots[index] = null;
+        }
+        if (count > 0) {
+            consumerSequence.set(next + count - 1);
+            batches++;
+            if (count > largestBatch) {
+                largestBatch = count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Waits once for new events according to the wait strategy.
+     *
+     * @param counter Idle rounds so far; pass 0 after processing events
+     * @return The updated idle round counter
+     */
+    int idle(int counter) {
+        if (waitStrategy == EventProcessingService.WaitStrategy.BUSY_SPIN || counter < SPIN_TRIES) {
+            Thread.onSpinWait();
+            return counter + 1;
+        }
+        if (waitStrategy == EventProcessingService.WaitStrategy.YIELD) {
+            Thread.yield();
+            return counter;
+        }
+
+        consumer = Thread.currentThread();
+        consumerParked = true;
+        if (!hasPublished()) {
+            LockSupport.parkNanos(this, PARK_TIMEOUT_NANOS);
+        }
+        consumerParked = false;
+        return counter;
+    }
+
+    /**
+     * Wakes the consumer if it is parked, e.g. to observe a stop request.
+     */
+    void wakeConsumer() {
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private boolean hasPublished() {
+        long next = consumerSequence.get() + 1;
+        return available.get((int) next & mask) == (int) (next >>> indexShift);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the number of published events not yet taken by the consumer.
+     */
+    long getBacklog() {
+        return Math.max(0, cursor.get() - consumerSequence.get());
+    }
+
+    long getPublished() {
+        return cursor.get() + 1;
+    }
+
+    long getConsumed() {
+        return consumerSequence.get() + 1;
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+
+    long getBatches() {
+        return batches;
+    }
+
+    int getLargestBatch() {
+        return largestBatch;
+    }
+}
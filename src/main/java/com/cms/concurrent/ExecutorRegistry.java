@@ -0,0 +1,565 @@
+package com.cms.concurrent;
+
+import com.cms.util.CMSLogger;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central registry of the named, bounded thread pools used across JavaCMS.
+ *
+ * <p>
+ * Components no longer create their own executors; they ask the registry for
+ * a pool by name and share it with every other component using that name.
+ * Each pool is classified as {@link WorkloadType#CPU} or
+ * {@link WorkloadType#IO}, which decides its default size: CPU pools are
+ * sized to the available processors, I/O pools allow more threads because
+ * their threads mostly wait. Every pool has a bounded size and, for plain
+ * executors, a bounded queue; a task arriving at a saturated pool runs on the
+ * submitting thread, which throttles the producer instead of growing the
+ * pool.
+ * </p>
+ *
+ * <p>
+ * <strong>Configuration:</strong> Pools are created on first use from their
+ * {@link PoolOptions}. The well-known pools below have defaults that match
+ * their former dedicated executors; {@link #configure(String, PoolOptions)}
+ * overrides them before first use.
+ * </p>
+ *
+ * <p>
+ * <strong>Metrics:</strong> {@link #getStatistics()} reports per pool the
+ * thread count, active threads, queue depth and the saturation ratios, plus
+ * the number of tasks that ran on the caller because the pool was full.
+ * </p>
+ *
+ * <p>
+ * <strong>Ownership:</strong> Pools belong to the registry. Components
+ * sharing a pool never shut it down; {@link #shutdown()} stops all pools and
+ * {@link #shutdownPool(String)} a single one. {@link ThreadPoolManager}
+ * shuts down the pools only it uses, whose non-daemon threads would otherwise
+ * keep the JVM alive.
+ * </p>
+ *
+ * @see ThreadPoolManager
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public class ExecutorRegistry {
+
+    private static final CMSLogger logger = CMSLogger.getInstance();
+    private static volatile ExecutorRegistry instance;
+    private static final Object lock = new Object();
+
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /** ThreadPoolManager content processing tasks */
+    public static final String CONTENT_PROCESSING = "content-processing";
+    /** ThreadPoolManager I/O tasks */
+    public static final String IO = "io";
+    /** ThreadPoolManager long-running background tasks */
+    public static final String BACKGROUND = "background";
+    /** ThreadPoolManager periodic tasks */
+    public static final String SCHEDULED = "scheduled";
+    /** Work-stealing pool shared by ThreadPoolManager and ContentStreamProcessor */
+    public static final String PARALLEL = "parallel";
+    /** Observer notifications of ContentSubject and ContentNotificationService */
+    public static final String NOTIFICATIONS = "notifications";
+    /** SearchIndexObserver background indexing */
+    public static final String SEARCH_INDEXING = "search-indexing";
+    /** Background segment merges of the search indexes */
+    public static final String SEARCH_MERGE = "search-merge";
+    /** Delayed publishing of ScheduledPublishingStrategy */
+    public static final String PUBLISHING_SCHEDULER = "publishing-scheduler";
+    /** Parallel chunks of BatchPublishingStrategy */
+    public static final String BATCH_PUBLISHING = "batch-publishing";
+    /** IOUtils asynchronous file operations */
+    public static final String ASYNC_IO = "async-io";
+    /** Drain tasks of the EventProcessingService observer mailboxes */
+    public static final String EVENT_MAILBOXES = "event-mailboxes";
+    /** Coalescing windows and journal checkpoints of EventProcessingService */
+    public static final String EVENT_TIMERS = "event-timers";
+
+    /**
+     * Kind of work a pool runs, deciding its default size.
+     */
+    public enum WorkloadType {
+        /** Compute-bound; threads beyond the processor count only add contention */
+        CPU,
+        /** Mostly blocked on files or the network; more threads than processors pay off */
+        IO
+    }
+
+    /**
+     * Size, queue and thread settings of one pool.
+     */
+    public static class PoolOptions {
+        private WorkloadType workloadType;
+        private int maxThreads;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private boolean daemon = true;
+        private int priority = Thread.NORM_PRIORITY;
+        private long keepAliveSeconds = 60;
+
+        public PoolOptions(WorkloadType workloadType) {
+            this.workloadType = workloadType;
+            this.maxThreads = defaultThreads(workloadType);
+        }
+
+        public PoolOptions(WorkloadType workloadType, int maxThreads) {
+            this(workloadType);
+            setMaxThreads(maxThreads);
+        }
+
+        public WorkloadType getWorkloadType() {
+            return workloadType;
+        }
+
+        public void setWorkloadType(WorkloadType workloadType) {
+            this.workloadType = workloadType;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(int maxThreads) {
+            this.maxThreads = Math.max(1, maxThreads);
+        }
+
+        /**
+         * Returns the queue bound of a plain executor, or 0 if unbounded.
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        /**
+         * Sets the queue bound of a plain executor; 0 means unbounded, which
+         * suits pools running a few long-lived tasks.
+         */
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = Math.max(0, queueCapacity);
+        }
+
+        public boolean isDaemon() {
+            return daemon;
+        }
+
+        public void setDaemon(boolean daemon) {
+            this.daemon = daemon;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public void setPriority(int priority) {
+            this.priority = Math.max(Thread.MIN_PRIORITY, Math.min(Thread.MAX_PRIORITY, priority));
+        }
+
+        public long getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        /**
+         * Sets how long idle threads of a plain executor are kept; idle pools
+         * shrink to zero threads.
+         */
+        public void setKeepAliveSeconds(long keepAliveSeconds) {
+            this.keepAliveSeconds = Math.max(1, keepAliveSeconds);
+        }
+
+        private static int defaultThreads(WorkloadType workloadType) {
+            return workloadType == WorkloadType.IO ? Math.max(16, PROCESSORS * 4) : PROCESSORS;
+        }
+
+        private static PoolOptions of(WorkloadType workloadType, int maxThreads, int queueCapacity, boolean daemon,
+                int priority) {
+            PoolOptions options = new PoolOptions(workloadType, maxThreads);
+            options.setQueueCapacity(queueCapacity);
+            options.setDaemon(daemon);
+            options.setPriority(priority);
+            return options;
+        }
+    }
+
+    /** A created pool and its metrics */
+    private static final class Pool {
+        final String name;
+        final PoolOptions options;
+        final ExecutorService executor;
+        final AtomicLong callerRuns = new AtomicLong();
+
+        Pool(String name, PoolOptions options, ExecutorService executor) {
+            this.name = name;
+            this.options = options;
+            this.executor = executor;
+        }
+    }
+
+    private final Map<String, PoolOptions> options = new ConcurrentHashMap<>();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private volatile boolean isShutdown;
+
+    /**
+     * Creates a registry with the default options for the well-known pools.
+     */
+    public ExecutorRegistry() {
+        // Former ThreadPoolManager pools keep their non-daemon threads and priorities
+        options.put(CONTENT_PROCESSING, PoolOptions.of(WorkloadType.CPU, PROCESSORS * 2, DEFAULT_QUEUE_CAPACITY,
+                false, Thread.NORM_PRIORITY));
+        options.put(IO, PoolOptions.of(WorkloadType.IO, 50, DEFAULT_QUEUE_CAPACITY, false, Thread.NORM_PRIORITY - 1));
+        options.put(BACKGROUND, PoolOptions.of(WorkloadType.CPU, 1, 0, false, Thread.MIN_PRIORITY + 1));
+        options.put(SCHEDULED, PoolOptions.of(WorkloadType.CPU, 3, 0, false, Thread.NORM_PRIORITY));
+        options.put(PARALLEL, PoolOptions.of(WorkloadType.CPU, PROCESSORS, 0, true, Thread.NORM_PRIORITY));
+
+        options.put(NOTIFICATIONS, PoolOptions.of(WorkloadType.IO, Math.max(16, PROCESSORS * 4),
+                DEFAULT_QUEUE_CAPACITY, true, Thread.NORM_PRIORITY));
+        options.put(SEARCH_INDEXING, PoolOptions.of(WorkloadType.CPU, Math.min(3, PROCESSORS),
+                DEFAULT_QUEUE_CAPACITY, true, Thread.NORM_PRIORITY));
+        options.put(SEARCH_MERGE, PoolOptions.of(WorkloadType.CPU, Math.max(1, PROCESSORS / 2),
+                DEFAULT_QUEUE_CAPACITY, true, Thread.MIN_PRIORITY + 1));
+        options.put(PUBLISHING_SCHEDULER, PoolOptions.of(WorkloadType.IO, 5, 0, true, Thread.NORM_PRIORITY));
+        options.put(BATCH_PUBLISHING, PoolOptions.of(WorkloadType.CPU, 4, DEFAULT_QUEUE_CAPACITY, true,
+                Thread.NORM_PRIORITY));
+        options.put(ASYNC_IO, PoolOptions.of(WorkloadType.IO, Math.max(16, PROCESSORS * 4), DEFAULT_QUEUE_CAPACITY,
+                true, Thread.NORM_PRIORITY));
+        // Each mailbox has at most one drain task queued, so its queue needs no bound
+        options.put(EVENT_MAILBOXES, PoolOptions.of(WorkloadType.IO, Math.max(16, PROCESSORS * 4), 0, true,
+                Thread.NORM_PRIORITY));
+        options.put(EVENT_TIMERS, PoolOptions.of(WorkloadType.CPU, 1, 0, true, Thread.NORM_PRIORITY));
+    }
+
+    /**
+     * Gets the shared registry used by components constructed without one.
+     *
+     * @return The default ExecutorRegistry
+     */
+    public static ExecutorRegistry getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new ExecutorRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the options of a pool. Must be called before the pool is first
+     * used; a pool that already exists keeps its settings.
+     *
+     * @param name    Pool name
+     * @param options Pool options
+     * @throws IllegalStateException if the pool has already been created
+     */
+    public void configure(String name, PoolOptions options) {
+        if (name == null || options == null || options.getWorkloadType() == null) {
+            throw new IllegalArgumentException("Pool name, options and workload type cannot be null");
+        }
+        if (pools.containsKey(name)) {
+            throw new IllegalStateException("Pool " + name + " is already in use");
+        }
+        this.options.put(name, options);
+    }
+
+    /**
+     * Returns the plain executor of a pool, creating it on first use.
+     *
+     * @param name Pool name
+     * @return The shared executor
+     */
+    public ExecutorService executor(String name) {
+        return pool(name, PoolKind.EXECUTOR).executor;
+    }
+
+    /**
+     * Returns the scheduled executor of a pool, creating it on first use.
+     *
+     * @param name Pool name
+     * @return The shared scheduled executor
+     */
+    public ScheduledExecutorService scheduler(String name) {
+        return (ScheduledExecutorService) pool(name, PoolKind.SCHEDULER).executor;
+    }
+
+    /**
+     * Returns the work-stealing pool of a name, creating it on first use.
+     *
+     * @param name Pool name
+     * @return The shared ForkJoinPool
+     */
+    public ForkJoinPool forkJoinPool(String name) {
+        return (ForkJoinPool) pool(name, PoolKind.FORK_JOIN).executor;
+    }
+
+    /**
+     * Returns a view of a pool that runs at most {@code maxConcurrency} of the
+     * caller's tasks at once, queuing the rest. Lets a component keep its own
+     * concurrency limit while sharing the pool's threads.
+     *
+     * @param name           Pool name
+     * @param maxConcurrency Maximum concurrently running tasks of this view
+     * @return The limited executor
+     */
+    public Executor limitedExecutor(String name, int maxConcurrency) {
+        return new BoundedTaskExecutor(name, executor(name), maxConcurrency);
+    }
+
+    /**
+     * Returns the workload classification of a pool.
+     *
+     * @param name Pool name
+     * @return The pool's workload type, or null if the name is unknown
+     */
+    public WorkloadType getWorkloadType(String name) {
+        PoolOptions poolOptions = options.get(name);
+        return poolOptions != null ? poolOptions.getWorkloadType() : null;
+    }
+
+    private enum PoolKind {
+        EXECUTOR, SCHEDULER, FORK_JOIN
+    }
+
+    private Pool pool(String name, PoolKind kind) {
+        Pool existing = pools.get(name);
+        if (existing == null) {
+            existing = pools.computeIfAbsent(name, key -> create(key, kind));
+        }
+        PoolKind actual = existing.executor instanceof ForkJoinPool ? PoolKind.FORK_JOIN
+                : existing.executor instanceof ScheduledExecutorService ? PoolKind.SCHEDULER : PoolKind.EXECUTOR;
+        if (actual != kind && !(kind == PoolKind.EXECUTOR && actual == PoolKind.SCHEDULER)) {
+            throw new IllegalStateException("Pool " + name + " is a " + actual + " pool, not " + kind);
+        }
+        return existing;
+    }
+
+    private Pool create(String name, PoolKind kind) {
+        PoolOptions poolOptions = options.computeIfAbsent(name, key -> new PoolOptions(WorkloadType.CPU));
+        ExecutorService executor;
+        Pool[] created = new Pool[1];
+        RejectedExecutionHandler callerRuns = (task, pool) -> {
+            // Saturated: throttle the submitter by running the task on its thread
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("Executor pool '" + name + "' has been shut down");
+            }
+            created[0].callerRuns.incrementAndGet();
+            task.run();
+        };
+
+        switch (kind) {
+            case SCHEDULER:
+                ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(poolOptions.getMaxThreads(),
+                        new NamedThreadFactory(name, poolOptions), callerRuns);
+                scheduler.setRemoveOnCancelPolicy(true);
+                executor = scheduler;
+                break;
+            case FORK_JOIN:
+                executor = new ForkJoinPool(poolOptions.getMaxThreads(), forkJoinFactory(name, poolOptions), null,
+                        true);
+                break;
+            case EXECUTOR:
+            default:
+                BlockingQueue<Runnable> queue = poolOptions.getQueueCapacity() > 0
+                        ? new ArrayBlockingQueue<>(poolOptions.getQueueCapacity())
+                        : new LinkedBlockingQueue<>();
+                ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolOptions.getMaxThreads(),
+                        poolOptions.getMaxThreads(), poolOptions.getKeepAliveSeconds(), TimeUnit.SECONDS, queue,
+                        new NamedThreadFactory(name, poolOptions), callerRuns);
+                threadPool.allowCoreThreadTimeOut(true);
+                executor = threadPool;
+                break;
+        }
+
+        created[0] = new Pool(name, poolOptions, executor);
+        logger.logSystemOperation("Executor pool '" + name + "' created: " + poolOptions.getWorkloadType() + ", " +
+                poolOptions.getMaxThreads() + " threads" +
+                (kind == PoolKind.EXECUTOR && poolOptions.getQueueCapacity() > 0
+                        ? ", queue " + poolOptions.getQueueCapacity()
+                        : ""));
+        return created[0];
+    }
+
+    /**
+     * Returns saturation metrics for every created pool plus totals.
+     *
+     * <p>
+     * {@code saturation} is the share of threads busy, {@code queueUtilization}
+     * the share of queue capacity used, and {@code callerRuns} the number of
+     * tasks that ran on the submitting thread because the pool was full.
+     * </p>
+     *
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> poolStats = new LinkedHashMap<>();
+        int totalThreads = 0;
+        int activeThreads = 0;
+        Map<String, Integer> threadsByType = new HashMap<>();
+
+        for (Pool pool : pools.values()) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            int max = pool.options.getMaxThreads();
+            int threads;
+            int active;
+            long queued;
+            metrics.put("workloadType", pool.options.getWorkloadType().name());
+            metrics.put("maxThreads", max);
+
+            if (pool.executor instanceof ForkJoinPool) {
+                ForkJoinPool forkJoin = (ForkJoinPool) pool.executor;
+                threads = forkJoin.getPoolSize();
+                active = forkJoin.getActiveThreadCount();
+                queued = forkJoin.getQueuedTaskCount() + forkJoin.getQueuedSubmissionCount();
+                metrics.put("kind", "fork-join");
+                metrics.put("stealCount", forkJoin.getStealCount());
+            } else {
+                ThreadPoolExecutor threadPool = (ThreadPoolExecutor) pool.executor;
+                threads = threadPool.getPoolSize();
+                active = threadPool.getActiveCount();
+                queued = threadPool.getQueue().size();
+                metrics.put("kind", threadPool instanceof ScheduledThreadPoolExecutor ? "scheduled" : "executor");
+                metrics.put("largestPoolSize", threadPool.getLargestPoolSize());
+                metrics.put("completedTasks", threadPool.getCompletedTaskCount());
+                int capacity = pool.options.getQueueCapacity();
+                if (!(threadPool instanceof ScheduledThreadPoolExecutor)) {
+                    metrics.put("queueCapacity", capacity);
+                    metrics.put("queueUtilization", capacity > 0 ? (double) queued / capacity : 0.0);
+                }
+            }
+
+            metrics.put("threads", threads);
+            metrics.put("activeThreads", active);
+            metrics.put("queuedTasks", queued);
+            metrics.put("saturation", (double) active / max);
+            metrics.put("callerRuns", pool.callerRuns.get());
+            metrics.put("shutdown", pool.executor.isShutdown());
+            poolStats.put(pool.name, metrics);
+
+            totalThreads += threads;
+            activeThreads += active;
+            threadsByType.merge(pool.options.getWorkloadType().name(), threads, Integer::sum);
+        }
+
+        stats.put("pools", poolStats);
+        stats.put("poolCount", pools.size());
+        stats.put("totalThreads", totalThreads);
+        stats.put("activeThreads", activeThreads);
+        stats.put("threadsByWorkloadType", threadsByType);
+        stats.put("isShutdown", isShutdown);
+        return stats;
+    }
+
+    /**
+     * Shuts down every pool, waiting for running tasks to finish.
+     */
+    public void shutdown() {
+        if (isShutdown) {
+            return;
+        }
+        isShutdown = true;
+        for (Pool pool : pools.values()) {
+            pool.executor.shutdown();
+        }
+        for (Pool pool : pools.values()) {
+            try {
+                if (!pool.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.logError("Executor pool '" + pool.name + "' did not terminate gracefully, forcing shutdown",
+                            null);
+                    pool.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.executor.shutdownNow();
+            }
+        }
+        logger.logSystemOperation("ExecutorRegistry shut down " + pools.size() + " pools");
+    }
+
+    /**
+     * Shuts down a single pool, waiting for running tasks to finish. The name
+     * stays configured; a later request for it creates a new pool.
+     *
+     * @param name Pool name
+     */
+    public void shutdownPool(String name) {
+        Pool pool = pools.remove(name);
+        if (pool == null) {
+            return;
+        }
+        pool.executor.shutdown();
+        try {
+            if (!pool.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.logError("Executor pool '" + name + "' did not terminate gracefully, forcing shutdown", null);
+                pool.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.executor.shutdownNow();
+        }
+    }
+
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory forkJoinFactory(String name, PoolOptions poolOptions) {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("CMS-" + name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(poolOptions.isDaemon());
+            thread.setPriority(poolOptions.getPriority());
+            return thread;
+        };
+    }
+
+    /**
+     * Thread factory naming threads after their pool.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String namePrefix;
+        private final PoolOptions poolOptions;
+
+        NamedThreadFactory(String name, PoolOptions poolOptions) {
+            this.namePrefix = "CMS-" + name + "-";
+            this.poolOptions = poolOptions;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(poolOptions.isDaemon());
+            t.setPriority(poolOptions.getPriority());
+            t.setUncaughtExceptionHandler((thread, e) -> {
+                Exception exception = (e instanceof Exception) ? (Exception) e : new Exception("Uncaught throwable", e);
+                CMSLogger.getInstance().logError("Uncaught exception in thread " + thread.getName(), exception);
+            });
+            return t;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.cms.concurrent;
+
+import com.cms.patterns.observer.ContentEvent;
+import com.cms.patterns.observer.ContentObserver;
+import com.cms.util.CMSLogger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Bounded mailbox for one observer registered with
+ * {@link EventProcessingService}.
+ *
+ * <p>
+ * Consumer threads only enqueue events here; the observer is invoked by the
+ * mailbox's drain task, one event at a time and in arrival order. A slow
+ * observer therefore only fills its own mailbox (a bulkhead) instead of
+ * stalling delivery to every other observer. What happens when the mailbox
+ * is full is decided by its {@link EventProcessingService.OverflowPolicy}.
+ * </p>
+ *
+ * <p>
+ * <strong>Scheduling:</strong> Actor style. The first event enqueued into an
+ * empty, idle mailbox schedules a drain task, which delivers up to
+ * {@value #DRAIN_BATCH} events before rescheduling itself so one busy
+ * mailbox cannot monopolize a thread. Drain tasks of all mailboxes run on the
+ * shared {@link ExecutorRegistry#EVENT_MAILBOXES} pool, so quiet observers
+ * hold no thread.
+ * </p>
+ *
+ * <p>
+ * <strong>Failures:</strong> An event, or every event of a batch, whose
+ * observer callback throws is handed to the dead letter sink instead of
+ * being acknowledged, so the service retries it for this observer.
+ * </p>
+ *
+ * <p>
+ * <strong>Batches:</strong> A batch offered through {@link #offerBatch(List, long[])}
+ * is queued as one delivery, occupies one slot and reaches the observer in a
+ * single {@link ContentObserver#onEventsBatch(List)} call.
+ * </p>
+ *
+ * <p>
+ * <strong>Journal:</strong> When the service journals events, each event
+ * carries its journal sequence, and the mailbox acknowledges the sequence
+ * once the observer has processed it or the overflow policy discarded it.
+ * Events still queued at shutdown are not acknowledged, so they are replayed
+ * on the next start. Without a journal the sequence is {@code -1}.
+ * </p>
+ *
+ * @see EventProcessingService#registerObserver(ContentObserver, int,
+ *      EventProcessingService.OverflowPolicy)
+ * @see EventJournal
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class ObserverMailbox {
+
+    private static final CMSLogger logger = CMSLogger.getInstance();
+
+    /** Events delivered per drain task before yielding the thread */
+    private static final int DRAIN_BATCH = 64;
+
+    /** Longest a BLOCK producer waits for space before dead-lettering */
+    private static final long BLOCK_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /** Receives events spilled to the dead letter queue */
+    interface DeadLetterSink {
+        void accept(ContentEvent event, long sequence, String reason);
+    }
+
+    /** A queued event or batch, its journal sequences and the time it was first enqueued */
+    private static final class Envelope {
+        ContentEvent event;
+        long sequence;
+        final List<ContentEvent> batch;
+        final long[] sequences;
+        final String contentId;
+        final long enqueuedNanos;
+
+        Envelope(ContentEvent event, long sequence, List<ContentEvent> batch, long[] sequences, String contentId,
+                long enqueuedNanos) {
+            this.event = event;
+            this.sequence = sequence;
+            this.batch = batch;
+            this.sequences = sequences;
+            this.contentId = contentId;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final ContentObserver observer;
+    private final int capacity;
+    private final EventProcessingService.OverflowPolicy policy;
+    private final DeadLetterSink deadLetter;
+    private final LongConsumer acknowledger;
+    private final Executor executor;
+    private volatile boolean closed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Envelope> queue = new ArrayDeque<>();
+    /** Newest queued envelope per content ID, kept for COALESCE_BY_CONTENT_ID */
+    private final Map<String, Envelope> pendingByContentId = new HashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batchesDelivered = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private final AtomicLong totalLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile int maxDepth;
+
+    /**
+     * Creates a mailbox for an observer.
+     *
+     * @param observer   The observer events are delivered to
+     * @param capacity   Maximum number of queued events
+     * @param policy     What to do with events arriving while full
+     * @param deadLetter   Receives events spilled to the dead letter queue,
+     *                     with their sequence and the reason
+     * @param acknowledger Receives the journal sequence of every event the
+     *                     mailbox is done with
+     */
+    ObserverMailbox(ContentObserver observer, int capacity, EventProcessingService.OverflowPolicy policy,
+            DeadLetterSink deadLetter, LongConsumer acknowledger) {
+        this.observer = observer;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.deadLetter = deadLetter;
+        this.acknowledger = acknowledger;
+        this.executor = ExecutorRegistry.getInstance().executor(ExecutorRegistry.EVENT_MAILBOXES);
+    }
+
+    /**
+     * Enqueues an event, applying the overflow policy if the mailbox is full.
+     *
+     * @param event    The event to deliver
+     * @param sequence Its journal sequence, or -1
+     */
+    void offer(ContentEvent event, long sequence) {
+        String spillReason = null;
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        if (!awaitSpace()) {
+                            spillReason = "Mailbox full for " + observer.getObserverName() + " (block timeout)";
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        Envelope oldest = queue.pollFirst();
+                        unindex(oldest);
+                        dropped.incrementAndGet();
+                        acknowledge(oldest);
+                        break;
+                    case COALESCE_BY_CONTENT_ID:
+                        Envelope pending = pendingByContentId.get(contentIdOf(event));
+                        if (pending != null) {
+                            // Latest state wins; keep the original queue position and age
+                            acknowledge(pending.sequence);
+                            pending.event = event;
+                            pending.sequence = sequence;
+                            coalesced.incrementAndGet();
+                            return;
+                        }
+                        spillReason = "Mailbox full for " + observer.getObserverName() + " (nothing to coalesce)";
+                        break;
+                    case DEAD_LETTER:
+                    default:
+                        spillReason = "Mailbox full for " + observer.getObserverName();
+                        break;
+                }
+            }
+            if (spillReason == null) {
+                enqueue(event, sequence);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (spillReason != null) {
+            deadLettered.incrementAndGet();
+            deadLetter.accept(event, sequence, spillReason);
+        } else {
+            schedule();
+        }
+    }
+
+    /**
+     * Enqueues a batch of events as a single delivery.
+     *
+     * <p>
+     * If the mailbox is full, a BLOCK mailbox waits for space as for a single
+     * event; under the other policies the events are offered one by one so
+     * the policy applies to each of them.
+     * </p>
+     *
+     * @param events    The events, in order; the list must not be modified later
+     * @param sequences Their journal sequences, or -1 each
+     */
+    void offerBatch(List<ContentEvent> events, long[] sequences) {
+        if (events.size() == 1) {
+            offer(events.get(0), sequences[0]);
+            return;
+        }
+
+        boolean accepted = false;
+        boolean timedOut = false;
+        lock.lock();
+        try {
+            if (queue.size() < capacity) {
+                accepted = true;
+            } else if (policy == EventProcessingService.OverflowPolicy.BLOCK) {
+                accepted = awaitSpace();
+                timedOut = !accepted;
+            }
+            if (accepted) {
+                queue.addLast(new Envelope(null, -1, events, sequences, null, System.nanoTime()));
+                recordEnqueued(events.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (accepted) {
+            schedule();
+        } else if (timedOut) {
+            String reason = "Mailbox full for " + observer.getObserverName() + " (block timeout)";
+            for (int i = 0; i < events.size(); i++) {
+                deadLettered.incrementAndGet();
+                deadLetter.accept(events.get(i), sequences[i], reason);
+            }
+        } else {
+            for (int i = 0; i < events.size(); i++) {
+                offer(events.get(i), sequences[i]);
+            }
+        }
+    }
+
+    /**
+     * Enqueues a retried event only if there is space, without applying the
+     * overflow policy.
+     *
+     * @param event    The event to deliver
+     * @param sequence Its journal sequence, or -1
+     * @return true if the event was enqueued
+     */
+    boolean tryOffer(ContentEvent event, long sequence) {
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            enqueue(event, sequence);
+        } finally {
+            lock.unlock();
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Stops delivery; queued events are discarded without being
+     * acknowledged. The shared pool keeps running.
+     */
+    void shutdown() {
+        closed = true;
+        lock.lock();
+        try {
+            queue.clear();
+            pendingByContentId.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the mailbox metrics.
+     *
+     * <p>
+     * Lag is the time from enqueueing an event to the observer starting on it.
+     * </p>
+     *
+     * @return Map of metric name to value
+     */
+    Map<String, Object> getStatistics() {
+        long deliveredCount = delivered.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("policy", policy.name());
+        stats.put("capacity", capacity);
+        stats.put("depth", getDepth());
+        stats.put("maxDepth", maxDepth);
+        stats.put("enqueued", enqueued.get());
+        stats.put("delivered", deliveredCount);
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("batchesDelivered", batchesDelivered.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("blockedMillis", TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()));
+        stats.put("averageLagMillis",
+                deliveredCount == 0 ? 0.0 : totalLagNanos.get() / 1_000_000.0 / deliveredCount);
+        stats.put("maxLagMillis", maxLagNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    int getDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ContentObserver getObserver() {
+        return observer;
+    }
+
+    // Called with lock held
+
+    private void enqueue(ContentEvent event, long sequence) {
+        Envelope envelope = new Envelope(event, sequence, null, null, contentIdOf(event), System.nanoTime());
+        queue.addLast(envelope);
+        if (policy == EventProcessingService.OverflowPolicy.COALESCE_BY_CONTENT_ID && envelope.contentId != null) {
+            pendingByContentId.put(envelope.contentId, envelope);
+        }
+        recordEnqueued(1);
+    }
+
+    private void recordEnqueued(int events) {
+        enqueued.addAndGet(events);
+        if (queue.size() > maxDepth) {
+            maxDepth = queue.size();
+        }
+    }
+
+    private void unindex(Envelope envelope) {
+        if (envelope != null && envelope.contentId != null) {
+            pendingByContentId.remove(envelope.contentId, envelope);
+        }
+    }
+
+    private boolean awaitSpace() {
+        long start = System.nanoTime();
+        long remaining = BLOCK_TIMEOUT_NANOS;
+        try {
+            while (queue.size() >= capacity && remaining > 0 && !closed) {
+                remaining = notFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+        return queue.size() < capacity;
+    }
+
+    // Delivery, on the mailbox thread
+
+    private void schedule() {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH && !closed; i++) {
+            Envelope envelope;
+            lock.lock();
+            try {
+                envelope = queue.pollFirst();
+                if (envelope == null) {
+                    break;
+                }
+                unindex(envelope);
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            deliver(envelope);
+        }
+
+        scheduled.set(false);
+        if (getDepth() > 0) {
+            schedule();
+        }
+    }
+
+    private void deliver(Envelope envelope) {
+        long lag = System.nanoTime() - envelope.enqueuedNanos;
+        totalLagNanos.addAndGet(envelope.batch != null ? lag * envelope.batch.size() : lag);
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+
+        if (envelope.batch != null) {
+            try {
+                observer.onEventsBatch(envelope.batch);
+            } catch (Exception e) {
+                failed.addAndGet(envelope.batch.size());
+                logger.logError("Observer failed to process event batch: " + observer.getClass().getSimpleName(), e);
+                String reason = "Observer " + observer.getObserverName() + " failed: " + e.getMessage();
+                for (int i = 0; i < envelope.batch.size(); i++) {
+                    deadLettered.incrementAndGet();
+                    deadLetter.accept(envelope.batch.get(i), envelope.sequences[i], reason);
+                }
+                return;
+            }
+            batchesDelivered.incrementAndGet();
+            delivered.addAndGet(envelope.batch.size());
+            acknowledge(envelope);
+            return;
+        }
+
+        ContentEvent event = envelope.event;
+        try {
+            ContentObserver.dispatch(observer, event);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.logError("Observer failed to process event: " + observer.getClass().getSimpleName(), e);
+            deadLettered.incrementAndGet();
+            deadLetter.accept(event, envelope.sequence,
+                    "Observer " + observer.getObserverName() + " failed: " + e.getMessage());
+            return;
+        }
+        delivered.incrementAndGet();
+        acknowledge(envelope);
+    }
+
+    private void acknowledge(Envelope envelope) {
+        if (envelope.sequences != null) {
+            for (long sequence : envelope.sequences) {
+                acknowledge(sequence);
+            }
+        } else {
+            acknowledge(envelope.sequence);
+        }
+    }
+
+    private void acknowledge(long sequence) {
+        if (sequence >= 0 && acknowledger != null) {
+            acknowledger.accept(sequence);
+        }
+    }
+
+    private static String contentIdOf(ContentEvent event) {
+        return event.getContent() != null ? event.getContent().getId() : null;
+    }
+}
@@ -0,0 +1,320 @@
+package com.cms.concurrent;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, preallocated operation history used by
+ * {@link ConcurrentContentRepository} for auditing.
+ *
+ * <p>
+ * The history is split into a power-of-two number of ring stripes. Each
+ * recording thread is mapped to a stripe by its thread ID and claims a slot
+ * with a single atomic increment, then writes the operation into parallel
+ * primitive and enum arrays. Nothing is allocated on the recording path:
+ * targets are stored as references to objects the caller already holds and
+ * result counts as longs. {@link ConcurrentContentRepository.OperationRecord}
+ * instances and their display strings are only materialized when
+ * {@link #recent(int)} merges the stripes.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Slots are published with a per-slot stamp in
+ * the style of a sequence lock. A reader that races with a writer reusing the
+ * slot sees the stamp change and skips the entry rather than returning a
+ * torn record.
+ * </p>
+ *
+ * <p>
+ * <strong>Sampling:</strong> With a sample rate of {@code n > 1}, read and
+ * search operations are recorded with probability {@code 1/n}; writes are
+ * always recorded. A rate of 0 disables read recording entirely.
+ * </p>
+ *
+ * @see ConcurrentContentRepository#getRecentOperations(int)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class OperationHistory {
+
+    /**
+     * Kinds of repository operation.
+     */
+    enum Operation {
+        SAVE, READ, SEARCH, DELETE, BULK_SAVE, CLEAR
+    }
+
+    /**
+     * Outcome of an operation; counted outcomes carry their count in the slot's
+     * value.
+     */
+    enum Outcome {
+        CREATE("CREATE", false),
+        UPDATE("UPDATE", false),
+        CACHE_HIT("CACHE_HIT", false),
+        CACHE_MISS("CACHE_MISS", false),
+        SNAPSHOT_HIT("SNAPSHOT_HIT", false),
+        SNAPSHOT_MISS("SNAPSHOT_MISS", false),
+        SUCCESS("SUCCESS", false),
+        CONFLICT("CONFLICT_V", true),
+        FOUND("FOUND_", true),
+        COUNT("COUNT_", true);
+
+        private final String label;
+        private final boolean counted;
+
+        Outcome(String label, boolean counted) {
+            this.label = label;
+            this.counted = counted;
+        }
+
+        String format(long value) {
+            return counted ? label + value : label;
+        }
+    }
+
+    /**
+     * How the target reference of a slot is rendered.
+     */
+    enum TargetKind {
+        CONTENT(""),
+        STATUS("status:"),
+        AUTHOR("author:"),
+        PREDICATE("predicate"),
+        CRITERIA("criteria"),
+        BATCH("batch"),
+        PAGE("page"),
+        REPOSITORY("repository");
+
+        private final String label;
+
+        TargetKind(String label) {
+            this.label = label;
+        }
+
+        String format(Object target) {
+            switch (this) {
+                case CONTENT:
+                    return String.valueOf(target);
+                case STATUS:
+                case AUTHOR:
+                    return label + target;
+                default:
+                    return label;
+            }
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int capacity;
+    private volatile int sampleRate = 1;
+
+    /**
+     * Creates a history retaining roughly {@code capacity} entries; the slot
+     * count is rounded up so every stripe is a power of two.
+     *
+     * @param capacity Minimum total number of slots across all stripes
+     */
+    OperationHistory(int capacity) {
+        int stripeCount = 1;
+        while (stripeCount < Runtime.getRuntime().availableProcessors()) {
+            stripeCount <<= 1;
+        }
+        int slotsPerStripe = 1;
+        while (slotsPerStripe * stripeCount < capacity) {
+            slotsPerStripe <<= 1;
+        }
+
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(slotsPerStripe);
+        }
+        this.capacity = slotsPerStripe * stripeCount;
+    }
+
+    /**
+     * Records an operation without allocating.
+     */
+    void record(Operation operation, TargetKind targetKind, Object target, Outcome outcome, long value) {
+        if ((operation == Operation.READ || operation == Operation.SEARCH) && !sampled()) {
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        stripes[(int) (threadId ^ (threadId >>> 16)) & (stripes.length - 1)]
+                .write(operation, targetKind, target, outcome, value);
+    }
+
+    /**
+     * Merges the stripes and returns up to {@code limit} most recent operations,
+     * oldest first.
+     */
+    List<ConcurrentContentRepository.OperationRecord> recent(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.collect(entries, limit);
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.nanos));
+
+        int from = Math.max(0, entries.size() - limit);
+        List<ConcurrentContentRepository.OperationRecord> records = new ArrayList<>(entries.size() - from);
+        ZoneId zone = ZoneId.systemDefault();
+        for (Entry entry : entries.subList(from, entries.size())) {
+            records.add(new ConcurrentContentRepository.OperationRecord(
+                    entry.operation.name(),
+                    entry.targetKind.format(entry.target),
+                    entry.outcome.format(entry.value),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.millis), zone)));
+        }
+        return records;
+    }
+
+    /**
+     * Returns the number of entries currently retained.
+     */
+    int size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += Math.min(stripe.claimed.get(), stripe.mask + 1L);
+        }
+        return (int) size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int getSampleRate() {
+        return sampleRate;
+    }
+
+    void setSampleRate(int sampleRate) {
+        if (sampleRate < 0) {
+            throw new IllegalArgumentException("Sample rate cannot be negative");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Discards all entries. Writers racing with a clear may leave a few entries
+     * behind, which is acceptable for an audit trail being reset.
+     */
+    void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private boolean sampled() {
+        int rate = sampleRate;
+        return rate == 1 || (rate > 1 && ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+
+    /**
+     * One multi-producer ring of preallocated slots.
+     */
+    private static final class Stripe {
+        private final int mask;
+        private final AtomicLong claimed = new AtomicLong();
+        private final AtomicLongArray stamps;
+        private final Operation[] operations;
+        private final Outcome[] outcomes;
+        private final TargetKind[] targetKinds;
+        private final Object[] targets;
+        private final long[] values;
+        private final long[] nanos;
+        private final long[] millis;
+
+        Stripe(int size) {
+            this.mask = size - 1;
+            this.stamps = new AtomicLongArray(size);
+            this.operations = new Operation[size];
+            this.outcomes = new Outcome[size];
+            this.targetKinds = new TargetKind[size];
+            this.targets = new Object[size];
+            this.values = new long[size];
+            this.nanos = new long[size];
+            this.millis = new long[size];
+        }
+
+        void write(Operation operation, TargetKind targetKind, Object target, Outcome outcome, long value) {
+            long sequence = claimed.getAndIncrement();
+            int slot = (int) sequence & mask;
+
+            // Odd stamps mark a slot being written; the fence keeps the field
+            // stores below from becoming visible before the odd stamp
+            stamps.set(slot, sequence * 2 + 1);
+            VarHandle.storeStoreFence();
+            operations[slot] = operation;
+            outcomes[slot] = outcome;
+            targetKinds[slot] = targetKind;
+            targets[slot] = target;
+            values[slot] = value;
+            nanos[slot] = System.nanoTime();
+            millis[slot] = System.currentTimeMillis();
+            stamps.set(slot, sequence * 2 + 2);
+        }
+
+        void collect(List<Entry> into, int limit) {
+            long end = claimed.get();
+            long start = Math.max(0, end - Math.min(limit, mask + 1));
+            for (long sequence = start; sequence < end; sequence++) {
+                int slot = (int) sequence & mask;
+                long stamp = stamps.get(slot);
+                if (stamp != sequence * 2 + 2) {
+                    continue;
+                }
+                Entry entry = new Entry(operations[slot], outcomes[slot], targetKinds[slot], targets[slot],
+                        values[slot], nanos[slot], millis[slot]);
+                // Keep the field loads above from moving past the re-check
+                VarHandle.loadLoadFence();
+                if (stamps.get(slot) == stamp) {
+                    into.add(entry);
+                }
+            }
+        }
+
+        void clear() {
+            claimed.set(0);
+            for (int i = 0; i <= mask; i++) {
+                stamps.set(i, 0);
+                targets[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Copy of a slot taken while merging.
+     */
+    private static final class Entry {
+        private final Operation operation;
+        private final Outcome outcome;
+        private final TargetKind targetKind;
+        private final Object target;
+        private final long value;
+        private final long nanos;
+        private final long millis;
+
+        Entry(Operation operation, Outcome outcome, TargetKind targetKind, Object target,
+                long value, long nanos, long millis) {
+            this.operation = operation;
+            this.outcome = outcome;
+            this.targetKind = targetKind;
+            this.target = target;
+            this.value = value;
+            this.nanos = nanos;
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.cms.concurrent;
+
+import com.cms.patterns.observer.ContentEvent;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted fair queue of events across the HIGH, NORMAL and LOW priority
+ * lanes of {@link EventProcessingService}.
+ *
+ * <p>
+ * <strong>Weighted Fairness:</strong> Lanes are served by smooth weighted
+ * round-robin: with weights 8, 3 and 1, a consumer takes 8 HIGH, 3 NORMAL and
+ * 1 LOW event out of every 12 while all lanes have work, interleaved rather
+ * than in runs. An empty lane does not accumulate credit, so an idle lane's
+ * share goes to the others.
+ * </p>
+ *
+ * <p>
+ * <strong>Starvation Protection:</strong> A lane whose oldest event has
+ * waited longer than the starvation threshold, and which has not been served
+ * for that long either, is served next regardless of weights. Every
+ * non-empty lane is thus served at least once per threshold interval, so a
+ * flood of HIGH events cannot hold back NORMAL or LOW events indefinitely,
+ * while a lane that is merely backlogged but keeps being served does not
+ * jump the weights.
+ * </p>
+ *
+ * <p>
+ * <strong>Wait Times:</strong> The time every event spent queued is recorded
+ * in a per-lane {@link WaitHistogram}.
+ * </p>
+ *
+ * @see EventProcessingService.LaneOptions
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class PriorityLaneScheduler {
+
+    /** Lane indexes; BATCH events are not scheduled here */
+    static final int HIGH = 0;
+    static final int NORMAL = 1;
+    static final int LOW = 2;
+    private static final String[] LANE_NAMES = { "high", "normal", "low" };
+
+    /** An event and when it was queued */
+    private static final class Entry {
+        final ContentEvent event;
+        final long enqueuedNanos;
+
+        Entry(ContentEvent event, long enqueuedNanos) {
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<Entry>[] lanes = new ArrayDeque[3];
+    private final int laneCapacity;
+    private final int[] currentWeight = new int[3];
+    private final long[] lastServedNanos = new long[3];
+    private final WaitHistogram[] histograms = new WaitHistogram[3];
+    private final AtomicLong[] dequeued = new AtomicLong[3];
+    private final AtomicLong starvationPromotions = new AtomicLong();
+    private int size;
+
+    private volatile int[] weights;
+    private volatile long starvationThresholdNanos;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param laneCapacity             Maximum queued events per lane
+     * @param weights                  Weights of the HIGH, NORMAL and LOW lanes
+     * @param starvationThresholdMillis Wait after which a lane is served first
+     */
+    PriorityLaneScheduler(int laneCapacity, int[] weights, long starvationThresholdMillis) {
+        this.laneCapacity = laneCapacity;
+        long now = System.nanoTime();
+        for (int i = 0; i < lanes.length; i++) {
+            lastServedNanos[i] = now;
+            lanes[i] = new ArrayDeque<>();
+            histograms[i] = new WaitHistogram();
+            dequeued[i] = new AtomicLong();
+        }
+        configure(weights, starvationThresholdMillis);
+    }
+
+    /**
+     * Changes the lane weights and starvation threshold; takes effect on the
+     * next poll.
+     */
+    void configure(int[] weights, long starvationThresholdMillis) {
+        this.weights = weights.clone();
+        this.starvationThresholdNanos = TimeUnit.MILLISECONDS.toNanos(starvationThresholdMillis);
+    }
+
+    /**
+     * Queues an event on a lane.
+     *
+     * @return false if the lane is full
+     */
+    boolean offer(int lane, ContentEvent event) {
+        lock.lock();
+        try {
+            if (lanes[lane].size() >= laneCapacity) {
+                return false;
+            }
+            lanes[lane].addLast(new Entry(event, System.nanoTime()));
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next event by weight, or from a starving lane, waiting up to
+     * the timeout for one to arrive.
+     *
+     * @return The event, or null on timeout
+     */
+    ContentEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        Entry entry;
+        int lane;
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            long now = System.nanoTime();
+            lane = selectLane(now);
+            entry = lanes[lane].pollFirst();
+            size--;
+            if (size > 0) {
+                // Wake another consumer for the remaining work
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        histograms[lane].record(System.nanoTime() - entry.enqueuedNanos);
+        dequeued[lane].incrementAndGet();
+        return entry.event;
+    }
+
+    /** Chooses a non-empty lane; called with the lock held and size > 0 */
+    private int selectLane(long now) {
+        // A lane neither served nor drained within the threshold goes first,
+        // the one served longest ago
+        long threshold = starvationThresholdNanos;
+        int starving = -1;
+        long longestUnserved = Long.MIN_VALUE;
+        for (int i = 0; i < lanes.length; i++) {
+            Entry head = lanes[i].peekFirst();
+            if (head != null && now - head.enqueuedNanos > threshold) {
+                long unserved = now - lastServedNanos[i];
+                if (unserved > threshold && unserved > longestUnserved) {
+                    starving = i;
+                    longestUnserved = unserved;
+                }
+            }
+        }
+
+        // Smooth weighted round-robin over the non-empty lanes
+        int[] laneWeights = weights;
+        int total = 0;
+        int best = -1;
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].isEmpty()) {
+                currentWeight[i] = 0;
+                continue;
+            }
+            currentWeight[i] += laneWeights[i];
+            total += laneWeights[i];
+            if (best < 0 || currentWeight[i] > currentWeight[best]) {
+                best = i;
+            }
+        }
+        if (starving >= 0 && starving != best) {
+            starvationPromotions.incrementAndGet();
+            best = starving;
+        }
+        currentWeight[best] -= total;
+        lastServedNanos[best] = now;
+        return best;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how long the oldest queued event has waited.
+     *
+     * @return Wait in nanoseconds, 0 when empty
+     */
+    long oldestWaitNanos() {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            long oldest = 0;
+            for (ArrayDeque<Entry> laneQueue : lanes) {
+                Entry head = laneQueue.peekFirst();
+                if (head != null) {
+                    oldest = Math.max(oldest, now - head.enqueuedNanos);
+                }
+            }
+            return oldest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns per-lane depth, weight, throughput and wait-time histogram.
+     *
+     * @return Map of lane name to lane statistics
+     */
+    Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int[] laneWeights = weights;
+        for (int i = 0; i < lanes.length; i++) {
+            Map<String, Object> lane = new LinkedHashMap<>();
+            lane.put("weight", laneWeights[i]);
+            lane.put("queued", size(i));
+            lane.put("dequeued", dequeued[i].get());
+            lane.put("waitTime", histograms[i].getStatistics());
+            stats.put(LANE_NAMES[i], lane);
+        }
+        stats.put("starvationPromotions", starvationPromotions.get());
+        stats.put("starvationThresholdMillis", TimeUnit.NANOSECONDS.toMillis(starvationThresholdNanos));
+        return stats;
+    }
+
+    /**
+     * Lock-free histogram of queue wait times with fixed exponential buckets
+     * from 100 microseconds to 10 seconds.
+     */
+    static final class WaitHistogram {
+        private static final long[] BOUNDS_MICROS = { 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+                100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000 };
+
+        private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1_000);
+            int bucket = 0;
+            while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            counts.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalMicros.addAndGet(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Returns the upper bucket bound, in microseconds, below which the
+         * given fraction of waits fall, or the maximum for the last bucket.
+         */
+        long percentileMicros(double fraction) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(BOUNDS_MICROS[i], maxMicros.get());
+                }
+            }
+            return maxMicros.get();
+        }
+
+        Map<String, Object> getStatistics() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long total = count.get();
+            stats.put("count", total);
+            stats.put("meanMicros", total > 0 ? totalMicros.get() / total : 0L);
+            stats.put("p50Micros", percentileMicros(0.50));
+            stats.put("p95Micros", percentileMicros(0.95));
+            stats.put("p99Micros", percentileMicros(0.99));
+            stats.put("maxMicros", maxMicros.get());
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+                buckets.put("<=" + formatMicros(BOUNDS_MICROS[i]), counts.get(i));
+            }
+            buckets.put(">" + formatMicros(BOUNDS_MICROS[BOUNDS_MICROS.length - 1]), counts.get(BOUNDS_MICROS.length));
+            stats.put("buckets", buckets);
+            return stats;
+        }
+
+        private static String formatMicros(long micros) {
+            if (micros >= 1_000_000) {
+                return (micros % 1_000_000 == 0 ? String.valueOf(micros / 1_000_000) : String.valueOf(micros / 1e6))
+                        + "s";
+            }
+            if (micros >= 1_000) {
+                return (micros % 1_000 == 0 ? String.valueOf(micros / 1_000) : String.valueOf(micros / 1e3)) + "ms";
+            }
+            return micros + "us";
+        }
+    }
+}
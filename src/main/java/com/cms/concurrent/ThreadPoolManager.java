@@ -1,5 +1,6 @@
 package com.cms.concurrent;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -49,7 +50,7 @@ import com.cms.util.CMSLogger;
  * <ul>
  * <li><strong>Content Processing Pool:</strong> Fixed size pool for content
  * operations</li>
- * <li><strong>I/O Operations Pool:</strong> Cached pool for file and network
+ * <li><strong>I/O Operations Pool:</strong> Bounded pool for file and network
  * operations</li>
  * <li><strong>Background Tasks Pool:</strong> Single threaded for maintenance
  * operations</li>
@@ -60,6 +61,24 @@ import com.cms.util.CMSLogger;
  * </ul>
  *
  * <p>
+ * <strong>Executor Registry:</strong> The pools are named pools of an
+ * {@link ExecutorRegistry}, which bounds their sizes and queues and reports
+ * their saturation under {@code executorRegistry} in
+ * {@link #getThreadPoolStatistics()}.
+ * </p>
+ *
+ * <p>
+ * <strong>Virtual Threads:</strong> In {@link IOExecutionMode#VIRTUAL} mode,
+ * I/O-bound work ({@link #submitIOTask(Callable)}, asynchronous observer
+ * notifications and {@code IOUtils.copyFileAsync}) runs one task per virtual
+ * thread, bounded by a semaphore instead of a pool size, so blocking on mail
+ * servers, webhooks or disks no longer ties up pooled platform threads. On a
+ * runtime without virtual threads (before Java 21) the mode falls back to
+ * platform threads under the same semaphore limit; see
+ * {@link #isVirtualThreadSupported()}.
+ * </p>
+ *
+ * <p>
  * <strong>Integration:</strong> Integrates with Observer Pattern for async
  * notifications,
  * Strategy Pattern for parallel execution, and I/O operations for concurrent
@@ -77,18 +96,22 @@ public class ThreadPoolManager {
     private static final Object lock = new Object();
 
     // Thread Pool Configuration Constants
-    private static final int CONTENT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
-    private static final int MAX_IO_POOL_SIZE = 50;
-    private static final int SCHEDULED_POOL_SIZE = 3;
     private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_IO_CONCURRENCY = 256;
 
-    // Executor Services for different operation types
+    // Executor Services for different operation types, owned by the registry
+    private final ExecutorRegistry executorRegistry;
     private final ExecutorService contentProcessingPool;
     private final ExecutorService ioOperationsPool;
     private final ExecutorService backgroundTasksPool;
     private final ScheduledExecutorService scheduledTasksPool;
     private final ForkJoinPool forkJoinPool;
 
+    // Thread-per-task executor and limit used in VIRTUAL I/O mode
+    private volatile IOExecutionMode ioExecutionMode = IOExecutionMode.PLATFORM;
+    private volatile ExecutorService virtualThreadExecutor;
+    private volatile BoundedTaskExecutor boundedIOExecutor;
+
     // Monitoring and Statistics
     private final AtomicLong totalTasksSubmitted = new AtomicLong(0);
     private final AtomicLong totalTasksCompleted = new AtomicLong(0);
@@ -101,39 +124,39 @@ public class ThreadPoolManager {
 
     /**
      * Private constructor implementing singleton pattern with thread-safe
-     * initialization.
-     * Initializes all thread pools with custom thread factories and monitoring.
+     * initialization, using the shared {@link ExecutorRegistry}.
      */
     private ThreadPoolManager() {
-        this.startupTime = LocalDateTime.now();
-
-        // Initialize thread pools with custom thread factories
-        this.contentProcessingPool = Executors.newFixedThreadPool(
-                CONTENT_POOL_SIZE,
-                new CMSThreadFactory("ContentProcessor", Thread.NORM_PRIORITY));
-
-        this.ioOperationsPool = Executors.newCachedThreadPool(
-                new CMSThreadFactory("IOOperations", Thread.NORM_PRIORITY - 1));
-
-        this.backgroundTasksPool = Executors.newSingleThreadExecutor(
-                new CMSThreadFactory("BackgroundTasks", Thread.MIN_PRIORITY + 1));
+        this(ExecutorRegistry.getInstance());
+    }
 
-        this.scheduledTasksPool = Executors.newScheduledThreadPool(
-                SCHEDULED_POOL_SIZE,
-                new CMSThreadFactory("ScheduledTasks", Thread.NORM_PRIORITY));
+    /**
+     * Creates a manager whose pools come from the given registry, for
+     * components and tests that configure their own pools.
+     *
+     * @param executorRegistry Registry providing the named pools
+     */
+    public ThreadPoolManager(ExecutorRegistry executorRegistry) {
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
+        this.startupTime = LocalDateTime.now();
+        this.executorRegistry = executorRegistry;
 
-        this.forkJoinPool = new ForkJoinPool(
-                Runtime.getRuntime().availableProcessors(),
-                ForkJoinPool.defaultForkJoinWorkerThreadFactory,
-                null,
-                true // Enable async mode for better performance
-        );
+        // Named, bounded pools; the fork-join pool runs in async mode
+        this.contentProcessingPool = executorRegistry.executor(ExecutorRegistry.CONTENT_PROCESSING);
+        this.ioOperationsPool = executorRegistry.executor(ExecutorRegistry.IO);
+        this.backgroundTasksPool = executorRegistry.executor(ExecutorRegistry.BACKGROUND);
+        this.scheduledTasksPool = executorRegistry.scheduler(ExecutorRegistry.SCHEDULED);
+        this.forkJoinPool = executorRegistry.forkJoinPool(ExecutorRegistry.PARALLEL);
 
         // Initialize usage statistics
         initializeUsageStats();
 
-        logger.logSystemOperation("ThreadPoolManager initialized with " + CONTENT_POOL_SIZE +
-                " content processing threads and " + SCHEDULED_POOL_SIZE + " scheduled task threads");
+        logger.logSystemOperation("ThreadPoolManager initialized with " +
+                ((ThreadPoolExecutor) contentProcessingPool).getMaximumPoolSize() +
+                " content processing threads and " +
+                ((ThreadPoolExecutor) scheduledTasksPool).getCorePoolSize() + " scheduled task threads");
     }
 
     /**
@@ -186,7 +209,8 @@ public class ThreadPoolManager {
     }
 
     /**
-     * Submits an I/O operation task to the cached I/O thread pool.
+     * Submits an I/O operation task to the cached I/O thread pool, or to a
+     * virtual thread in {@link IOExecutionMode#VIRTUAL} mode.
      *
      * @param task The I/O operation task to execute
      * @return CompletableFuture for async result handling
@@ -209,7 +233,7 @@ public class ThreadPoolManager {
                 logger.logError("I/O operation task failed", e);
                 throw new RuntimeException("I/O operation failed", e);
             }
-        }, ioOperationsPool);
+        }, getIOExecutor(ioOperationsPool));
 
         logger.logSystemOperation("I/O operation task submitted");
         return future;
@@ -307,6 +331,116 @@ public class ThreadPoolManager {
         return future;
     }
 
+    /**
+     * Selects how I/O-bound work is executed.
+     *
+     * <p>
+     * In {@link IOExecutionMode#VIRTUAL} mode every I/O task runs on its own
+     * virtual thread and at most {@code maxConcurrency} of them run at once;
+     * further tasks wait in a queue without blocking the submitter. Switching
+     * modes affects later submissions only; running tasks finish where they
+     * are.
+     * </p>
+     *
+     * @param mode           The execution mode
+     * @param maxConcurrency Maximum concurrent I/O tasks in VIRTUAL mode
+     */
+    public synchronized void setIOExecutionMode(IOExecutionMode mode, int maxConcurrency) {
+        if (mode == null) {
+            throw new IllegalArgumentException("I/O execution mode cannot be null");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum I/O concurrency must be > 0");
+        }
+        if (isShutdown) {
+            throw new RejectedExecutionException("ThreadPoolManager has been shut down");
+        }
+
+        if (mode == IOExecutionMode.VIRTUAL) {
+            if (virtualThreadExecutor == null) {
+                virtualThreadExecutor = createVirtualThreadExecutor();
+            }
+            boundedIOExecutor = new BoundedTaskExecutor("io-" + mode.name().toLowerCase(), virtualThreadExecutor,
+                    maxConcurrency);
+        } else {
+            boundedIOExecutor = null;
+        }
+        ioExecutionMode = mode;
+
+        logger.logSystemOperation("I/O execution mode set to " + mode +
+                (mode == IOExecutionMode.VIRTUAL
+                        ? " with " + maxConcurrency + " concurrent tasks on " +
+                                (isVirtualThreadSupported() ? "virtual" : "platform fallback") + " threads"
+                        : ""));
+    }
+
+    /**
+     * Selects how I/O-bound work is executed, with the default limit of
+     * {@value #DEFAULT_IO_CONCURRENCY} concurrent tasks in VIRTUAL mode.
+     *
+     * @param mode The execution mode
+     */
+    public void setIOExecutionMode(IOExecutionMode mode) {
+        setIOExecutionMode(mode, DEFAULT_IO_CONCURRENCY);
+    }
+
+    public IOExecutionMode getIOExecutionMode() {
+        return ioExecutionMode;
+    }
+
+    /**
+     * Returns the executor for blocking I/O work: the semaphore-bounded
+     * virtual-thread executor in VIRTUAL mode, otherwise the given platform
+     * executor. Components with their own pools pass that pool, so they keep
+     * their sizing in PLATFORM mode.
+     *
+     * @param platformExecutor Executor to use in PLATFORM mode
+     * @return The executor to submit I/O-bound work to
+     */
+    public Executor getIOExecutor(Executor platformExecutor) {
+        BoundedTaskExecutor bounded = boundedIOExecutor;
+        return bounded != null ? bounded : platformExecutor;
+    }
+
+    /**
+     * Returns the executor for blocking I/O work, which is the shared I/O
+     * pool in PLATFORM mode.
+     *
+     * @return The executor to submit I/O-bound work to
+     */
+    public Executor getIOExecutor() {
+        return getIOExecutor(ioOperationsPool);
+    }
+
+    /**
+     * Returns whether this runtime provides virtual threads. Without them,
+     * VIRTUAL mode runs tasks on platform threads, still bounded by the
+     * semaphore.
+     *
+     * @return true if {@code Executors.newVirtualThreadPerTaskExecutor()} is
+     *         available
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.FACTORY != null;
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor, looked up reflectively so
+     * the code still runs on Java 17, or a cached platform-thread pool when
+     * virtual threads are unavailable.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        if (VirtualThreads.FACTORY != null) {
+            try {
+                return (ExecutorService) VirtualThreads.FACTORY.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.logError("Virtual threads unavailable, using platform threads", e);
+            }
+        }
+        // Thread count stays bounded by the BoundedTaskExecutor permits
+        return Executors.newCachedThreadPool(new CMSThreadFactory("IOTask", Thread.NORM_PRIORITY - 1, true));
+    }
+
     /**
      * Gets comprehensive thread pool statistics and performance metrics.
      *
@@ -327,6 +461,17 @@ public class ThreadPoolManager {
         poolUsageStats.forEach((pool, count) -> poolUsage.put(pool, count.get()));
         stats.put("poolUsageStats", poolUsage);
 
+        // I/O execution mode
+        stats.put("ioExecutionMode", ioExecutionMode.name());
+        stats.put("virtualThreadSupported", isVirtualThreadSupported());
+        BoundedTaskExecutor bounded = boundedIOExecutor;
+        if (bounded != null) {
+            stats.put("boundedIOExecutor", bounded.getStatistics());
+        }
+
+        // Saturation of every registry pool
+        stats.put("executorRegistry", executorRegistry.getStatistics());
+
         // Thread pool details
         if (contentProcessingPool instanceof ThreadPoolExecutor) {
             ThreadPoolExecutor tpe = (ThreadPoolExecutor) contentProcessingPool;
@@ -363,22 +508,14 @@ public class ThreadPoolManager {
         logger.logSystemOperation("ThreadPoolManager shutdown initiated");
         isShutdown = true;
 
-        // Shutdown all executor services
-        shutdownExecutorService(contentProcessingPool, "Content Processing Pool");
-        shutdownExecutorService(ioOperationsPool, "I/O Operations Pool");
-        shutdownExecutorService(backgroundTasksPool, "Background Tasks Pool");
-        shutdownExecutorService(scheduledTasksPool, "Scheduled Tasks Pool");
-
-        // Shutdown ForkJoinPool
-        forkJoinPool.shutdown();
-        try {
-            if (!forkJoinPool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
-                logger.logError("ForkJoinPool did not terminate gracefully, forcing shutdown", null);
-                forkJoinPool.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            forkJoinPool.shutdownNow();
+        // Shutdown the registry pools only this manager uses; the daemon
+        // fork-join pool is shared with ContentStreamProcessor and stays up
+        executorRegistry.shutdownPool(ExecutorRegistry.CONTENT_PROCESSING);
+        executorRegistry.shutdownPool(ExecutorRegistry.IO);
+        executorRegistry.shutdownPool(ExecutorRegistry.BACKGROUND);
+        executorRegistry.shutdownPool(ExecutorRegistry.SCHEDULED);
+        if (virtualThreadExecutor != null) {
+            shutdownExecutorService(virtualThreadExecutor, "Virtual Thread I/O Executor");
         }
 
         // Log final statistics
@@ -420,6 +557,31 @@ public class ThreadPoolManager {
         poolUsageStats.computeIfAbsent(poolType, k -> new AtomicLong(0)).incrementAndGet();
     }
 
+    /**
+     * How I/O-bound work is executed.
+     */
+    public enum IOExecutionMode {
+        /** Pooled platform threads, sized per pool */
+        PLATFORM,
+        /** One virtual thread per task, bounded by a semaphore */
+        VIRTUAL
+    }
+
+    /**
+     * Holds the reflective virtual-thread factory, resolved once.
+     */
+    private static final class VirtualThreads {
+        static final Method FACTORY = lookup();
+
+        private static Method lookup() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+
     /**
      * Custom ThreadFactory for creating named threads with specific priorities.
      */
@@ -427,16 +589,18 @@ public class ThreadPoolManager {
         private final AtomicInteger threadNumber = new AtomicInteger(1);
         private final String namePrefix;
         private final int priority;
+        private final boolean daemon;
 
-        CMSThreadFactory(String namePrefix, int priority) {
+        CMSThreadFactory(String namePrefix, int priority, boolean daemon) {
             this.namePrefix = "CMS-" + namePrefix + "-";
             this.priority = priority;
+            this.daemon = daemon;
         }
 
         @Override
         public Thread newThread(Runnable r) {
             Thread t = new Thread(r, namePrefix + threadNumber.getAndIncrement());
-            t.setDaemon(false); // Keep JVM alive for proper shutdown
+            t.setDaemon(daemon);
             t.setPriority(priority);
             t.setUncaughtExceptionHandler((thread, e) -> {
                 Exception exception = (e instanceof Exception) ? (Exception) e : new Exception("Uncaught throwable", e);
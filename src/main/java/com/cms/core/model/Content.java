@@ -1,5 +1,6 @@
 package com.cms.core.model;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.HashMap;
@@ -48,7 +49,9 @@ import java.util.UUID;
  * @since 1.0
  * @author Otman Hmich S007924
  */
-public abstract class Content<T extends Content<T>> implements Cloneable, Comparable<Content<?>> {
+public abstract class Content<T extends Content<T>> implements Cloneable, Comparable<Content<?>>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /** Unique identifier for this content instance */
     protected final String id;
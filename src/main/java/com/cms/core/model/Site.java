@@ -1,5 +1,7 @@
 package com.cms.core.model;
 
+import com.cms.core.search.ContentTextIndex;
+import com.cms.core.search.SearchQuery;
 import com.cms.patterns.composite.SiteComponent;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -101,6 +103,9 @@ public class Site implements SiteComponent {
     /** Tags mapped to content IDs for categorization */
     private Map<String, Set<String>> contentByTag;
 
+    /** Full-text index over content titles and bodies */
+    private ContentTextIndex contentText;
+
     /** Active user sessions for session management */
     private Map<String, UserSession> activeSessions;
 
@@ -190,6 +195,9 @@ public class Site implements SiteComponent {
         this.contentByStatus = new EnumMap<>(ContentStatus.class);
         this.contentByDate = new TreeMap<>();
 
+        // Full-text index for searches
+        this.contentText = new ContentTextIndex();
+
         // Initialize content status sets
         for (ContentStatus status : ContentStatus.values()) {
             contentByStatus.put(status, new HashSet<>());
@@ -269,6 +277,9 @@ public class Site implements SiteComponent {
                 contentByTag.computeIfAbsent(tag.toLowerCase(), k -> new HashSet<>()).add(contentId);
             }
 
+            // Index title and body text
+            contentText.add(content);
+
             updateModificationInfo(addedBy);
 
         } catch (ContentValidationException e) {
@@ -350,14 +361,19 @@ public class Site implements SiteComponent {
      * Searches for content containing the specified text in title or body.
      *
      * <p>
-     * <strong>Collections Framework:</strong> Uses stream operations with
-     * filtering and collection operations for text-based content search.
+     * <strong>Full-Text Index:</strong> Runs the text as a {@link SearchQuery}
+     * (all words required; {@code OR}, {@code -word}, {@code "phrases"} and
+     * {@code prefix*} supported) against a {@link ContentTextIndex} of titles
+     * and bodies, instead of scanning every item. Content modified since it
+     * was indexed is re-analyzed first.
      * </p>
      *
      * <p>
-     * <strong>Generics:</strong> Uses parameterized stream operations and
-     * collectors
-     * for type-safe search result handling.
+     * <strong>Unindexed Queries:</strong> The index skips words shorter than
+     * three characters and common stop words. A query made only of such words
+     * (for example {@code "of"} or {@code "the and"}) falls back to a
+     * case-insensitive substring scan of titles and bodies, with title matches
+     * first and then newest first.
      * </p>
      *
      * @param searchText The text to search for (case-insensitive)
@@ -368,13 +384,25 @@ public class Site implements SiteComponent {
             return new ArrayList<>();
         }
 
-        String lowerSearchText = searchText.toLowerCase();
+        SearchQuery query = SearchQuery.parse(searchText);
+        if (query.isEmpty()) {
+            return scanContent(searchText.toLowerCase());
+        }
 
+        // Re-analyze content edited since it was indexed, then query the index
+        contentText.synchronize(contentStorage.values());
+        return contentText.search(query, Math.max(1, contentStorage.size()));
+    }
+
+    /**
+     * Finds content whose title or body contains the text, title matches
+     * first and then newest first.
+     */
+    private List<Content<?>> scanContent(String lowerSearchText) {
         return contentStorage.values().stream()
                 .filter(content -> content.getTitle().toLowerCase().contains(lowerSearchText) ||
                         content.getBody().toLowerCase().contains(lowerSearchText))
                 .sorted((c1, c2) -> {
-                    // Simple relevance scoring - title matches rank higher
                     boolean c1TitleMatch = c1.getTitle().toLowerCase().contains(lowerSearchText);
                     boolean c2TitleMatch = c2.getTitle().toLowerCase().contains(lowerSearchText);
 
@@ -383,7 +411,6 @@ public class Site implements SiteComponent {
                     if (!c1TitleMatch && c2TitleMatch)
                         return 1;
 
-                    // Secondary sort by modification date (newest first)
                     return c2.getModifiedDate().compareTo(c1.getModifiedDate());
                 })
                 .collect(ArrayList::new, List::add, List::addAll);
@@ -465,6 +492,9 @@ public class Site implements SiteComponent {
             }
         }
 
+        // Remove from full-text index
+        contentText.remove(contentId);
+
         updateModificationInfo(removedBy);
         return true;
     }
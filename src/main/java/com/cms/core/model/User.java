@@ -2,6 +2,7 @@ package com.cms.core.model;
 
 import com.cms.util.CMSLogger;
 import com.cms.util.AuditLogger;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.HashSet;
@@ -30,7 +31,8 @@ import java.util.Base64;
  * SHA-256 hashing with salt, input sanitization for user data, and controlled
  * access
  * to sensitive information. No credentials are stored in plain text, providing
- * secure credential management.
+ * secure credential management. The password hash and salt are transient, so
+ * serialized users (e.g. in the event journal) never carry credentials.
  * </p>
  *
  * <p>
@@ -59,7 +61,9 @@ import java.util.Base64;
  * @since 1.0
  * @author Otman Hmich S007924
  */
-public class User implements Comparable<User> {
+public class User implements Comparable<User>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /** Unique identifier for this user */
     private final String id;
@@ -73,11 +77,11 @@ public class User implements Comparable<User> {
     /** User's display name */
     private String displayName;
 
-    /** Salted hash of the user's password - never store plain text */
-    private String passwordHash;
+    /** Salted hash of the user's password - never store plain text or serialize */
+    private transient String passwordHash;
 
     /** Salt used for password hashing */
-    private String passwordSalt;
+    private transient String passwordSalt;
 
     /** Set of roles assigned to this user for authorization */
     private Set<Role> roles;
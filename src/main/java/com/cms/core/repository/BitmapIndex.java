@@ -0,0 +1,189 @@
+package com.cms.core.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary index mapping keys to {@link CompressedBitmap} postings of
+ * content ordinals assigned by a {@link ContentIdInterner}.
+ *
+ * <p>
+ * <strong>Generics Implementation:</strong> Parameterized by key type so the
+ * same engine serves status ({@code BitmapIndex<ContentStatus>}), author and
+ * title ({@code BitmapIndex<String>}) and date ({@code BitmapIndex<LocalDate>})
+ * lookups.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Postings are immutable and replaced under the
+ * backing map's per-key lock, so concurrent writers to different keys never
+ * block each other and readers always see a complete posting. Multi-criteria
+ * queries combine postings with {@link CompressedBitmap#and} and
+ * {@link CompressedBitmap#or} instead of scanning stored content.
+ * </p>
+ *
+ * @param <K> The indexed key type
+ * @see CompressedBitmap
+ * @see ContentIdInterner
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class BitmapIndex<K> {
+
+    private final ConcurrentMap<K, CompressedBitmap> postings;
+
+    private BitmapIndex(ConcurrentMap<K, CompressedBitmap> postings) {
+        this.postings = postings;
+    }
+
+    /**
+     * Creates an index with hashed keys for equality lookups.
+     *
+     * @param <K> The key type
+     * @return A new empty index
+     */
+    public static <K> BitmapIndex<K> hashed() {
+        return new BitmapIndex<>(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Creates an index with ordered keys that also supports
+     * {@link #range(Comparable, Comparable)} lookups.
+     *
+     * @param <K> The key type
+     * @return A new empty index
+     */
+    public static <K extends Comparable<? super K>> BitmapIndex<K> sorted() {
+        return new BitmapIndex<>(new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Adds an ordinal to the posting of a key.
+     *
+     * @param key     The key, must not be null
+     * @param ordinal The content ordinal
+     */
+    public void add(K key, int ordinal) {
+        postings.compute(key, (k, bitmap) -> (bitmap != null ? bitmap : CompressedBitmap.empty()).with(ordinal));
+    }
+
+    /**
+     * Removes an ordinal from the posting of a key, dropping the key once its
+     * posting is empty.
+     *
+     * @param key     The key, must not be null
+     * @param ordinal The content ordinal
+     */
+    public void remove(K key, int ordinal) {
+        postings.computeIfPresent(key, (k, bitmap) -> {
+            CompressedBitmap updated = bitmap.without(ordinal);
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    /**
+     * Unions a prebuilt posting into the posting of a key in one step.
+     *
+     * @param key      The key, must not be null
+     * @param ordinals The ordinals to add
+     */
+    public void addAll(K key, CompressedBitmap ordinals) {
+        if (ordinals.isEmpty()) {
+            return;
+        }
+        postings.merge(key, ordinals, CompressedBitmap::or);
+    }
+
+    /**
+     * Removes a prebuilt set of ordinals from the posting of a key in one step,
+     * dropping the key once its posting is empty.
+     *
+     * @param key      The key, must not be null
+     * @param ordinals The ordinals to remove
+     */
+    public void removeAll(K key, CompressedBitmap ordinals) {
+        if (ordinals.isEmpty()) {
+            return;
+        }
+        postings.computeIfPresent(key, (k, bitmap) -> {
+            CompressedBitmap updated = bitmap.andNot(ordinals);
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    /**
+     * Returns the posting of a key.
+     *
+     * @param key The key to look up
+     * @return The posting, or an empty bitmap if the key is not indexed
+     */
+    public CompressedBitmap get(K key) {
+        CompressedBitmap bitmap = key != null ? postings.get(key) : null;
+        return bitmap != null ? bitmap : CompressedBitmap.empty();
+    }
+
+    /**
+     * Returns the union of postings whose keys fall within the inclusive range.
+     * Either bound may be null to leave that side open.
+     *
+     * @param from Lower bound (inclusive), or null
+     * @param to   Upper bound (inclusive), or null
+     * @return The union of the matching postings
+     * @throws UnsupportedOperationException if the index was not created with
+     *                                       {@link #sorted()}
+     */
+    public CompressedBitmap range(K from, K to) {
+        if (!(postings instanceof ConcurrentNavigableMap)) {
+            throw new UnsupportedOperationException("Range lookups require a sorted index");
+        }
+        ConcurrentNavigableMap<K, CompressedBitmap> sortedPostings = (ConcurrentNavigableMap<K, CompressedBitmap>) postings;
+        ConcurrentNavigableMap<K, CompressedBitmap> slice;
+        if (from != null && to != null) {
+            slice = sortedPostings.subMap(from, true, to, true);
+        } else if (from != null) {
+            slice = sortedPostings.tailMap(from, true);
+        } else if (to != null) {
+            slice = sortedPostings.headMap(to, true);
+        } else {
+            slice = sortedPostings;
+        }
+
+        CompressedBitmap result = CompressedBitmap.empty();
+        for (CompressedBitmap bitmap : slice.values()) {
+            result = result.or(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct indexed keys.
+     *
+     * @return The key count
+     */
+    public int keyCount() {
+        return postings.size();
+    }
+
+    /**
+     * Estimates the heap footprint of all postings in bytes.
+     *
+     * @return Approximate size in bytes
+     */
+    public long sizeInBytes() {
+        long size = 0;
+        for (Map.Entry<K, CompressedBitmap> entry : postings.entrySet()) {
+            size += entry.getValue().sizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all postings.
+     */
+    public void clear() {
+        postings.clear();
+    }
+}
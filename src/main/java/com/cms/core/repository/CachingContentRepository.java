@@ -0,0 +1,915 @@
+package com.cms.core.repository;
+
+import com.cms.core.model.Content;
+import com.cms.patterns.observer.ContentEvent;
+import com.cms.patterns.observer.ContentObserver;
+import com.cms.patterns.observer.ContentSubject;
+import com.cms.util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-through cache decorator in front of any
+ * {@link Repository}&lt;Content, String&gt; implementation.
+ *
+ * <p>
+ * {@link #findById(String)} is served from memory when possible and loads
+ * from the delegate on a miss. Lookups of IDs the delegate does not know are
+ * cached too (negative caching) with their own, shorter time-to-live, so
+ * repeated probes for missing content stop reaching the backing store.
+ * Writes go through to the delegate first and then refresh or drop the
+ * cached entry.
+ * </p>
+ *
+ * <p>
+ * <strong>Eviction:</strong> The cache is bounded by entry count and by total
+ * weight, where weight comes from a caller-supplied weigher (1 per entry by
+ * default). It uses a W-TinyLFU policy. New entries enter a small LRU window
+ * (1% of capacity). Entries leaving the window compete for the main region
+ * against its least recently used probation entry, and the one with the lower
+ * estimated access frequency (from a {@link FrequencySketch}) is evicted.
+ * Main entries that are read again are promoted to a protected segment (80%
+ * of the main region). One-off scans therefore cannot flush out the popular
+ * working set.
+ * </p>
+ *
+ * <p>
+ * <strong>Invalidation:</strong> {@link #attachTo(ContentSubject)} registers
+ * an observer that drops the cached entry of every created, updated,
+ * published or deleted content, covering writes that bypass this decorator.
+ * Loads capture a per-key invalidation epoch and are only installed if no
+ * invalidation happened in the meantime, so a slow load cannot overwrite a
+ * newer value with a stale one.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Cached entries live in a
+ * {@link ConcurrentHashMap} and hits are lock-free. Policy bookkeeping
+ * (queues, sketch, weights) is guarded by a single eviction lock; hits are
+ * recorded in a lossy buffer and replayed whenever the lock is free, so
+ * readers never wait for it.
+ * </p>
+ *
+ * <p>
+ * <strong>Design Pattern:</strong> Decorator Pattern - Adds caching to an
+ * existing repository without changing its contract or its callers.
+ * </p>
+ *
+ * @see FrequencySketch
+ * @see ContentRepository
+ * @see PersistentContentRepository
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public class CachingContentRepository implements Repository<Content, String> {
+
+    private static final String COMPONENT = "CachingContentRepository";
+
+    /** Maximum number of hits buffered before further hits are dropped */
+    private static final int READ_BUFFER_SIZE = 256;
+
+    /** Buffered hits that make a reader try to replay the buffer */
+    private static final int READ_DRAIN_THRESHOLD = 32;
+
+    /** Number of striped invalidation epochs */
+    private static final int EPOCH_STRIPES = 1024;
+
+    /** Minimum interval between sweeps for expired entries */
+    private static final long EXPIRY_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Cache configuration options */
+    public static class CacheOptions {
+        private long maximumSize = 10_000;
+        private long maximumWeight = 0;
+        private ToIntFunction<Content> weigher;
+        private long expireAfterWriteMillis = TimeUnit.MINUTES.toMillis(10);
+        private long negativeTtlMillis = TimeUnit.SECONDS.toMillis(30);
+        private boolean negativeCaching = true;
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = Math.max(1, maximumSize);
+        }
+
+        /**
+         * Returns the weight bound, or 0 if entries are only bounded by count.
+         */
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = Math.max(0, maximumWeight);
+        }
+
+        public ToIntFunction<Content> getWeigher() {
+            return weigher;
+        }
+
+        /**
+         * Sets the function computing an entry's weight; results below 1 are
+         * treated as 1. Only meaningful together with a maximum weight.
+         */
+        public void setWeigher(ToIntFunction<Content> weigher) {
+            this.weigher = weigher;
+        }
+
+        public long getExpireAfterWriteMillis() {
+            return expireAfterWriteMillis;
+        }
+
+        /**
+         * Sets the time-to-live of cached content; 0 disables expiry.
+         */
+        public void setExpireAfterWriteMillis(long expireAfterWriteMillis) {
+            this.expireAfterWriteMillis = Math.max(0, expireAfterWriteMillis);
+        }
+
+        public long getNegativeTtlMillis() {
+            return negativeTtlMillis;
+        }
+
+        /**
+         * Sets the time-to-live of cached misses; 0 disables expiry.
+         */
+        public void setNegativeTtlMillis(long negativeTtlMillis) {
+            this.negativeTtlMillis = Math.max(0, negativeTtlMillis);
+        }
+
+        public boolean isNegativeCaching() {
+            return negativeCaching;
+        }
+
+        public void setNegativeCaching(boolean negativeCaching) {
+            this.negativeCaching = negativeCaching;
+        }
+    }
+
+    /** Policy region an entry currently belongs to */
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    /**
+     * A cached value, or a cached miss when {@code content} is null. The
+     * value is immutable; updates install a new node. Links, region and state
+     * flags are guarded by the eviction lock.
+     */
+    private static final class Node {
+        final String key;
+        final Content content;
+        final int weight;
+        final long expiresAt;
+
+        Region region;
+        Node prev;
+        Node next;
+        boolean linked;
+        boolean retired;
+
+        Node(String key, Content content, int weight, long expiresAt) {
+            this.key = key;
+            this.content = content;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+    }
+
+    /** Intrusive doubly-linked LRU queue, least recently used first */
+    private static final class AccessQueue {
+        private Node head;
+        private Node tail;
+
+        Node peekFirst() {
+            return head;
+        }
+
+        Node peekLast() {
+            return tail;
+        }
+
+        void addLast(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node node) {
+            if (tail != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+
+    private final Repository<Content, String> delegate;
+    private final CacheOptions options;
+    private final ToIntFunction<Content> weigher;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Node> readBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readBufferCount = new AtomicInteger();
+    private final AtomicLongArray keyEpochs = new AtomicLongArray(EPOCH_STRIPES);
+    private final AtomicLong globalEpoch = new AtomicLong();
+    private final ContentObserver invalidationObserver = new InvalidationObserver();
+
+    // Policy state, guarded by evictionLock
+    private final FrequencySketch sketch;
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowWeight;
+    private long protectedWeight;
+    private long weightedSize;
+    private long entryCount;
+    private long lastExpirySweep = System.nanoTime();
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong evictedWeight = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong droppedReads = new AtomicLong();
+
+    /**
+     * Creates a cache with default options in front of a repository.
+     *
+     * @param delegate The repository to cache
+     */
+    public CachingContentRepository(Repository<Content, String> delegate) {
+        this(delegate, new CacheOptions());
+    }
+
+    /**
+     * Creates a cache in front of a repository.
+     *
+     * @param delegate The repository to cache
+     * @param options  Cache configuration
+     */
+    public CachingContentRepository(Repository<Content, String> delegate, CacheOptions options) {
+        if (delegate == null || options == null) {
+            throw new IllegalArgumentException("Delegate and options cannot be null");
+        }
+        this.delegate = delegate;
+        this.options = options;
+        this.weigher = options.getMaximumWeight() > 0 && options.getWeigher() != null ? options.getWeigher() : null;
+        this.maximumSize = options.getMaximumSize();
+        this.maximumWeight = options.getMaximumWeight() > 0 ? options.getMaximumWeight() : maximumSize;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+
+        LoggerUtil.logInfo(COMPONENT, "Cache initialized over " + delegate.getClass().getSimpleName()
+                + " (maximumSize=" + maximumSize + ", maximumWeight=" + maximumWeight + ")");
+    }
+
+    /**
+     * Registers this cache's invalidation observer with a subject so content
+     * events drop stale entries.
+     *
+     * @param subject The subject publishing content events
+     */
+    public void attachTo(ContentSubject subject) {
+        if (subject == null) {
+            throw new IllegalArgumentException("Subject cannot be null");
+        }
+        subject.addObserver(invalidationObserver);
+    }
+
+    /**
+     * Returns the observer that invalidates cached entries on content events,
+     * for registration with subjects other than via
+     * {@link #attachTo(ContentSubject)}.
+     *
+     * @return The invalidation observer
+     */
+    public ContentObserver getInvalidationObserver() {
+        return invalidationObserver;
+    }
+
+    // Repository operations
+
+    @Override
+    public Content save(Content entity) throws RepositoryException {
+        Content saved = delegate.save(entity);
+        put(saved);
+        return saved;
+    }
+
+    @Override
+    public Optional<Content> findById(String id) throws RepositoryException {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        Node node = getIfPresent(id);
+        if (node != null) {
+            hits.incrementAndGet();
+            if (node.content == null) {
+                negativeHits.incrementAndGet();
+            }
+            return Optional.ofNullable(node.content);
+        }
+
+        misses.incrementAndGet();
+        long keyEpoch = keyEpochs.get(stripe(id));
+        long epoch = globalEpoch.get();
+        Optional<Content> loaded = delegate.findById(id);
+        loads.incrementAndGet();
+        if (loaded.isPresent() || options.isNegativeCaching()) {
+            install(id, loaded.orElse(null), keyEpoch, epoch);
+        }
+        return loaded;
+    }
+
+    @Override
+    public List<Content> findAll() throws RepositoryException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Content> findAll(int page, int size) throws RepositoryException {
+        return delegate.findAll(page, size);
+    }
+
+    @Override
+    public Page<Content> findPage(String continuationToken, int size) throws RepositoryException {
+        return delegate.findPage(continuationToken, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Each ID is resolved through {@link #findById(String)}, so cached entries
+     * are served from memory and only the misses reach the delegate.
+     * </p>
+     */
+    @Override
+    public List<Content> findAllById(Iterable<? extends String> ids) throws RepositoryException {
+        if (ids == null) {
+            throw new IllegalArgumentException("IDs cannot be null");
+        }
+        List<Content> result = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(String id) throws RepositoryException {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        Node node = getIfPresent(id);
+        if (node != null) {
+            hits.incrementAndGet();
+            return node.content != null;
+        }
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public long count() throws RepositoryException {
+        return delegate.count();
+    }
+
+    @Override
+    public void deleteById(String id) throws RepositoryException {
+        delegate.deleteById(id);
+        invalidate(id);
+    }
+
+    @Override
+    public void delete(Content entity) throws RepositoryException {
+        delegate.delete(entity);
+        if (entity != null) {
+            invalidate(entity.getId());
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Content> entities) throws RepositoryException {
+        delegate.deleteAll(entities);
+        for (Content content : entities) {
+            if (content != null) {
+                invalidate(content.getId());
+            }
+        }
+    }
+
+    @Override
+    public void deleteAll() throws RepositoryException {
+        delegate.deleteAll();
+        invalidateAll();
+    }
+
+    @Override
+    public Iterable<Content> saveAll(Iterable<? extends Content> entities) throws RepositoryException {
+        Iterable<Content> saved = delegate.saveAll(entities);
+        for (Content content : saved) {
+            put(content);
+        }
+        return saved;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The delegate does not report which entities matched, so the whole cache
+     * is invalidated after the update.
+     * </p>
+     */
+    @Override
+    public long batchUpdate(Map<String, Object> updateCriteria, Map<String, Object> updateData)
+            throws RepositoryException {
+        long updated = delegate.batchUpdate(updateCriteria, updateData);
+        if (updated > 0) {
+            invalidateAll();
+        }
+        return updated;
+    }
+
+    @Override
+    public void flush() throws RepositoryException {
+        delegate.flush();
+    }
+
+    // Cache operations
+
+    /**
+     * Drops the cached entry (or cached miss) for an ID.
+     *
+     * @param id The content ID
+     */
+    public void invalidate(String id) {
+        if (id == null) {
+            return;
+        }
+        keyEpochs.incrementAndGet(stripe(id));
+        Node removed = data.remove(id);
+        if (removed != null) {
+            invalidations.incrementAndGet();
+            evictionLock.lock();
+            try {
+                onRemoved(removed);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void invalidateAll() {
+        globalEpoch.incrementAndGet();
+        evictionLock.lock();
+        try {
+            invalidations.addAndGet(data.size());
+            data.clear();
+            readBuffer.clear();
+            readBufferCount.set(0);
+            for (AccessQueue queue : new AccessQueue[] { window, probation, protectedQueue }) {
+                for (Node node = queue.peekFirst(); node != null; node = node.next) {
+                    node.linked = false;
+                    node.retired = true;
+                }
+                queue.clear();
+            }
+            windowWeight = 0;
+            protectedWeight = 0;
+            weightedSize = 0;
+            entryCount = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Replays buffered hits and removes expired entries now rather than on
+     * the next write.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            expireEntries(System.nanoTime());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached entries, including cached misses.
+     *
+     * @return The entry count
+     */
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    /**
+     * Returns cache statistics.
+     *
+     * <p>
+     * {@code hitRatio} counts cached misses as hits, since they also saved a
+     * delegate lookup. {@code evictions} counts capacity evictions only;
+     * expired entries and invalidations have their own counters.
+     * </p>
+     *
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", data.size());
+        stats.put("maximumSize", maximumSize);
+        stats.put("maximumWeight", maximumWeight);
+        evictionLock.lock();
+        try {
+            stats.put("weightedSize", weightedSize);
+            stats.put("windowWeight", windowWeight);
+            stats.put("protectedWeight", protectedWeight);
+        } finally {
+            evictionLock.unlock();
+        }
+        stats.put("hits", hitCount);
+        stats.put("negativeHits", negativeHits.get());
+        stats.put("misses", missCount);
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("loads", loads.get());
+        stats.put("evictions", evictions.get());
+        stats.put("evictedWeight", evictedWeight.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("droppedReads", droppedReads.get());
+        stats.put("delegate", delegate.getClass().getSimpleName());
+        return stats;
+    }
+
+    // Read and write paths
+
+    /**
+     * Returns the live node for a key and records the hit, or null on a miss.
+     * An expired node is removed and reported as a miss.
+     */
+    private Node getIfPresent(String id) {
+        Node node = data.get(id);
+        if (node == null) {
+            return null;
+        }
+        if (node.isExpired(System.nanoTime())) {
+            if (data.remove(id, node)) {
+                expirations.incrementAndGet();
+                evictionLock.lock();
+                try {
+                    onRemoved(node);
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        recordRead(node);
+        return node;
+    }
+
+    private void recordRead(Node node) {
+        if (readBufferCount.incrementAndGet() <= READ_BUFFER_SIZE) {
+            readBuffer.offer(node);
+        } else {
+            readBufferCount.decrementAndGet();
+            droppedReads.incrementAndGet();
+        }
+        if (readBufferCount.get() >= READ_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Caches a freshly written entity, replacing any cached value or miss.
+     */
+    private void put(Content content) {
+        if (content == null || content.getId() == null) {
+            return;
+        }
+        String id = content.getId();
+        keyEpochs.incrementAndGet(stripe(id));
+        Node node = newNode(id, content);
+        Node previous = data.put(id, node);
+        afterWrite(previous, node);
+    }
+
+    /**
+     * Caches a loaded value unless the key was invalidated or written since
+     * the load started.
+     */
+    private void install(String id, Content content, long keyEpoch, long epoch) {
+        Node node = newNode(id, content);
+        Node[] installed = new Node[1];
+        data.compute(id, (key, existing) -> {
+            if (existing != null || keyEpochs.get(stripe(key)) != keyEpoch || globalEpoch.get() != epoch) {
+                return existing;
+            }
+            installed[0] = node;
+            return node;
+        });
+        if (installed[0] != null) {
+            afterWrite(null, node);
+        }
+    }
+
+    private Node newNode(String id, Content content) {
+        long ttlMillis = content != null ? options.getExpireAfterWriteMillis() : options.getNegativeTtlMillis();
+        long expiresAt = 0;
+        if (ttlMillis > 0) {
+            expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            if (expiresAt == 0) {
+                expiresAt = 1;
+            }
+        }
+        int weight = content != null && weigher != null ? Math.max(1, weigher.applyAsInt(content)) : 1;
+        return new Node(id, content, weight, expiresAt);
+    }
+
+    private void afterWrite(Node previous, Node node) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (previous != null) {
+                onRemoved(previous);
+            }
+            onAdded(node);
+            evict();
+            long now = System.nanoTime();
+            if (now - lastExpirySweep >= EXPIRY_SWEEP_INTERVAL_NANOS) {
+                expireEntries(now);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+
+    // Policy, all called with evictionLock held
+
+    private void drainReadBuffer() {
+        Node node;
+        while ((node = readBuffer.poll()) != null) {
+            readBufferCount.decrementAndGet();
+            onAccess(node);
+        }
+    }
+
+    private void onAdded(Node node) {
+        sketch.increment(node.key);
+        // A concurrent write may already have replaced or removed this node
+        if (node.retired || data.get(node.key) != node) {
+            node.retired = true;
+            return;
+        }
+        node.linked = true;
+        node.region = Region.WINDOW;
+        window.addLast(node);
+        windowWeight += node.weight;
+        weightedSize += node.weight;
+        entryCount++;
+    }
+
+    private void onRemoved(Node node) {
+        node.retired = true;
+        if (!node.linked) {
+            return;
+        }
+        node.linked = false;
+        queueOf(node).remove(node);
+        if (node.region == Region.WINDOW) {
+            windowWeight -= node.weight;
+        } else if (node.region == Region.PROTECTED) {
+            protectedWeight -= node.weight;
+        }
+        weightedSize -= node.weight;
+        entryCount--;
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key);
+        if (!node.linked) {
+            return;
+        }
+        switch (node.region) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.region = Region.PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** Moves least recently used protected entries back to probation */
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum) {
+            Node demoted = protectedQueue.peekFirst();
+            if (demoted == null) {
+                break;
+            }
+            protectedQueue.remove(demoted);
+            protectedWeight -= demoted.weight;
+            demoted.region = Region.PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    /**
+     * Moves overflowing window entries into probation, then evicts until both
+     * bounds hold. Each eviction compares the newest probation entry (the
+     * latest window arrival) with the oldest one and keeps the more frequent.
+     */
+    private void evict() {
+        while (windowWeight > windowMaximum) {
+            Node node = window.peekFirst();
+            if (node == null) {
+                break;
+            }
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.region = Region.PROBATION;
+            probation.addLast(node);
+        }
+
+        while (weightedSize > maximumWeight || entryCount > maximumSize) {
+            Node victim = probation.peekFirst();
+            Node candidate = probation.peekLast();
+            if (victim == null) {
+                victim = protectedQueue.peekFirst() != null ? protectedQueue.peekFirst() : window.peekFirst();
+                if (victim == null) {
+                    break;
+                }
+                evictNode(victim);
+            } else if (victim == candidate) {
+                evictNode(victim);
+            } else if (candidate.weight > maximumWeight
+                    || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evictNode(candidate);
+            } else {
+                evictNode(victim);
+            }
+        }
+    }
+
+    private void evictNode(Node node) {
+        data.remove(node.key, node);
+        onRemoved(node);
+        evictions.incrementAndGet();
+        evictedWeight.addAndGet(node.weight);
+    }
+
+    private void expireEntries(long now) {
+        lastExpirySweep = now;
+        for (AccessQueue queue : new AccessQueue[] { window, probation, protectedQueue }) {
+            Node node = queue.peekFirst();
+            while (node != null) {
+                Node next = node.next;
+                if (node.isExpired(now)) {
+                    if (data.remove(node.key, node)) {
+                        expirations.incrementAndGet();
+                    }
+                    onRemoved(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private AccessQueue queueOf(Node node) {
+        switch (node.region) {
+            case WINDOW:
+                return window;
+            case PROTECTED:
+                return protectedQueue;
+            default:
+                return probation;
+        }
+    }
+
+    /**
+     * Drops cached entries for content changed through any path that
+     * notifies a {@link ContentSubject}.
+     */
+    private final class InvalidationObserver implements ContentObserver {
+
+        @Override
+        public void onContentCreated(ContentEvent event) {
+            invalidateFor(event);
+        }
+
+        @Override
+        public void onContentUpdated(ContentEvent event) {
+            invalidateFor(event);
+        }
+
+        @Override
+        public void onContentPublished(ContentEvent event) {
+            invalidateFor(event);
+        }
+
+        @Override
+        public void onContentDeleted(ContentEvent event) {
+            invalidateFor(event);
+        }
+
+        @Override
+        public String getObserverName() {
+            return COMPONENT + " Invalidation";
+        }
+
+        /** First of the cache-range priorities, ahead of observers that read content back */
+        @Override
+        public int getPriority() {
+            return 11;
+        }
+
+        private void invalidateFor(ContentEvent event) {
+            if (event != null && event.getContent() != null) {
+                invalidate(event.getContent().getId());
+            }
+        }
+    }
+}
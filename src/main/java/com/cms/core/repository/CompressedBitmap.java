@@ -0,0 +1,653 @@
+package com.cms.core.repository;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable compressed bitmap of non-negative int values used as posting lists
+ * by {@link BitmapIndex}.
+ *
+ * <p>
+ * Values are split into 16-bit chunks keyed by their high bits. Each chunk is
+ * stored either as a sorted {@code char[]} of low bits while it holds at most
+ * {@value #ARRAY_MAX} values, or as a 65536-bit {@code long[]} bitmap once it
+ * grows beyond that. Sparse postings therefore cost two bytes per entry and
+ * dense postings one bit per possible entry, instead of a boxed String per
+ * content ID.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Instances are never modified after
+ * construction. {@link #with(int)} and {@link #without(int)} return new
+ * bitmaps that share every untouched chunk with the original, so readers can
+ * iterate a posting without locks while writers publish replacements.
+ * </p>
+ *
+ * @see BitmapIndex
+ * @see ContentIdInterner
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class CompressedBitmap {
+
+    /** Largest chunk cardinality kept in sorted-array form */
+    static final int ARRAY_MAX = 4096;
+
+    /** Number of 64-bit words in a bitmap chunk */
+    private static final int BITMAP_WORDS = 1024;
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Object[0], new int[0], 0);
+
+    /** High 16 bits of each chunk, ascending */
+    private final char[] keys;
+
+    /** Per-chunk storage: {@code char[]} or {@code long[]} */
+    private final Object[] chunks;
+
+    /** Per-chunk cardinality */
+    private final int[] counts;
+
+    private final int cardinality;
+
+    private CompressedBitmap(char[] keys, Object[] chunks, int[] counts, int cardinality) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.counts = counts;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Returns the shared empty bitmap.
+     *
+     * @return An empty bitmap
+     */
+    public static CompressedBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a bitmap holding the given values.
+     *
+     * @param values Non-negative values to include
+     * @return A bitmap containing exactly the given values
+     */
+    public static CompressedBitmap of(int... values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return fromSorted(sorted, sorted.length);
+    }
+
+    /**
+     * Builds a bitmap from an ascending array in a single pass, skipping
+     * duplicates. Used for bulk construction where repeated {@link #with(int)}
+     * calls would copy chunks once per value.
+     *
+     * @param sortedValues Ascending non-negative values
+     * @param length       Number of leading entries of the array to use
+     * @return A bitmap containing the given values
+     */
+    public static CompressedBitmap fromSorted(int[] sortedValues, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+
+        char[] keys = new char[Math.min(length, 65536)];
+        Object[] chunks = new Object[keys.length];
+        int[] counts = new int[keys.length];
+        int chunkCount = 0;
+        int total = 0;
+
+        int i = 0;
+        while (i < length) {
+            checkValue(sortedValues[i]);
+            char high = (char) (sortedValues[i] >>> 16);
+            int start = i;
+            while (i < length && (sortedValues[i] >>> 16) == high) {
+                i++;
+            }
+
+            char[] lows = new char[i - start];
+            int n = 0;
+            for (int j = start; j < i; j++) {
+                char low = (char) sortedValues[j];
+                if (n == 0 || lows[n - 1] != low) {
+                    lows[n++] = low;
+                }
+            }
+
+            keys[chunkCount] = high;
+            chunks[chunkCount] = n > ARRAY_MAX ? toBitmap(lows, n) : Arrays.copyOf(lows, n);
+            counts[chunkCount] = n;
+            chunkCount++;
+            total += n;
+        }
+
+        return new CompressedBitmap(Arrays.copyOf(keys, chunkCount), Arrays.copyOf(chunks, chunkCount),
+                Arrays.copyOf(counts, chunkCount), total);
+    }
+
+    /**
+     * Returns the number of values in this bitmap.
+     *
+     * @return The cardinality
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Returns whether this bitmap holds no values.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Checks whether the value is present.
+     *
+     * @param value The value to test
+     * @return true if present
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Object chunk = chunks[index];
+        char low = (char) value;
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, counts[index], low) >= 0;
+    }
+
+    /**
+     * Returns a bitmap that also contains the given value.
+     *
+     * @param value Non-negative value to add
+     * @return This bitmap if the value was already present, otherwise a new one
+     */
+    public CompressedBitmap with(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, high);
+
+        if (index < 0) {
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Object[] newChunks = new Object[chunks.length + 1];
+            int[] newCounts = new int[counts.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(chunks, 0, newChunks, 0, insertAt);
+            System.arraycopy(counts, 0, newCounts, 0, insertAt);
+            newKeys[insertAt] = high;
+            newChunks[insertAt] = new char[] { low };
+            newCounts[insertAt] = 1;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(chunks, insertAt, newChunks, insertAt + 1, chunks.length - insertAt);
+            System.arraycopy(counts, insertAt, newCounts, insertAt + 1, counts.length - insertAt);
+            return new CompressedBitmap(newKeys, newChunks, newCounts, cardinality + 1);
+        }
+
+        Object chunk = chunks[index];
+        int count = counts[index];
+        Object updated;
+        if (chunk instanceof long[]) {
+            long[] words = (long[]) chunk;
+            if ((words[low >>> 6] & (1L << low)) != 0) {
+                return this;
+            }
+            long[] copy = words.clone();
+            copy[low >>> 6] |= 1L << low;
+            updated = copy;
+        } else {
+            char[] lows = (char[]) chunk;
+            int pos = Arrays.binarySearch(lows, 0, count, low);
+            if (pos >= 0) {
+                return this;
+            }
+            pos = -pos - 1;
+            if (count + 1 > ARRAY_MAX) {
+                long[] words = toBitmap(lows, count);
+                words[low >>> 6] |= 1L << low;
+                updated = words;
+            } else {
+                char[] copy = new char[count + 1];
+                System.arraycopy(lows, 0, copy, 0, pos);
+                copy[pos] = low;
+                System.arraycopy(lows, pos, copy, pos + 1, count - pos);
+                updated = copy;
+            }
+        }
+        return replaceChunk(index, updated, count + 1, cardinality + 1);
+    }
+
+    /**
+     * Returns a bitmap without the given value.
+     *
+     * @param value The value to remove
+     * @return This bitmap if the value was absent, otherwise a new one
+     */
+    public CompressedBitmap without(int value) {
+        if (!contains(value)) {
+            return this;
+        }
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        char low = (char) value;
+        int count = counts[index];
+
+        if (count == 1) {
+            if (keys.length == 1) {
+                return EMPTY;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Object[] newChunks = new Object[chunks.length - 1];
+            int[] newCounts = new int[counts.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(chunks, 0, newChunks, 0, index);
+            System.arraycopy(counts, 0, newCounts, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(chunks, index + 1, newChunks, index, chunks.length - index - 1);
+            System.arraycopy(counts, index + 1, newCounts, index, counts.length - index - 1);
+            return new CompressedBitmap(newKeys, newChunks, newCounts, cardinality - 1);
+        }
+
+        Object chunk = chunks[index];
+        Object updated;
+        if (chunk instanceof long[]) {
+            long[] copy = ((long[]) chunk).clone();
+            copy[low >>> 6] &= ~(1L << low);
+            updated = count - 1 <= ARRAY_MAX ? toArray(copy, count - 1) : copy;
+        } else {
+            char[] lows = (char[]) chunk;
+            int pos = Arrays.binarySearch(lows, 0, count, low);
+            char[] copy = new char[count - 1];
+            System.arraycopy(lows, 0, copy, 0, pos);
+            System.arraycopy(lows, pos + 1, copy, pos, count - pos - 1);
+            updated = copy;
+        }
+        return replaceChunk(index, updated, count - 1, cardinality - 1);
+    }
+
+    /**
+     * Intersects this bitmap with another.
+     *
+     * @param other The bitmap to intersect with
+     * @return A bitmap containing values present in both
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+
+        int max = Math.min(keys.length, other.keys.length);
+        char[] newKeys = new char[max];
+        Object[] newChunks = new Object[max];
+        int[] newCounts = new int[max];
+        int n = 0;
+        int total = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object chunk = andChunks(chunks[i], counts[i], other.chunks[j], other.counts[j]);
+                int count = chunkCardinality(chunk);
+                if (count > 0) {
+                    newKeys[n] = keys[i];
+                    newChunks[n] = chunk;
+                    newCounts[n] = count;
+                    n++;
+                    total += count;
+                }
+                i++;
+                j++;
+            }
+        }
+
+        if (n == 0) {
+            return EMPTY;
+        }
+        return new CompressedBitmap(Arrays.copyOf(newKeys, n), Arrays.copyOf(newChunks, n),
+                Arrays.copyOf(newCounts, n), total);
+    }
+
+    /**
+     * Removes the values of another bitmap from this one. Chunks the other
+     * bitmap does not touch are shared with this bitmap.
+     *
+     * @param other The values to remove
+     * @return A bitmap containing values present in this but not in other
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        if (isEmpty() || other.isEmpty()) {
+            return this;
+        }
+
+        char[] newKeys = new char[keys.length];
+        Object[] newChunks = new Object[keys.length];
+        int[] newCounts = new int[keys.length];
+        int n = 0;
+        int total = 0;
+
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Object chunk = chunks[i];
+            int count = counts[i];
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                chunk = andNotChunks(chunk, count, other.chunks[j], other.counts[j]);
+                count = chunkCardinality(chunk);
+            }
+            if (count > 0) {
+                newKeys[n] = keys[i];
+                newChunks[n] = chunk;
+                newCounts[n] = count;
+                n++;
+                total += count;
+            }
+        }
+
+        if (n == 0) {
+            return EMPTY;
+        }
+        if (total == cardinality) {
+            return this;
+        }
+        return new CompressedBitmap(Arrays.copyOf(newKeys, n), Arrays.copyOf(newChunks, n),
+                Arrays.copyOf(newCounts, n), total);
+    }
+
+    /**
+     * Unions this bitmap with another.
+     *
+     * @param other The bitmap to union with
+     * @return A bitmap containing values present in either
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+
+        int max = keys.length + other.keys.length;
+        char[] newKeys = new char[max];
+        Object[] newChunks = new Object[max];
+        int[] newCounts = new int[max];
+        int n = 0;
+        int total = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j >= other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                newKeys[n] = keys[i];
+                newChunks[n] = chunks[i];
+                newCounts[n] = counts[i];
+                i++;
+            } else if (i >= keys.length || keys[i] > other.keys[j]) {
+                newKeys[n] = other.keys[j];
+                newChunks[n] = other.chunks[j];
+                newCounts[n] = other.counts[j];
+                j++;
+            } else {
+                Object chunk = orChunks(chunks[i], counts[i], other.chunks[j], other.counts[j]);
+                newKeys[n] = keys[i];
+                newChunks[n] = chunk;
+                newCounts[n] = chunkCardinality(chunk);
+                i++;
+                j++;
+            }
+            total += newCounts[n];
+            n++;
+        }
+
+        return new CompressedBitmap(Arrays.copyOf(newKeys, n), Arrays.copyOf(newChunks, n),
+                Arrays.copyOf(newCounts, n), total);
+    }
+
+    /**
+     * Visits every value in ascending order.
+     *
+     * @param action The action to apply to each value
+     */
+    public void forEach(IntConsumer action) {
+        for (int c = 0; c < keys.length; c++) {
+            int base = keys[c] << 16;
+            Object chunk = chunks[c];
+            if (chunk instanceof long[]) {
+                long[] words = (long[]) chunk;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] lows = (char[]) chunk;
+                for (int k = 0; k < counts[c]; k++) {
+                    action.accept(base | lows[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns all values in ascending order.
+     *
+     * @return A new array of the values
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int[] position = { 0 };
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Estimates the heap footprint of the posting data in bytes.
+     *
+     * @return Approximate size in bytes
+     */
+    public long sizeInBytes() {
+        long size = keys.length * 2L + counts.length * 4L;
+        for (Object chunk : chunks) {
+            size += chunk instanceof long[] ? BITMAP_WORDS * 8L : ((char[]) chunk).length * 2L;
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressedBitmap{cardinality=%d, chunks=%d}", cardinality, keys.length);
+    }
+
+    // Private helpers
+
+    private CompressedBitmap replaceChunk(int index, Object chunk, int count, int newCardinality) {
+        Object[] newChunks = chunks.clone();
+        int[] newCounts = counts.clone();
+        newChunks[index] = chunk;
+        newCounts[index] = count;
+        return new CompressedBitmap(keys, newChunks, newCounts, newCardinality);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Bitmap values must be non-negative: " + value);
+        }
+    }
+
+    private static int chunkCardinality(Object chunk) {
+        if (chunk instanceof long[]) {
+            int count = 0;
+            for (long word : (long[]) chunk) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+        return ((char[]) chunk).length;
+    }
+
+    private static long[] toBitmap(char[] lows, int count) {
+        long[] words = new long[BITMAP_WORDS];
+        for (int k = 0; k < count; k++) {
+            words[lows[k] >>> 6] |= 1L << lows[k];
+        }
+        return words;
+    }
+
+    private static char[] toArray(long[] words, int count) {
+        char[] lows = new char[count];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                lows[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return lows;
+    }
+
+    private static Object andChunks(Object a, int countA, Object b, int countB) {
+        if (a instanceof long[] && b instanceof long[]) {
+            long[] wa = (long[]) a;
+            long[] wb = (long[]) b;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                result[w] = wa[w] & wb[w];
+                count += Long.bitCount(result[w]);
+            }
+            return count <= ARRAY_MAX ? toArray(result, count) : result;
+        }
+        if (a instanceof long[] || b instanceof long[]) {
+            long[] words = (long[]) (a instanceof long[] ? a : b);
+            char[] lows = (char[]) (a instanceof long[] ? b : a);
+            int lowCount = a instanceof long[] ? countB : countA;
+            char[] result = new char[lowCount];
+            int n = 0;
+            for (int k = 0; k < lowCount; k++) {
+                if ((words[lows[k] >>> 6] & (1L << lows[k])) != 0) {
+                    result[n++] = lows[k];
+                }
+            }
+            return Arrays.copyOf(result, n);
+        }
+
+        char[] la = (char[]) a;
+        char[] lb = (char[]) b;
+        char[] result = new char[Math.min(countA, countB)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < countA && j < countB) {
+            if (la[i] < lb[j]) {
+                i++;
+            } else if (la[i] > lb[j]) {
+                j++;
+            } else {
+                result[n++] = la[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static Object andNotChunks(Object a, int countA, Object b, int countB) {
+        if (a instanceof long[]) {
+            long[] result = ((long[]) a).clone();
+            if (b instanceof long[]) {
+                long[] wb = (long[]) b;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    result[w] &= ~wb[w];
+                }
+            } else {
+                char[] lb = (char[]) b;
+                for (int k = 0; k < countB; k++) {
+                    result[lb[k] >>> 6] &= ~(1L << lb[k]);
+                }
+            }
+            int count = chunkCardinality(result);
+            return count <= ARRAY_MAX ? toArray(result, count) : result;
+        }
+
+        char[] la = (char[]) a;
+        char[] result = new char[countA];
+        int n = 0;
+        if (b instanceof long[]) {
+            long[] wb = (long[]) b;
+            for (int k = 0; k < countA; k++) {
+                if ((wb[la[k] >>> 6] & (1L << la[k])) == 0) {
+                    result[n++] = la[k];
+                }
+            }
+        } else {
+            char[] lb = (char[]) b;
+            int j = 0;
+            for (int k = 0; k < countA; k++) {
+                while (j < countB && lb[j] < la[k]) {
+                    j++;
+                }
+                if (j >= countB || lb[j] != la[k]) {
+                    result[n++] = la[k];
+                }
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static Object orChunks(Object a, int countA, Object b, int countB) {
+        if (a instanceof char[] && b instanceof char[]) {
+            char[] la = (char[]) a;
+            char[] lb = (char[]) b;
+            char[] result = new char[countA + countB];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < countA || j < countB) {
+                if (j >= countB || (i < countA && la[i] < lb[j])) {
+                    result[n++] = la[i++];
+                } else if (i >= countA || la[i] > lb[j]) {
+                    result[n++] = lb[j++];
+                } else {
+                    result[n++] = la[i];
+                    i++;
+                    j++;
+                }
+            }
+            return n > ARRAY_MAX ? toBitmap(result, n) : Arrays.copyOf(result, n);
+        }
+
+        long[] result = a instanceof long[] ? ((long[]) a).clone() : toBitmap((char[]) a, countA);
+        if (b instanceof long[]) {
+            long[] wb = (long[]) b;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                result[w] |= wb[w];
+            }
+        } else {
+            char[] lb = (char[]) b;
+            for (int k = 0; k < countB; k++) {
+                result[lb[k] >>> 6] |= 1L << lb[k];
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package com.cms.core.repository;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Maps content ID strings to dense, non-negative int ordinals for use in
+ * {@link CompressedBitmap} postings.
+ *
+ * <p>
+ * Ordinals are handed out from zero upwards and recycled when an ID is
+ * released, keeping postings dense even under heavy create/delete churn.
+ * Because a recycled ordinal may briefly still appear in a posting that a
+ * lock-free reader took before the release, callers resolving postings must
+ * re-check the resolved content against their query.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Lookups in both directions are lock-free.
+ * Allocation, release and growth of the reverse table are serialized on this
+ * instance, and the ID map is only modified while holding its monitor.
+ * </p>
+ *
+ * @see BitmapIndex
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class ContentIdInterner {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ConcurrentHashMap<String, Integer> ordinals;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private volatile AtomicReferenceArray<String> idsByOrdinal;
+    private int nextOrdinal = 0;
+
+    /**
+     * Creates an interner with default initial capacity.
+     */
+    public ContentIdInterner() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an interner presized for the expected number of IDs, avoiding
+     * rehashing and table growth during bulk loads.
+     *
+     * @param expectedSize Expected number of interned IDs
+     */
+    public ContentIdInterner(int expectedSize) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedSize);
+        this.ordinals = new ConcurrentHashMap<>(capacity);
+        this.idsByOrdinal = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns the ordinal of the ID, assigning one if it has none yet.
+     *
+     * @param contentId The content ID, must not be null
+     * @return The dense ordinal of the ID
+     */
+    public int intern(String contentId) {
+        if (contentId == null) {
+            throw new IllegalArgumentException("Content ID cannot be null");
+        }
+        Integer ordinal = ordinals.get(contentId);
+        return ordinal != null ? ordinal : allocate(contentId);
+    }
+
+    /**
+     * Returns the ordinal of the ID without assigning one.
+     *
+     * @param contentId The content ID
+     * @return The ordinal, or -1 if the ID is not interned
+     */
+    public int ordinalOf(String contentId) {
+        Integer ordinal = contentId != null ? ordinals.get(contentId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Resolves an ordinal back to its content ID.
+     *
+     * @param ordinal The ordinal to resolve
+     * @return The content ID, or null if the ordinal is currently unassigned
+     */
+    public String resolve(int ordinal) {
+        AtomicReferenceArray<String> table = idsByOrdinal;
+        return ordinal >= 0 && ordinal < table.length() ? table.get(ordinal) : null;
+    }
+
+    /**
+     * Releases the ordinal of an ID so it can be reused. Callers must remove the
+     * ordinal from all postings first.
+     *
+     * @param contentId The content ID to release
+     */
+    public synchronized void release(String contentId) {
+        Integer ordinal = contentId != null ? ordinals.remove(contentId) : null;
+        if (ordinal != null) {
+            idsByOrdinal.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        }
+    }
+
+    /**
+     * Grows the reverse lookup table so that ordinals up to
+     * {@code expectedSize} can be assigned without further copying.
+     *
+     * @param expectedSize Total number of IDs expected to be interned
+     */
+    public synchronized void ensureCapacity(int expectedSize) {
+        AtomicReferenceArray<String> table = idsByOrdinal;
+        if (expectedSize > table.length()) {
+            idsByOrdinal = copyOf(table, Math.max(expectedSize, table.length() * 2));
+        }
+    }
+
+    /**
+     * Returns the number of currently interned IDs.
+     *
+     * @return The interned ID count
+     */
+    public int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * Forgets all IDs and restarts ordinal assignment from zero.
+     */
+    public synchronized void clear() {
+        ordinals.clear();
+        freeOrdinals.clear();
+        idsByOrdinal = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        nextOrdinal = 0;
+    }
+
+    private synchronized int allocate(String contentId) {
+        // Never called from a map compute: release() takes the bin lock while
+        // holding this monitor, so the reverse order could deadlock
+        Integer existing = ordinals.get(contentId);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+
+        AtomicReferenceArray<String> table = idsByOrdinal;
+        if (ordinal >= table.length()) {
+            table = copyOf(table, table.length() * 2);
+            idsByOrdinal = table;
+        }
+        table.set(ordinal, contentId);
+        ordinals.put(contentId, ordinal);
+        return ordinal;
+    }
+
+    private static AtomicReferenceArray<String> copyOf(AtomicReferenceArray<String> table, int length) {
+        AtomicReferenceArray<String> grown = new AtomicReferenceArray<>(length);
+        for (int i = 0; i < table.length(); i++) {
+            grown.set(i, table.get(i));
+        }
+        return grown;
+    }
+}
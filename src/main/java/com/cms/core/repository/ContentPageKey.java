@@ -0,0 +1,136 @@
+package com.cms.core.repository;
+
+import com.cms.core.model.Content;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Sort key of a content item in a keyset-paginated index: creation date, then
+ * content ID as a tie-breaker.
+ *
+ * <p>
+ * Because every item has exactly one key and keys are totally ordered, a page
+ * can resume strictly after the last key it returned. Items inserted or
+ * deleted concurrently never shift the position of the remaining items, so
+ * pages are neither duplicated nor skipped as they would be with offsets.
+ * Keys without a creation date sort first, which also lets repositories that
+ * only know IDs page in plain ID order.
+ * </p>
+ *
+ * <p>
+ * Keys are exchanged with callers as opaque, URL-safe continuation tokens via
+ * {@link #toToken()} and {@link #fromToken(String)}.
+ * </p>
+ *
+ * @see Page
+ * @see Repository#findPage(String, int)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class ContentPageKey implements Comparable<ContentPageKey> {
+
+    private static final Comparator<ContentPageKey> ORDER = Comparator
+            .comparing((ContentPageKey key) -> key.createdDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(key -> key.contentId);
+
+    private static final char SEPARATOR = '\n';
+
+    private final LocalDateTime createdDate;
+    private final String contentId;
+
+    private ContentPageKey(LocalDateTime createdDate, String contentId) {
+        this.createdDate = createdDate;
+        this.contentId = Objects.requireNonNull(contentId, "Content ID cannot be null");
+    }
+
+    /**
+     * Returns the key of a content item.
+     *
+     * @param content The content, must not be null
+     * @return The key ordering the content by creation date and ID
+     */
+    public static ContentPageKey of(Content content) {
+        return new ContentPageKey(content.getCreatedDate(), content.getId());
+    }
+
+    /**
+     * Returns a key ordering content by ID alone.
+     *
+     * @param contentId The content ID, must not be null
+     * @return The key
+     */
+    public static ContentPageKey ofId(String contentId) {
+        return new ContentPageKey(null, contentId);
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param token A token produced by {@link #toToken()}
+     * @return The decoded key
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ContentPageKey fromToken(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0 || separator == decoded.length() - 1) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            LocalDateTime createdDate = separator == 0 ? null : LocalDateTime.parse(decoded.substring(0, separator));
+            return new ContentPageKey(createdDate, decoded.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+    /**
+     * Encodes this key as an opaque continuation token.
+     *
+     * @return URL-safe token
+     */
+    public String toToken() {
+        String raw = (createdDate != null ? createdDate.toString() : "") + SEPARATOR + contentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    @Override
+    public int compareTo(ContentPageKey other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContentPageKey)) {
+            return false;
+        }
+        ContentPageKey other = (ContentPageKey) o;
+        return Objects.equals(createdDate, other.createdDate) && contentId.equals(other.contentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdDate, contentId);
+    }
+
+    @Override
+    public String toString() {
+        return "ContentPageKey{createdDate=" + createdDate + ", contentId='" + contentId + "'}";
+    }
+}
@@ -4,13 +4,25 @@ import com.cms.core.model.Content;
 import com.cms.core.model.ContentStatus;
 import com.cms.core.model.User;
 import com.cms.util.LoggerUtil;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.NavigableSet;
+import java.util.function.Predicate;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Repository implementation for Content entity management.
@@ -43,6 +55,10 @@ import java.util.stream.Collectors;
  * - List collections for query results
  * - Optional for safe null handling
  * - Stream API for filtering operations
+ * - {@link BitmapIndex} postings of interned content ordinals for author and
+ * status lookups, giving constant-time index removal
+ * - ConcurrentSkipListSet of {@link ContentPageKey}s ordering content by
+ * creation date for cursor pagination
  * </p>
  *
  * <p>
@@ -55,30 +71,68 @@ import java.util.stream.Collectors;
  */
 public class ContentRepository implements Repository<Content, String> {
 
+    /**
+     * Candidate count from which batch updates run in parallel partitions.
+     */
+    private static final int PARALLEL_UPDATE_THRESHOLD = 2048;
+
     /**
      * Thread-safe storage for content entities.
      * Using ConcurrentHashMap for concurrent access support.
      */
     private final Map<String, Content> contentStorage = new ConcurrentHashMap<>();
 
+    /**
+     * Stored version of each content item, starting at 1 and incremented on
+     * every save. Storage writes happen inside the per-entry update of this map
+     * so version checks and replacements are atomic.
+     */
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Number of conditional saves rejected because of a version mismatch.
+     */
+    private final AtomicLong versionConflicts = new AtomicLong();
+
+    /**
+     * Dense int ordinals for content IDs used by the bitmap indexes.
+     */
+    private final ContentIdInterner idInterner = new ContentIdInterner();
+
     /**
      * Index for author-based lookups.
      */
-    private final Map<String, List<String>> authorIndex = new ConcurrentHashMap<>();
+    private final BitmapIndex<String> authorIndex = BitmapIndex.hashed();
 
     /**
      * Index for status-based lookups.
      */
-    private final Map<ContentStatus, List<String>> statusIndex = new ConcurrentHashMap<>();
+    private final BitmapIndex<ContentStatus> statusIndex = BitmapIndex.hashed();
+
+    /**
+     * Keys each content item is currently indexed under. Content is stored by
+     * reference, so the previous keys cannot be read back from the entity
+     * after it has been modified in place.
+     */
+    private final Map<String, IndexEntry> indexEntries = new ConcurrentHashMap<>();
+
+    /**
+     * Content keys in creation order, used for keyset pagination.
+     */
+    private final NavigableSet<ContentPageKey> pageKeys = new ConcurrentSkipListSet<>();
+
+    /**
+     * Orders index maintenance. Single-item changes update the indexes inside
+     * their per-entry update of {@link #versions} under the read lock, so
+     * changes of one item are indexed in version order; batch updates apply
+     * their bulk posting changes under the write lock.
+     */
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
 
     /**
      * Constructs a new ContentRepository with empty storage.
      */
     public ContentRepository() {
-        // Initialize status index with all possible statuses
-        for (ContentStatus status : ContentStatus.values()) {
-            statusIndex.put(status, new ArrayList<>());
-        }
     }
 
     /**
@@ -91,12 +145,12 @@ public class ContentRepository implements Repository<Content, String> {
         }
 
         try {
-            // Store the content
-            contentStorage.put(entity.getId(), entity);
-
-            // Update indexes
-            updateAuthorIndex(entity);
-            updateStatusIndex(entity);
+            // Store the content, bump its version and index it in version order
+            versions.compute(entity.getId(), (id, version) -> {
+                contentStorage.put(id, entity);
+                updateIndexes(entity);
+                return version == null ? 1L : version + 1;
+            });
 
             return entity;
         } catch (Exception e) {
@@ -107,6 +161,80 @@ public class ContentRepository implements Repository<Content, String> {
         }
     }
 
+    /**
+     * Saves content only if its stored version still equals
+     * {@code expectedVersion} (compare-and-set), so concurrent editors detect
+     * lost updates instead of silently overwriting each other.
+     *
+     * <p>
+     * The check and the replacement run as one atomic update of the content's
+     * version entry; no repository-wide lock is taken.
+     * </p>
+     *
+     * @param entity          The content to save, must not be null
+     * @param expectedVersion The version the caller last read via
+     *                        {@link #getVersion(String)}, or 0 for content that
+     *                        must not exist yet
+     * @return true if saved, false if the stored version differed
+     * @throws RepositoryException if the save fails for another reason
+     */
+    public boolean saveIfVersion(Content entity, long expectedVersion) throws RepositoryException {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+        if (expectedVersion < 0) {
+            throw new IllegalArgumentException("Expected version cannot be negative");
+        }
+
+        try {
+            boolean[] applied = new boolean[1];
+            versions.compute(entity.getId(), (id, version) -> {
+                long current = version == null ? 0L : version;
+                if (current != expectedVersion) {
+                    return version;
+                }
+                contentStorage.put(id, entity);
+                updateIndexes(entity);
+                applied[0] = true;
+                return current + 1;
+            });
+
+            if (!applied[0]) {
+                versionConflicts.incrementAndGet();
+                LoggerUtil.logDebug("ContentRepository",
+                        "Version conflict saving content: " + entity.getId() + " (expected " + expectedVersion + ")");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to save content: " + e.getMessage(),
+                    "Unable to save content. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * Returns the stored version of a content item.
+     *
+     * @param id The content ID
+     * @return The version, or 0 if the content is not stored
+     */
+    public long getVersion(String id) {
+        Long version = id != null ? versions.get(id) : null;
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Returns the number of conditional saves rejected because of a version
+     * mismatch.
+     *
+     * @return The version conflict count
+     */
+    public long getVersionConflicts() {
+        return versionConflicts.get();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -151,10 +279,12 @@ public class ContentRepository implements Repository<Content, String> {
         }
 
         try {
-            Content removed = contentStorage.remove(id);
-            if (removed != null) {
-                removeFromIndexes(removed);
-            }
+            versions.computeIfPresent(id, (key, version) -> {
+                if (contentStorage.remove(key) != null) {
+                    removeFromIndexes(key);
+                }
+                return null;
+            });
         } catch (Exception e) {
             throw new RepositoryException(
                     "Failed to delete content: " + e.getMessage(),
@@ -242,15 +372,8 @@ public class ContentRepository implements Repository<Content, String> {
         }
 
         try {
-            List<String> contentIds = authorIndex.get(authorUsername);
-            if (contentIds == null) {
-                return new ArrayList<>();
-            }
-
-            return contentIds.stream()
-                    .map(contentStorage::get)
-                    .filter(content -> content != null)
-                    .collect(Collectors.toList());
+            return resolve(authorIndex.get(authorUsername),
+                    content -> authorUsername.equals(content.getCreatedBy()));
         } catch (Exception e) {
             throw new RepositoryException(
                     "Failed to find content by author: " + e.getMessage(),
@@ -272,15 +395,7 @@ public class ContentRepository implements Repository<Content, String> {
         }
 
         try {
-            List<String> contentIds = statusIndex.get(status);
-            if (contentIds == null) {
-                return new ArrayList<>();
-            }
-
-            return contentIds.stream()
-                    .map(contentStorage::get)
-                    .filter(content -> content != null)
-                    .collect(Collectors.toList());
+            return resolve(statusIndex.get(status), content -> status == content.getStatus());
         } catch (Exception e) {
             throw new RepositoryException(
                     "Failed to find content by status: " + e.getMessage(),
@@ -316,46 +431,88 @@ public class ContentRepository implements Repository<Content, String> {
     }
 
     /**
-     * Updates the author index when content is saved.
+     * Moves content to its current author and status postings, removing the
+     * postings it was indexed under before. Called inside the content's entry
+     * update of {@link #versions}.
      */
-    private void updateAuthorIndex(Content content) {
-        if (content.getCreatedBy() != null && !content.getCreatedBy().trim().isEmpty()) {
-            String authorUsername = content.getCreatedBy();
-            authorIndex.computeIfAbsent(authorUsername, k -> new ArrayList<>())
-                    .add(content.getId());
+    private void updateIndexes(Content content) {
+        indexLock.readLock().lock();
+        try {
+            indexContent(content);
+        } finally {
+            indexLock.readLock().unlock();
         }
     }
 
-    /**
-     * Updates the status index when content is saved.
-     */
-    private void updateStatusIndex(Content content) {
-        if (content.getStatus() != null) {
-            statusIndex.get(content.getStatus()).add(content.getId());
+    private void indexContent(Content content) {
+        String contentId = content.getId();
+        int ordinal = idInterner.intern(contentId);
+        String author = content.getCreatedBy() != null && !content.getCreatedBy().trim().isEmpty()
+                ? content.getCreatedBy()
+                : null;
+        IndexEntry current = new IndexEntry(ordinal, author, content.getStatus(), ContentPageKey.of(content));
+
+        pageKeys.add(current.pageKey);
+        IndexEntry previous = indexEntries.put(contentId, current);
+        if (previous != null) {
+            if (!previous.pageKey.equals(current.pageKey)) {
+                pageKeys.remove(previous.pageKey);
+            }
+            if (previous.author != null && !previous.author.equals(author)) {
+                authorIndex.remove(previous.author, ordinal);
+            }
+            if (previous.status != null && previous.status != current.status) {
+                statusIndex.remove(previous.status, ordinal);
+            }
+        }
+
+        if (author != null) {
+            authorIndex.add(author, ordinal);
+        }
+        if (current.status != null) {
+            statusIndex.add(current.status, ordinal);
         }
     }
 
     /**
-     * Removes content from all indexes when deleted.
+     * Removes content from all indexes when deleted. Called inside the
+     * content's entry update of {@link #versions}.
      */
-    private void removeFromIndexes(Content content) {
-        // Remove from author index
-        if (content.getCreatedBy() != null && !content.getCreatedBy().trim().isEmpty()) {
-            List<String> authorContent = authorIndex.get(content.getCreatedBy());
-            if (authorContent != null) {
-                authorContent.remove(content.getId());
+    private void removeFromIndexes(String contentId) {
+        indexLock.readLock().lock();
+        try {
+            IndexEntry entry = indexEntries.remove(contentId);
+            if (entry == null) {
+                return;
             }
-        }
 
-        // Remove from status index
-        if (content.getStatus() != null) {
-            List<String> statusContent = statusIndex.get(content.getStatus());
-            if (statusContent != null) {
-                statusContent.remove(content.getId());
+            if (entry.author != null) {
+                authorIndex.remove(entry.author, entry.ordinal);
+            }
+            if (entry.status != null) {
+                statusIndex.remove(entry.status, entry.ordinal);
             }
+            pageKeys.remove(entry.pageKey);
+            idInterner.release(contentId);
+        } finally {
+            indexLock.readLock().unlock();
         }
     }
 
+    /**
+     * Resolves an index posting to stored content. Content is mutable and stored
+     * by reference, so each hit is re-checked against the query.
+     */
+    private List<Content> resolve(CompressedBitmap postings, Predicate<Content> stillMatches) {
+        return Arrays.stream(postings.toArray())
+                .mapToObj(idInterner::resolve)
+                .filter(Objects::nonNull)
+                .map(contentStorage::get)
+                .filter(Objects::nonNull)
+                .filter(stillMatches)
+                .collect(Collectors.toList());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -366,18 +523,44 @@ public class ContentRepository implements Repository<Content, String> {
         }
 
         try {
-            List<Content> allContent = findAll();
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, allContent.size());
+            // Walk the creation-order index instead of copying the whole store
+            return pageKeys.stream()
+                    .skip((long) page * size)
+                    .map(key -> contentStorage.get(key.getContentId()))
+                    .filter(Objects::nonNull)
+                    .limit(size)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to retrieve paginated content: " + e.getMessage(),
+                    "Unable to retrieve content page. Please try again.",
+                    e);
+        }
+    }
 
-            if (startIndex >= allContent.size()) {
-                return new ArrayList<>();
-            }
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Pages are ordered by creation date and resume strictly after the last
+     * returned item, so the cost of a page does not depend on its depth.
+     * </p>
+     */
+    @Override
+    public Page<Content> findPage(String continuationToken, int size) throws RepositoryException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0");
+        }
+        NavigableSet<ContentPageKey> remaining = continuationToken == null
+                ? pageKeys
+                : pageKeys.tailSet(ContentPageKey.fromToken(continuationToken), false);
 
-            return new ArrayList<>(allContent.subList(startIndex, endIndex));
+        try {
+            return Page.collect(remaining.iterator(), size,
+                    key -> contentStorage.get(key.getContentId()), ContentPageKey::toToken);
         } catch (Exception e) {
             throw new RepositoryException(
-                    "Failed to retrieve paginated content: " + e.getMessage(),
+                    "Failed to retrieve content page: " + e.getMessage(),
                     "Unable to retrieve content page. Please try again.",
                     e);
         }
@@ -433,6 +616,32 @@ public class ContentRepository implements Repository<Content, String> {
 
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     * Updates are applied in a single pass. When the criteria include
+     * {@code status} or {@code createdBy}, candidates come from the
+     * intersection of the matching index postings rather than a full scan.
+     * Large candidate sets are processed in parallel partitions, and the author
+     * and status indexes are then fixed up with one posting change per key
+     * rather than one per item. See {@link ContentUpdate} for the supported
+     * update fields.
+     * </p>
+     *
+     * <p>
+     * Each item is updated under the same per-entry lock as
+     * {@link #save(Content)}. The update data is validated before any item is
+     * touched; if applying it still fails for an item, the remaining items are
+     * skipped and the indexes are fixed up for every item already changed
+     * before the failure is reported.
+     * </p>
+     *
+     * <p>
+     * The index changes are derived from each item's stored state when they
+     * are applied, not when the item was updated, so an item saved or deleted
+     * concurrently is never indexed under the keys of an older version.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the update data is invalid
      */
     @Override
     public long batchUpdate(Map<String, Object> updateCriteria, Map<String, Object> updateData)
@@ -440,61 +649,171 @@ public class ContentRepository implements Repository<Content, String> {
         if (updateCriteria == null || updateData == null) {
             throw new IllegalArgumentException("Update criteria and data cannot be null");
         }
+        ContentUpdate update = ContentUpdate.from(updateData);
 
+        Collection<String> updated = new ConcurrentLinkedQueue<>();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
         try {
-            long updatedCount = 0;
-
-            // For simplicity in this in-memory implementation,
-            // we'll iterate through all content and apply updates based on criteria
-            for (Content content : contentStorage.values()) {
-                if (matchesCriteria(content, updateCriteria)) {
-                    // In a real implementation, this would update the content
-                    // For this demo, we'll just count matches
-                    updatedCount++;
-                    LoggerUtil.logDebug("ContentRepository",
-                            "Would update content: " + content.getId());
+            List<Content> candidates = findCandidates(updateCriteria);
+            Stream<Content> stream = candidates.size() >= PARALLEL_UPDATE_THRESHOLD
+                    ? candidates.parallelStream()
+                    : candidates.stream();
+
+            // Failures are collected rather than thrown so no partition is
+            // still running when the index moves are applied
+            stream.forEach(content -> {
+                if (failure.get() == null) {
+                    try {
+                        applyUpdate(content.getId(), update, updateCriteria, updated);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
                 }
+            });
+            if (failure.get() != null) {
+                throw failure.get();
             }
 
             LoggerUtil.logInfo("ContentRepository",
-                    "Batch update completed: " + updatedCount + " items would be updated");
+                    "Batch update completed: " + updated.size() + " of " + candidates.size()
+                            + " candidate items updated");
 
-            return updatedCount;
+            return updated.size();
         } catch (Exception e) {
             throw new RepositoryException(
                     "Batch update failed: " + e.getMessage(),
                     "Unable to perform batch update. Please try again.",
                     e);
+        } finally {
+            applyIndexMoves(updated);
         }
     }
 
     /**
-     * Helper method to check if content matches update criteria.
+     * Applies an update to the stored item if it still matches the criteria,
+     * bumping its version inside the same entry update as
+     * {@link #save(Content)} so conditional saves based on an earlier version
+     * conflict. The item is recorded for reindexing even if the update fails
+     * partway through.
      */
-    private boolean matchesCriteria(Content content, Map<String, Object> criteria) {
-        // Simple implementation - in a real system this would be more sophisticated
-        for (Map.Entry<String, Object> criterion : criteria.entrySet()) {
-            String key = criterion.getKey();
-            Object expectedValue = criterion.getValue();
+    private void applyUpdate(String contentId, ContentUpdate update, Map<String, Object> criteria,
+            Collection<String> updated) {
+        versions.computeIfPresent(contentId, (id, version) -> {
+            Content content = contentStorage.get(id);
+            if (content == null || !ContentUpdate.matchesCriteria(content, criteria)) {
+                return version;
+            }
+            try {
+                update.applyTo(content);
+            } finally {
+                updated.add(id);
+            }
+            return version + 1;
+        });
+    }
 
-            switch (key) {
-                case "createdBy":
-                    if (!expectedValue.equals(content.getCreatedBy())) {
-                        return false;
-                    }
-                    break;
-                case "status":
-                    if (!expectedValue.equals(content.getStatus())) {
-                        return false;
-                    }
-                    break;
-                // Add more criteria as needed
-                default:
-                    // Unknown criterion - skip for now
-                    break;
+    /**
+     * Narrows batch update candidates using the author and status indexes when
+     * the criteria allow it, falling back to all stored content.
+     */
+    private List<Content> findCandidates(Map<String, Object> criteria) {
+        CompressedBitmap postings = null;
+        if (criteria.containsKey("status")) {
+            Object status = criteria.get("status");
+            postings = status instanceof ContentStatus
+                    ? statusIndex.get((ContentStatus) status)
+                    : CompressedBitmap.empty();
+        }
+        if (criteria.containsKey("createdBy")) {
+            Object author = criteria.get("createdBy");
+            CompressedBitmap byAuthor = author instanceof String
+                    ? authorIndex.get((String) author)
+                    : CompressedBitmap.empty();
+            postings = postings != null ? postings.and(byAuthor) : byAuthor;
+        }
+
+        if (postings == null) {
+            return new ArrayList<>(contentStorage.values());
+        }
+        return resolve(postings, content -> true);
+    }
+
+    /**
+     * Computes the index change from the keys an item is indexed under to
+     * its stored state, without touching the postings.
+     */
+    private IndexMove moveFor(String contentId) {
+        IndexEntry previous = indexEntries.get(contentId);
+        Content content = contentStorage.get(contentId);
+        if (previous == null || content == null) {
+            return null;
+        }
+        String author = content.getCreatedBy() != null && !content.getCreatedBy().trim().isEmpty()
+                ? content.getCreatedBy()
+                : null;
+        return new IndexMove(content.getId(), previous,
+                new IndexEntry(previous.ordinal, author, content.getStatus(), previous.pageKey));
+    }
+
+    /**
+     * Reindexes batch-updated items in bulk: ordinals are grouped per key and
+     * each posting is rewritten once. Additions happen before removals so
+     * readers never miss an item that still matches. Holding the write lock
+     * keeps single-item index updates out while the moves are derived from
+     * the stored items and applied; deleted items are skipped.
+     */
+    private void applyIndexMoves(Collection<String> contentIds) {
+        indexLock.writeLock().lock();
+        try {
+            applyIndexMovesLocked(contentIds);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private void applyIndexMovesLocked(Collection<String> contentIds) {
+        List<IndexMove> moves = new ArrayList<>(contentIds.size());
+        for (String contentId : contentIds) {
+            IndexMove move = moveFor(contentId);
+            if (move != null) {
+                moves.add(move);
+            }
+        }
+
+        Map<String, List<Integer>> authorAdds = new HashMap<>();
+        Map<String, List<Integer>> authorRemovals = new HashMap<>();
+        Map<ContentStatus, List<Integer>> statusAdds = new HashMap<>();
+        Map<ContentStatus, List<Integer>> statusRemovals = new HashMap<>();
+
+        for (IndexMove move : moves) {
+            int ordinal = move.current.ordinal;
+            if (!Objects.equals(move.previous.author, move.current.author)) {
+                if (move.current.author != null) {
+                    authorAdds.computeIfAbsent(move.current.author, key -> new ArrayList<>()).add(ordinal);
+                }
+                if (move.previous.author != null) {
+                    authorRemovals.computeIfAbsent(move.previous.author, key -> new ArrayList<>()).add(ordinal);
+                }
             }
+            if (move.previous.status != move.current.status) {
+                if (move.current.status != null) {
+                    statusAdds.computeIfAbsent(move.current.status, key -> new ArrayList<>()).add(ordinal);
+                }
+                if (move.previous.status != null) {
+                    statusRemovals.computeIfAbsent(move.previous.status, key -> new ArrayList<>()).add(ordinal);
+                }
+            }
+            indexEntries.put(move.contentId, move.current);
         }
-        return true;
+
+        authorAdds.forEach((author, ordinals) -> authorIndex.addAll(author, toBitmap(ordinals)));
+        statusAdds.forEach((status, ordinals) -> statusIndex.addAll(status, toBitmap(ordinals)));
+        authorRemovals.forEach((author, ordinals) -> authorIndex.removeAll(author, toBitmap(ordinals)));
+        statusRemovals.forEach((status, ordinals) -> statusIndex.removeAll(status, toBitmap(ordinals)));
+    }
+
+    private static CompressedBitmap toBitmap(List<Integer> ordinals) {
+        return CompressedBitmap.of(ordinals.stream().mapToInt(Integer::intValue).toArray());
     }
 
     /**
@@ -559,10 +878,12 @@ public class ContentRepository implements Repository<Content, String> {
     public void clear() throws RepositoryException {
         try {
             contentStorage.clear();
+            versions.clear();
             authorIndex.clear();
-            for (ContentStatus status : ContentStatus.values()) {
-                statusIndex.put(status, new ArrayList<>());
-            }
+            statusIndex.clear();
+            indexEntries.clear();
+            pageKeys.clear();
+            idInterner.clear();
         } catch (Exception e) {
             throw new RepositoryException(
                     "Failed to clear repository: " + e.getMessage(),
@@ -570,4 +891,36 @@ public class ContentRepository implements Repository<Content, String> {
                     e);
         }
     }
+
+    /**
+     * Index entries of an item before and after a batch update.
+     */
+    private static final class IndexMove {
+        private final String contentId;
+        private final IndexEntry previous;
+        private final IndexEntry current;
+
+        private IndexMove(String contentId, IndexEntry previous, IndexEntry current) {
+            this.contentId = contentId;
+            this.previous = previous;
+            this.current = current;
+        }
+    }
+
+    /**
+     * Ordinal, index keys and page key a content item is currently indexed under.
+     */
+    private static final class IndexEntry {
+        private final int ordinal;
+        private final String author;
+        private final ContentStatus status;
+        private final ContentPageKey pageKey;
+
+        private IndexEntry(int ordinal, String author, ContentStatus status, ContentPageKey pageKey) {
+            this.ordinal = ordinal;
+            this.author = author;
+            this.status = status;
+            this.pageKey = pageKey;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+package com.cms.core.repository;
+
+import com.cms.core.model.Content;
+import com.cms.core.model.ContentStatus;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Validated form of the {@code updateData} map passed to
+ * {@link Repository#batchUpdate(Map, Map)} for content repositories.
+ *
+ * <p>
+ * Supported keys:
+ * </p>
+ * <ul>
+ * <li>{@code status} - a {@link ContentStatus} or its name</li>
+ * <li>{@code createdBy} - the new author username</li>
+ * <li>{@code title} - the new title</li>
+ * <li>{@code metadata} - a map of entries to add or replace</li>
+ * <li>{@code tags} - a {@code String[]} or a collection of strings</li>
+ * <li>{@code modifiedBy} - the user recorded as modifier, defaulting to
+ * {@value #DEFAULT_MODIFIER}</li>
+ * </ul>
+ *
+ * <p>
+ * The whole map is validated before any content is touched, so a bad key or
+ * value fails the batch without partially applying it.
+ * </p>
+ *
+ * @see ContentRepository#batchUpdate(Map, Map)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class ContentUpdate {
+
+    static final String DEFAULT_MODIFIER = "system";
+
+    private final ContentStatus status;
+    private final String author;
+    private final String title;
+    private final Map<String, Object> metadata;
+    private final String[] tags;
+    private final String modifiedBy;
+
+    private ContentUpdate(ContentStatus status, String author, String title, Map<String, Object> metadata,
+            String[] tags, String modifiedBy) {
+        this.status = status;
+        this.author = author;
+        this.title = title;
+        this.metadata = metadata;
+        this.tags = tags;
+        this.modifiedBy = modifiedBy;
+    }
+
+    /**
+     * Parses and validates update data.
+     *
+     * @param updateData The raw update map
+     * @return The validated update
+     * @throws IllegalArgumentException if a key is unknown, a value has the
+     *                                  wrong type or nothing would change
+     */
+    static ContentUpdate from(Map<String, Object> updateData) {
+        ContentStatus status = null;
+        String author = null;
+        String title = null;
+        Map<String, Object> metadata = null;
+        String[] tags = null;
+        String modifiedBy = DEFAULT_MODIFIER;
+
+        for (Map.Entry<String, Object> entry : updateData.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                throw new IllegalArgumentException("Update value for '" + entry.getKey() + "' cannot be null");
+            }
+            switch (entry.getKey()) {
+                case "status":
+                    status = value instanceof ContentStatus
+                            ? (ContentStatus) value
+                            : ContentStatus.valueOf(value.toString().trim().toUpperCase());
+                    break;
+                case "createdBy":
+                    author = requireText(entry.getKey(), value);
+                    break;
+                case "title":
+                    title = requireText(entry.getKey(), value);
+                    break;
+                case "metadata":
+                    if (!(value instanceof Map)) {
+                        throw new IllegalArgumentException("Update value for 'metadata' must be a map");
+                    }
+                    metadata = new LinkedHashMap<>();
+                    for (Map.Entry<?, ?> item : ((Map<?, ?>) value).entrySet()) {
+                        if (item.getKey() == null || item.getKey().toString().trim().isEmpty()
+                                || item.getValue() == null) {
+                            throw new IllegalArgumentException("Metadata entries need a key and a value");
+                        }
+                        metadata.put(item.getKey().toString(), item.getValue());
+                    }
+                    break;
+                case "tags":
+                    if (value instanceof String[]) {
+                        tags = ((String[]) value).clone();
+                    } else if (value instanceof Collection) {
+                        tags = ((Collection<?>) value).stream().map(String::valueOf).toArray(String[]::new);
+                    } else {
+                        throw new IllegalArgumentException("Update value for 'tags' must be a String[] or collection");
+                    }
+                    break;
+                case "modifiedBy":
+                    modifiedBy = requireText(entry.getKey(), value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported update field: " + entry.getKey());
+            }
+        }
+
+        if (status == null && author == null && title == null && metadata == null && tags == null) {
+            throw new IllegalArgumentException("Update data must change at least one field");
+        }
+        return new ContentUpdate(status, author, title, metadata, tags, modifiedBy);
+    }
+
+    /**
+     * Applies the update to a content item in place.
+     *
+     * @param content The content to modify
+     */
+    void applyTo(Content content) {
+        if (title != null) {
+            content.setTitle(title, modifiedBy);
+        }
+        if (status != null) {
+            content.setStatus(status, modifiedBy);
+        }
+        if (author != null) {
+            content.setCreatedBy(author);
+        }
+        if (metadata != null) {
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                content.addMetadata(entry.getKey(), entry.getValue(), modifiedBy);
+            }
+        }
+        if (tags != null) {
+            content.setTags(tags, modifiedBy);
+        }
+    }
+
+    /**
+     * Returns whether a content item matches batch update criteria. Only
+     * {@code createdBy} and {@code status} are compared; other criteria are
+     * ignored.
+     *
+     * @param content  The content to test
+     * @param criteria The criteria passed to {@link Repository#batchUpdate(Map, Map)}
+     * @return true if every supported criterion matches
+     */
+    static boolean matchesCriteria(Content content, Map<String, Object> criteria) {
+        for (Map.Entry<String, Object> criterion : criteria.entrySet()) {
+            Object expectedValue = criterion.getValue();
+            switch (criterion.getKey()) {
+                case "createdBy":
+                    if (!expectedValue.equals(content.getCreatedBy())) {
+                        return false;
+                    }
+                    break;
+                case "status":
+                    if (!expectedValue.equals(content.getStatus())) {
+                        return false;
+                    }
+                    break;
+                default:
+                    // Unknown criterion - skip for now
+                    break;
+            }
+        }
+        return true;
+    }
+
+    private static String requireText(String key, Object value) {
+        String text = value.toString();
+        if (text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Update value for '" + key + "' cannot be empty");
+        }
+        return text;
+    }
+}
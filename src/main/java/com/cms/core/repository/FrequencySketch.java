@@ -0,0 +1,114 @@
+package com.cms.core.repository;
+
+/**
+ * Approximate access-frequency counter used by {@link CachingContentRepository}
+ * to decide which entries are admitted into the main cache region.
+ *
+ * <p>
+ * A count-min sketch with four rows of 4-bit counters packed sixteen to a
+ * {@code long}. Each key maps to one counter per row, and its estimated
+ * frequency is the smallest of the four. Once the number of increments
+ * reaches ten times the cache capacity, all counters are halved, so the
+ * sketch tracks recent popularity rather than all-time totals.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Not thread-safe; the owning cache only
+ * touches it while holding its eviction lock.
+ * </p>
+ *
+ * @see CachingContentRepository
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for a cache of the given capacity.
+     *
+     * @param capacity Expected maximum number of cached entries
+     */
+    FrequencySketch(long capacity) {
+        int bounded = (int) Math.min(Math.max(capacity, 16), 1 << 28);
+        int length = Integer.highestOneBit(bounded - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * bounded;
+    }
+
+    /**
+     * Returns the estimated recent frequency of a key, between 0 and 15.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = 15;
+        for (int row = 0; row < 4; row++) {
+            int index = indexOf(hash, row);
+            int count = (int) ((table[index] >>> ((start + row) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records one access of a key, aging all counters when the sample period
+     * is over.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            added |= incrementAt(indexOf(hash, row), start + row);
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves every counter. Odd counts lose their low bit, which the addition
+     * count is corrected for.
+     */
+    private void reset() {
+        int oddCounters = 0;
+        for (int i = 0; i < table.length; i++) {
+            oddCounters += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions >>> 1) - (oddCounters >>> 2);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,114 @@
+package com.cms.core.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a cursor-paginated query, returned by
+ * {@link Repository#findPage(String, int)}.
+ *
+ * <p>
+ * The continuation token is opaque to callers: pass it back unchanged to
+ * fetch the next page. It is null once the last page has been returned.
+ * </p>
+ *
+ * <p>
+ * <strong>Generics Implementation:</strong> Parameterized by entity type so
+ * every repository returns type-safe pages without casting.
+ * </p>
+ *
+ * @param <T> The entity type contained in the page
+ * @see Repository#findPage(String, int)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final String continuationToken;
+
+    /**
+     * Creates a page.
+     *
+     * @param items             The entities of this page
+     * @param continuationToken Token for the next page, or null if this is the
+     *                          last page
+     */
+    public Page(List<T> items, String continuationToken) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Builds a page by walking an ordered key iterator positioned after the
+     * previous page. Keys that no longer resolve to an entity (deleted
+     * concurrently) are skipped.
+     *
+     * @param <K>       The key type
+     * @param <T>       The entity type
+     * @param keys      Iterator over the remaining keys in page order
+     * @param size      The maximum number of entities
+     * @param resolver  Resolves a key to its entity, or null if it is gone
+     * @param tokenizer Encodes the last returned key as a continuation token
+     * @return The page
+     */
+    public static <K, T> Page<T> collect(Iterator<K> keys, int size, Function<K, T> resolver,
+            Function<K, String> tokenizer) {
+        List<T> items = new ArrayList<>(Math.min(size, 1024));
+        K last = null;
+        while (items.size() < size && keys.hasNext()) {
+            K key = keys.next();
+            T item = resolver.apply(key);
+            if (item != null) {
+                items.add(item);
+                last = key;
+            }
+        }
+        String token = last != null && keys.hasNext() ? tokenizer.apply(last) : null;
+        return new Page<>(items, token);
+    }
+
+    /**
+     * Returns the entities of this page.
+     *
+     * @return Unmodifiable list of entities, never null
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the token to request the next page with.
+     *
+     * @return The continuation token, or null if there are no further pages
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return true if a continuation token is present
+     */
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+
+    /**
+     * Returns the number of entities in this page.
+     *
+     * @return The page size
+     */
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Page{size=" + items.size() + ", hasNext=" + hasNext() + "}";
+    }
+}
@@ -0,0 +1,1049 @@
+package com.cms.core.repository;
+
+import com.cms.core.model.Content;
+import com.cms.io.LogSegment;
+import com.cms.util.LoggerUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durable repository implementation for Content entities backed by an
+ * append-only, memory-mapped segment log.
+ *
+ * <p>
+ * Every save appends a checksummed PUT record and every delete a DELETE
+ * tombstone to the active {@link LogSegment}. An in-memory offset index maps
+ * each content ID to the location of its latest record, so lookups read a
+ * single record straight from the mapped file. On startup the segments are
+ * scanned once to rebuild the index; payloads are not deserialized, which
+ * keeps restarts proportional to sequential read speed rather than to object
+ * construction.
+ * </p>
+ *
+ * <p>
+ * <strong>Design Pattern:</strong> Repository Pattern - Provides the same
+ * {@link Repository}&lt;Content, String&gt; contract as
+ * {@link ContentRepository} while persisting across restarts.
+ * </p>
+ *
+ * <p>
+ * <strong>Durability:</strong> In {@link Durability#SYNC} mode a save returns
+ * only after its record has been forced to disk. A single background
+ * committer thread forces the active segment on behalf of every writer that
+ * is waiting, so concurrent saves share one fsync (group commit). In
+ * {@link Durability#ASYNC} mode saves return immediately and the committer
+ * forces pending writes every commit interval. If a force fails, waiting
+ * writers and every later write fail with a {@link RepositoryException}
+ * rather than being reported durable, as do writes racing {@link #close()}.
+ * </p>
+ *
+ * <p>
+ * <strong>Compaction:</strong> Sealed segments whose share of superseded
+ * records exceeds the configured threshold are compacted in the background:
+ * their live records are copied to the active segment and the old file is
+ * deleted.
+ * </p>
+ *
+ * <p>
+ * <strong>Storage Format:</strong> Content payloads use Java serialization,
+ * which preserves content IDs and every subtype-specific field without a
+ * separate schema.
+ * </p>
+ *
+ * @see LogSegment
+ * @see ContentRepository
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public class PersistentContentRepository implements Repository<Content, String>, AutoCloseable {
+
+    private static final String COMPONENT = "PersistentContentRepository";
+
+    private static final String FILE_PREFIX = "segment-";
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+
+    /** Durability guarantees offered by {@link #save(Content)} */
+    public enum Durability {
+        /** Saves wait for the group commit that forces their record to disk */
+        SYNC,
+        /** Saves return once the record is in the mapped file */
+        ASYNC
+    }
+
+    /** Storage configuration options */
+    public static class StorageOptions {
+        private int segmentSize = 64 * 1024 * 1024;
+        private Durability durability = Durability.SYNC;
+        private long commitIntervalMillis = 5;
+        private long compactionIntervalMillis = 60_000;
+        private double compactionThreshold = 0.5;
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = Math.max(64 * 1024, segmentSize);
+        }
+
+        public Durability getDurability() {
+            return durability;
+        }
+
+        public void setDurability(Durability durability) {
+            this.durability = durability != null ? durability : Durability.SYNC;
+        }
+
+        public long getCommitIntervalMillis() {
+            return commitIntervalMillis;
+        }
+
+        public void setCommitIntervalMillis(long commitIntervalMillis) {
+            this.commitIntervalMillis = Math.max(1, commitIntervalMillis);
+        }
+
+        public long getCompactionIntervalMillis() {
+            return compactionIntervalMillis;
+        }
+
+        public void setCompactionIntervalMillis(long compactionIntervalMillis) {
+            this.compactionIntervalMillis = compactionIntervalMillis;
+        }
+
+        public double getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = Math.max(0.0, Math.min(compactionThreshold, 1.0));
+        }
+    }
+
+    private final Path directory;
+    private final StorageOptions options;
+
+    /** Segments by ID; the highest ID is the active segment */
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Location of the latest record of each live content ID, kept in ID order
+     * so it doubles as the keyset for {@link #findPage(String, int)}
+     */
+    private final ConcurrentSkipListMap<String, RecordLocation> offsetIndex = new ConcurrentSkipListMap<>();
+
+    /** Bumped whenever an ID enters or leaves the offset index */
+    private final AtomicLong keySetVersion = new AtomicLong();
+
+    /**
+     * Sorted snapshot of the offset index keys used to seek offset pages;
+     * valid while its version matches {@link #keySetVersion}
+     */
+    private volatile KeySnapshot keySnapshot;
+
+    /** Serializes appends, segment rolls and index updates */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private volatile LogSegment activeSegment;
+    private long nextSequence = 1;
+
+    // Group commit state
+    private final Object commitMonitor = new Object();
+    private volatile long appendedSequence = 0;
+    private volatile long durableSequence = 0;
+    private boolean commitRequested = false;
+    private volatile boolean running = true;
+
+    /** Set when forcing the log failed; no write is reported durable afterwards */
+    private volatile RuntimeException commitFailure;
+    private final Thread committer;
+    private final ScheduledExecutorService compactor;
+
+    // Statistics
+    private final AtomicLong groupCommits = new AtomicLong();
+    private final AtomicLong compactedSegments = new AtomicLong();
+    private final AtomicLong relocatedRecords = new AtomicLong();
+    private final long recoveredRecords;
+    private final long recoveryMillis;
+
+    /**
+     * Opens (or creates) a repository in the given directory with default
+     * options.
+     *
+     * @param directory Directory holding the segment files
+     * @throws RepositoryException if the directory cannot be opened or recovered
+     */
+    public PersistentContentRepository(Path directory) throws RepositoryException {
+        this(directory, new StorageOptions());
+    }
+
+    /**
+     * Opens (or creates) a repository in the given directory, recovering the
+     * offset index from any existing segments.
+     *
+     * @param directory Directory holding the segment files
+     * @param options   Storage configuration
+     * @throws RepositoryException if the directory cannot be opened or recovered
+     */
+    public PersistentContentRepository(Path directory, StorageOptions options) throws RepositoryException {
+        if (directory == null || options == null) {
+            throw new IllegalArgumentException("Directory and options cannot be null");
+        }
+        this.directory = directory;
+        this.options = options;
+
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            this.recoveredRecords = recover();
+        } catch (IOException e) {
+            throw new RepositoryException(
+                    "Failed to open segment log in " + directory + ": " + e.getMessage(),
+                    "Unable to open content storage. Please try again.",
+                    e);
+        }
+        this.recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        this.committer = new Thread(this::runCommitter, "cms-segment-log-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cms-segment-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (options.getCompactionIntervalMillis() > 0) {
+            compactor.scheduleWithFixedDelay(this::compactQuietly, options.getCompactionIntervalMillis(),
+                    options.getCompactionIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        LoggerUtil.logInfo(COMPONENT, "Opened " + directory + ": " + offsetIndex.size() + " items from "
+                + recoveredRecords + " records in " + segments.size() + " segments (" + recoveryMillis + " ms)");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Content save(Content entity) throws RepositoryException {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+
+        try {
+            byte[] payload = serialize(entity);
+            long sequence;
+            appendLock.lock();
+            try {
+                sequence = appendPut(entity.getId(), payload);
+            } finally {
+                appendLock.unlock();
+            }
+            awaitDurable(sequence);
+            return entity;
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to save content: " + e.getMessage(),
+                    "Unable to save content. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Content> findById(String id) throws RepositoryException {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable(readContent(id));
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to find content by ID: " + e.getMessage(),
+                    "Unable to retrieve content. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Content> findAll() throws RepositoryException {
+        try {
+            List<Content> result = new ArrayList<>(offsetIndex.size());
+            for (String id : offsetIndex.keySet()) {
+                Content content = readContent(id);
+                if (content != null) {
+                    result.add(content);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to retrieve all content: " + e.getMessage(),
+                    "Unable to retrieve content list. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Pages are ordered by content ID. The page start is found by position in
+     * a sorted snapshot of the IDs, so a read costs O(size) while no item is
+     * added or removed; the first read after such a change rebuilds the
+     * snapshot in O(n). {@link #findPage(String, int)} seeks the offset index
+     * directly and does not depend on the snapshot.
+     * </p>
+     */
+    @Override
+    public List<Content> findAll(int page, int size) throws RepositoryException {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be > 0");
+        }
+
+        try {
+            // Page over keys so only the requested items are deserialized
+            List<String> sortedIds = sortedIds();
+            long from = (long) page * size;
+            if (from >= sortedIds.size()) {
+                return new ArrayList<>();
+            }
+            List<String> ids = sortedIds.subList((int) from, (int) Math.min(from + size, sortedIds.size()));
+            List<Content> result = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                Content content = readContent(id);
+                if (content != null) {
+                    result.add(content);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to retrieve paginated content: " + e.getMessage(),
+                    "Unable to retrieve content page. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Pages are ordered by content ID, which is the order of the offset index,
+     * and resume strictly after the last returned ID. Only the items of the
+     * requested page are read from the log.
+     * </p>
+     */
+    @Override
+    public Page<Content> findPage(String continuationToken, int size) throws RepositoryException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0");
+        }
+        Map<String, RecordLocation> remaining = continuationToken == null
+                ? offsetIndex
+                : offsetIndex.tailMap(ContentPageKey.fromToken(continuationToken).getContentId(), false);
+
+        try {
+            return Page.collect(remaining.keySet().iterator(), size, this::readContentUnchecked,
+                    id -> ContentPageKey.ofId(id).toToken());
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to retrieve content page: " + e.getMessage(),
+                    "Unable to retrieve content page. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Content> findAllById(Iterable<? extends String> ids) throws RepositoryException {
+        if (ids == null) {
+            throw new IllegalArgumentException("IDs cannot be null");
+        }
+
+        List<Content> result = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean existsById(String id) throws RepositoryException {
+        return id != null && offsetIndex.containsKey(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long count() throws RepositoryException {
+        return offsetIndex.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteById(String id) throws RepositoryException {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        try {
+            long sequence;
+            appendLock.lock();
+            try {
+                if (!offsetIndex.containsKey(id)) {
+                    return;
+                }
+                sequence = appendDelete(id);
+            } finally {
+                appendLock.unlock();
+            }
+            awaitDurable(sequence);
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to delete content: " + e.getMessage(),
+                    "Unable to delete content. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(Content entity) throws RepositoryException {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+
+        deleteById(entity.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(Iterable<? extends Content> entities) throws RepositoryException {
+        if (entities == null) {
+            throw new IllegalArgumentException("Entities cannot be null");
+        }
+
+        List<String> ids = new ArrayList<>();
+        for (Content content : entities) {
+            ids.add(content.getId());
+        }
+        deleteIds(ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll() throws RepositoryException {
+        deleteIds(new ArrayList<>(offsetIndex.keySet()));
+        LoggerUtil.logInfo(COMPONENT, "All content deleted from repository");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Payloads are serialized before the append lock is taken and all records
+     * are appended under a single acquisition, followed by one durability wait.
+     * </p>
+     */
+    @Override
+    public List<Content> saveAll(Iterable<? extends Content> entities) throws RepositoryException {
+        if (entities == null) {
+            throw new IllegalArgumentException("Entities cannot be null");
+        }
+
+        try {
+            List<Content> saved = new ArrayList<>();
+            List<byte[]> payloads = new ArrayList<>();
+            for (Content content : entities) {
+                saved.add(content);
+                payloads.add(serialize(content));
+            }
+
+            long sequence = durableSequence;
+            appendLock.lock();
+            try {
+                for (int i = 0; i < saved.size(); i++) {
+                    sequence = appendPut(saved.get(i).getId(), payloads.get(i));
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            awaitDurable(sequence);
+            return saved;
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to save all entities: " + e.getMessage(),
+                    "Unable to save multiple content items. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Matching items are rewritten as new records. See {@link ContentUpdate}
+     * for the supported update fields.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the update data is invalid
+     */
+    @Override
+    public long batchUpdate(Map<String, Object> updateCriteria, Map<String, Object> updateData)
+            throws RepositoryException {
+        if (updateCriteria == null || updateData == null) {
+            throw new IllegalArgumentException("Update criteria and data cannot be null");
+        }
+
+        ContentUpdate update = ContentUpdate.from(updateData);
+
+        List<Content> updated = new ArrayList<>();
+        for (Content content : findAll()) {
+            if (ContentUpdate.matchesCriteria(content, updateCriteria)) {
+                update.applyTo(content);
+                updated.add(content);
+            }
+        }
+        // One append pass and one durability wait for the whole batch
+        saveAll(updated);
+        LoggerUtil.logInfo(COMPONENT, "Batch update completed: " + updated.size() + " items updated");
+        return updated.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Forces every pending record to disk and waits for it, regardless of the
+     * configured durability mode.
+     * </p>
+     */
+    @Override
+    public void flush() throws RepositoryException {
+        long target = appendedSequence;
+        try {
+            requestCommit();
+            waitForSequence(target);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException(
+                    "Flush interrupted",
+                    "Unable to flush content storage. Please try again.",
+                    e);
+        } catch (IOException e) {
+            throw new RepositoryException(
+                    "Flush failed: " + e.getMessage(),
+                    "Unable to flush content storage. Please try again.",
+                    e);
+        }
+    }
+
+    /**
+     * Compacts sealed segments whose garbage ratio is at or above the
+     * configured threshold.
+     *
+     * @return The number of segments compacted
+     * @throws RepositoryException if a segment cannot be rewritten
+     */
+    public int compact() throws RepositoryException {
+        int compacted = 0;
+        try {
+            for (LogSegment segment : new ArrayList<>(segments.values())) {
+                if (segment == activeSegment || !segment.isSealed()
+                        || segment.garbageRatio() < options.getCompactionThreshold()) {
+                    continue;
+                }
+                compactSegment(segment);
+                compacted++;
+            }
+        } catch (IOException e) {
+            throw new RepositoryException(
+                    "Compaction failed: " + e.getMessage(),
+                    "Unable to compact content storage.",
+                    e);
+        }
+        if (compacted > 0) {
+            LoggerUtil.logInfo(COMPONENT, "Compacted " + compacted + " segments");
+        }
+        return compacted;
+    }
+
+    /**
+     * Returns storage statistics for monitoring.
+     *
+     * @return Map of statistic names to values
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        long written = 0;
+        long live = 0;
+        for (LogSegment segment : segments.values()) {
+            written += segment.getWritePosition();
+            live += segment.liveBytes().get();
+        }
+        stats.put("itemCount", offsetIndex.size());
+        stats.put("segmentCount", segments.size());
+        stats.put("writtenBytes", written);
+        stats.put("liveBytes", live);
+        stats.put("garbageRatio", written == 0 ? 0.0 : 1.0 - (double) live / written);
+        stats.put("appendedSequence", appendedSequence);
+        stats.put("durableSequence", durableSequence);
+        stats.put("groupCommits", groupCommits.get());
+        stats.put("compactedSegments", compactedSegments.get());
+        stats.put("relocatedRecords", relocatedRecords.get());
+        stats.put("recoveredRecords", recoveredRecords);
+        stats.put("recoveryMillis", recoveryMillis);
+        stats.put("durability", options.getDurability().name());
+        return stats;
+    }
+
+    /**
+     * Flushes pending writes and stops the background threads.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        compactor.shutdownNow();
+        try {
+            flush();
+        } catch (RepositoryException e) {
+            LoggerUtil.logError(COMPONENT, "Final flush failed", e);
+        }
+        running = false;
+        synchronized (commitMonitor) {
+            commitMonitor.notifyAll();
+        }
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LoggerUtil.logInfo(COMPONENT, "Closed " + directory);
+    }
+
+    // Append path (caller holds appendLock)
+
+    private long appendPut(String id, byte[] payload) throws IOException {
+        checkWritable();
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        long sequence = nextSequence++;
+        LogSegment segment = segmentWithRoomFor(LogSegment.recordSize(key, payload));
+        int offset = segment.append(TYPE_PUT, sequence, key, payload);
+        RecordLocation location = new RecordLocation(segment.getId(), offset, LogSegment.recordSize(key, payload));
+        segment.liveBytes().addAndGet(location.length);
+        RecordLocation previous = offsetIndex.put(id, location);
+        if (previous == null) {
+            keySetVersion.incrementAndGet();
+        }
+        release(previous);
+        appendedSequence = sequence;
+        return sequence;
+    }
+
+    private long appendDelete(String id) throws IOException {
+        checkWritable();
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        long sequence = nextSequence++;
+        LogSegment segment = segmentWithRoomFor(LogSegment.recordSize(key, null));
+        segment.append(TYPE_DELETE, sequence, key, null);
+        RecordLocation previous = offsetIndex.remove(id);
+        if (previous != null) {
+            keySetVersion.incrementAndGet();
+        }
+        release(previous);
+        appendedSequence = sequence;
+        return sequence;
+    }
+
+    private void checkWritable() throws IOException {
+        if (commitFailure != null) {
+            throw new IOException("Segment log is failed after an unsuccessful group commit", commitFailure);
+        }
+        if (!running) {
+            throw new IOException("Segment log is closed");
+        }
+    }
+
+    /**
+     * Returns the active segment, rolling to a new one if the record does not
+     * fit. Oversized records get a segment of their own size.
+     */
+    private LogSegment segmentWithRoomFor(int recordSize) throws IOException {
+        LogSegment segment = activeSegment;
+        if (segment.hasRoomFor(recordSize)) {
+            return segment;
+        }
+        segment.seal();
+        LogSegment next = LogSegment.create(directory, FILE_PREFIX, segment.getId() + 1,
+                Math.max(options.getSegmentSize(), recordSize));
+        segments.put(next.getId(), next);
+        activeSegment = next;
+        return next;
+    }
+
+    /**
+     * Returns the offset index keys in ID order, rebuilding the snapshot when
+     * an ID was added or removed since it was taken. The version is read
+     * before copying, so a snapshot racing a change is rebuilt on next use.
+     */
+    private List<String> sortedIds() {
+        KeySnapshot snapshot = keySnapshot;
+        long version = keySetVersion.get();
+        if (snapshot == null || snapshot.version != version) {
+            snapshot = new KeySnapshot(version, new ArrayList<>(offsetIndex.keySet()));
+            keySnapshot = snapshot;
+        }
+        return snapshot.ids;
+    }
+
+    private void release(RecordLocation previous) {
+        if (previous != null) {
+            LogSegment segment = segments.get(previous.segmentId);
+            if (segment != null) {
+                segment.liveBytes().addAndGet(-previous.length);
+            }
+        }
+    }
+
+    private void deleteIds(List<String> ids) throws RepositoryException {
+        try {
+            long sequence = durableSequence;
+            int deleted = 0;
+            appendLock.lock();
+            try {
+                for (String id : ids) {
+                    if (id != null && offsetIndex.containsKey(id)) {
+                        sequence = appendDelete(id);
+                        deleted++;
+                    }
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            awaitDurable(sequence);
+            LoggerUtil.logInfo(COMPONENT, "Deleted " + deleted + " content items");
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    "Failed to delete content entities: " + e.getMessage(),
+                    "Unable to delete specified content. Please try again.",
+                    e);
+        }
+    }
+
+    // Read path
+
+    /**
+     * Reads the latest version of a content item. Retries when compaction
+     * moves the record between the index lookup and the read.
+     */
+    private Content readContent(String id) throws IOException, ClassNotFoundException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            RecordLocation location = offsetIndex.get(id);
+            if (location == null) {
+                return null;
+            }
+            LogSegment segment = segments.get(location.segmentId);
+            if (segment == null) {
+                continue;
+            }
+            return deserialize(segment.read(location.offset).getPayload());
+        }
+        return null;
+    }
+
+    private Content readContentUnchecked(String id) {
+        try {
+            return readContent(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Group commit
+
+    private void awaitDurable(long sequence) throws InterruptedException, IOException {
+        if (options.getDurability() == Durability.SYNC) {
+            requestCommit();
+            waitForSequence(sequence);
+        }
+    }
+
+    private void requestCommit() {
+        synchronized (commitMonitor) {
+            commitRequested = true;
+            commitMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until a sequence is durable.
+     *
+     * @throws IOException if a group commit failed or the repository stopped
+     *                     before the sequence was forced
+     */
+    private void waitForSequence(long sequence) throws InterruptedException, IOException {
+        synchronized (commitMonitor) {
+            while (durableSequence < sequence && running && commitFailure == null) {
+                commitMonitor.wait(options.getCommitIntervalMillis());
+            }
+        }
+        if (durableSequence >= sequence) {
+            return;
+        }
+        if (commitFailure != null) {
+            throw new IOException("Group commit failed before sequence " + sequence + " was durable",
+                    commitFailure);
+        }
+        throw new IOException("Segment log closed before sequence " + sequence + " was durable");
+    }
+
+    /**
+     * Committer loop: forces the active segment whenever a writer asks for it
+     * or the commit interval passes with unflushed records. Writers that
+     * arrive while a force is running are covered by the next one.
+     *
+     * <p>
+     * A failed force is not retried: the pages it should have written may
+     * already have been dropped, so a later successful force would not prove
+     * them durable. The failure is recorded, waiting writers fail and further
+     * writes are rejected until the log is reopened and recovered.
+     * </p>
+     */
+    private void runCommitter() {
+        while (running) {
+            try {
+                synchronized (commitMonitor) {
+                    if (!commitRequested) {
+                        commitMonitor.wait(options.getCommitIntervalMillis());
+                    }
+                    commitRequested = false;
+                }
+
+                long target = appendedSequence;
+                if (target > durableSequence) {
+                    // Segments are sealed (and forced) when rolled, so forcing the
+                    // current active segment covers everything up to target
+                    activeSegment.force();
+                    groupCommits.incrementAndGet();
+                    synchronized (commitMonitor) {
+                        durableSequence = target;
+                        commitMonitor.notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LoggerUtil.logError(COMPONENT, "Group commit failed", e);
+                synchronized (commitMonitor) {
+                    commitFailure = e;
+                    commitMonitor.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    // Compaction
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            LoggerUtil.logError(COMPONENT, "Background compaction failed", e);
+        }
+    }
+
+    /**
+     * Copies the live records of a sealed segment to the active segment and
+     * deletes the file. Tombstones are carried forward while an older segment
+     * could still hold a PUT they shadow.
+     */
+    private void compactSegment(LogSegment segment) throws IOException {
+        List<LogSegment.Record> records = new ArrayList<>();
+        segment.forEach(records::add);
+        long maxSequence = 0;
+
+        for (LogSegment.Record record : records) {
+            appendLock.lock();
+            try {
+                RecordLocation current = offsetIndex.get(record.getKey());
+                if (record.getType() == TYPE_PUT) {
+                    if (current != null && current.segmentId == segment.getId()
+                            && current.offset == record.getOffset()) {
+                        maxSequence = appendPut(record.getKey(), record.getPayload());
+                        relocatedRecords.incrementAndGet();
+                    }
+                } else if (current == null && segments.lowerKey(segment.getId()) != null) {
+                    maxSequence = appendDelete(record.getKey());
+                    relocatedRecords.incrementAndGet();
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        }
+
+        // The copies must be durable before the originals disappear
+        try {
+            requestCommit();
+            waitForSequence(maxSequence);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compaction interrupted", e);
+        }
+
+        appendLock.lock();
+        try {
+            segments.remove(segment.getId());
+            segment.delete();
+        } finally {
+            appendLock.unlock();
+        }
+        compactedSegments.incrementAndGet();
+    }
+
+    // Recovery
+
+    /**
+     * Rebuilds the offset index by scanning all segments in order. The newest
+     * segment stays writable; a torn record at its tail is overwritten by the
+     * next append.
+     */
+    private long recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> LogSegment.parseId(path, FILE_PREFIX) >= 0)
+                    .sorted(Comparator.comparingLong(path -> LogSegment.parseId(path, FILE_PREFIX)))
+                    .collect(Collectors.toList());
+        }
+
+        long records = 0;
+        long maxSequence = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            boolean last = i == files.size() - 1;
+            LogSegment segment = LogSegment.open(file, LogSegment.parseId(file, FILE_PREFIX), last);
+            segments.put(segment.getId(), segment);
+
+            long[] segmentMaxSequence = { 0 };
+            records += segment.recover(record -> {
+                segmentMaxSequence[0] = Math.max(segmentMaxSequence[0], record.getSequence());
+                if (record.getType() == TYPE_PUT) {
+                    RecordLocation location = new RecordLocation(segment.getId(), record.getOffset(), record.getLength());
+                    segment.liveBytes().addAndGet(record.getLength());
+                    release(offsetIndex.put(record.getKey(), location));
+                } else {
+                    release(offsetIndex.remove(record.getKey()));
+                }
+            });
+            maxSequence = Math.max(maxSequence, segmentMaxSequence[0]);
+
+            if (last) {
+                activeSegment = segment;
+            }
+        }
+
+        if (activeSegment == null) {
+            activeSegment = LogSegment.create(directory, FILE_PREFIX, 1, options.getSegmentSize());
+            segments.put(activeSegment.getId(), activeSegment);
+        }
+
+        nextSequence = maxSequence + 1;
+        appendedSequence = maxSequence;
+        durableSequence = maxSequence;
+        return records;
+    }
+
+    // Serialization helpers
+
+    private static byte[] serialize(Content content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Content deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return (Content) in.readObject();
+        }
+    }
+
+    /**
+     * Position of a record within the segment log.
+     */
+    private static final class RecordLocation {
+        private final long segmentId;
+        private final int offset;
+        private final int length;
+
+        private RecordLocation(long segmentId, int offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Offset index keys in ID order, tagged with the key set version they
+     * were copied at.
+     */
+    private static final class KeySnapshot {
+        private final long version;
+        private final List<String> ids;
+
+        private KeySnapshot(long version, List<String> ids) {
+            this.version = version;
+            this.ids = ids;
+        }
+    }
+}
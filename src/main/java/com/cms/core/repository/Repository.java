@@ -123,6 +123,53 @@ public interface Repository<T, ID> {
      */
     List<T> findAll(int page, int size) throws RepositoryException;
 
+    /**
+     * Retrieves a page of entities using cursor (keyset) pagination.
+     *
+     * <p>
+     * Pass a null token for the first page and the token of the returned
+     * {@link Page} for each following page. Unlike
+     * {@link #findAll(int, int)}, implementations backed by a sorted index
+     * resume directly after the last returned entity, so deep pages cost the
+     * same as the first and concurrent inserts or deletes neither duplicate nor
+     * skip the remaining entities.
+     * </p>
+     *
+     * <p>
+     * The default implementation encodes an offset into {@link #findAll()}
+     * and only exists for repositories without such an index; it has neither
+     * property.
+     * </p>
+     *
+     * @param continuationToken Token from the previous page, or null for the
+     *                          first page
+     * @param size              The maximum number of entities per page
+     * @return The page, whose token is null when no entities follow
+     * @throws RepositoryException      if the retrieval operation fails
+     * @throws IllegalArgumentException if size is not positive or the token is
+     *                                  invalid
+     */
+    default Page<T> findPage(String continuationToken, int size) throws RepositoryException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0");
+        }
+
+        int offset;
+        try {
+            offset = continuationToken == null ? 0 : Integer.parseInt(continuationToken);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+
+        List<T> all = findAll();
+        int end = Math.min(offset + size, all.size());
+        List<T> items = offset < end ? all.subList(offset, end) : List.of();
+        return new Page<>(items, end < all.size() ? Integer.toString(end) : null);
+    }
+
     /**
      * Retrieves entities by multiple identifiers in a single operation.
      *
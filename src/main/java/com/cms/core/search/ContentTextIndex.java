@@ -0,0 +1,169 @@
+package com.cms.core.search;
+
+import com.cms.core.model.Content;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Full-text index over the titles and bodies of a collection of content,
+ * kept in step with the collection by modification date.
+ *
+ * <p>
+ * <strong>Purpose:</strong> Serves the search methods that used to scan every
+ * title and body with {@code contains()} on each call, such as
+ * {@code Site.searchContent} and {@code ContentStreamProcessor.searchContent}.
+ * Content is analyzed when it is first seen and again only when its
+ * modification date changes, so a search costs an index query plus a
+ * date comparison per item instead of lowercasing and scanning all text.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> Synchronization and lookups are
+ * synchronized on the index; queries themselves read a point-in-time
+ * snapshot of the {@link InvertedIndex} without locking.
+ * </p>
+ *
+ * @see InvertedIndex
+ * @see SearchQuery
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class ContentTextIndex {
+
+    private static final Map<String, Double> FIELD_WEIGHTS = Map.of("title", 2.0, "body", 1.0);
+
+    /** Indexed content and the modification date it was indexed at */
+    private static final class Entry {
+        final Content<?> content;
+        final LocalDateTime modifiedDate;
+
+        Entry(Content<?> content) {
+            this.content = content;
+            this.modifiedDate = content.getModifiedDate();
+        }
+    }
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Indexes content, replacing an earlier version with the same ID.
+     *
+     * @param content The content to index
+     */
+    public synchronized void add(Content<?> content) {
+        entries.put(content.getId(), new Entry(content));
+        index.index(analyze(content));
+    }
+
+    /**
+     * Removes content from the index.
+     *
+     * @param contentId The content ID
+     */
+    public synchronized void remove(String contentId) {
+        if (entries.remove(contentId) != null) {
+            index.remove(contentId);
+        }
+    }
+
+    /**
+     * Brings the index in line with a collection: new and modified content is
+     * (re)analyzed and content no longer in the collection is removed.
+     *
+     * @param contents The collection the index should reflect
+     */
+    @SuppressWarnings("rawtypes")
+    public synchronized void synchronize(Collection<? extends Content> contents) {
+        Set<String> present = new HashSet<>(contents.size() * 2);
+        List<InvertedIndex.AnalyzedDocument> changed = new ArrayList<>();
+        for (Content<?> content : contents) {
+            String contentId = content.getId();
+            present.add(contentId);
+            Entry entry = entries.get(contentId);
+            if (entry == null || entry.content != content
+                    || !Objects.equals(entry.modifiedDate, content.getModifiedDate())) {
+                entries.put(contentId, new Entry(content));
+                changed.add(analyze(content));
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        if (entries.size() > present.size()) {
+            Iterator<String> contentIds = entries.keySet().iterator();
+            while (contentIds.hasNext()) {
+                String contentId = contentIds.next();
+                if (!present.contains(contentId)) {
+                    contentIds.remove();
+                    removed.add(contentId);
+                }
+            }
+        }
+        if (!changed.isEmpty() || !removed.isEmpty()) {
+            index.apply(removed, changed);
+        }
+    }
+
+    /**
+     * Runs a query over the indexed content.
+     *
+     * @param query      The parsed query
+     * @param maxResults Maximum number of results
+     * @return Matching content, best match first
+     */
+    public List<Content<?>> search(SearchQuery query, int maxResults) {
+        List<Content<?>> results = new ArrayList<>();
+        for (InvertedIndex.Hit hit : searchHits(query, maxResults, null)) {
+            Content<?> content = get(hit.getContentId());
+            if (content != null) {
+                results.add(content);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs a query over the indexed content and returns scored hits.
+     *
+     * @param query      The parsed query
+     * @param maxResults Maximum number of results
+     * @param filter     Content IDs to consider, or null for all
+     * @return Hits, best match first
+     */
+    public List<InvertedIndex.Hit> searchHits(SearchQuery query, int maxResults, Predicate<String> filter) {
+        return index.searchHits(query, maxResults, filter);
+    }
+
+    /**
+     * Returns the indexed content with an ID.
+     *
+     * @param contentId The content ID
+     * @return The content, or null if not indexed
+     */
+    public synchronized Content<?> get(String contentId) {
+        Entry entry = entries.get(contentId);
+        return entry != null ? entry.content : null;
+    }
+
+    /**
+     * Returns the number of indexed content items.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the statistics of the underlying inverted index.
+     */
+    public Map<String, Object> getStatistics() {
+        return index.getStatistics();
+    }
+
+    private InvertedIndex.AnalyzedDocument analyze(Content<?> content) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("title", content.getTitle());
+        fields.put("body", content.getBody());
+        return index.analyze(content.getId(), fields, FIELD_WEIGHTS, 1.0);
+    }
+}
@@ -0,0 +1,2332 @@
+package com.cms.core.search;
+
+import com.cms.concurrent.ExecutorRegistry;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Segmented positional inverted index with BM25 ranking, executing
+ * {@link SearchQuery} boolean, phrase and prefix queries.
+ *
+ * <p>
+ * <strong>Layout:</strong> The index is a list of immutable segments in
+ * indexing order. Each segment numbers its documents from zero and maps every
+ * term of its sorted dictionary to postings: parallel int arrays of document
+ * numbers, term frequencies and offsets into a shared position array, plus a
+ * skip list holding the last document number of every block of
+ * {@value #SKIP_INTERVAL} postings. A position carries the field ordinal in
+ * its high bits and the token index within the field in its low bits, so
+ * field weights and phrase adjacency can both be read from it. Document
+ * lengths, field weights, boosts and the distinct terms of every field are
+ * stored per document.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Searches read a point-in-time snapshot, the
+ * segment list with a deletion bit set per segment, from a volatile field and
+ * take no lock, so indexing and merging never block queries. Writers are
+ * serialized: each write copies the deletion sets it changes and publishes a
+ * new snapshot.
+ * </p>
+ *
+ * <p>
+ * <strong>Updates:</strong> Text is analyzed into an {@link AnalyzedDocument}
+ * before the writer lock is taken. The documents of one write form the
+ * in-memory buffer, which is flushed into a new segment before the write
+ * returns, so writes are searchable as soon as they complete. Re-indexing a
+ * document marks its old version deleted in the segment holding it.
+ * </p>
+ *
+ * <p>
+ * <strong>Field Updates:</strong> A document analyzed from only some of its
+ * fields with {@link #analyzeFields} is merged with the indexed version: the
+ * indexed document is rebuilt from its segment's postings, the old and new
+ * terms of each changed field are compared and only the terms whose positions
+ * in that field differ are replaced. A document analyzed from no fields at
+ * all only updates the boost, so edits that leave the text alone cost no
+ * analysis.
+ * </p>
+ *
+ * <p>
+ * <strong>Merging:</strong> A tiered merge policy runs in the background on
+ * the {@link ExecutorRegistry#SEARCH_MERGE} pool. Once {@value #MERGE_FACTOR}
+ * adjacent segments are of comparable size, none holding more than half of
+ * their documents, they are merged into one, so segments grow in tiers a
+ * factor of {@value #MERGE_FACTOR} apart and each document is rewritten about
+ * once per tier. A segment whose deleted documents reach a quarter is
+ * rewritten without them. Merges
+ * read only immutable segments and take the writer lock just to swap the
+ * result in, carrying over deletions made meanwhile.
+ * </p>
+ *
+ * <p>
+ * <strong>Persistence:</strong> An index opened with {@link #open} writes
+ * each segment once to an immutable file: documents with their fields as
+ * delta-encoded term ordinals, a front-coded dictionary, and postings of
+ * delta-encoded document numbers and positions, all as varints. Merged
+ * segments are written by the merge itself; {@link #commit} writes the
+ * segments flushed since the last commit and atomically replaces a manifest
+ * holding the segment list, deleted documents, field ordinals and caller
+ * data such as the last indexed event. Reopening memory-maps the committed
+ * segments and decodes the postings of a term when it is first queried, so
+ * nothing is re-analyzed.
+ * </p>
+ *
+ * <p>
+ * <strong>Query Execution:</strong> Queries run document-at-a-time over
+ * postings iterators, one segment after another, with term statistics summed
+ * over all segments. Conjunctions are led by their rarest clause and move
+ * the other clauses forward with skip-list jumps, so intersecting a rare term
+ * with a common one costs about the size of the rare postings. Phrases are
+ * conjunctions whose candidates are checked for adjacent positions; prefix
+ * terms expand over the sorted dictionaries into a disjunction; exclusions
+ * skip the documents of their clause. A clause without postings ends a
+ * conjunction before any postings are read.
+ * </p>
+ *
+ * <p>
+ * <strong>Scoring:</strong> Matches are scored with BM25 over field-weighted
+ * term frequency and document length, multiplied by the document boost;
+ * phrases score their matching occurrences with the summed IDF of their
+ * terms. The best results are kept in a heap bounded by the requested count,
+ * so ranking costs {@code O(matches log k)} whatever the length of the
+ * documents.
+ * </p>
+ *
+ * @see SearchQuery
+ * @see ContentTextIndex
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class InvertedIndex {
+
+    /** BM25 term frequency saturation */
+    static final double K1 = 1.2;
+    /** BM25 document length normalization */
+    static final double B = 0.75;
+
+    /** Postings per skip-list entry */
+    static final int SKIP_INTERVAL = 16;
+
+    /** Most dictionary terms a prefix query expands to */
+    static final int MAX_PREFIX_EXPANSIONS = 128;
+
+    /** Adjacent segments merged at once */
+    static final int MERGE_FACTOR = 10;
+
+    private static final int FIELD_SHIFT = 24;
+    private static final int TOKEN_MASK = (1 << FIELD_SHIFT) - 1;
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    static final String MANIFEST_FILE = "segments.manifest";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final int SEGMENT_MAGIC = 0x434D5349; // "CMSI"
+    private static final int MANIFEST_MAGIC = 0x434D534D; // "CMSM"
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 7 * 4;
+
+    private static final String[] NO_TERMS = new String[0];
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "for", "are", "but", "not",
+            "you", "all", "can", "had", "has", "was", "one", "our", "by");
+
+    /**
+     * The terms and positions of one document, or of some of its fields,
+     * produced without holding the index lock.
+     */
+    public static final class AnalyzedDocument {
+        final String contentId;
+        final double boost;
+        final Map<String, int[]> termPositions;
+        /** Ordinals of the analyzed fields */
+        final int[] fields;
+        /** Per field ordinal: weight, sorted distinct terms and token count */
+        final float[] fieldWeights;
+        final String[][] fieldTerms;
+        final int[] fieldTokens;
+        final float length;
+        /** Whether the document holds only changed fields of an indexed one */
+        final boolean partial;
+        /** Values stored with the document and returned as they are */
+        final Map<String, String> storedFields;
+
+        private AnalyzedDocument(String contentId, double boost, Map<String, int[]> termPositions, int[] fields,
+                float[] fieldWeights, String[][] fieldTerms, int[] fieldTokens, float length, boolean partial,
+                Map<String, String> storedFields) {
+            this.contentId = contentId;
+            this.boost = boost;
+            this.termPositions = termPositions;
+            this.fields = fields;
+            this.fieldWeights = fieldWeights;
+            this.fieldTerms = fieldTerms;
+            this.fieldTokens = fieldTokens;
+            this.length = length;
+            this.partial = partial;
+            this.storedFields = storedFields;
+        }
+
+        public String getContentId() {
+            return contentId;
+        }
+
+        /**
+         * Returns the distinct terms of the analyzed fields.
+         */
+        public Set<String> terms() {
+            return termPositions.keySet();
+        }
+
+        /**
+         * Returns whether this holds only some fields of a document, to be
+         * merged into its indexed version.
+         */
+        public boolean isPartial() {
+            return partial;
+        }
+
+        /**
+         * Returns a copy of this document carrying values to store with it,
+         * such as the fields needed to rebuild state kept next to the index
+         * when a persistent index is reopened. Stored values are not
+         * searchable; for a partial document they replace the stored values
+         * of the indexed version.
+         *
+         * @param storedFields Names and values to store
+         * @return The document with the stored values
+         */
+        public AnalyzedDocument withStoredFields(Map<String, String> storedFields) {
+            return new AnalyzedDocument(contentId, boost, termPositions, fields, fieldWeights, fieldTerms,
+                    fieldTokens, length, partial, Map.copyOf(storedFields));
+        }
+    }
+
+    /**
+     * A search result: the content ID and its score.
+     */
+    public static final class Hit {
+        private final String contentId;
+        private final double score;
+
+        Hit(String contentId, double score) {
+            this.contentId = contentId;
+            this.score = score;
+        }
+
+        public String getContentId() {
+            return contentId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /** Postings of one term in a segment, sorted by document number */
+    private static final class Postings {
+        int size;
+        int[] docs;
+        int[] freqs;
+        int[] positionStarts;
+        int[] positions;
+        int[] skipDocs;
+        int skipCount;
+
+        Postings() {
+            this(4, 8);
+        }
+
+        /** Creates postings sized for a known number of documents and positions */
+        Postings(int documents, int positionCount) {
+            docs = new int[Math.max(documents, 1)];
+            freqs = new int[docs.length];
+            positionStarts = new int[docs.length + 1];
+            positions = new int[Math.max(positionCount, 1)];
+            skipDocs = new int[Math.max(documents / SKIP_INTERVAL, 1)];
+        }
+
+        void append(int doc, int[] termPositions) {
+            if (size == docs.length) {
+                int capacity = docs.length * 2;
+                docs = Arrays.copyOf(docs, capacity);
+                freqs = Arrays.copyOf(freqs, capacity);
+                positionStarts = Arrays.copyOf(positionStarts, capacity + 1);
+            }
+            int start = positionStarts[size];
+            if (start + termPositions.length > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, start + termPositions.length));
+            }
+            System.arraycopy(termPositions, 0, positions, start, termPositions.length);
+            docs[size] = doc;
+            freqs[size] = termPositions.length;
+            size++;
+            positionStarts[size] = start + termPositions.length;
+            if (size % SKIP_INTERVAL == 0) {
+                if (skipCount == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, skipCount * 2);
+                }
+                skipDocs[skipCount++] = doc;
+            }
+        }
+
+        /**
+         * Returns the first index at or after {@code from} whose document is
+         * at least {@code target}, jumping whole blocks through the skip list.
+         */
+        int advance(int from, int target) {
+            int block = from / SKIP_INTERVAL;
+            if (block < skipCount && skipDocs[block] < target) {
+                int found = Arrays.binarySearch(skipDocs, block, skipCount, target);
+                block = found >= 0 ? found : -found - 1;
+            }
+            int index = Math.max(from, block * SKIP_INTERVAL);
+            while (index < size && docs[index] < target) {
+                index++;
+            }
+            return index;
+        }
+
+        int indexOf(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc);
+        }
+    }
+
+    /**
+     * An immutable set of documents with its own term dictionary and
+     * document numbers. Deletions are recorded in the snapshots instead.
+     *
+     * <p>
+     * A segment flushed from the buffer holds its postings on the heap. A
+     * segment read from a file maps the file and decodes the postings of a
+     * term when it is first queried; decoded postings are softly cached, so
+     * the heap holds the terms in use while the file stays the source.
+     * </p>
+     */
+    private static final class Segment {
+        /** Term to term ordinal, in term order */
+        final TreeMap<String, Integer> dictionary;
+        final int[] documentFrequencies;
+        final int[] positionCounts;
+        /** Postings per term ordinal, for a segment built on the heap */
+        final Postings[] resident;
+        /** Mapped file and postings offsets per term ordinal, for a segment read from disk */
+        final ByteBuffer mapped;
+        final int[] postingsOffsets;
+        final AtomicReferenceArray<SoftReference<Postings>> decoded;
+
+        final Map<String, Integer> docNumbers;
+        final String[] contentIds;
+        final float[] lengths;
+        final float[][] fieldWeights;
+        final String[][][] fieldTerms;
+        final int[][] fieldTokens;
+        final float[] boosts;
+        final Map<String, String>[] storedFields;
+        final double totalLength;
+        final int size;
+
+        /** Name of the segment's file once written; guarded by the writer lock */
+        String fileName;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment(List<AnalyzedDocument> documents) {
+            size = documents.size();
+            docNumbers = new HashMap<>(size * 2);
+            contentIds = new String[size];
+            lengths = new float[size];
+            fieldWeights = new float[size][];
+            fieldTerms = new String[size][][];
+            fieldTokens = new int[size][];
+            boosts = new float[size];
+            storedFields = new Map[size];
+            TreeMap<String, Postings> postings = new TreeMap<>();
+            double total = 0;
+            for (int doc = 0; doc < size; doc++) {
+                AnalyzedDocument document = documents.get(doc);
+                docNumbers.put(document.contentId, doc);
+                contentIds[doc] = document.contentId;
+                lengths[doc] = document.length;
+                fieldWeights[doc] = document.fieldWeights;
+                fieldTerms[doc] = document.fieldTerms;
+                fieldTokens[doc] = document.fieldTokens;
+                boosts[doc] = (float) document.boost;
+                storedFields[doc] = document.storedFields;
+                total += document.length;
+                for (Map.Entry<String, int[]> entry : document.termPositions.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), k -> new Postings()).append(doc, entry.getValue());
+                }
+            }
+            totalLength = total;
+
+            dictionary = new TreeMap<>();
+            resident = new Postings[postings.size()];
+            documentFrequencies = new int[resident.length];
+            positionCounts = new int[resident.length];
+            int ordinal = 0;
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings termPostings = entry.getValue();
+                dictionary.put(entry.getKey(), ordinal);
+                resident[ordinal] = termPostings;
+                documentFrequencies[ordinal] = termPostings.size;
+                positionCounts[ordinal] = termPostings.positionStarts[termPostings.size];
+                ordinal++;
+            }
+            mapped = null;
+            postingsOffsets = null;
+            decoded = null;
+        }
+
+        /**
+         * Maps a segment file, reading its dictionary and per-document data.
+         * Postings are decoded on first use.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            fileName = file.getFileName().toString();
+            Input header = new Input(mapped, 0);
+            if (header.readInt() != SEGMENT_MAGIC || header.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a search index segment: " + fileName);
+            }
+            size = header.readInt();
+            int termCount = header.readInt();
+            int documentsOffset = header.readInt();
+            int dictionaryOffset = header.readInt();
+            int postingsOffset = header.readInt();
+
+            // Dictionary: front-coded terms with their statistics and postings lengths
+            Input in = new Input(mapped, dictionaryOffset);
+            String[] terms = new String[termCount];
+            dictionary = new TreeMap<>();
+            documentFrequencies = new int[termCount];
+            positionCounts = new int[termCount];
+            postingsOffsets = new int[termCount];
+            String previous = "";
+            int offset = postingsOffset;
+            for (int ordinal = 0; ordinal < termCount; ordinal++) {
+                int shared = in.readVarInt();
+                String term = previous.substring(0, shared) + in.readString();
+                terms[ordinal] = term;
+                dictionary.put(term, ordinal);
+                documentFrequencies[ordinal] = in.readVarInt();
+                positionCounts[ordinal] = in.readVarInt();
+                postingsOffsets[ordinal] = offset;
+                offset += in.readVarInt();
+                previous = term;
+            }
+            resident = null;
+            decoded = new AtomicReferenceArray<>(termCount);
+
+            // Documents: ID, length, boost, fields as term ordinals, stored fields
+            in = new Input(mapped, documentsOffset);
+            docNumbers = new HashMap<>(size * 2);
+            contentIds = new String[size];
+            lengths = new float[size];
+            fieldWeights = new float[size][];
+            fieldTerms = new String[size][][];
+            fieldTokens = new int[size][];
+            boosts = new float[size];
+            storedFields = new Map[size];
+            double total = 0;
+            for (int doc = 0; doc < size; doc++) {
+                contentIds[doc] = in.readString();
+                docNumbers.put(contentIds[doc], doc);
+                lengths[doc] = in.readFloat();
+                boosts[doc] = in.readFloat();
+                int fieldCount = in.readVarInt();
+                fieldWeights[doc] = new float[fieldCount];
+                fieldTerms[doc] = new String[fieldCount][];
+                fieldTokens[doc] = new int[fieldCount];
+                for (int field = 0; field < fieldCount; field++) {
+                    fieldWeights[doc][field] = in.readFloat();
+                    fieldTokens[doc][field] = in.readVarInt();
+                    int count = in.readVarInt();
+                    if (count > 0) {
+                        String[] fieldTermArray = new String[count];
+                        int ordinal = 0;
+                        for (int i = 0; i < count; i++) {
+                            ordinal += in.readVarInt();
+                            fieldTermArray[i] = terms[ordinal];
+                        }
+                        fieldTerms[doc][field] = fieldTermArray;
+                    }
+                }
+                int stored = in.readVarInt();
+                Map<String, String> values = stored == 0 ? Collections.emptyMap() : new HashMap<>(stored * 2);
+                for (int i = 0; i < stored; i++) {
+                    values.put(in.readString(), in.readString());
+                }
+                storedFields[doc] = values;
+                total += lengths[doc];
+            }
+            totalLength = total;
+        }
+
+        /**
+         * Writes the segment to a file: a header, the documents with their
+         * fields as delta-encoded term ordinals, the front-coded dictionary,
+         * then the postings of each term as delta-encoded document numbers,
+         * frequencies and delta-encoded positions, all as varints.
+         */
+        void write(Path file) throws IOException {
+            Output postingsOut = new Output(1024);
+            Output dictionaryOut = new Output(1024);
+            Map<String, Integer> ordinals = new HashMap<>(dictionary.size() * 2);
+            String previous = "";
+            for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+                String term = entry.getKey();
+                int ordinal = entry.getValue();
+                ordinals.put(term, ordinal);
+                Postings termPostings = postings(ordinal);
+                int start = postingsOut.size;
+                int lastDoc = 0;
+                for (int i = 0; i < termPostings.size; i++) {
+                    postingsOut.writeVarInt(termPostings.docs[i] - lastDoc);
+                    lastDoc = termPostings.docs[i];
+                    postingsOut.writeVarInt(termPostings.freqs[i]);
+                    int lastPosition = 0;
+                    for (int p = termPostings.positionStarts[i]; p < termPostings.positionStarts[i + 1]; p++) {
+                        postingsOut.writeVarInt(termPostings.positions[p] - lastPosition);
+                        lastPosition = termPostings.positions[p];
+                    }
+                }
+                int shared = 0;
+                int limit = Math.min(previous.length(), term.length());
+                while (shared < limit && previous.charAt(shared) == term.charAt(shared)) {
+                    shared++;
+                }
+                dictionaryOut.writeVarInt(shared);
+                dictionaryOut.writeString(term.substring(shared));
+                dictionaryOut.writeVarInt(documentFrequencies[ordinal]);
+                dictionaryOut.writeVarInt(positionCounts[ordinal]);
+                dictionaryOut.writeVarInt(postingsOut.size - start);
+                previous = term;
+            }
+
+            Output documentsOut = new Output(size * 64);
+            for (int doc = 0; doc < size; doc++) {
+                documentsOut.writeString(contentIds[doc]);
+                documentsOut.writeFloat(lengths[doc]);
+                documentsOut.writeFloat(boosts[doc]);
+                int fieldCount = fieldTerms[doc].length;
+                documentsOut.writeVarInt(fieldCount);
+                for (int field = 0; field < fieldCount; field++) {
+                    float[] weights = fieldWeights[doc];
+                    documentsOut.writeFloat(weights != null && field < weights.length ? weights[field] : 1.0f);
+                    documentsOut.writeVarInt(fieldTokens[doc][field]);
+                    String[] terms = fieldTerms[doc][field];
+                    documentsOut.writeVarInt(terms != null ? terms.length : 0);
+                    int lastOrdinal = 0;
+                    for (String term : terms != null ? terms : NO_TERMS) {
+                        int ordinal = ordinals.get(term);
+                        documentsOut.writeVarInt(ordinal - lastOrdinal);
+                        lastOrdinal = ordinal;
+                    }
+                }
+                Map<String, String> stored = storedFields[doc];
+                documentsOut.writeVarInt(stored.size());
+                for (Map.Entry<String, String> entry : stored.entrySet()) {
+                    documentsOut.writeString(entry.getKey());
+                    documentsOut.writeString(entry.getValue());
+                }
+            }
+
+            Output header = new Output(SEGMENT_HEADER_SIZE);
+            header.writeInt(SEGMENT_MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeInt(size);
+            header.writeInt(dictionary.size());
+            header.writeInt(SEGMENT_HEADER_SIZE);
+            header.writeInt(SEGMENT_HEADER_SIZE + documentsOut.size);
+            header.writeInt(SEGMENT_HEADER_SIZE + documentsOut.size + dictionaryOut.size);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Output output : new Output[] { header, documentsOut, dictionaryOut, postingsOut }) {
+                    ByteBuffer buffer = ByteBuffer.wrap(output.bytes, 0, output.size);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                channel.force(true);
+            }
+            fileName = file.getFileName().toString();
+        }
+
+        /** Returns the postings of a term, or null if the segment lacks it */
+        Postings postings(String term) {
+            Integer ordinal = dictionary.get(term);
+            return ordinal != null ? postings(ordinal) : null;
+        }
+
+        Postings postings(int ordinal) {
+            if (resident != null) {
+                return resident[ordinal];
+            }
+            SoftReference<Postings> cached = decoded.get(ordinal);
+            Postings postings = cached != null ? cached.get() : null;
+            if (postings == null) {
+                postings = decode(ordinal);
+                decoded.set(ordinal, new SoftReference<>(postings));
+            }
+            return postings;
+        }
+
+        private Postings decode(int ordinal) {
+            Postings postings = new Postings(documentFrequencies[ordinal], positionCounts[ordinal]);
+            Input in = new Input(mapped, postingsOffsets[ordinal]);
+            int doc = 0;
+            for (int i = 0; i < documentFrequencies[ordinal]; i++) {
+                doc += in.readVarInt();
+                int[] positions = new int[in.readVarInt()];
+                int position = 0;
+                for (int p = 0; p < positions.length; p++) {
+                    position += in.readVarInt();
+                    positions[p] = position;
+                }
+                postings.append(doc, positions);
+            }
+            return postings;
+        }
+
+        int documentFrequency(String term) {
+            Integer ordinal = dictionary.get(term);
+            return ordinal != null ? documentFrequencies[ordinal] : 0;
+        }
+
+        /** Rebuilds the analyzed form of a document from the postings */
+        AnalyzedDocument document(int doc) {
+            Map<String, int[]> termPositions = new HashMap<>();
+            String[][] terms = fieldTerms[doc];
+            int[] fields = new int[terms.length];
+            for (int field = 0; field < terms.length; field++) {
+                fields[field] = field;
+                for (String term : terms[field] != null ? terms[field] : NO_TERMS) {
+                    if (!termPositions.containsKey(term)) {
+                        Postings termPostings = postings(term);
+                        int index = termPostings.indexOf(doc);
+                        termPositions.put(term, Arrays.copyOfRange(termPostings.positions,
+                                termPostings.positionStarts[index], termPostings.positionStarts[index + 1]));
+                    }
+                }
+            }
+            return new AnalyzedDocument(contentIds[doc], boosts[doc], termPositions, fields, fieldWeights[doc],
+                    terms, fieldTokens[doc], lengths[doc], false, storedFields[doc]);
+        }
+    }
+
+    /** Growable byte array with the writers of the file formats */
+    private static final class Output {
+        byte[] bytes;
+        int size;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeFloat(float value) {
+            writeInt(Float.floatToIntBits(value));
+        }
+
+        /** Seven bits per byte, low bits first, high bit set on all but the last byte */
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+    }
+
+    /** Reads the file formats with absolute gets, so readers can share a buffer */
+    private static final class Input {
+        final ByteBuffer buffer;
+        int position;
+
+        Input(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        long readLong() {
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        float readFloat() {
+            return Float.intBitsToFloat(readInt());
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String readString() {
+            int length = readVarInt();
+            byte[] utf8 = new byte[length];
+            for (int i = 0; i < length; i++) {
+                utf8[i] = buffer.get(position + i);
+            }
+            position += length;
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A point-in-time view of the index: the segments in indexing order and
+     * a deletion bit set per segment. Never modified once published.
+     */
+    private static final class Snapshot {
+        final Segment[] segments;
+        /** Per segment, the deleted document numbers; null if none */
+        final long[][] deleted;
+        final int[] deletedCounts;
+        final double[] deletedLengths;
+        /** Per segment, the index-wide number of its first document */
+        final int[] bases;
+        final int liveDocs;
+        final int deletedDocs;
+        final double totalLength;
+
+        Snapshot(Segment[] segments, long[][] deleted, int[] deletedCounts, double[] deletedLengths) {
+            this.segments = segments;
+            this.deleted = deleted;
+            this.deletedCounts = deletedCounts;
+            this.deletedLengths = deletedLengths;
+            this.bases = new int[segments.length];
+            int docs = 0;
+            int deletions = 0;
+            double length = 0;
+            for (int s = 0; s < segments.length; s++) {
+                bases[s] = docs;
+                docs += segments[s].size;
+                deletions += deletedCounts[s];
+                length += segments[s].totalLength - deletedLengths[s];
+            }
+            this.liveDocs = docs - deletions;
+            this.deletedDocs = deletions;
+            this.totalLength = liveDocs > 0 ? length : 0;
+        }
+
+        boolean isDeleted(int segment, int doc) {
+            long[] bits = deleted[segment];
+            return bits != null && (bits[doc >>> 6] & (1L << doc)) != 0;
+        }
+
+        int liveDocs(int segment) {
+            return segments[segment].size - deletedCounts[segment];
+        }
+    }
+
+    /** Copy-on-write changes to the current snapshot, published as one */
+    private final class Edit {
+        final Segment[] segments;
+        final long[][] deleted;
+        final int[] deletedCounts;
+        final double[] deletedLengths;
+        final boolean[] copied;
+
+        Edit(Snapshot base) {
+            segments = base.segments;
+            deleted = base.deleted.clone();
+            deletedCounts = base.deletedCounts.clone();
+            deletedLengths = base.deletedLengths.clone();
+            copied = new boolean[segments.length];
+        }
+
+        /** Marks the live version of a document deleted */
+        boolean delete(String contentId) {
+            Segment segment = locations.remove(contentId);
+            if (segment == null) {
+                return false;
+            }
+            int s = indexOf(segments, segment);
+            int doc = segment.docNumbers.get(contentId);
+            if (!copied[s]) {
+                deleted[s] = deleted[s] != null ? deleted[s].clone() : new long[(segment.size + 63) >>> 6];
+                copied[s] = true;
+            }
+            deleted[s][doc >>> 6] |= 1L << doc;
+            deletedCounts[s]++;
+            deletedLengths[s] += segment.lengths[doc];
+            return true;
+        }
+
+        /** Publishes the changes, appending a flushed segment if any */
+        void publish(Segment flushed) {
+            List<Integer> kept = new ArrayList<>(segments.length + 1);
+            for (int s = 0; s < segments.length; s++) {
+                if (deletedCounts[s] < segments[s].size) {
+                    kept.add(s);
+                } else {
+                    retire(segments[s]);
+                }
+            }
+            int count = kept.size() + (flushed != null ? 1 : 0);
+            Segment[] newSegments = new Segment[count];
+            long[][] newDeleted = new long[count][];
+            int[] newCounts = new int[count];
+            double[] newLengths = new double[count];
+            for (int i = 0; i < kept.size(); i++) {
+                int s = kept.get(i);
+                newSegments[i] = segments[s];
+                newDeleted[i] = deleted[s];
+                newCounts[i] = deletedCounts[s];
+                newLengths[i] = deletedLengths[s];
+            }
+            if (flushed != null) {
+                newSegments[count - 1] = flushed;
+            }
+            snapshot = new Snapshot(newSegments, newDeleted, newCounts, newLengths);
+        }
+    }
+
+    /** A scored document held in the top-k heap */
+    private static final class ScoredDoc {
+        final int doc;
+        final String contentId;
+        final double score;
+
+        ScoredDoc(int doc, String contentId, double score) {
+            this.doc = doc;
+            this.contentId = contentId;
+            this.score = score;
+        }
+    }
+
+    /** Heap order: the weakest result, lowest score then latest document, first */
+    private static final Comparator<ScoredDoc> WEAKEST_FIRST = (a, b) -> a.score != b.score
+            ? Double.compare(a.score, b.score)
+            : Integer.compare(b.doc, a.doc);
+
+    private final Map<String, Integer> fieldOrdinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextFieldOrdinal = new AtomicInteger();
+
+    private volatile Snapshot snapshot = new Snapshot(new Segment[0], new long[0][], new int[0], new double[0]);
+
+    // Writer state, guarded by writeLock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition mergeFinished = writeLock.newCondition();
+    private final Map<String, Segment> locations = new HashMap<>(); // Content ID -> segment of its live version
+    private boolean merging;
+    private final Set<String> obsoleteFiles = new HashSet<>(); // Written files no longer in the snapshot
+    private Map<String, String> commitData = Collections.emptyMap();
+
+    private final Executor mergeExecutor;
+    /** Directory of the segment files and manifest, null for an index kept only in memory */
+    private final Path directory;
+    private final AtomicLong nextSegmentNumber = new AtomicLong(1);
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong merges = new AtomicLong();
+    private final AtomicLong fieldUpdates = new AtomicLong();
+    private final AtomicLong postingUpdates = new AtomicLong();
+
+    /**
+     * Creates an index merging on the shared {@link ExecutorRegistry}.
+     */
+    public InvertedIndex() {
+        this(null);
+    }
+
+    /**
+     * Creates an index merging segments on the given executor.
+     *
+     * @param mergeExecutor Executor running background merges, or null for
+     *                      the {@link ExecutorRegistry#SEARCH_MERGE} pool of
+     *                      the shared registry
+     */
+    public InvertedIndex(Executor mergeExecutor) {
+        this(mergeExecutor, null);
+    }
+
+    private InvertedIndex(Executor mergeExecutor, Path directory) {
+        this.mergeExecutor = mergeExecutor;
+        this.directory = directory;
+    }
+
+    /**
+     * Opens a persistent index in a directory, memory-mapping the segments
+     * of the last commit. Segment files that no commit references, left by
+     * a crash between writing a segment and committing, are deleted.
+     *
+     * @param directory     Directory of the index files, created if missing
+     * @param mergeExecutor Executor running background merges, or null for
+     *                      the {@link ExecutorRegistry#SEARCH_MERGE} pool of
+     *                      the shared registry
+     * @return The index, empty if nothing was committed yet
+     * @throws IOException if the directory, manifest or a segment cannot be
+     *                     read
+     */
+    public static InvertedIndex open(Path directory, Executor mergeExecutor) throws IOException {
+        Files.createDirectories(directory);
+        InvertedIndex index = new InvertedIndex(mergeExecutor, directory);
+        index.recover();
+        return index;
+    }
+
+    private void recover() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (Files.exists(manifest)) {
+            Input in = new Input(ByteBuffer.wrap(Files.readAllBytes(manifest)), 0);
+            if (in.readInt() != MANIFEST_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a search index manifest: " + manifest);
+            }
+            nextSegmentNumber.set(in.readLong());
+            int fieldCount = in.readVarInt();
+            for (int i = 0; i < fieldCount; i++) {
+                String field = in.readString();
+                int ordinal = in.readVarInt();
+                fieldOrdinals.put(field, ordinal);
+                nextFieldOrdinal.set(Math.max(nextFieldOrdinal.get(), ordinal + 1));
+            }
+            int dataCount = in.readVarInt();
+            Map<String, String> data = new LinkedHashMap<>();
+            for (int i = 0; i < dataCount; i++) {
+                data.put(in.readString(), in.readString());
+            }
+            commitData = Collections.unmodifiableMap(data);
+
+            int segmentCount = in.readVarInt();
+            Segment[] segments = new Segment[segmentCount];
+            long[][] deleted = new long[segmentCount][];
+            int[] deletedCounts = new int[segmentCount];
+            double[] deletedLengths = new double[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                String fileName = in.readString();
+                Segment segment = new Segment(directory.resolve(fileName));
+                referenced.add(fileName);
+                segments[s] = segment;
+                int deletions = in.readVarInt();
+                if (deletions > 0) {
+                    deleted[s] = new long[(segment.size + 63) >>> 6];
+                    int doc = 0;
+                    for (int i = 0; i < deletions; i++) {
+                        doc += in.readVarInt();
+                        deleted[s][doc >>> 6] |= 1L << doc;
+                        deletedLengths[s] += segment.lengths[doc];
+                    }
+                    deletedCounts[s] = deletions;
+                }
+            }
+            Snapshot recovered = new Snapshot(segments, deleted, deletedCounts, deletedLengths);
+            for (int s = 0; s < segmentCount; s++) {
+                for (int doc = 0; doc < segments[s].size; doc++) {
+                    if (!recovered.isDeleted(s, doc)) {
+                        locations.put(segments[s].contentIds[doc], segments[s]);
+                    }
+                }
+            }
+            snapshot = recovered;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (!referenced.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the current state of a persistent index durable: writes the
+     * segments flushed since the last commit, then atomically replaces the
+     * manifest listing the segments, their deleted documents, the field
+     * ordinals and the given commit data, and finally deletes the files of
+     * segments merged away. Searches continue during a commit; writes wait
+     * for it.
+     *
+     * @param data Values describing what the commit contains, such as the
+     *             last indexed event, returned by {@link #getCommitData()}
+     *             after reopening
+     * @throws IOException           if a file cannot be written
+     * @throws IllegalStateException if the index was not opened from a
+     *                               directory
+     */
+    public void commit(Map<String, String> data) throws IOException {
+        if (directory == null) {
+            throw new IllegalStateException("Index is not persistent");
+        }
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            for (Segment segment : current.segments) {
+                if (segment.fileName == null) {
+                    segment.write(directory.resolve(newSegmentFileName()));
+                }
+            }
+
+            Output out = new Output(256);
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(nextSegmentNumber.get());
+            Map<String, Integer> fields = new TreeMap<>(fieldOrdinals);
+            out.writeVarInt(fields.size());
+            for (Map.Entry<String, Integer> field : fields.entrySet()) {
+                out.writeString(field.getKey());
+                out.writeVarInt(field.getValue());
+            }
+            out.writeVarInt(data.size());
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeString(entry.getValue());
+            }
+            out.writeVarInt(current.segments.length);
+            for (int s = 0; s < current.segments.length; s++) {
+                Segment segment = current.segments[s];
+                out.writeString(segment.fileName);
+                out.writeVarInt(current.deletedCounts[s]);
+                int last = 0;
+                for (int doc = 0; current.deletedCounts[s] > 0 && doc < segment.size; doc++) {
+                    if (current.isDeleted(s, doc)) {
+                        out.writeVarInt(doc - last);
+                        last = doc;
+                    }
+                }
+            }
+            Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(out.bytes, 0, out.size);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            commitData = Collections.unmodifiableMap(new LinkedHashMap<>(data));
+            commits.incrementAndGet();
+
+            // Open snapshots keep reading deleted files through their mappings
+            for (Iterator<String> files = obsoleteFiles.iterator(); files.hasNext();) {
+                Files.deleteIfExists(directory.resolve(files.next()));
+                files.remove();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the data of the last commit, or of the commit the index was
+     * opened from.
+     *
+     * @return The commit data, empty if nothing was committed
+     */
+    public Map<String, String> getCommitData() {
+        writeLock.lock();
+        try {
+            return commitData;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the index was opened from a directory and can be
+     * committed.
+     */
+    public boolean isPersistent() {
+        return directory != null;
+    }
+
+    /** Schedules the file of a segment leaving the index for deletion at the next commit */
+    private void retire(Segment segment) {
+        if (segment.fileName != null) {
+            obsoleteFiles.add(segment.fileName);
+        }
+    }
+
+    private String newSegmentFileName() {
+        return SEGMENT_PREFIX + nextSegmentNumber.getAndIncrement() + SEGMENT_SUFFIX;
+    }
+
+    /**
+     * Tokenizes and weighs the fields of a document.
+     *
+     * @param contentId    The content ID
+     * @param fieldTexts   Field name to text; null or blank texts are skipped
+     * @param fieldWeights Field name to weight; missing fields weigh 1.0
+     * @param boost        Multiplier applied to the document's scores
+     * @return The analyzed document
+     */
+    public AnalyzedDocument analyze(String contentId, Map<String, String> fieldTexts,
+            Map<String, Double> fieldWeights, double boost) {
+        return analyze(contentId, fieldTexts, fieldWeights, boost, false);
+    }
+
+    /**
+     * Tokenizes and weighs changed fields of an indexed document, to be
+     * merged into it by {@link #update(AnalyzedDocument)} or
+     * {@link #apply(Collection, Collection)}. Fields left out keep their
+     * indexed terms; an empty map analyzes nothing and only updates the boost.
+     *
+     * @param contentId    The content ID
+     * @param fieldTexts   Changed field name to its new text; null or blank
+     *                     texts clear the field
+     * @param fieldWeights Field name to weight; missing fields weigh 1.0
+     * @param boost        Multiplier applied to the document's scores
+     * @return The analyzed fields
+     */
+    public AnalyzedDocument analyzeFields(String contentId, Map<String, String> fieldTexts,
+            Map<String, Double> fieldWeights, double boost) {
+        return analyze(contentId, fieldTexts, fieldWeights, boost, true);
+    }
+
+    private AnalyzedDocument analyze(String contentId, Map<String, String> fieldTexts,
+            Map<String, Double> fieldWeights, double boost, boolean partial) {
+        Map<String, int[]> termPositions = new HashMap<>();
+        Map<String, Integer> termCounts = new HashMap<>();
+        int[] fields = new int[fieldTexts.size()];
+        float[] weights = new float[0];
+        String[][] terms = new String[0][];
+        int[] tokenCounts = new int[0];
+        float length = 0;
+
+        int fieldCount = 0;
+        for (Map.Entry<String, String> field : fieldTexts.entrySet()) {
+            int ordinal = fieldOrdinals.computeIfAbsent(field.getKey(), k -> nextFieldOrdinal.getAndIncrement());
+            fields[fieldCount++] = ordinal;
+            if (ordinal >= weights.length) {
+                int previous = weights.length;
+                weights = Arrays.copyOf(weights, ordinal + 1);
+                Arrays.fill(weights, previous, weights.length, 1.0f);
+                terms = Arrays.copyOf(terms, ordinal + 1);
+                tokenCounts = Arrays.copyOf(tokenCounts, ordinal + 1);
+            }
+            float weight = fieldWeights.getOrDefault(field.getKey(), 1.0).floatValue();
+            weights[ordinal] = weight;
+            String text = field.getValue();
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+
+            int fieldBase = ordinal << FIELD_SHIFT;
+            Set<String> distinct = new HashSet<>();
+            int tokens = forEachToken(text, (term, tokenIndex) -> {
+                distinct.add(term);
+                int count = termCounts.merge(term, 1, Integer::sum);
+                int[] positions = termPositions.get(term);
+                if (positions == null || count > positions.length) {
+                    positions = positions == null ? new int[2] : Arrays.copyOf(positions, positions.length * 2);
+                    termPositions.put(term, positions);
+                }
+                positions[count - 1] = fieldBase | (tokenIndex & TOKEN_MASK);
+            });
+            String[] sortedTerms = distinct.toArray(NO_TERMS);
+            Arrays.sort(sortedTerms);
+            terms[ordinal] = sortedTerms;
+            tokenCounts[ordinal] = tokens;
+            length += weight * tokens;
+        }
+
+        // Trim position arrays to their counts, in field then token order
+        for (Map.Entry<String, int[]> entry : termPositions.entrySet()) {
+            int count = termCounts.get(entry.getKey());
+            int[] positions = count != entry.getValue().length ? Arrays.copyOf(entry.getValue(), count)
+                    : entry.getValue();
+            Arrays.sort(positions);
+            entry.setValue(positions);
+        }
+        return new AnalyzedDocument(contentId, boost, termPositions, Arrays.copyOf(fields, fieldCount), weights,
+                terms, tokenCounts, length, partial, partial ? null : Collections.emptyMap());
+    }
+
+    /**
+     * Splits text into the terms that are indexed, in order, with their token
+     * indexes, the same way documents are analyzed.
+     *
+     * @param text      The text to tokenize
+     * @param terms     Receives the lowercase terms
+     * @param positions Receives the token index of each term
+     */
+    static void tokenize(String text, List<String> terms, List<Integer> positions) {
+        forEachToken(text, (term, tokenIndex) -> {
+            terms.add(term);
+            positions.add(tokenIndex);
+        });
+    }
+
+    /** Receives each indexed term of a text with its token index */
+    private interface TokenSink {
+        void accept(String term, int tokenIndex);
+    }
+
+    /**
+     * Lowercases runs of letters and digits and passes on those long enough
+     * and not stop words; stop words still advance the token index.
+     *
+     * @return Number of terms passed on
+     */
+    private static int forEachToken(String text, TokenSink sink) {
+        StringBuilder token = new StringBuilder();
+        int tokenIndex = 0;
+        int accepted = 0;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (token.length() == 0) {
+                continue;
+            }
+            String term = token.toString();
+            token.setLength(0);
+            if (term.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(term)) {
+                sink.accept(term, tokenIndex);
+                accepted++;
+            }
+            tokenIndex++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Adds a document, replacing any earlier version with the same content
+     * ID.
+     *
+     * @param document The analyzed document
+     */
+    public void index(AnalyzedDocument document) {
+        apply(Collections.emptyList(), Collections.singletonList(document));
+    }
+
+    /**
+     * Merges changed fields into an indexed document.
+     *
+     * @param changes Fields analyzed by {@link #analyzeFields}
+     * @return false if the document is not indexed, in which case nothing
+     *         changed and the whole document has to be indexed instead
+     */
+    public boolean update(AnalyzedDocument changes) {
+        return apply(Collections.emptyList(), Collections.singletonList(changes)).isEmpty();
+    }
+
+    /**
+     * Removes a document.
+     *
+     * @param contentId The content ID
+     * @return true if the document was indexed
+     */
+    public boolean remove(String contentId) {
+        boolean removed;
+        Runnable merge;
+        writeLock.lock();
+        try {
+            Edit edit = new Edit(snapshot);
+            removed = edit.delete(contentId);
+            if (!removed) {
+                return false;
+            }
+            edit.publish(null);
+            merge = selectMerge();
+        } finally {
+            writeLock.unlock();
+        }
+        schedule(merge);
+        return true;
+    }
+
+    /**
+     * Applies removals and then additions as one write, published to
+     * searches at once. Partial documents from {@link #analyzeFields} are
+     * merged into the indexed version of the document; those whose document
+     * is not indexed are skipped and reported.
+     *
+     * @param removals  Content IDs to remove
+     * @param additions Documents to add or replace, or fields to merge
+     * @return Content IDs of the partial documents that were not applied
+     */
+    public List<String> apply(Collection<String> removals, Collection<AnalyzedDocument> additions) {
+        List<String> notIndexed = new ArrayList<>(0);
+        Runnable merge;
+        writeLock.lock();
+        try {
+            Edit edit = new Edit(snapshot);
+            for (String contentId : removals) {
+                edit.delete(contentId);
+            }
+
+            // The in-memory buffer, flushed into one segment below
+            Map<String, AnalyzedDocument> buffer = new LinkedHashMap<>();
+            for (AnalyzedDocument document : additions) {
+                String contentId = document.contentId;
+                if (document.partial) {
+                    AnalyzedDocument indexed = buffer.get(contentId);
+                    if (indexed == null) {
+                        Segment segment = locations.get(contentId);
+                        if (segment == null) {
+                            notIndexed.add(contentId);
+                            continue;
+                        }
+                        indexed = segment.document(segment.docNumbers.get(contentId));
+                    }
+                    document = mergeFields(indexed, document);
+                    fieldUpdates.incrementAndGet();
+                }
+                edit.delete(contentId);
+                buffer.remove(contentId);
+                buffer.put(contentId, document);
+            }
+
+            Segment flushed = null;
+            if (!buffer.isEmpty()) {
+                flushed = new Segment(new ArrayList<>(buffer.values()));
+                for (String contentId : buffer.keySet()) {
+                    locations.put(contentId, flushed);
+                }
+                flushes.incrementAndGet();
+            }
+            edit.publish(flushed);
+            merge = selectMerge();
+        } finally {
+            writeLock.unlock();
+        }
+        schedule(merge);
+        return notIndexed;
+    }
+
+    /**
+     * Combines an indexed document with changed fields: for each field, walks
+     * the sorted union of its old and new terms and replaces the positions of
+     * the terms whose positions in the field differ.
+     */
+    private AnalyzedDocument mergeFields(AnalyzedDocument indexed, AnalyzedDocument changes) {
+        int width = Math.max(indexed.fieldWeights.length, changes.fieldWeights.length);
+        float[] weights = Arrays.copyOf(indexed.fieldWeights, width);
+        Arrays.fill(weights, indexed.fieldWeights.length, width, 1.0f);
+        String[][] terms = Arrays.copyOf(indexed.fieldTerms, width);
+        int[] tokens = Arrays.copyOf(indexed.fieldTokens, width);
+        Map<String, int[]> termPositions = new HashMap<>(indexed.termPositions);
+
+        long changedTerms = 0;
+        for (int field : changes.fields) {
+            String[] oldTerms = terms[field] != null ? terms[field] : NO_TERMS;
+            String[] newTerms = changes.fieldTerms[field] != null ? changes.fieldTerms[field] : NO_TERMS;
+            int i = 0;
+            int j = 0;
+            while (i < oldTerms.length || j < newTerms.length) {
+                int order = i == oldTerms.length ? 1 : j == newTerms.length ? -1 : oldTerms[i].compareTo(newTerms[j]);
+                String term = order <= 0 ? oldTerms[i++] : newTerms[j];
+                int[] positions = NO_POSITIONS;
+                if (order >= 0) {
+                    positions = changes.termPositions.get(newTerms[j++]);
+                }
+                int[] current = termPositions.getOrDefault(term, NO_POSITIONS);
+                int[] updated = replaceField(current, positions, field);
+                if (updated != current) {
+                    changedTerms++;
+                    if (updated.length == 0) {
+                        termPositions.remove(term);
+                    } else {
+                        termPositions.put(term, updated);
+                    }
+                }
+            }
+            terms[field] = newTerms.length > 0 ? newTerms : null;
+            tokens[field] = changes.fieldTokens[field];
+            weights[field] = changes.fieldWeights[field];
+        }
+        postingUpdates.addAndGet(changedTerms);
+
+        float length = 0;
+        int[] fields = new int[width];
+        for (int field = 0; field < width; field++) {
+            fields[field] = field;
+            length += weights[field] * tokens[field];
+        }
+        return new AnalyzedDocument(indexed.contentId, changes.boost, termPositions, fields, weights, terms, tokens,
+                length, false, changes.storedFields != null ? changes.storedFields : indexed.storedFields);
+    }
+
+    /**
+     * Returns the positions with those of one field replaced by the same
+     * field's positions from {@code positions}, or {@code current} itself if
+     * they are equal.
+     */
+    private static int[] replaceField(int[] current, int[] positions, int field) {
+        int from = fieldStart(positions, 0, positions.length, field);
+        int to = fieldStart(positions, from, positions.length, field + 1);
+        int lo = fieldStart(current, 0, current.length, field);
+        int hi = fieldStart(current, lo, current.length, field + 1);
+        if (Arrays.equals(current, lo, hi, positions, from, to)) {
+            return current;
+        }
+        int[] updated = new int[current.length - (hi - lo) + (to - from)];
+        System.arraycopy(current, 0, updated, 0, lo);
+        System.arraycopy(positions, from, updated, lo, to - from);
+        System.arraycopy(current, hi, updated, lo + to - from, current.length - hi);
+        return updated;
+    }
+
+    /** First index in a sorted position range belonging to the field or a later one */
+    private static int fieldStart(int[] positions, int from, int to, int field) {
+        int key = field << FIELD_SHIFT;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (positions[mid] < key) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static int indexOf(Segment[] segments, Segment segment) {
+        for (int s = 0; s < segments.length; s++) {
+            if (segments[s] == segment) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    // Merging
+
+    /**
+     * Picks the next merge, if none is running: the newest run of
+     * {@value #MERGE_FACTOR} adjacent segments in which no segment holds more
+     * than half of the live documents, or else a segment with a quarter of
+     * its documents deleted. Called under the writer lock.
+     *
+     * @return The merge task, or null
+     */
+    private Runnable selectMerge() {
+        if (merging) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        int count = current.segments.length;
+        int from = -1;
+        int to = -1;
+        for (int s = count - MERGE_FACTOR; s >= 0 && from < 0; s--) {
+            long total = 0;
+            int largest = 0;
+            for (int i = s; i < s + MERGE_FACTOR; i++) {
+                total += current.liveDocs(i);
+                largest = Math.max(largest, current.liveDocs(i));
+            }
+            if (largest * 2L <= total) {
+                from = s;
+                to = s + MERGE_FACTOR;
+            }
+        }
+        for (int s = 0; from < 0 && s < count; s++) {
+            if (current.deletedCounts[s] > 0 && current.deletedCounts[s] * 4 >= current.segments[s].size) {
+                from = s;
+                to = s + 1;
+            }
+        }
+        if (from < 0) {
+            return null;
+        }
+        merging = true;
+        Segment[] sources = Arrays.copyOfRange(current.segments, from, to);
+        long[][] deletions = Arrays.copyOfRange(current.deleted, from, to);
+        return () -> merge(sources, deletions);
+    }
+
+    private void schedule(Runnable merge) {
+        if (merge == null) {
+            return;
+        }
+        Executor executor = mergeExecutor != null ? mergeExecutor
+                : ExecutorRegistry.getInstance().executor(ExecutorRegistry.SEARCH_MERGE);
+        if (executor instanceof ExecutorService && ((ExecutorService) executor).isShutdown()) {
+            merge.run();
+        } else {
+            executor.execute(merge);
+        }
+    }
+
+    /**
+     * Merges segments outside the writer lock, from the documents live when
+     * the merge was selected, then swaps the result in.
+     */
+    private void merge(Segment[] sources, long[][] deletions) {
+        Segment merged = null;
+        boolean built = false;
+        try {
+            List<AnalyzedDocument> documents = new ArrayList<>();
+            for (int s = 0; s < sources.length; s++) {
+                for (int doc = 0; doc < sources[s].size; doc++) {
+                    long[] bits = deletions[s];
+                    if (bits == null || (bits[doc >>> 6] & (1L << doc)) == 0) {
+                        documents.add(sources[s].document(doc));
+                    }
+                }
+            }
+            merged = documents.isEmpty() ? null : new Segment(documents);
+            if (merged != null && directory != null) {
+                merged = persist(merged);
+            }
+            built = true;
+        } finally {
+            Runnable next;
+            writeLock.lock();
+            try {
+                if (built) {
+                    commitMerge(sources, merged);
+                }
+                merging = false;
+                mergeFinished.signalAll();
+                next = built ? selectMerge() : null;
+            } finally {
+                writeLock.unlock();
+            }
+            schedule(next);
+        }
+    }
+
+    /**
+     * Writes a merged segment and maps it, so large segments leave the heap.
+     * If writing fails the segment stays on the heap and the next commit
+     * writes it again.
+     */
+    private Segment persist(Segment segment) {
+        Path file = directory.resolve(newSegmentFileName());
+        try {
+            segment.write(file);
+            return new Segment(file);
+        } catch (IOException e) {
+            segment.fileName = null;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Deleted as an unreferenced file when the index is reopened
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Replaces merged segments by their merge result. Documents deleted or
+     * re-indexed since the merge started are deleted in the result.
+     */
+    private void commitMerge(Segment[] sources, Segment merged) {
+        Set<Segment> sourceSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        sourceSet.addAll(Arrays.asList(sources));
+
+        long[] mergedDeleted = null;
+        int mergedDeletedCount = 0;
+        double mergedDeletedLength = 0;
+        if (merged != null) {
+            for (int doc = 0; doc < merged.size; doc++) {
+                String contentId = merged.contentIds[doc];
+                if (sourceSet.contains(locations.get(contentId))) {
+                    locations.put(contentId, merged);
+                    continue;
+                }
+                if (mergedDeleted == null) {
+                    mergedDeleted = new long[(merged.size + 63) >>> 6];
+                }
+                mergedDeleted[doc >>> 6] |= 1L << doc;
+                mergedDeletedCount++;
+                mergedDeletedLength += merged.lengths[doc];
+            }
+            if (mergedDeletedCount == merged.size) {
+                retire(merged);
+                merged = null;
+            }
+        }
+
+        Snapshot current = snapshot;
+        List<Segment> segments = new ArrayList<>();
+        List<long[]> deleted = new ArrayList<>();
+        List<Integer> deletedCounts = new ArrayList<>();
+        List<Double> deletedLengths = new ArrayList<>();
+        for (int s = 0; s < current.segments.length; s++) {
+            Segment segment = current.segments[s];
+            if (sourceSet.contains(segment)) {
+                retire(segment);
+                if (merged != null) {
+                    segments.add(merged);
+                    deleted.add(mergedDeleted);
+                    deletedCounts.add(mergedDeletedCount);
+                    deletedLengths.add(mergedDeletedLength);
+                    merged = null;
+                }
+                continue;
+            }
+            segments.add(segment);
+            deleted.add(current.deleted[s]);
+            deletedCounts.add(current.deletedCounts[s]);
+            deletedLengths.add(current.deletedLengths[s]);
+        }
+        int count = segments.size();
+        int[] counts = new int[count];
+        double[] lengths = new double[count];
+        for (int s = 0; s < count; s++) {
+            counts[s] = deletedCounts.get(s);
+            lengths[s] = deletedLengths.get(s);
+        }
+        snapshot = new Snapshot(segments.toArray(new Segment[0]), deleted.toArray(new long[0][]), counts, lengths);
+        merges.incrementAndGet();
+    }
+
+    /**
+     * Waits until no merge is running or pending.
+     *
+     * @param timeout Maximum time to wait
+     * @param unit    Unit of the timeout
+     * @return true if merging finished, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitMerges(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        writeLock.lock();
+        try {
+            while (merging) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = mergeFinished.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Searching
+
+    /**
+     * Runs a query and returns the best matches.
+     *
+     * @param query      The parsed query
+     * @param maxResults Maximum number of results
+     * @return Content IDs, best match first
+     */
+    public List<String> search(SearchQuery query, int maxResults) {
+        List<Hit> hits = searchHits(query, maxResults, null);
+        List<String> results = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            results.add(hit.contentId);
+        }
+        return results;
+    }
+
+    /**
+     * Runs a query and returns the best matches with their scores.
+     *
+     * @param query      The parsed query
+     * @param maxResults Maximum number of results
+     * @param filter     Content IDs to consider, or null for all
+     * @return Hits, best match first
+     */
+    public List<Hit> searchHits(SearchQuery query, int maxResults, Predicate<String> filter) {
+        if (query.isEmpty() || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        if (current.liveDocs == 0) {
+            return Collections.emptyList();
+        }
+        TermStatistics statistics = new TermStatistics(current);
+
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(maxResults, 1024), WEAKEST_FIRST);
+        for (int s = 0; s < current.segments.length; s++) {
+            Segment segment = current.segments[s];
+            DocIterator matches = iterator(query.root(), segment, statistics);
+            if (matches == null) {
+                continue;
+            }
+            for (int doc = matches.nextDoc(); doc != NO_MORE_DOCS; doc = matches.nextDoc()) {
+                String contentId = segment.contentIds[doc];
+                if (current.isDeleted(s, doc) || (filter != null && !filter.test(contentId))) {
+                    continue;
+                }
+                ScoredDoc candidate = new ScoredDoc(current.bases[s] + doc, contentId,
+                        matches.score() * segment.boosts[doc]);
+                if (top.size() < maxResults) {
+                    top.add(candidate);
+                } else if (WEAKEST_FIRST.compare(candidate, top.peek()) > 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            }
+        }
+
+        Hit[] hits = new Hit[top.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            ScoredDoc scored = top.poll();
+            hits[i] = new Hit(scored.contentId, scored.score);
+        }
+        return Arrays.asList(hits);
+    }
+
+    /**
+     * Index-wide term statistics of one query over a snapshot, shared by the
+     * iterators of all segments.
+     */
+    private static final class TermStatistics {
+        final Snapshot snapshot;
+        final double averageLength;
+        final Map<String, Double> idfs = new HashMap<>();
+        final Map<String, List<String>> expansions = new HashMap<>();
+
+        TermStatistics(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            this.averageLength = Math.max(snapshot.totalLength / snapshot.liveDocs, 1e-9);
+        }
+
+        /**
+         * BM25 inverse document frequency over all segments, always positive.
+         * Like the document frequency, the document count includes deleted
+         * documents until a merge drops them.
+         */
+        double idf(String term) {
+            return idfs.computeIfAbsent(term, t -> {
+                int documentFrequency = 0;
+                for (Segment segment : snapshot.segments) {
+                    documentFrequency += segment.documentFrequency(t);
+                }
+                int documents = snapshot.liveDocs + snapshot.deletedDocs;
+                return Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            });
+        }
+
+        /** The first dictionary terms, across segments, starting with a prefix */
+        List<String> expand(String prefix) {
+            return expansions.computeIfAbsent(prefix, p -> {
+                TreeSet<String> terms = new TreeSet<>();
+                for (Segment segment : snapshot.segments) {
+                    for (String term : segment.dictionary.subMap(p, true, p + Character.MAX_VALUE, false).keySet()) {
+                        if (terms.size() == MAX_PREFIX_EXPANSIONS && term.compareTo(terms.last()) >= 0) {
+                            break;
+                        }
+                        if (terms.add(term) && terms.size() > MAX_PREFIX_EXPANSIONS) {
+                            terms.pollLast();
+                        }
+                    }
+                }
+                return new ArrayList<>(terms);
+            });
+        }
+    }
+
+    /**
+     * Builds the iterator of a query node over one segment.
+     *
+     * @return The iterator, or null if the node cannot match in the segment
+     */
+    private DocIterator iterator(SearchQuery.Node node, Segment segment, TermStatistics statistics) {
+        if (node instanceof SearchQuery.TermNode) {
+            return termIterator(((SearchQuery.TermNode) node).term, segment, statistics);
+        }
+        if (node instanceof SearchQuery.PrefixNode) {
+            List<DocIterator> expansions = new ArrayList<>();
+            for (String term : statistics.expand(((SearchQuery.PrefixNode) node).prefix)) {
+                DocIterator iterator = termIterator(term, segment, statistics);
+                if (iterator != null) {
+                    expansions.add(iterator);
+                }
+            }
+            return disjunction(expansions);
+        }
+        if (node instanceof SearchQuery.PhraseNode) {
+            SearchQuery.PhraseNode phrase = (SearchQuery.PhraseNode) node;
+            TermIterator[] terms = new TermIterator[phrase.terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = termIterator(phrase.terms[i], segment, statistics);
+                if (terms[i] == null) {
+                    return null;
+                }
+            }
+            return new PhraseIterator(terms, phrase.offsets, segment, statistics.averageLength);
+        }
+        if (node instanceof SearchQuery.OrNode) {
+            List<DocIterator> options = new ArrayList<>();
+            for (SearchQuery.Node option : ((SearchQuery.OrNode) node).options) {
+                DocIterator iterator = iterator(option, segment, statistics);
+                if (iterator != null) {
+                    options.add(iterator);
+                }
+            }
+            return disjunction(options);
+        }
+
+        SearchQuery.AndNode and = (SearchQuery.AndNode) node;
+        List<DocIterator> required = new ArrayList<>();
+        for (SearchQuery.Node clause : and.required) {
+            DocIterator iterator = iterator(clause, segment, statistics);
+            if (iterator == null) {
+                // A required clause without postings: nothing can match
+                return null;
+            }
+            required.add(iterator);
+        }
+        DocIterator included = required.isEmpty() ? new AllDocsIterator(segment.size)
+                : required.size() == 1 ? required.get(0) : new ConjunctionIterator(required);
+        List<DocIterator> excluded = new ArrayList<>();
+        for (SearchQuery.Node clause : and.excluded) {
+            DocIterator iterator = iterator(clause, segment, statistics);
+            if (iterator != null) {
+                excluded.add(iterator);
+            }
+        }
+        DocIterator exclusion = disjunction(excluded);
+        return exclusion == null ? included : new ExclusionIterator(included, exclusion);
+    }
+
+    private static TermIterator termIterator(String term, Segment segment, TermStatistics statistics) {
+        Postings postings = segment.postings(term);
+        return postings == null ? null
+                : new TermIterator(postings, statistics.idf(term), segment, statistics.averageLength);
+    }
+
+    private static DocIterator disjunction(List<DocIterator> options) {
+        if (options.isEmpty()) {
+            return null;
+        }
+        return options.size() == 1 ? options.get(0) : new DisjunctionIterator(options);
+    }
+
+    /** BM25 saturation of a field-weighted frequency */
+    private static double saturate(double frequency, Segment segment, int doc, double averageLength) {
+        double norm = K1 * (1 - B + B * segment.lengths[doc] / averageLength);
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    /** Weight of the field a position belongs to in a document */
+    private static double fieldWeight(Segment segment, int doc, int position) {
+        float[] weights = segment.fieldWeights[doc];
+        int field = position >>> FIELD_SHIFT;
+        return weights != null && field < weights.length ? weights[field] : 1.0;
+    }
+
+    /**
+     * Iterates the matching documents of a query node in increasing document
+     * order.
+     */
+    private abstract static class DocIterator {
+        int doc = -1;
+
+        /** Moves to the next match and returns it, or NO_MORE_DOCS */
+        abstract int nextDoc();
+
+        /** Moves to the first match at or after target, beyond the current */
+        abstract int advance(int target);
+
+        /** Score of the current match */
+        abstract double score();
+
+        /** Upper bound on the number of matches, used to order clauses */
+        abstract long cost();
+    }
+
+    /** Walks the postings of one term */
+    private static final class TermIterator extends DocIterator {
+        final Postings postings;
+        final double idf;
+        final Segment segment;
+        final double averageLength;
+        int index = -1;
+
+        TermIterator(Postings postings, double idf, Segment segment, double averageLength) {
+            this.postings = postings;
+            this.idf = idf;
+            this.segment = segment;
+            this.averageLength = averageLength;
+        }
+
+        @Override
+        int nextDoc() {
+            index++;
+            return doc = index < postings.size ? postings.docs[index] : NO_MORE_DOCS;
+        }
+
+        @Override
+        int advance(int target) {
+            index = postings.advance(Math.max(index + 1, 0), target);
+            return doc = index < postings.size ? postings.docs[index] : NO_MORE_DOCS;
+        }
+
+        int positionStart() {
+            return postings.positionStarts[index];
+        }
+
+        int positionEnd() {
+            return postings.positionStarts[index + 1];
+        }
+
+        @Override
+        double score() {
+            double frequency = 0;
+            for (int p = positionStart(), end = positionEnd(); p < end; p++) {
+                frequency += fieldWeight(segment, doc, postings.positions[p]);
+            }
+            return idf * saturate(frequency, segment, doc, averageLength);
+        }
+
+        @Override
+        long cost() {
+            return postings.size;
+        }
+    }
+
+    /** Documents containing all clauses, led by the rarest */
+    private static final class ConjunctionIterator extends DocIterator {
+        final DocIterator[] clauses;
+
+        ConjunctionIterator(List<DocIterator> clauses) {
+            this.clauses = clauses.toArray(new DocIterator[0]);
+            Arrays.sort(this.clauses, Comparator.comparingLong(DocIterator::cost));
+        }
+
+        @Override
+        int nextDoc() {
+            return align(clauses[0].nextDoc());
+        }
+
+        @Override
+        int advance(int target) {
+            return align(clauses[0].advance(target));
+        }
+
+        private int align(int candidate) {
+            outer: while (candidate != NO_MORE_DOCS) {
+                for (int i = 1; i < clauses.length; i++) {
+                    DocIterator clause = clauses[i];
+                    if (clause.doc < candidate) {
+                        clause.advance(candidate);
+                    }
+                    if (clause.doc > candidate) {
+                        candidate = clauses[0].advance(clause.doc);
+                        continue outer;
+                    }
+                }
+                return doc = candidate;
+            }
+            return doc = NO_MORE_DOCS;
+        }
+
+        @Override
+        double score() {
+            double score = 0;
+            for (DocIterator clause : clauses) {
+                score += clause.score();
+            }
+            return score;
+        }
+
+        @Override
+        long cost() {
+            return clauses[0].cost();
+        }
+    }
+
+    /** Documents containing the terms at the phrase's relative positions */
+    private static final class PhraseIterator extends DocIterator {
+        final TermIterator[] terms;
+        final int[] offsets;
+        final ConjunctionIterator candidates;
+        final Segment segment;
+        final double averageLength;
+        final double idf;
+        double frequency;
+
+        PhraseIterator(TermIterator[] terms, int[] offsets, Segment segment, double averageLength) {
+            this.terms = terms;
+            this.offsets = offsets;
+            this.candidates = new ConjunctionIterator(Arrays.asList(terms));
+            this.segment = segment;
+            this.averageLength = averageLength;
+            double idfSum = 0;
+            for (TermIterator term : terms) {
+                idfSum += term.idf;
+            }
+            this.idf = idfSum;
+        }
+
+        @Override
+        int nextDoc() {
+            return verify(candidates.nextDoc());
+        }
+
+        @Override
+        int advance(int target) {
+            return verify(candidates.advance(target));
+        }
+
+        private int verify(int candidate) {
+            while (candidate != NO_MORE_DOCS) {
+                frequency = phraseFrequency(candidate);
+                if (frequency > 0) {
+                    return doc = candidate;
+                }
+                candidate = candidates.nextDoc();
+            }
+            return doc = NO_MORE_DOCS;
+        }
+
+        /** Field-weighted count of the phrase's occurrences in a document */
+        private double phraseFrequency(int candidate) {
+            TermIterator first = terms[0];
+            int[] firstPositions = first.postings.positions;
+            double weighted = 0;
+            for (int p = first.positionStart(), end = first.positionEnd(); p < end; p++) {
+                int start = firstPositions[p] - offsets[0];
+                boolean matched = true;
+                for (int i = 1; i < terms.length && matched; i++) {
+                    TermIterator term = terms[i];
+                    matched = Arrays.binarySearch(term.postings.positions, term.positionStart(),
+                            term.positionEnd(), start + offsets[i]) >= 0;
+                }
+                if (matched) {
+                    weighted += fieldWeight(segment, candidate, start);
+                }
+            }
+            return weighted;
+        }
+
+        @Override
+        double score() {
+            return idf * saturate(frequency, segment, doc, averageLength);
+        }
+
+        @Override
+        long cost() {
+            return candidates.cost();
+        }
+    }
+
+    /** Documents containing any clause */
+    private static final class DisjunctionIterator extends DocIterator {
+        final List<DocIterator> clauses;
+        final PriorityQueue<DocIterator> byDoc = new PriorityQueue<>(Comparator.comparingInt(c -> c.doc));
+
+        DisjunctionIterator(List<DocIterator> clauses) {
+            this.clauses = clauses;
+        }
+
+        @Override
+        int nextDoc() {
+            if (doc == -1) {
+                for (DocIterator clause : clauses) {
+                    if (clause.nextDoc() != NO_MORE_DOCS) {
+                        byDoc.add(clause);
+                    }
+                }
+            } else {
+                while (!byDoc.isEmpty() && byDoc.peek().doc == doc) {
+                    DocIterator clause = byDoc.poll();
+                    if (clause.nextDoc() != NO_MORE_DOCS) {
+                        byDoc.add(clause);
+                    }
+                }
+            }
+            return doc = byDoc.isEmpty() ? NO_MORE_DOCS : byDoc.peek().doc;
+        }
+
+        @Override
+        int advance(int target) {
+            if (doc == -1) {
+                for (DocIterator clause : clauses) {
+                    if (clause.advance(target) != NO_MORE_DOCS) {
+                        byDoc.add(clause);
+                    }
+                }
+            } else {
+                while (!byDoc.isEmpty() && byDoc.peek().doc < target) {
+                    DocIterator clause = byDoc.poll();
+                    if (clause.advance(target) != NO_MORE_DOCS) {
+                        byDoc.add(clause);
+                    }
+                }
+            }
+            return doc = byDoc.isEmpty() ? NO_MORE_DOCS : byDoc.peek().doc;
+        }
+
+        @Override
+        double score() {
+            double score = 0;
+            for (DocIterator clause : byDoc) {
+                if (clause.doc == doc) {
+                    score += clause.score();
+                }
+            }
+            return score;
+        }
+
+        @Override
+        long cost() {
+            long cost = 0;
+            for (DocIterator clause : clauses) {
+                cost += clause.cost();
+            }
+            return cost;
+        }
+    }
+
+    /** Documents of one iterator that are not in another */
+    private static final class ExclusionIterator extends DocIterator {
+        final DocIterator included;
+        final DocIterator excluded;
+
+        ExclusionIterator(DocIterator included, DocIterator excluded) {
+            this.included = included;
+            this.excluded = excluded;
+        }
+
+        @Override
+        int nextDoc() {
+            return skipExcluded(included.nextDoc());
+        }
+
+        @Override
+        int advance(int target) {
+            return skipExcluded(included.advance(target));
+        }
+
+        private int skipExcluded(int candidate) {
+            while (candidate != NO_MORE_DOCS) {
+                if (excluded.doc < candidate) {
+                    excluded.advance(candidate);
+                }
+                if (excluded.doc != candidate) {
+                    return doc = candidate;
+                }
+                candidate = included.nextDoc();
+            }
+            return doc = NO_MORE_DOCS;
+        }
+
+        @Override
+        double score() {
+            return included.score();
+        }
+
+        @Override
+        long cost() {
+            return included.cost();
+        }
+    }
+
+    /** Every document of a segment, for queries made only of exclusions */
+    private static final class AllDocsIterator extends DocIterator {
+        final int size;
+
+        AllDocsIterator(int size) {
+            this.size = size;
+        }
+
+        @Override
+        int nextDoc() {
+            return doc == NO_MORE_DOCS ? doc : advance(doc + 1);
+        }
+
+        @Override
+        int advance(int target) {
+            return doc = target < size ? target : NO_MORE_DOCS;
+        }
+
+        @Override
+        double score() {
+            return 0;
+        }
+
+        @Override
+        long cost() {
+            return size;
+        }
+    }
+
+    /**
+     * Returns whether the live version of a document is listed in the
+     * postings of a term.
+     */
+    public boolean hasPosting(String term, String contentId) {
+        Snapshot current = snapshot;
+        for (int s = current.segments.length - 1; s >= 0; s--) {
+            Segment segment = current.segments[s];
+            Integer doc = segment.docNumbers.get(contentId);
+            if (doc != null && !current.isDeleted(s, doc)) {
+                Postings postings = segment.postings(term);
+                return postings != null && postings.indexOf(doc) >= 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the distinct terms indexed for a document, across its fields.
+     *
+     * @param contentId The content ID
+     * @return The terms, empty if the document is not indexed
+     */
+    public Set<String> terms(String contentId) {
+        Snapshot current = snapshot;
+        Set<String> terms = new HashSet<>();
+        for (int s = current.segments.length - 1; s >= 0; s--) {
+            Segment segment = current.segments[s];
+            Integer doc = segment.docNumbers.get(contentId);
+            if (doc != null && !current.isDeleted(s, doc)) {
+                for (String[] field : segment.fieldTerms[doc]) {
+                    if (field != null) {
+                        terms.addAll(Arrays.asList(field));
+                    }
+                }
+                break;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns the values stored with every indexed document through
+     * {@link AnalyzedDocument#withStoredFields}.
+     *
+     * @return Content ID to stored values, empty values for documents
+     *         indexed without any
+     */
+    public Map<String, Map<String, String>> storedFields() {
+        Snapshot current = snapshot;
+        Map<String, Map<String, String>> stored = new HashMap<>(current.liveDocs * 2);
+        for (int s = 0; s < current.segments.length; s++) {
+            Segment segment = current.segments[s];
+            for (int doc = 0; doc < segment.size; doc++) {
+                if (!current.isDeleted(s, doc)) {
+                    stored.put(segment.contentIds[doc], segment.storedFields[doc]);
+                }
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Returns the content IDs of all indexed documents.
+     */
+    public Set<String> contentIds() {
+        Snapshot current = snapshot;
+        Set<String> contentIds = new HashSet<>();
+        for (int s = 0; s < current.segments.length; s++) {
+            Segment segment = current.segments[s];
+            for (int doc = 0; doc < segment.size; doc++) {
+                if (!current.isDeleted(s, doc)) {
+                    contentIds.add(segment.contentIds[doc]);
+                }
+            }
+        }
+        return contentIds;
+    }
+
+    /**
+     * Returns the number of distinct terms across the segment dictionaries,
+     * including terms whose documents are deleted but not yet merged away.
+     */
+    public int termCount() {
+        return termCount(snapshot);
+    }
+
+    private static int termCount(Snapshot current) {
+        if (current.segments.length == 1) {
+            return current.segments[0].dictionary.size();
+        }
+        Set<String> terms = new HashSet<>();
+        for (Segment segment : current.segments) {
+            terms.addAll(segment.dictionary.keySet());
+        }
+        return terms.size();
+    }
+
+    /**
+     * Returns document, segment, term, posting, flush, merge and commit counts.
+     */
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        long postingCount = 0;
+        long positionCount = 0;
+        for (Segment segment : current.segments) {
+            for (int ordinal = 0; ordinal < segment.documentFrequencies.length; ordinal++) {
+                postingCount += segment.documentFrequencies[ordinal];
+                positionCount += segment.positionCounts[ordinal];
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", current.liveDocs);
+        stats.put("deletedDocuments", current.deletedDocs);
+        stats.put("segments", current.segments.length);
+        stats.put("terms", termCount(current));
+        stats.put("postings", postingCount);
+        stats.put("positions", positionCount);
+        stats.put("averageDocumentLength", current.liveDocs > 0 ? current.totalLength / current.liveDocs : 0.0);
+        stats.put("flushes", flushes.get());
+        stats.put("merges", merges.get());
+        stats.put("commits", commits.get());
+        stats.put("fieldUpdates", fieldUpdates.get());
+        stats.put("postingUpdates", postingUpdates.get());
+        return stats;
+    }
+}
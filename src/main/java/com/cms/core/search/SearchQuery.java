@@ -0,0 +1,310 @@
+package com.cms.core.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed full-text query for an {@link InvertedIndex}.
+ *
+ * <p>
+ * <strong>Syntax:</strong>
+ * <ul>
+ * <li>{@code release notes} - both terms (AND is the default operator)</li>
+ * <li>{@code release OR notes} - either term; AND binds tighter than OR</li>
+ * <li>{@code release NOT draft}, {@code release -draft} - exclusion</li>
+ * <li>{@code "release notes"} - the terms adjacent and in order</li>
+ * <li>{@code rel*} - any term starting with the prefix</li>
+ * <li>{@code (release OR launch) notes} - grouping</li>
+ * </ul>
+ * The operators must be upper case; lower case {@code and}, {@code or} and
+ * {@code not} are ordinary (stop) words. Words are analyzed like indexed text,
+ * so stop words and terms shorter than three characters are dropped, and a
+ * word the analyzer splits in several terms, such as {@code e-commerce}, is
+ * searched as a phrase.
+ * </p>
+ *
+ * <p>
+ * <strong>Error Handling:</strong> Parsing never fails: unbalanced quotes and
+ * parentheses are closed at the end of the input and dangling operators are
+ * ignored, since queries come straight from users. A query left without any
+ * searchable term {@linkplain #isEmpty() is empty} and matches nothing.
+ * </p>
+ *
+ * @see InvertedIndex#search(SearchQuery, int)
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class SearchQuery {
+
+    /** A node of the parsed query */
+    abstract static class Node {
+    }
+
+    /** A single term */
+    static final class TermNode extends Node {
+        final String term;
+
+        TermNode(String term) {
+            this.term = term;
+        }
+
+        @Override
+        public String toString() {
+            return term;
+        }
+    }
+
+    /** Any term starting with a prefix */
+    static final class PrefixNode extends Node {
+        final String prefix;
+
+        PrefixNode(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String toString() {
+            return prefix + "*";
+        }
+    }
+
+    /** Terms at fixed token offsets from the first */
+    static final class PhraseNode extends Node {
+        final String[] terms;
+        final int[] offsets;
+
+        PhraseNode(String[] terms, int[] offsets) {
+            this.terms = terms;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + String.join(" ", terms) + "\"";
+        }
+    }
+
+    /** All required clauses and none of the excluded ones */
+    static final class AndNode extends Node {
+        final List<Node> required;
+        final List<Node> excluded;
+
+        AndNode(List<Node> required, List<Node> excluded) {
+            this.required = required;
+            this.excluded = excluded;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            required.forEach(clause -> parts.add("+" + clause));
+            excluded.forEach(clause -> parts.add("-" + clause));
+            return "(" + String.join(" ", parts) + ")";
+        }
+    }
+
+    /** Any of the options */
+    static final class OrNode extends Node {
+        final List<Node> options;
+
+        OrNode(List<Node> options) {
+            this.options = options;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            options.forEach(option -> parts.add(option.toString()));
+            return "(" + String.join(" OR ", parts) + ")";
+        }
+    }
+
+    private final String text;
+    private final Node root;
+
+    private SearchQuery(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param text The query text; null is treated as empty
+     * @return The parsed query
+     */
+    public static SearchQuery parse(String text) {
+        String query = text != null ? text : "";
+        return new SearchQuery(query, new Parser(query).parseQuery());
+    }
+
+    /**
+     * Returns whether the query has no searchable term.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the query text as given.
+     */
+    public String getText() {
+        return text;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Returns the normalized form of the query, with required clauses marked
+     * {@code +} and excluded ones {@code -}.
+     */
+    @Override
+    public String toString() {
+        return root != null ? root.toString() : "";
+    }
+
+    /** Recursive descent parser over the raw query text */
+    private static final class Parser {
+        private final String input;
+        private int pos;
+
+        Parser(String input) {
+            this.input = input;
+        }
+
+        Node parseQuery() {
+            Node node = parseOr();
+            // Stray closing parentheses: keep parsing what follows
+            while (pos < input.length()) {
+                pos++;
+                node = combineOr(node, parseOr());
+            }
+            return node;
+        }
+
+        private Node parseOr() {
+            Node node = parseAnd();
+            while (skipWhitespace() && peekOperator("OR")) {
+                pos += 2;
+                node = combineOr(node, parseAnd());
+            }
+            return node;
+        }
+
+        private Node parseAnd() {
+            List<Node> required = new ArrayList<>();
+            List<Node> excluded = new ArrayList<>();
+            while (skipWhitespace() && input.charAt(pos) != ')' && !peekOperator("OR")) {
+                if (peekOperator("AND")) {
+                    pos += 3;
+                    continue;
+                }
+                boolean negated = false;
+                if (peekOperator("NOT")) {
+                    pos += 3;
+                    negated = true;
+                } else if (input.charAt(pos) == '-' || input.charAt(pos) == '+') {
+                    negated = input.charAt(pos) == '-';
+                    pos++;
+                }
+                skipWhitespace();
+                Node clause = parsePrimary();
+                if (clause != null) {
+                    (negated ? excluded : required).add(clause);
+                }
+            }
+            if (required.size() == 1 && excluded.isEmpty()) {
+                return required.get(0);
+            }
+            return required.isEmpty() && excluded.isEmpty() ? null : new AndNode(required, excluded);
+        }
+
+        private Node parsePrimary() {
+            if (pos >= input.length()) {
+                return null;
+            }
+            char c = input.charAt(pos);
+            if (c == '(') {
+                pos++;
+                Node node = parseOr();
+                if (pos < input.length() && input.charAt(pos) == ')') {
+                    pos++;
+                }
+                return node;
+            }
+            if (c == '"') {
+                int end = input.indexOf('"', pos + 1);
+                String phrase = input.substring(pos + 1, end < 0 ? input.length() : end);
+                pos = end < 0 ? input.length() : end + 1;
+                return analyze(phrase);
+            }
+            int start = pos;
+            while (pos < input.length() && !Character.isWhitespace(input.charAt(pos))
+                    && "()\"".indexOf(input.charAt(pos)) < 0) {
+                pos++;
+            }
+            String word = input.substring(start, pos);
+            if (word.endsWith("*")) {
+                StringBuilder prefix = new StringBuilder();
+                for (char w : word.toCharArray()) {
+                    if (Character.isLetterOrDigit(w)) {
+                        prefix.append(Character.toLowerCase(w));
+                    }
+                }
+                return prefix.length() > 0 ? new PrefixNode(prefix.toString()) : null;
+            }
+            return analyze(word);
+        }
+
+        /** A term, or a phrase when the text analyzes to several terms */
+        private static Node analyze(String text) {
+            List<String> terms = new ArrayList<>();
+            List<Integer> positions = new ArrayList<>();
+            InvertedIndex.tokenize(text, terms, positions);
+            if (terms.isEmpty()) {
+                return null;
+            }
+            if (terms.size() == 1) {
+                return new TermNode(terms.get(0));
+            }
+            int[] offsets = new int[terms.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = positions.get(i) - positions.get(0);
+            }
+            return new PhraseNode(terms.toArray(new String[0]), offsets);
+        }
+
+        private static Node combineOr(Node left, Node right) {
+            if (left == null || right == null) {
+                return left != null ? left : right;
+            }
+            List<Node> options = new ArrayList<>();
+            for (Node node : new Node[] { left, right }) {
+                if (node instanceof OrNode) {
+                    options.addAll(((OrNode) node).options);
+                } else {
+                    options.add(node);
+                }
+            }
+            return new OrNode(options);
+        }
+
+        /** Skips whitespace and returns whether input remains */
+        private boolean skipWhitespace() {
+            while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+                pos++;
+            }
+            return pos < input.length();
+        }
+
+        /** Whether an operator keyword, followed by a word boundary, is next */
+        private boolean peekOperator(String operator) {
+            int end = pos + operator.length();
+            return input.startsWith(operator, pos)
+                    && (end == input.length() || Character.isWhitespace(input.charAt(end))
+                            || "()\"-".indexOf(input.charAt(end)) >= 0);
+        }
+    }
+}
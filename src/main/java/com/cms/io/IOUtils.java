@@ -1,5 +1,8 @@
 package com.cms.io;
 
+import com.cms.concurrent.ExecutorRegistry;
+import com.cms.concurrent.ThreadPoolManager;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
@@ -10,8 +13,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -66,12 +67,8 @@ public final class IOUtils {
     /** Maximum file size for safety operations (100MB) */
     private static final long MAX_SAFE_FILE_SIZE = 100 * 1024 * 1024;
 
-    /** Executor service for asynchronous operations */
-    private static final ExecutorService ASYNC_EXECUTOR = Executors.newCachedThreadPool(r -> {
-        Thread thread = new Thread(r, "IOUtils-Async");
-        thread.setDaemon(true);
-        return thread;
-    });
+    /** Registry providing the bounded pool for asynchronous operations */
+    private static volatile ExecutorRegistry executorRegistry = ExecutorRegistry.getInstance();
 
     /** Private constructor to prevent instantiation */
     private IOUtils() {
@@ -580,6 +577,8 @@ public final class IOUtils {
      * <p>
      * <strong>Advanced I/O Feature:</strong> Demonstrates asynchronous
      * I/O operations using CompletableFuture for non-blocking operations.
+     * The copy runs on a virtual thread when ThreadPoolManager is in VIRTUAL
+     * I/O mode.
      * </p>
      *
      * @param source           the source file path
@@ -611,7 +610,7 @@ public final class IOUtils {
             } catch (IOException e) {
                 throw new RuntimeException("File copy failed", e);
             }
-        }, ASYNC_EXECUTOR);
+        }, ThreadPoolManager.getInstance().getIOExecutor(executorRegistry.executor(ExecutorRegistry.ASYNC_IO)));
     }
 
     /**
@@ -734,9 +733,22 @@ public final class IOUtils {
     }
 
     /**
-     * Cleanup method for shutdown - attempts to clean up executor.
+     * Sets the registry whose {@link ExecutorRegistry#ASYNC_IO} pool runs
+     * asynchronous operations.
+     *
+     * @param registry The executor registry
+     */
+    public static void setExecutorRegistry(ExecutorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
+        executorRegistry = registry;
+    }
+
+    /**
+     * Cleanup method for shutdown - shuts down the asynchronous I/O pool.
      */
     public static void shutdown() {
-        ASYNC_EXECUTOR.shutdown();
+        executorRegistry.shutdownPool(ExecutorRegistry.ASYNC_IO);
     }
 }
@@ -0,0 +1,365 @@
+package com.cms.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped, append-only file of a checksummed record log, shared by
+ * the content repository's segment log and the event journal.
+ *
+ * <p>
+ * Each record is laid out as:
+ * </p>
+ *
+ * <pre>
+ * int    totalLength   (header + key + payload)
+ * int    crc32         (over every byte after this field)
+ * byte   type          (non-zero, defined by the owning log)
+ * long   sequence
+ * short  keyLength
+ * byte[] key           (UTF-8, may be empty)
+ * byte[] payload
+ * </pre>
+ *
+ * <p>
+ * The file is preallocated to its capacity, so the unused tail reads as
+ * zeros. Recovery scans records until it meets a zero length, a length
+ * running past the end of the file or a checksum mismatch, which is where a
+ * torn write would have left the log.
+ * </p>
+ *
+ * <p>
+ * <strong>Concurrency:</strong> Appends are serialized by the owning
+ * log. Reads use absolute buffer access and never move the buffer
+ * position, so any number of threads can read while one appends.
+ * </p>
+ *
+ * @see com.cms.core.repository.PersistentContentRepository
+ * @see com.cms.concurrent.EventJournal
+ * @since 1.0
+ * @author Otman Hmich S007924
+ */
+public final class LogSegment {
+
+    /** Bytes before the key: length, crc, type, sequence, key length */
+    public static final int HEADER_SIZE = 4 + 4 + 1 + 8 + 2;
+
+    /** Key of records that are only addressed by sequence or offset */
+    public static final byte[] NO_KEY = new byte[0];
+
+    private static final String FILE_SUFFIX = ".log";
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private volatile int writePosition;
+    private volatile boolean sealed;
+
+    /** Bytes of records that are still the current version of their key */
+    private final AtomicLong liveBytes = new AtomicLong();
+
+    private LogSegment(long id, Path path, MappedByteBuffer buffer, int capacity, boolean sealed) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.sealed = sealed;
+    }
+
+    /**
+     * Creates and maps a new, empty segment file.
+     *
+     * @param directory Directory of the log
+     * @param prefix    File name prefix identifying the log
+     * @param id        Segment ID, increasing within the log
+     * @param capacity  Preallocated size of the file in bytes
+     * @return The mapped segment
+     * @throws IOException if the file exists or cannot be mapped
+     */
+    public static LogSegment create(Path directory, String prefix, long id, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(prefix, id));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new LogSegment(id, path, buffer, capacity, false);
+        }
+    }
+
+    /**
+     * Maps an existing segment file. Writable segments can continue to receive
+     * appends after {@link #recover(Consumer)} has located the end of the log;
+     * read-only segments are sealed.
+     *
+     * @param path     The segment file
+     * @param id       Segment ID parsed from the file name
+     * @param writable Whether the segment is the log's active segment
+     * @return The mapped segment
+     * @throws IOException if the file cannot be mapped
+     */
+    public static LogSegment open(Path path, long id, boolean writable) throws IOException {
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE }
+                : new StandardOpenOption[] { StandardOpenOption.READ };
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            int capacity = (int) Math.min(channel.size(), Integer.MAX_VALUE);
+            MappedByteBuffer buffer = channel.map(
+                    writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, capacity);
+            return new LogSegment(id, path, buffer, capacity, !writable);
+        }
+    }
+
+    public static String fileName(String prefix, long id) {
+        return String.format("%s%012d%s", prefix, id, FILE_SUFFIX);
+    }
+
+    /**
+     * Parses the segment ID from a file name, or returns -1 if the file is not a
+     * segment of the log with the given prefix.
+     */
+    public static long parseId(Path path, String prefix) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static int recordSize(byte[] key, byte[] payload) {
+        return HEADER_SIZE + key.length + (payload != null ? payload.length : 0);
+    }
+
+    /**
+     * Returns whether a record of the given size still fits.
+     */
+    public boolean hasRoomFor(int recordSize) {
+        return !sealed && writePosition + recordSize <= capacity;
+    }
+
+    /**
+     * Appends a record and returns its offset. The caller must hold the
+     * log's append lock and have checked {@link #hasRoomFor(int)}.
+     */
+    public int append(byte type, long sequence, byte[] key, byte[] payload) {
+        int length = recordSize(key, payload);
+        byte[] record = new byte[length];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        view.putInt(length);
+        view.putInt(0); // checksum placeholder
+        view.put(type);
+        view.putLong(sequence);
+        view.putShort((short) key.length);
+        view.put(key);
+        if (payload != null) {
+            view.put(payload);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, length - 8);
+        view.putInt(4, (int) crc.getValue());
+
+        int offset = writePosition;
+        buffer.put(offset, record);
+        writePosition = offset + length;
+        return offset;
+    }
+
+    /**
+     * Reads the record at the given offset.
+     *
+     * @throws IOException if the record is damaged
+     */
+    public Record read(int offset) throws IOException {
+        Record record = readAt(offset, true);
+        if (record == null) {
+            throw new IOException("Corrupt record at " + path.getFileName() + ":" + offset);
+        }
+        return record;
+    }
+
+    /**
+     * Scans all intact records from the start of the segment, sets the append
+     * position just past the last one and returns the number of records found.
+     */
+    public int recover(Consumer<Record> visitor) {
+        int position = 0;
+        int count = 0;
+        Record record;
+        while ((record = readAt(position, false)) != null) {
+            visitor.accept(record);
+            position += record.length;
+            count++;
+        }
+        writePosition = position;
+        return count;
+    }
+
+    /**
+     * Visits every record up to the current append position, including
+     * payloads.
+     */
+    public void forEach(Consumer<Record> visitor) {
+        int end = writePosition;
+        int position = 0;
+        while (position < end) {
+            Record record = readAt(position, true);
+            if (record == null) {
+                return;
+            }
+            visitor.accept(record);
+            position += record.length;
+        }
+    }
+
+    /**
+     * Flushes written pages to the storage device.
+     */
+    public void force() {
+        if (!buffer.isReadOnly()) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Marks the segment as no longer accepting appends and flushes it.
+     */
+    public void seal() {
+        if (!buffer.isReadOnly()) {
+            buffer.force();
+        }
+        sealed = true;
+    }
+
+    public void delete() throws IOException {
+        sealed = true;
+        Files.deleteIfExists(path);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    public int getWritePosition() {
+        return writePosition;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public AtomicLong liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Share of written bytes that no longer hold a current record.
+     */
+    public double garbageRatio() {
+        int written = writePosition;
+        return written == 0 ? 0.0 : 1.0 - (double) liveBytes.get() / written;
+    }
+
+    /**
+     * Decodes and verifies the record at an offset, or returns null if there is
+     * no intact record there. The checksum is computed directly over the
+     * mapped bytes; the payload is only copied out when requested.
+     */
+    private Record readAt(int offset, boolean withPayload) {
+        if (offset < 0 || offset + HEADER_SIZE > capacity) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length < HEADER_SIZE || offset + length > capacity) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + 8, length - 8));
+        if (buffer.getInt(offset + 4) != (int) crc.getValue()) {
+            return null;
+        }
+
+        byte type = buffer.get(offset + 8);
+        long sequence = buffer.getLong(offset + 9);
+        int keyLength = buffer.getShort(offset + 17) & 0xFFFF;
+        if (HEADER_SIZE + keyLength > length || type == 0) {
+            return null;
+        }
+
+        byte[] keyBytes = new byte[keyLength];
+        buffer.get(offset + HEADER_SIZE, keyBytes);
+        byte[] payload = null;
+        if (withPayload) {
+            payload = new byte[length - HEADER_SIZE - keyLength];
+            buffer.get(offset + HEADER_SIZE + keyLength, payload);
+        }
+        return new Record(offset, length, type, sequence, new String(keyBytes, StandardCharsets.UTF_8), payload);
+    }
+
+    /**
+     * A decoded log record.
+     */
+    public static final class Record {
+        private final int offset;
+        private final int length;
+        private final byte type;
+        private final long sequence;
+        private final String key;
+        private final byte[] payload;
+
+        Record(int offset, int length, byte type, long sequence, String key, byte[] payload) {
+            this.offset = offset;
+            this.length = length;
+            this.type = type;
+            this.sequence = sequence;
+            this.key = key;
+            this.payload = payload;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public byte getType() {
+            return type;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /** Returns the payload, or null when the record was decoded without it */
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
@@ -46,6 +46,8 @@ import java.util.HashMap;
  */
 public class ArticleContent extends Content<ArticleContent> {
 
+    private static final long serialVersionUID = 1L;
+
     /** The article category for organization */
     private String category;
 
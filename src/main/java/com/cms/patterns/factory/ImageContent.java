@@ -33,6 +33,8 @@ import java.util.List;
  */
 public class ImageContent extends Content<ImageContent> {
 
+    private static final long serialVersionUID = 1L;
+
     private String fileName;
     private String filePath;
     private long fileSize;
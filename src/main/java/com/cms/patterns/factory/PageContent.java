@@ -31,6 +31,8 @@ import java.util.HashMap;
  */
 public class PageContent extends Content<PageContent> {
 
+    private static final long serialVersionUID = 1L;
+
     private String layout;
     private boolean showInMenu;
     private int menuOrder;
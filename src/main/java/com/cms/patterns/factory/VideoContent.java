@@ -32,6 +32,8 @@ import java.util.List;
  */
 public class VideoContent extends Content<VideoContent> {
 
+    private static final long serialVersionUID = 1L;
+
     private String fileName;
     private String filePath;
     private long fileSize;
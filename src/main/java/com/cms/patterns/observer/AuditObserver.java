@@ -11,6 +11,7 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Specialized observer for comprehensive audit trail generation and security
@@ -84,6 +85,9 @@ public class AuditObserver implements ContentObserver {
     private final Map<ContentEvent.EventType, AtomicLong> eventTypeCounters;
     private final Map<String, AtomicLong> complianceTypeCounters;
 
+    // Records assessed by the current thread's onEventsBatch, stored together at the end
+    private final ThreadLocal<List<AuditRecord>> batchBuffer = new ThreadLocal<>();
+
     /**
      * Risk levels for audit events.
      */
@@ -682,42 +686,100 @@ public class AuditObserver implements ContentObserver {
         }
     }
 
+    /**
+     * Records the audit trail for a batch of events with a single write.
+     * <p>
+     * Each event is assessed exactly as by the per-event callbacks, but the
+     * resulting audit records are buffered and stored together: the
+     * copy-on-write user and content histories are appended once per user and
+     * content instead of once per record, and the queued security log entries
+     * reach the audit log in one append.
+     * </p>
+     *
+     * @param events The events of the batch, in arrival order
+     */
+    @Override
+    public void onEventsBatch(List<ContentEvent> events) {
+        List<AuditRecord> batch = new ArrayList<>(events.size());
+        batchBuffer.set(batch);
+        try {
+            ContentObserver.super.onEventsBatch(events);
+        } finally {
+            batchBuffer.remove();
+            storeAuditRecords(batch);
+            auditLogger.flush();
+        }
+
+        logger.logSecurityEvent("Audit batch recorded",
+                "events=" + events.size() + ", records=" + batch.size());
+    }
+
     // Audit processing methods
 
     private void recordAuditEvent(AuditRecord auditRecord) {
-        // Store the audit record
-        auditRecords.put(auditRecord.recordId, auditRecord);
-        recentAudits.offer(auditRecord);
+        List<AuditRecord> batch = batchBuffer.get();
+        if (batch != null) {
+            batch.add(auditRecord);
+        } else {
+            storeAuditRecords(List.of(auditRecord));
+        }
+    }
 
-        // Maintain recent audits queue size
-        while (recentAudits.size() > 10000) {
-            recentAudits.poll();
+    private void storeAuditRecords(List<AuditRecord> records) {
+        if (records.isEmpty()) {
+            return;
         }
 
-        // Update user and content audit histories
-        userAuditHistory.computeIfAbsent(auditRecord.userId, k -> new CopyOnWriteArrayList<>())
-                .add(auditRecord);
-        contentAuditHistory.computeIfAbsent(auditRecord.contentId, k -> new CopyOnWriteArrayList<>())
-                .add(auditRecord);
+        Map<String, List<AuditRecord>> byUser = new HashMap<>();
+        Map<String, List<AuditRecord>> byContent = new HashMap<>();
 
-        // Update statistics
-        auditRecordCount.incrementAndGet();
-        riskLevelCounters.get(auditRecord.riskLevel).incrementAndGet();
+        for (AuditRecord auditRecord : records) {
+            // Store the audit record
+            auditRecords.put(auditRecord.recordId, auditRecord);
+            recentAudits.offer(auditRecord);
 
-        // Update compliance counters
-        for (ComplianceType compliance : auditRecord.applicableCompliance) {
-            complianceTypeCounters.get(compliance.name()).incrementAndGet();
-        }
+            byUser.computeIfAbsent(auditRecord.userId, k -> new ArrayList<>()).add(auditRecord);
+            byContent.computeIfAbsent(auditRecord.contentId, k -> new ArrayList<>()).add(auditRecord);
 
-        // Set retention expiration if applicable
-        setRetentionExpiration(auditRecord);
+            // Update statistics
+            auditRecordCount.incrementAndGet();
+            riskLevelCounters.get(auditRecord.riskLevel).incrementAndGet();
 
-        // Verify record integrity
-        if (!auditRecord.verifyIntegrity()) {
-            logger.logError(new RuntimeException("Integrity verification failed"),
-                    "Audit record integrity verification failed - recordId=" + auditRecord.recordId, null,
-                    "integrity_verification");
+            // Update compliance counters
+            for (ComplianceType compliance : auditRecord.applicableCompliance) {
+                complianceTypeCounters.get(compliance.name()).incrementAndGet();
+            }
+
+            // Set retention expiration if applicable
+            setRetentionExpiration(auditRecord);
+
+            // Verify record integrity
+            if (!auditRecord.verifyIntegrity()) {
+                logger.logError(new RuntimeException("Integrity verification failed"),
+                        "Audit record integrity verification failed - recordId=" + auditRecord.recordId, null,
+                        "integrity_verification");
+            }
+        }
+
+        // Maintain recent audits queue size
+        while (recentAudits.size() > 10000) {
+            recentAudits.poll();
         }
+
+        // Update user and content audit histories, one copy per list
+        byUser.forEach((userId, userRecords) -> userAuditHistory
+                .computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).addAll(userRecords));
+        byContent.forEach((contentId, contentRecords) -> contentAuditHistory
+                .computeIfAbsent(contentId, k -> new CopyOnWriteArrayList<>()).addAll(contentRecords));
+    }
+
+    /**
+     * Returns the records assessed earlier in the current batch, which are not
+     * in the histories yet.
+     */
+    private List<AuditRecord> pendingBatchRecords() {
+        List<AuditRecord> batch = batchBuffer.get();
+        return batch != null ? batch : Collections.emptyList();
     }
 
     private RiskLevel assessRiskLevel(ContentEvent event, String operation) {
@@ -862,9 +924,12 @@ public class AuditObserver implements ContentObserver {
 
     private boolean detectSuspiciousCreationActivity(ContentEvent event) {
         // Check for rapid content creation
-        List<AuditRecord> userHistory = userAuditHistory.get(event.getUser().getId());
-        if (userHistory != null) {
-            long recentCreations = userHistory.stream()
+        List<AuditRecord> userHistory = userAuditHistory.getOrDefault(event.getUser().getId(),
+                Collections.emptyList());
+        List<AuditRecord> pending = pendingBatchRecords();
+        if (!userHistory.isEmpty() || !pending.isEmpty()) {
+            long recentCreations = Stream.concat(userHistory.stream(), pending.stream()
+                    .filter(record -> Objects.equals(record.userId, event.getUser().getId())))
                     .filter(record -> record.operation.equals("CONTENT_CREATED"))
                     .filter(record -> record.timestamp.isAfter(LocalDateTime.now().minusHours(1)))
                     .count();
@@ -877,9 +942,12 @@ public class AuditObserver implements ContentObserver {
 
     private boolean detectSuspiciousUpdateActivity(ContentEvent event) {
         // Check for rapid modifications of the same content
-        List<AuditRecord> contentHistory = contentAuditHistory.get(event.getContent().getId());
-        if (contentHistory != null) {
-            long recentUpdates = contentHistory.stream()
+        List<AuditRecord> contentHistory = contentAuditHistory.getOrDefault(event.getContent().getId(),
+                Collections.emptyList());
+        List<AuditRecord> pending = pendingBatchRecords();
+        if (!contentHistory.isEmpty() || !pending.isEmpty()) {
+            long recentUpdates = Stream.concat(contentHistory.stream(), pending.stream()
+                    .filter(record -> Objects.equals(record.contentId, event.getContent().getId())))
                     .filter(record -> record.operation.equals("CONTENT_UPDATED"))
                     .filter(record -> record.timestamp.isAfter(LocalDateTime.now().minusMinutes(30)))
                     .count();
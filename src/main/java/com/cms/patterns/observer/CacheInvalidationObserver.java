@@ -177,20 +177,7 @@ public class CacheInvalidationObserver implements ContentObserver {
 
         try {
             Content content = event.getContent();
-
-            // Invalidate content list caches
-            Set<String> keysToInvalidate = generateContentListKeys(content);
-
-            // Invalidate navigation caches if this affects site structure
-            keysToInvalidate.addAll(generateNavigationKeys(content));
-
-            // Invalidate search caches
-            keysToInvalidate.addAll(generateSearchKeys(content));
-
-            // Add cache warming for the new content
-            String contentKey = generateContentKey(content);
-            addCacheOperation("warm", contentKey,
-                    Map.of("priority", "normal", "reason", "new_content"));
+            Set<String> keysToInvalidate = keysForCreation(content);
 
             // Process invalidations
             processInvalidations(keysToInvalidate, "content_created");
@@ -215,37 +202,7 @@ public class CacheInvalidationObserver implements ContentObserver {
         try {
             Content content = event.getContent();
             Set<String> changedFields = event.getChangedFields();
-
-            // Determine invalidation scope based on changed fields
-            Set<String> keysToInvalidate = new HashSet<>();
-
-            // Always invalidate the content itself
-            String contentKey = generateContentKey(content);
-            keysToInvalidate.add(contentKey);
-
-            // Conditionally invalidate based on changes
-            if (changedFields.contains("title") || changedFields.contains("content")) {
-                // Major content changes - invalidate everything related
-                keysToInvalidate.addAll(generateContentDependentKeys(content));
-                keysToInvalidate.addAll(generateSearchKeys(content));
-
-                // Warm critical content immediately
-                if (criticalCacheKeys.contains(contentKey)) {
-                    addCacheOperation("warm", contentKey,
-                            Map.of("priority", "high", "reason", "critical_content_update"));
-                }
-            }
-
-            if (changedFields.contains("status")) {
-                // Status changes affect lists and navigation
-                keysToInvalidate.addAll(generateContentListKeys(content));
-                keysToInvalidate.addAll(generateNavigationKeys(content));
-            }
-
-            if (changedFields.contains("metadata")) {
-                // Metadata changes might affect categorization
-                keysToInvalidate.addAll(generateCategoryKeys(content));
-            }
+            Set<String> keysToInvalidate = keysForUpdate(content, changedFields);
 
             // Process invalidations with update context
             Map<String, Object> context = Map.of(
@@ -272,36 +229,7 @@ public class CacheInvalidationObserver implements ContentObserver {
 
         try {
             Content content = event.getContent();
-
-            // Publication is a critical event - invalidate extensively
-            Set<String> keysToInvalidate = new HashSet<>();
-
-            // Invalidate all content-related caches
-            keysToInvalidate.addAll(generateContentDependentKeys(content));
-
-            // Invalidate published content lists
-            keysToInvalidate.addAll(generatePublishedContentKeys(content));
-
-            // Invalidate RSS and feed caches
-            keysToInvalidate.addAll(generateFeedKeys());
-
-            // Invalidate navigation (might affect menus, breadcrumbs)
-            keysToInvalidate.addAll(generateNavigationKeys(content));
-
-            // Invalidate search indices
-            keysToInvalidate.addAll(generateSearchKeys(content));
-
-            // Invalidate sitemap
-            keysToInvalidate.add("sitemap");
-            keysToInvalidate.add("sitemap.xml");
-
-            // Warm the published content immediately - it's now accessible
-            String contentKey = generateContentKey(content);
-            addCacheOperation("warm", contentKey,
-                    Map.of("priority", "critical", "reason", "content_published"));
-
-            // Mark as critical for future operations
-            criticalCacheKeys.add(contentKey);
+            Set<String> keysToInvalidate = keysForPublication(content);
 
             // Process with high priority
             processInvalidationsWithContext(keysToInvalidate,
@@ -327,31 +255,7 @@ public class CacheInvalidationObserver implements ContentObserver {
 
         try {
             Content content = event.getContent();
-            String contentKey = generateContentKey(content);
-
-            Set<String> keysToInvalidate = new HashSet<>();
-
-            if (event.isTemporaryDeletion()) {
-                // Archive - content still exists but not publicly accessible
-                keysToInvalidate.addAll(generatePublishedContentKeys(content));
-                keysToInvalidate.addAll(generateContentListKeys(content));
-                keysToInvalidate.addAll(generateNavigationKeys(content));
-
-                // Remove from critical keys but don't invalidate content itself
-                criticalCacheKeys.remove(contentKey);
-
-            } else {
-                // Permanent deletion - invalidate everything
-                keysToInvalidate.addAll(generateAllContentKeys(content));
-                keysToInvalidate.addAll(generateContentDependentKeys(content));
-                keysToInvalidate.addAll(generateSearchKeys(content));
-                keysToInvalidate.addAll(generateNavigationKeys(content));
-                keysToInvalidate.addAll(generateFeedKeys());
-
-                // Remove from critical keys and clean up dependencies
-                criticalCacheKeys.remove(contentKey);
-                cleanupCacheDependencies(contentKey);
-            }
+            Set<String> keysToInvalidate = keysForDeletion(content, event.isTemporaryDeletion());
 
             // Process invalidations
             Map<String, Object> context = Map.of(
@@ -370,6 +274,180 @@ public class CacheInvalidationObserver implements ContentObserver {
         }
     }
 
+    /**
+     * Invalidates the caches affected by a batch of events in one pass.
+     *
+     * <p>
+     * The keys of every event are collected into a single set first, so a key
+     * shared by many events in the batch (content lists, navigation, feeds,
+     * search) is invalidated once instead of once per event. Warming and
+     * dependency cleanup are applied per event, in order.
+     * </p>
+     *
+     * @param events The events of the batch, in arrival order
+     */
+    @Override
+    public void onEventsBatch(List<ContentEvent> events) {
+        Set<String> keysToInvalidate = new LinkedHashSet<>();
+        int requestedKeys = 0;
+
+        for (ContentEvent event : events) {
+            try {
+                Content content = event.getContent();
+                Set<String> eventKeys;
+                switch (event.getEventType()) {
+                    case CREATED:
+                        eventTypeStats.get(ContentEvent.EventType.CREATED).incrementAndGet();
+                        eventKeys = keysForCreation(content);
+                        break;
+                    case PUBLISHED:
+                        eventTypeStats.get(ContentEvent.EventType.PUBLISHED).incrementAndGet();
+                        eventKeys = keysForPublication(content);
+                        break;
+                    case DELETED:
+                        eventTypeStats.get(ContentEvent.EventType.DELETED).incrementAndGet();
+                        eventKeys = keysForDeletion(content, event.isTemporaryDeletion());
+                        break;
+                    default:
+                        eventTypeStats.get(ContentEvent.EventType.UPDATED).incrementAndGet();
+                        eventKeys = keysForUpdate(content, event.getChangedFields());
+                        break;
+                }
+                requestedKeys += eventKeys.size();
+                keysToInvalidate.addAll(eventKeys);
+            } catch (Exception e) {
+                logger.logError(e, "Failed to collect cache keys for event: " + event.getEventId(), null,
+                        "cache_invalidation");
+            }
+        }
+
+        processInvalidationsWithContext(keysToInvalidate,
+                Map.of("reason", "event_batch", "events", events.size()));
+
+        logger.logContentActivity("Cache invalidation completed for event batch",
+                "events=" + events.size() +
+                        ", keys=" + keysToInvalidate.size() +
+                        ", duplicatesSkipped=" + (requestedKeys - keysToInvalidate.size()));
+    }
+
+    // Invalidation scope per event type
+
+    private Set<String> keysForCreation(Content content) {
+        // Invalidate content list caches
+        Set<String> keysToInvalidate = generateContentListKeys(content);
+
+        // Invalidate navigation caches if this affects site structure
+        keysToInvalidate.addAll(generateNavigationKeys(content));
+
+        // Invalidate search caches
+        keysToInvalidate.addAll(generateSearchKeys(content));
+
+        // Add cache warming for the new content
+        String contentKey = generateContentKey(content);
+        addCacheOperation("warm", contentKey,
+                Map.of("priority", "normal", "reason", "new_content"));
+
+        return keysToInvalidate;
+    }
+
+    private Set<String> keysForUpdate(Content content, Set<String> changedFields) {
+        // Determine invalidation scope based on changed fields
+        Set<String> keysToInvalidate = new HashSet<>();
+
+        // Always invalidate the content itself
+        String contentKey = generateContentKey(content);
+        keysToInvalidate.add(contentKey);
+
+        // Conditionally invalidate based on changes
+        if (changedFields.contains("title") || changedFields.contains("content")) {
+            // Major content changes - invalidate everything related
+            keysToInvalidate.addAll(generateContentDependentKeys(content));
+            keysToInvalidate.addAll(generateSearchKeys(content));
+
+            // Warm critical content immediately
+            if (criticalCacheKeys.contains(contentKey)) {
+                addCacheOperation("warm", contentKey,
+                        Map.of("priority", "high", "reason", "critical_content_update"));
+            }
+        }
+
+        if (changedFields.contains("status")) {
+            // Status changes affect lists and navigation
+            keysToInvalidate.addAll(generateContentListKeys(content));
+            keysToInvalidate.addAll(generateNavigationKeys(content));
+        }
+
+        if (changedFields.contains("metadata")) {
+            // Metadata changes might affect categorization
+            keysToInvalidate.addAll(generateCategoryKeys(content));
+        }
+
+        return keysToInvalidate;
+    }
+
+    private Set<String> keysForPublication(Content content) {
+        // Publication is a critical event - invalidate extensively
+        Set<String> keysToInvalidate = new HashSet<>();
+
+        // Invalidate all content-related caches
+        keysToInvalidate.addAll(generateContentDependentKeys(content));
+
+        // Invalidate published content lists
+        keysToInvalidate.addAll(generatePublishedContentKeys(content));
+
+        // Invalidate RSS and feed caches
+        keysToInvalidate.addAll(generateFeedKeys());
+
+        // Invalidate navigation (might affect menus, breadcrumbs)
+        keysToInvalidate.addAll(generateNavigationKeys(content));
+
+        // Invalidate search indices
+        keysToInvalidate.addAll(generateSearchKeys(content));
+
+        // Invalidate sitemap
+        keysToInvalidate.add("sitemap");
+        keysToInvalidate.add("sitemap.xml");
+
+        // Warm the published content immediately - it's now accessible
+        String contentKey = generateContentKey(content);
+        addCacheOperation("warm", contentKey,
+                Map.of("priority", "critical", "reason", "content_published"));
+
+        // Mark as critical for future operations
+        criticalCacheKeys.add(contentKey);
+
+        return keysToInvalidate;
+    }
+
+    private Set<String> keysForDeletion(Content content, boolean temporary) {
+        String contentKey = generateContentKey(content);
+        Set<String> keysToInvalidate = new HashSet<>();
+
+        if (temporary) {
+            // Archive - content still exists but not publicly accessible
+            keysToInvalidate.addAll(generatePublishedContentKeys(content));
+            keysToInvalidate.addAll(generateContentListKeys(content));
+            keysToInvalidate.addAll(generateNavigationKeys(content));
+
+            // Remove from critical keys but don't invalidate content itself
+            criticalCacheKeys.remove(contentKey);
+
+        } else {
+            // Permanent deletion - invalidate everything
+            keysToInvalidate.addAll(generateAllContentKeys(content));
+            keysToInvalidate.addAll(generateContentDependentKeys(content));
+            keysToInvalidate.addAll(generateSearchKeys(content));
+            keysToInvalidate.addAll(generateNavigationKeys(content));
+            keysToInvalidate.addAll(generateFeedKeys());
+
+            // Remove from critical keys and clean up dependencies
+            criticalCacheKeys.remove(contentKey);
+            cleanupCacheDependencies(contentKey);
+        }
+
+        return keysToInvalidate;
+    }
+
     // Cache key generation methods
 
     private String generateContentKey(Content content) {
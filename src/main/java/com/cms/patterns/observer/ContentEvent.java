@@ -3,10 +3,14 @@ package com.cms.patterns.observer;
 import com.cms.core.model.Content;
 import com.cms.core.model.User;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Immutable event object containing comprehensive details about content
@@ -38,6 +42,19 @@ import java.util.concurrent.ConcurrentHashMap;
  * </p>
  *
  * <p>
+ * <strong>Compact Representation:</strong> Events are created at high rates
+ * and most observers only look at the type and content, so an event holds
+ * its metadata, previous values, changed fields and context as flat arrays,
+ * sized exactly and shared when empty. The {@link Map} and {@link Set}
+ * views are built on first access and cached; point lookups such as
+ * {@link #getMetadataValue(String)} and {@link #wasFieldChanged(String)}
+ * scan the arrays without building them. The identity is a monotonic
+ * {@link #getEventNumber() event number} and the time an epoch-nanosecond
+ * {@link #getTimestampNanos() timestamp}; the string ID and the
+ * {@link LocalDateTime} are derived from them on demand.
+ * </p>
+ *
+ * <p>
  * <strong>Integration:</strong> Uses existing Content and User models from
  * the core system, integrating seamlessly with Factory Pattern content
  * creation and User management systems.
@@ -91,25 +108,66 @@ public final class ContentEvent {
         }
     }
 
+    /** Source of event numbers, monotonic for the lifetime of the JVM */
+    private static final AtomicLong EVENT_NUMBERS = new AtomicLong();
+
+    /**
+     * Prefix of generated event IDs, unique per JVM start, so IDs of journaled
+     * events from an earlier run never collide with new ones.
+     */
+    private static final String ID_PREFIX = Long.toString(System.currentTimeMillis(), 36) + "-" +
+            Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36), 36) + "-";
+
+    /** How long the epoch-nanosecond clock runs on nanoTime before re-reading wall time */
+    private static final long CLOCK_REBASE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Wall time paired with the nanoTime it was read at */
+    private static final class ClockBase {
+        final long epochNanos;
+        final long nanoTime;
+
+        ClockBase() {
+            Instant now = Instant.now();
+            this.nanoTime = System.nanoTime();
+            this.epochNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+        }
+    }
+
+    // Epoch-nanosecond clock: wall time advanced by the monotonic nanoTime, re-based every second
+    private static volatile ClockBase clockBase = new ClockBase();
+
+    private static final Object[] NO_ENTRIES = new Object[0];
+    private static final String[] NO_FIELDS = new String[0];
+
     // Core event data (immutable)
-    private final String eventId;
+    private final long eventNumber;
+    private final String explicitEventId;
     private final Content content;
     private final EventType eventType;
-    private final LocalDateTime timestamp;
+    private final long timestampNanos;
     private final User user;
 
-    // Event context and metadata
+    // Event context and metadata, as alternating key/value arrays
     private final String source;
     private final String sessionId;
-    private final Map<String, Object> metadata;
-    private final Map<String, Object> previousValues;
-    private final Set<String> changedFields;
+    private final Object[] metadata;
+    private final Object[] previousValues;
+    private final String[] changedFields;
 
     // Additional context
     private final String reason;
     private final LocalDateTime publicationDate;
     private final boolean isTemporaryDeletion;
-    private final Map<String, String> additionalContext;
+    private final Object[] additionalContext;
+
+    // Views derived on first access; racing threads build equal values, and
+    // the immutable results are safely published through their final fields
+    private String eventId;
+    private LocalDateTime timestamp;
+    private Map<String, Object> metadataView;
+    private Map<String, Object> previousValuesView;
+    private Set<String> changedFieldsView;
+    private Map<String, String> additionalContextView;
 
     /**
      * Private constructor to ensure immutability and proper validation.
@@ -127,13 +185,20 @@ public final class ContentEvent {
             throw new IllegalArgumentException("User cannot be null");
         }
 
-        // Generate unique event ID if not provided
-        this.eventId = builder.eventId != null ? builder.eventId : UUID.randomUUID().toString();
+        // Number every event; an explicit ID replaces the generated one
+        this.eventNumber = EVENT_NUMBERS.incrementAndGet();
+        this.explicitEventId = builder.eventId;
+        this.eventId = builder.eventId;
 
         // Set core fields
         this.content = builder.content;
         this.eventType = builder.eventType;
-        this.timestamp = builder.timestamp != null ? builder.timestamp : LocalDateTime.now();
+        if (builder.timestamp != null) {
+            this.timestamp = builder.timestamp;
+            this.timestampNanos = toEpochNanos(builder.timestamp);
+        } else {
+            this.timestampNanos = builder.timestampNanos != 0 ? builder.timestampNanos : currentEpochNanos();
+        }
         this.user = builder.user;
 
         // Set context fields with defaults
@@ -143,22 +208,12 @@ public final class ContentEvent {
         this.publicationDate = builder.publicationDate;
         this.isTemporaryDeletion = builder.isTemporaryDeletion;
 
-        // Defensively copy collections to ensure immutability
-        this.metadata = builder.metadata != null
-                ? Collections.unmodifiableMap(new ConcurrentHashMap<>(builder.metadata))
-                : Collections.emptyMap();
-
-        this.previousValues = builder.previousValues != null
-                ? Collections.unmodifiableMap(new ConcurrentHashMap<>(builder.previousValues))
-                : Collections.emptyMap();
-
-        this.changedFields = builder.changedFields != null
-                ? Collections.unmodifiableSet(new HashSet<>(builder.changedFields))
-                : Collections.emptySet();
-
-        this.additionalContext = builder.additionalContext != null
-                ? Collections.unmodifiableMap(new HashMap<>(builder.additionalContext))
-                : Collections.emptyMap();
+        // Copy collections into exact-size arrays to ensure immutability
+        this.metadata = builder.metadata.toArray();
+        this.previousValues = builder.previousValues.toArray();
+        this.additionalContext = builder.additionalContext.toArray();
+        this.changedFields = builder.changedFields == null || builder.changedFields.isEmpty() ? NO_FIELDS
+                : builder.changedFields.toArray(NO_FIELDS);
     }
 
     // Getter methods for all fields
@@ -169,7 +224,23 @@ public final class ContentEvent {
      * @return Non-null unique event ID
      */
     public String getEventId() {
-        return eventId;
+        String id = eventId;
+        if (id == null) {
+            id = ID_PREFIX + Long.toString(eventNumber, 36);
+            eventId = id;
+        }
+        return id;
+    }
+
+    /**
+     * Gets the number of this event, assigned from a counter that increases
+     * monotonically for the lifetime of the JVM. Cheaper to compare and store
+     * than {@link #getEventId()}, but not unique across restarts.
+     *
+     * @return Positive event number
+     */
+    public long getEventNumber() {
+        return eventNumber;
     }
 
     /**
@@ -196,7 +267,32 @@ public final class ContentEvent {
      * @return Non-null timestamp
      */
     public LocalDateTime getTimestamp() {
-        return timestamp;
+        LocalDateTime time = timestamp;
+        if (time == null) {
+            time = LocalDateTime.ofInstant(Instant.ofEpochSecond(0, timestampNanos), ZoneId.systemDefault());
+            timestamp = time;
+        }
+        return time;
+    }
+
+    /**
+     * Gets the timestamp when this event occurred as nanoseconds since the
+     * epoch, without creating a {@link LocalDateTime}.
+     *
+     * <p>
+     * <strong>Clock:</strong> Generated timestamps advance with
+     * {@link System#nanoTime()} from a wall-clock reading taken at most a
+     * second earlier, so they stay within the nanoTime drift of one second
+     * (microseconds on common hardware) of {@link Instant#now()} and remain
+     * comparable across JVM runs. Each re-base may step the clock by that
+     * drift, or by a wall-clock adjustment, so the order of events within a
+     * run is given by their event numbers, not their timestamps.
+     * </p>
+     *
+     * @return Epoch nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
     }
 
     /**
@@ -232,7 +328,12 @@ public final class ContentEvent {
      * @return Non-null, unmodifiable map of metadata
      */
     public Map<String, Object> getMetadata() {
-        return metadata;
+        Map<String, Object> view = metadataView;
+        if (view == null) {
+            view = toMap(metadata);
+            metadataView = view;
+        }
+        return view;
     }
 
     /**
@@ -241,7 +342,12 @@ public final class ContentEvent {
      * @return Non-null, unmodifiable map of previous values
      */
     public Map<String, Object> getPreviousValues() {
-        return previousValues;
+        Map<String, Object> view = previousValuesView;
+        if (view == null) {
+            view = toMap(previousValues);
+            previousValuesView = view;
+        }
+        return view;
     }
 
     /**
@@ -250,7 +356,13 @@ public final class ContentEvent {
      * @return Non-null, unmodifiable set of changed field names
      */
     public Set<String> getChangedFields() {
-        return changedFields;
+        Set<String> view = changedFieldsView;
+        if (view == null) {
+            view = changedFields.length == 0 ? Collections.emptySet()
+                    : Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(changedFields)));
+            changedFieldsView = view;
+        }
+        return view;
     }
 
     /**
@@ -286,7 +398,12 @@ public final class ContentEvent {
      * @return Non-null, unmodifiable map of additional context
      */
     public Map<String, String> getAdditionalContext() {
-        return additionalContext;
+        Map<String, String> view = additionalContextView;
+        if (view == null) {
+            view = toMap(additionalContext);
+            additionalContextView = view;
+        }
+        return view;
     }
 
     /**
@@ -296,7 +413,7 @@ public final class ContentEvent {
      * @return The metadata value or null if not present
      */
     public Object getMetadataValue(String key) {
-        return metadata.get(key);
+        return lookup(metadata, key);
     }
 
     /**
@@ -306,7 +423,7 @@ public final class ContentEvent {
      * @return The previous value or null if not available
      */
     public Object getPreviousValue(String fieldName) {
-        return previousValues.get(fieldName);
+        return lookup(previousValues, fieldName);
     }
 
     /**
@@ -316,7 +433,12 @@ public final class ContentEvent {
      * @return true if the field was changed, false otherwise
      */
     public boolean wasFieldChanged(String fieldName) {
-        return changedFields.contains(fieldName);
+        for (String field : changedFields) {
+            if (field.equals(fieldName)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -331,8 +453,8 @@ public final class ContentEvent {
     @Override
     public String toString() {
         return String.format("ContentEvent{id='%s', type=%s, content='%s', user='%s', timestamp=%s}",
-                eventId, eventType, content.getTitle(), user.getUsername(),
-                timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                getEventId(), eventType, content.getTitle(), user.getUsername(),
+                getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
     }
 
     @Override
@@ -342,12 +464,97 @@ public final class ContentEvent {
         if (o == null || getClass() != o.getClass())
             return false;
         ContentEvent that = (ContentEvent) o;
-        return Objects.equals(eventId, that.eventId);
+        if (explicitEventId == null && that.explicitEventId == null) {
+            // Generated IDs are equal exactly when the numbers are
+            return eventNumber == that.eventNumber;
+        }
+        return getEventId().equals(that.getEventId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(eventId);
+        return getEventId().hashCode();
+    }
+
+    /**
+     * Returns the current time in epoch nanoseconds from the monotonic clock,
+     * re-reading the wall clock once the base is a second old. Threads racing
+     * past the deadline each install an equally valid base.
+     */
+    private static long currentEpochNanos() {
+        long nanoTime = System.nanoTime();
+        ClockBase base = clockBase;
+        if (nanoTime - base.nanoTime >= CLOCK_REBASE_NANOS) {
+            base = new ClockBase();
+            clockBase = base;
+            return base.epochNanos;
+        }
+        return base.epochNanos + (nanoTime - base.nanoTime);
+    }
+
+    private static long toEpochNanos(LocalDateTime time) {
+        Instant instant = time.atZone(ZoneId.systemDefault()).toInstant();
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    private static Object lookup(Object[] entries, String key) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (entries[i].equals(key)) {
+                return entries[i + 1];
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Map<String, V> toMap(Object[] entries) {
+        if (entries.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, V> map = new LinkedHashMap<>(entries.length);
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put((String) entries[i], (V) entries[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Insertion-ordered key/value list used by the builder; small enough that
+     * linear lookups beat hashing, and copied into an exact-size array on
+     * build.
+     */
+    private static final class Entries {
+        private Object[] entries = NO_ENTRIES;
+        private int size;
+
+        void put(String key, Object value) {
+            if (key == null) {
+                throw new NullPointerException("Key cannot be null");
+            }
+            for (int i = 0; i < size; i += 2) {
+                if (entries[i].equals(key)) {
+                    entries[i + 1] = value;
+                    return;
+                }
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(8, size * 2));
+            }
+            entries[size++] = key;
+            entries[size++] = value;
+        }
+
+        void replaceWith(Map<String, ?> values) {
+            entries = NO_ENTRIES;
+            size = 0;
+            if (values != null) {
+                values.forEach(this::put);
+            }
+        }
+
+        Object[] toArray() {
+            return size == 0 ? NO_ENTRIES : Arrays.copyOf(entries, size);
+        }
     }
 
     /**
@@ -377,16 +584,17 @@ public final class ContentEvent {
         private Content content;
         private EventType eventType;
         private LocalDateTime timestamp;
+        private long timestampNanos;
         private User user;
         private String source;
         private String sessionId;
-        private Map<String, Object> metadata;
-        private Map<String, Object> previousValues;
+        private final Entries metadata = new Entries();
+        private final Entries previousValues = new Entries();
         private Set<String> changedFields;
         private String reason;
         private LocalDateTime publicationDate;
         private boolean isTemporaryDeletion = false;
-        private Map<String, String> additionalContext;
+        private final Entries additionalContext = new Entries();
 
         public Builder eventId(String eventId) {
             this.eventId = eventId;
@@ -408,6 +616,16 @@ public final class ContentEvent {
             return this;
         }
 
+        /**
+         * Sets the timestamp as nanoseconds since the epoch, avoiding a
+         * {@link LocalDateTime}; 0 means now.
+         */
+        public Builder timestampNanos(long epochNanos) {
+            this.timestamp = null;
+            this.timestampNanos = epochNanos;
+            return this;
+        }
+
         public Builder user(User user) {
             this.user = user;
             return this;
@@ -439,35 +657,26 @@ public final class ContentEvent {
         }
 
         public Builder metadata(Map<String, Object> metadata) {
-            this.metadata = metadata;
+            this.metadata.replaceWith(metadata);
             return this;
         }
 
         public Builder metadata(String key, Object value) {
-            if (this.metadata == null) {
-                this.metadata = new ConcurrentHashMap<>();
-            }
             this.metadata.put(key, value);
             return this;
         }
 
         public Builder addMetadata(String key, Object value) {
-            if (this.metadata == null) {
-                this.metadata = new ConcurrentHashMap<>();
-            }
             this.metadata.put(key, value);
             return this;
         }
 
         public Builder previousValues(Map<String, Object> previousValues) {
-            this.previousValues = previousValues;
+            this.previousValues.replaceWith(previousValues);
             return this;
         }
 
         public Builder addPreviousValue(String field, Object value) {
-            if (this.previousValues == null) {
-                this.previousValues = new ConcurrentHashMap<>();
-            }
             this.previousValues.put(field, value);
             return this;
         }
@@ -486,14 +695,11 @@ public final class ContentEvent {
         }
 
         public Builder additionalContext(Map<String, String> additionalContext) {
-            this.additionalContext = additionalContext;
+            this.additionalContext.replaceWith(additionalContext);
             return this;
         }
 
         public Builder addContext(String key, String value) {
-            if (this.additionalContext == null) {
-                this.additionalContext = new HashMap<>();
-            }
             this.additionalContext.put(key, value);
             return this;
         }
@@ -2,6 +2,8 @@ package com.cms.patterns.observer;
 
 import com.cms.core.model.Content;
 import com.cms.core.model.User;
+import com.cms.concurrent.ExecutorRegistry;
+import com.cms.concurrent.ThreadPoolManager;
 import com.cms.util.CMSLogger;
 
 import java.time.LocalDateTime;
@@ -80,8 +82,8 @@ public class ContentNotificationService implements ContentObserver {
     private final Map<ContentEvent.EventType, AtomicLong> eventTypeCounters;
     private final ConcurrentLinkedQueue<NotificationEvent> recentNotifications;
 
-    // Async processing infrastructure
-    private final ExecutorService notificationExecutor;
+    // Async processing infrastructure: a share of the registry's notification pool
+    private final Executor notificationExecutor;
     private final CompletionService<NotificationResult> completionService;
 
     // Cache and search index management
@@ -149,7 +151,7 @@ public class ContentNotificationService implements ContentObserver {
      *
      * <p>
      * Enables all notification channels with reasonable default configuration.
-     * Creates a thread pool for asynchronous notification processing.
+     * Runs asynchronous notifications on the shared notification pool.
      * </p>
      */
     public ContentNotificationService() {
@@ -166,6 +168,24 @@ public class ContentNotificationService implements ContentObserver {
      */
     public ContentNotificationService(boolean emailEnabled, boolean cacheEnabled,
             boolean searchEnabled, boolean auditEnabled) {
+        this(emailEnabled, cacheEnabled, searchEnabled, auditEnabled, ExecutorRegistry.getInstance());
+    }
+
+    /**
+     * Constructs a ContentNotificationService whose notifications run on the
+     * {@link ExecutorRegistry#NOTIFICATIONS} pool of the given registry.
+     *
+     * @param emailEnabled     Whether to enable email notifications
+     * @param cacheEnabled     Whether to enable cache invalidation
+     * @param searchEnabled    Whether to enable search indexing
+     * @param auditEnabled     Whether to enable audit logging
+     * @param executorRegistry Registry providing the notification pool
+     */
+    public ContentNotificationService(boolean emailEnabled, boolean cacheEnabled,
+            boolean searchEnabled, boolean auditEnabled, ExecutorRegistry executorRegistry) {
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
         this.logger = CMSLogger.getInstance();
 
         // Configuration
@@ -190,12 +210,8 @@ public class ContentNotificationService implements ContentObserver {
         // Initialize statistics
         this.notificationsProcessed = new AtomicLong(0);
 
-        // Initialize async processing
-        this.notificationExecutor = Executors.newFixedThreadPool(5, r -> {
-            Thread t = new Thread(r, "ContentNotification-" + System.nanoTime());
-            t.setDaemon(true);
-            return t;
-        });
+        // Initialize async processing, at most 5 notifications of this service at once
+        this.notificationExecutor = executorRegistry.limitedExecutor(ExecutorRegistry.NOTIFICATIONS, 5);
         this.completionService = new ExecutorCompletionService<>(notificationExecutor);
 
         // Set up default configuration
@@ -239,20 +255,20 @@ public class ContentNotificationService implements ContentObserver {
 
             if (emailNotificationsEnabled) {
                 futures.add(CompletableFuture.supplyAsync(() -> sendCreationNotificationEmail(event),
-                        notificationExecutor));
+                        notificationExecutor()));
             }
 
             if (cacheInvalidationEnabled) {
-                futures.add(CompletableFuture.supplyAsync(() -> invalidateRelatedCache(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> invalidateRelatedCache(event), notificationExecutor()));
             }
 
             if (searchIndexingEnabled) {
-                futures.add(CompletableFuture.supplyAsync(() -> addToSearchIndex(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> addToSearchIndex(event), notificationExecutor()));
             }
 
             if (auditLoggingEnabled) {
                 futures.add(CompletableFuture.supplyAsync(() -> logAuditEvent(event, "CONTENT_CREATED"),
-                        notificationExecutor));
+                        notificationExecutor()));
             }
 
             // Wait for all notifications to complete
@@ -288,20 +304,20 @@ public class ContentNotificationService implements ContentObserver {
 
             if (emailNotificationsEnabled && shouldNotifyForUpdate(event)) {
                 futures.add(
-                        CompletableFuture.supplyAsync(() -> sendUpdateNotificationEmail(event), notificationExecutor));
+                        CompletableFuture.supplyAsync(() -> sendUpdateNotificationEmail(event), notificationExecutor()));
             }
 
             if (cacheInvalidationEnabled) {
-                futures.add(CompletableFuture.supplyAsync(() -> invalidateContentCache(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> invalidateContentCache(event), notificationExecutor()));
             }
 
             if (searchIndexingEnabled) {
-                futures.add(CompletableFuture.supplyAsync(() -> updateSearchIndex(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> updateSearchIndex(event), notificationExecutor()));
             }
 
             if (auditLoggingEnabled) {
                 futures.add(CompletableFuture.supplyAsync(() -> logAuditEvent(event, "CONTENT_UPDATED"),
-                        notificationExecutor));
+                        notificationExecutor()));
             }
 
             // Wait for all notifications to complete
@@ -337,26 +353,26 @@ public class ContentNotificationService implements ContentObserver {
 
             if (emailNotificationsEnabled) {
                 futures.add(CompletableFuture.supplyAsync(() -> sendPublicationNotificationEmail(event),
-                        notificationExecutor));
+                        notificationExecutor()));
             }
 
             if (cacheInvalidationEnabled) {
                 futures.add(
-                        CompletableFuture.supplyAsync(() -> invalidatePublicationCache(event), notificationExecutor));
+                        CompletableFuture.supplyAsync(() -> invalidatePublicationCache(event), notificationExecutor()));
             }
 
             if (searchIndexingEnabled) {
-                futures.add(CompletableFuture.supplyAsync(() -> updatePublicationIndex(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> updatePublicationIndex(event), notificationExecutor()));
             }
 
             // Always log publication events for audit
             futures.add(CompletableFuture.supplyAsync(() -> logAuditEvent(event, "CONTENT_PUBLISHED"),
-                    notificationExecutor));
+                    notificationExecutor()));
 
             // Additional publication-specific notifications
-            futures.add(CompletableFuture.supplyAsync(() -> updateRSSFeed(event), notificationExecutor));
+            futures.add(CompletableFuture.supplyAsync(() -> updateRSSFeed(event), notificationExecutor()));
 
-            futures.add(CompletableFuture.supplyAsync(() -> sendWebhookNotifications(event), notificationExecutor));
+            futures.add(CompletableFuture.supplyAsync(() -> sendWebhookNotifications(event), notificationExecutor()));
 
             // Wait for all notifications to complete
             CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
@@ -392,21 +408,21 @@ public class ContentNotificationService implements ContentObserver {
 
             if (emailNotificationsEnabled) {
                 futures.add(CompletableFuture.supplyAsync(() -> sendDeletionNotificationEmail(event),
-                        notificationExecutor));
+                        notificationExecutor()));
             }
 
             if (cacheInvalidationEnabled) {
-                futures.add(CompletableFuture.supplyAsync(() -> cleanupContentCache(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> cleanupContentCache(event), notificationExecutor()));
             }
 
             if (searchIndexingEnabled && !event.isTemporaryDeletion()) {
-                futures.add(CompletableFuture.supplyAsync(() -> removeFromSearchIndex(event), notificationExecutor));
+                futures.add(CompletableFuture.supplyAsync(() -> removeFromSearchIndex(event), notificationExecutor()));
             }
 
             // Always log deletion events for audit
             futures.add(CompletableFuture.supplyAsync(
                     () -> logAuditEvent(event, event.isTemporaryDeletion() ? "CONTENT_ARCHIVED" : "CONTENT_DELETED"),
-                    notificationExecutor));
+                    notificationExecutor()));
 
             // Wait for all notifications to complete
             CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
@@ -925,23 +941,22 @@ public class ContentNotificationService implements ContentObserver {
     }
 
     /**
-     * Shuts down the notification service and releases resources.
+     * Returns the executor for notification work, which blocks on mail, cache,
+     * index and webhook calls: a virtual thread per task when ThreadPoolManager
+     * is in VIRTUAL I/O mode, otherwise this service's share of the
+     * notification pool.
+     */
+    private Executor notificationExecutor() {
+        return ThreadPoolManager.getInstance().getIOExecutor(notificationExecutor);
+    }
+
+    /**
+     * Shuts down the notification service. The notification pool is shared
+     * and owned by the {@link ExecutorRegistry}, so it keeps running.
      */
     public void shutdown() {
         logger.logSystemEvent("SHUTDOWN", "1.0", "Shutting down ContentNotificationService");
 
-        if (notificationExecutor != null && !notificationExecutor.isShutdown()) {
-            notificationExecutor.shutdown();
-            try {
-                if (!notificationExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    notificationExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                notificationExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-
         logger.logSystemEvent("SHUTDOWN_COMPLETE", "1.0", "ContentNotificationService shutdown completed - " +
                 "totalNotifications=" + notificationsProcessed.get());
     }
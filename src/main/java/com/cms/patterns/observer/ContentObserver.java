@@ -1,5 +1,8 @@
 package com.cms.patterns.observer;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Observer interface for content management events in the CMS system.
  *
@@ -213,4 +216,71 @@ public interface ContentObserver {
     default int getPriority() {
         return 50; // Default: normal priority
     }
+
+    /**
+     * Notifies observer of several events at once, in the order they occurred.
+     * <p>
+     * Batching producers such as the batch lane of
+     * {@code EventProcessingService} deliver their events through this method.
+     * The default implementation simply routes each event to the matching
+     * per-event callback, so existing observers behave exactly as before.
+     * Observers with a high fixed cost per event (index merges, cache
+     * invalidation, audit writes) should override it to do that work once per
+     * batch.
+     * </p>
+     * <p>
+     * <strong>Failure Handling:</strong> An exception thrown from this method
+     * marks the whole batch as failed; implementations that can isolate a
+     * failing event should handle it themselves and continue.
+     * </p>
+     * @param events The events to process, never null and not modified by the
+     *               caller while this method runs
+     */
+    default void onEventsBatch(List<ContentEvent> events) {
+        for (ContentEvent event : events) {
+            dispatch(this, event);
+        }
+    }
+
+    /**
+     * Routes a single event to the matching per-event callback of an
+     * observer: status and metadata changes, like any other event type
+     * without its own callback, go to {@link #onContentUpdated(ContentEvent)}.
+     *
+     * @param observer The observer to notify
+     * @param event    The event to deliver
+     */
+    static void dispatch(ContentObserver observer, ContentEvent event) {
+        switch (event.getEventType()) {
+            case CREATED:
+                observer.onContentCreated(event);
+                break;
+            case PUBLISHED:
+                observer.onContentPublished(event);
+                break;
+            case DELETED:
+                observer.onContentDeleted(event);
+                break;
+            default:
+                observer.onContentUpdated(event);
+                break;
+        }
+    }
+
+    /**
+     * Makes the effects of the events delivered so far durable.
+     * <p>
+     * When {@code EventProcessingService} journals events, it calls this
+     * method before advancing the observer's committed journal offset, so
+     * after a restart the observer receives again exactly the events whose
+     * effects this method has not persisted. Observers that keep no state
+     * across restarts need not override the default, which does nothing.
+     * </p>
+     *
+     * @throws IOException if the state cannot be persisted; the journal
+     *                     offset then stays where it was
+     */
+    default void checkpoint() throws IOException {
+        // Nothing to persist by default
+    }
 }
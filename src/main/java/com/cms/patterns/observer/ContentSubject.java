@@ -1,12 +1,14 @@
 package com.cms.patterns.observer;
 
 import com.cms.util.CMSLogger;
-import com.cms.concurrent.ThreadPoolManager;
 import com.cms.concurrent.EventProcessingService;
+import com.cms.concurrent.ExecutorRegistry;
+import com.cms.concurrent.ThreadPoolManager;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
@@ -31,8 +33,7 @@ import java.util.stream.Collectors;
  * notification.
  * Provides thread-safe observer management with priority-based notification
  * ordering,
- * asynchronous processing, and integration with Producer-Consumer event
- * processing.
+ * and asynchronous processing.
  * </p>
  *
  * <p>
@@ -40,8 +41,23 @@ import java.util.stream.Collectors;
  * implementation,
  * demonstrating advanced concurrent programming concepts, Collections Framework
  * usage,
- * multithreading integration with ThreadPoolManager and EventProcessingService,
- * and integration with existing logging and exception shielding patterns.
+ * multithreading integration with ThreadPoolManager, and integration with
+ * existing logging and exception shielding patterns.
+ * </p>
+ *
+ * <p>
+ * <strong>Dispatch:</strong> Each event is delivered exactly once to each
+ * interested observer. Registration changes publish a new immutable
+ * {@link DispatchTable} (copy-on-write), which memoizes the priority-ordered
+ * observers for every content class it has seen, so notifying neither sorts
+ * nor filters the registry.
+ * </p>
+ *
+ * <p>
+ * <strong>Event Processing:</strong> When an {@link EventProcessingService}
+ * is attached with {@link #setEventProcessingService(EventProcessingService)},
+ * events are published into it with a priority derived from their type and
+ * the service delivers them through the observers' mailboxes instead.
  * </p>
  *
  * <p>
@@ -77,15 +93,35 @@ public class ContentSubject {
 
     // Multithreading integration
     private final ThreadPoolManager threadPoolManager;
-    private final EventProcessingService eventProcessingService;
 
     // Thread-safe observer storage with priority ordering
     private final Map<ContentObserver, ObserverMetadata> observers;
     private final ReadWriteLock observerLock;
 
-    // Asynchronous notification infrastructure
-    private final ExecutorService notificationExecutor;
-    private final CompletionService<NotificationResult> completionService;
+    /** Current dispatch snapshot, replaced on every registration change */
+    private volatile DispatchTable dispatchTable = DispatchTable.EMPTY;
+
+    /** Optional event pipeline; when set it replaces direct delivery */
+    private volatile EventProcessingService eventProcessingService;
+
+    /** Observer callback for each event type; unmapped types are rejected */
+    private static final Map<ContentEvent.EventType, BiConsumer<ContentObserver, ContentEvent>> ROUTES;
+
+    static {
+        Map<ContentEvent.EventType, BiConsumer<ContentObserver, ContentEvent>> routes = new EnumMap<>(
+                ContentEvent.EventType.class);
+        routes.put(ContentEvent.EventType.CREATED, ContentObserver::onContentCreated);
+        routes.put(ContentEvent.EventType.UPDATED, ContentObserver::onContentUpdated);
+        routes.put(ContentEvent.EventType.STATUS_CHANGED, ContentObserver::onContentUpdated);
+        routes.put(ContentEvent.EventType.METADATA_UPDATED, ContentObserver::onContentUpdated);
+        routes.put(ContentEvent.EventType.PUBLISHED, ContentObserver::onContentPublished);
+        routes.put(ContentEvent.EventType.DELETED, ContentObserver::onContentDeleted);
+        ROUTES = Collections.unmodifiableMap(routes);
+    }
+
+    // Asynchronous notification infrastructure: this subject's share of the
+    // registry's notification pool, owned by the registry
+    private final Executor notificationExecutor;
 
     // Performance and monitoring
     private final AtomicLong eventCounter;
@@ -142,6 +178,54 @@ public class ContentSubject {
         }
     }
 
+    /**
+     * An observer together with its registration data, resolved once per
+     * registration change instead of once per notification.
+     */
+    private static final class Registration {
+        final ContentObserver observer;
+        final ObserverMetadata metadata;
+        final ObserverStats stats;
+
+        Registration(ContentObserver observer, ObserverMetadata metadata, ObserverStats stats) {
+            this.observer = observer;
+            this.metadata = metadata;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the registered observers in priority order.
+     *
+     * <p>
+     * Which observers receive an event depends only on the content class, as
+     * the event type just selects the callback, so the table memoizes one
+     * filtered array per content class on first use. A registration change
+     * replaces the whole table, dropping every memoized entry at once.
+     * </p>
+     */
+    private static final class DispatchTable {
+        static final DispatchTable EMPTY = new DispatchTable(new Registration[0]);
+
+        private final Registration[] registrations;
+        private final Map<Class<?>, Registration[]> byContentType = new ConcurrentHashMap<>();
+
+        DispatchTable(Registration[] registrations) {
+            this.registrations = registrations;
+        }
+
+        Registration[] forContentType(Class<?> contentType) {
+            Registration[] cached = byContentType.get(contentType);
+            if (cached == null) {
+                cached = Arrays.stream(registrations)
+                        .filter(registration -> registration.observer.shouldObserve(contentType))
+                        .toArray(Registration[]::new);
+                byContentType.putIfAbsent(contentType, cached);
+            }
+            return cached;
+        }
+    }
+
     /**
      * Result of an observer notification.
      */
@@ -184,6 +268,26 @@ public class ContentSubject {
      */
     public ContentSubject(int maxNotificationThreads, long notificationTimeoutMs,
             boolean enableAsyncNotification) {
+        this(maxNotificationThreads, notificationTimeoutMs, enableAsyncNotification,
+                ExecutorRegistry.getInstance());
+    }
+
+    /**
+     * Constructs a ContentSubject whose asynchronous notifications run on the
+     * {@link ExecutorRegistry#NOTIFICATIONS} pool of the given registry, with
+     * at most {@code maxNotificationThreads} of them at once.
+     *
+     * @param maxNotificationThreads  Maximum concurrent async notifications
+     * @param notificationTimeoutMs   Timeout for observer notifications in
+     *                                milliseconds
+     * @param enableAsyncNotification Whether to use asynchronous notifications
+     * @param executorRegistry        Registry providing the notification pool
+     */
+    public ContentSubject(int maxNotificationThreads, long notificationTimeoutMs,
+            boolean enableAsyncNotification, ExecutorRegistry executorRegistry) {
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
         this.maxNotificationThreads = maxNotificationThreads;
         this.notificationTimeoutMs = notificationTimeoutMs;
         this.enableAsyncNotification = enableAsyncNotification;
@@ -193,8 +297,6 @@ public class ContentSubject {
 
         // Initialize multithreading components
         this.threadPoolManager = ThreadPoolManager.getInstance();
-        this.eventProcessingService = new EventProcessingService(
-                Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
 
         // Initialize thread-safe observer storage
         this.observers = new ConcurrentHashMap<>();
@@ -202,17 +304,10 @@ public class ContentSubject {
 
         // Initialize asynchronous notification infrastructure
         if (enableAsyncNotification) {
-            this.notificationExecutor = Executors.newFixedThreadPool(
-                    maxNotificationThreads,
-                    r -> {
-                        Thread t = new Thread(r, "ContentSubject-Notification-" + System.nanoTime());
-                        t.setDaemon(true);
-                        return t;
-                    });
-            this.completionService = new ExecutorCompletionService<>(notificationExecutor);
+            this.notificationExecutor = executorRegistry.limitedExecutor(ExecutorRegistry.NOTIFICATIONS,
+                    maxNotificationThreads);
         } else {
             this.notificationExecutor = null;
-            this.completionService = null;
         }
 
         // Initialize monitoring
@@ -264,6 +359,11 @@ public class ContentSubject {
             ObserverMetadata metadata = new ObserverMetadata(observer);
             observers.put(observer, metadata);
             observerStats.put(observer, new ObserverStats());
+            rebuildDispatchTable();
+            EventProcessingService service = eventProcessingService;
+            if (service != null) {
+                service.registerObserver(observer);
+            }
 
             logger.logSystemEvent("Observer registered",
                     "1.0",
@@ -306,6 +406,11 @@ public class ContentSubject {
             ObserverStats stats = observerStats.remove(observer);
 
             if (removed != null) {
+                rebuildDispatchTable();
+                EventProcessingService service = eventProcessingService;
+                if (service != null) {
+                    service.unregisterObserver(observer);
+                }
                 logger.logSystemEvent("Observer unregistered",
                         "1.0",
                         "observer=" + observer.getObserverName() +
@@ -321,21 +426,13 @@ public class ContentSubject {
     }
 
     /**
-     * Notifies all registered observers about a content event using multithreading.
-     *
-     * <p>
-     * <strong>Multithreading Integration:</strong> Events are produced to
-     * EventProcessingService
-     * with priority-based routing for high-performance Producer-Consumer pattern
-     * implementation.
-     * Leverages BlockingQueue-based event distribution and multiple consumer
-     * threads.
-     * </p>
+     * Notifies all registered observers about a content event.
      *
      * <p>
      * Observers are notified in priority order (lower numbers first) and only
-     * observers interested in the content type are notified. Notifications can
-     * be synchronous or asynchronous depending on configuration.
+     * observers interested in the content type are notified. Each observer
+     * receives the event exactly once, either on the calling thread or on the
+     * notification thread pool depending on configuration.
      * </p>
      *
      * <p>
@@ -345,8 +442,15 @@ public class ContentSubject {
      * </p>
      *
      * <p>
-     * <strong>Performance:</strong> Uses content type filtering and priority
-     * ordering to optimize notification performance for large observer lists.
+     * <strong>Performance:</strong> The interested observers come from the
+     * current {@link DispatchTable}, so the registry is neither locked, filtered
+     * nor sorted per event.
+     * </p>
+     *
+     * <p>
+     * <strong>Event Processing:</strong> With an attached
+     * {@link EventProcessingService} the event is only published into the
+     * service, which delivers it to each observer exactly once.
      * </p>
      *
      * @param event The content event to notify observers about, must not be null
@@ -361,43 +465,65 @@ public class ContentSubject {
         eventCounter.incrementAndGet();
         eventTypeCounters.get(event.getEventType().name()).incrementAndGet();
 
-        // Get interested observers (filtered and sorted by priority)
-        List<ContentObserver> interestedObservers = getInterestedObservers(event);
+        EventProcessingService service = eventProcessingService;
+        if (service != null) {
+            service.produceEvent(event, determineEventPriority(event));
+            return;
+        }
+
+        Registration[] interested = dispatchTable.forContentType(event.getContent().getClass());
 
-        if (interestedObservers.isEmpty()) {
+        if (interested.length == 0) {
             logContentActivity("No observers interested in event",
                     "eventType=" + event.getEventType() +
                             ", contentType=" + event.getContent().getClass().getSimpleName());
             return;
         }
 
-        logContentActivity("Producing event for async processing",
-                "eventId=" + event.getEventId() +
-                        ", eventType=" + event.getEventType() +
-                        ", observerCount=" + interestedObservers.size());
-
-        // Register observers with event processing service if not already registered
-        for (ContentObserver observer : interestedObservers) {
-            eventProcessingService.registerObserver(observer);
-        }
-
-        // Determine event priority based on event type and content
-        EventProcessingService.EventPriority priority = determineEventPriority(event);
-
-        // Produce event to processing service for async handling
-        eventProcessingService.produceEvent(event, priority);
-
-        // Also handle with legacy notification for compatibility
+        BiConsumer<ContentObserver, ContentEvent> route = ROUTES.get(event.getEventType());
         if (enableAsyncNotification) {
-            notifyObserversAsync(event, interestedObservers);
+            notifyObserversAsync(event, route, interested);
         } else {
-            notifyObserversSync(event, interestedObservers);
+            notifyObserversSync(event, route, interested);
         }
     }
 
     /**
-     * Determines the processing priority for an event based on its type and
-     * content.
+     * Attaches the event processing pipeline that notifications are published
+     * into, or detaches it when {@code service} is null.
+     *
+     * <p>
+     * The registered observers move from the previous service to the new one.
+     * The caller owns the service and must start it before events arrive; the
+     * service drops events produced while it is not running.
+     * </p>
+     *
+     * @param service The service to publish events into, or null for direct
+     *                delivery
+     */
+    public void setEventProcessingService(EventProcessingService service) {
+        observerLock.writeLock().lock();
+        try {
+            EventProcessingService previous = eventProcessingService;
+            if (previous == service) {
+                return;
+            }
+            for (ContentObserver observer : observers.keySet()) {
+                if (previous != null) {
+                    previous.unregisterObserver(observer);
+                }
+                if (service != null) {
+                    service.registerObserver(observer);
+                }
+            }
+            eventProcessingService = service;
+        } finally {
+            observerLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Determines the processing priority for an event based on its type.
      *
      * @param event The content event to analyze
      * @return The appropriate processing priority
@@ -418,53 +544,52 @@ public class ContentSubject {
     }
 
     /**
-     * Gets observers interested in the given event, filtered by content type and
-     * sorted by priority.
+     * Publishes a new dispatch table reflecting the current registrations.
+     * Called with the observer write lock held.
      */
-    private List<ContentObserver> getInterestedObservers(ContentEvent event) {
-        Class<?> contentType = event.getContent().getClass();
-
-        observerLock.readLock().lock();
-        try {
-            return observers.entrySet().stream()
-                    .filter(entry -> entry.getValue().isActive)
-                    .filter(entry -> entry.getKey().shouldObserve(contentType))
-                    .sorted(Map.Entry.comparingByValue((m1, m2) -> Integer.compare(m1.priority, m2.priority)))
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-
-        } finally {
-            observerLock.readLock().unlock();
-        }
+    private void rebuildDispatchTable() {
+        dispatchTable = new DispatchTable(observers.values().stream()
+                .sorted(Comparator.comparingInt(metadata -> metadata.priority))
+                .map(metadata -> new Registration(metadata.observer, metadata, observerStats.get(metadata.observer)))
+                .toArray(Registration[]::new));
     }
 
     /**
      * Notifies observers synchronously in the current thread.
      */
-    private void notifyObserversSync(ContentEvent event, List<ContentObserver> observers) {
-        for (ContentObserver observer : observers) {
-            NotificationResult result = notifyObserver(observer, event);
-            processNotificationResult(result);
+    private void notifyObserversSync(ContentEvent event, BiConsumer<ContentObserver, ContentEvent> route,
+            Registration[] registrations) {
+        for (Registration registration : registrations) {
+            if (registration.metadata.isActive) {
+                processNotificationResult(registration, notifyObserver(registration, route, event));
+            }
         }
     }
 
     /**
      * Notifies observers asynchronously using the thread pool.
      */
-    private void notifyObserversAsync(ContentEvent event, List<ContentObserver> observers) {
-        List<Future<NotificationResult>> futures = new ArrayList<>();
+    private void notifyObserversAsync(ContentEvent event, BiConsumer<ContentObserver, ContentEvent> route,
+            Registration[] registrations) {
+        List<Registration> submitted = new ArrayList<>(registrations.length);
+        List<Future<NotificationResult>> futures = new ArrayList<>(registrations.length);
+
+        // Blocking observers run on virtual threads when ThreadPoolManager is in VIRTUAL I/O mode
+        Executor executor = threadPoolManager.getIOExecutor(notificationExecutor);
 
         // Submit all notifications
-        for (ContentObserver observer : observers) {
-            Future<NotificationResult> future = completionService.submit(() -> notifyObserver(observer, event));
-            futures.add(future);
+        for (Registration registration : registrations) {
+            if (registration.metadata.isActive) {
+                submitted.add(registration);
+                futures.add(CompletableFuture.supplyAsync(() -> notifyObserver(registration, route, event), executor));
+            }
         }
 
-        // Collect results with timeout
+        // Collect this event's results with timeout
         for (int i = 0; i < futures.size(); i++) {
             try {
-                NotificationResult result = completionService.take().get(notificationTimeoutMs, TimeUnit.MILLISECONDS);
-                processNotificationResult(result);
+                NotificationResult result = futures.get(i).get(notificationTimeoutMs, TimeUnit.MILLISECONDS);
+                processNotificationResult(submitted.get(i), result);
             } catch (TimeoutException e) {
                 logger.logError(e, "ContentSubject", "system", "Observer notification timeout");
             } catch (Exception e) {
@@ -476,42 +601,26 @@ public class ContentSubject {
     /**
      * Notifies a single observer and returns the result.
      */
-    private NotificationResult notifyObserver(ContentObserver observer, ContentEvent event) {
+    private NotificationResult notifyObserver(Registration registration,
+            BiConsumer<ContentObserver, ContentEvent> route, ContentEvent event) {
+        ContentObserver observer = registration.observer;
         long startTime = System.currentTimeMillis();
         boolean success = true;
         Throwable error = null;
 
         try {
-            // Route to appropriate notification method based on event type
-            switch (event.getEventType()) {
-                case CREATED:
-                    observer.onContentCreated(event);
-                    break;
-                case UPDATED:
-                case STATUS_CHANGED:
-                case METADATA_UPDATED:
-                    observer.onContentUpdated(event);
-                    break;
-                case PUBLISHED:
-                    observer.onContentPublished(event);
-                    break;
-                case DELETED:
-                    observer.onContentDeleted(event);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown event type: " + event.getEventType());
+            if (route == null) {
+                throw new IllegalArgumentException("Unknown event type: " + event.getEventType());
             }
+            route.accept(observer, event);
 
         } catch (Exception e) {
             success = false;
             error = e;
 
             // Update failure count for circuit breaker logic
-            ObserverMetadata metadata = observers.get(observer);
-            if (metadata != null) {
-                metadata.failureCount++;
-                metadata.lastFailureTime = System.currentTimeMillis();
-            }
+            registration.metadata.failureCount++;
+            registration.metadata.lastFailureTime = System.currentTimeMillis();
 
             logger.logError(e, "ContentSubject", "system",
                     "Observer notification failed: observer=" + observer.getObserverName() +
@@ -525,11 +634,8 @@ public class ContentSubject {
     /**
      * Processes notification results for statistics and monitoring.
      */
-    private void processNotificationResult(NotificationResult result) {
-        ObserverStats stats = observerStats.get(result.observer);
-        if (stats != null) {
-            stats.recordNotification(result.processingTimeMs, result.success);
-        }
+    private void processNotificationResult(Registration registration, NotificationResult result) {
+        registration.stats.recordNotification(result.processingTimeMs, result.success);
 
         if (result.success) {
             logContentActivity("Observer notification completed",
@@ -647,28 +753,21 @@ public class ContentSubject {
      *
      * <p>
      * This method should be called when the ContentSubject is no longer needed
-     * to ensure proper cleanup of thread pools and other resources.
+     * to release its observers. The notification pool is shared and owned by
+     * the {@link ExecutorRegistry}, so it keeps running.
      * </p>
      */
     public void shutdown() {
-        if (notificationExecutor != null && !notificationExecutor.isShutdown()) {
-            logger.logSystemEvent("Shutting down ContentSubject notification executor", "1.0", "");
-
-            notificationExecutor.shutdown();
-            try {
-                if (!notificationExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    notificationExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                notificationExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-
         observerLock.writeLock().lock();
         try {
+            EventProcessingService service = eventProcessingService;
+            if (service != null) {
+                observers.keySet().forEach(service::unregisterObserver);
+                eventProcessingService = null;
+            }
             observers.clear();
             observerStats.clear();
+            dispatchTable = DispatchTable.EMPTY;
         } finally {
             observerLock.writeLock().unlock();
         }
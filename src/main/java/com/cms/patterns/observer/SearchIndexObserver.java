@@ -1,8 +1,13 @@
 package com.cms.patterns.observer;
 
+import com.cms.concurrent.ExecutorRegistry;
 import com.cms.core.model.Content;
+import com.cms.core.search.InvertedIndex;
+import com.cms.core.search.SearchQuery;
 import com.cms.util.CMSLogger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -37,7 +42,7 @@ import java.util.stream.Collectors;
  * <p>
  * <strong>Search Features:</strong>
  * <ul>
- * <li>Full-text content indexing with relevance scoring</li>
+ * <li>Full-text content indexing with BM25 relevance scoring</li>
  * <li>Metadata and faceted search support</li>
  * <li>Real-time index updates with batch optimization</li>
  * <li>Content type-specific indexing strategies</li>
@@ -46,6 +51,42 @@ import java.util.stream.Collectors;
  * </ul>
  * </p>
  *
+ * <p>
+ * <strong>Full-Text Index:</strong> Indexed fields are analyzed once into an
+ * {@link InvertedIndex} of positional postings; searches accept the
+ * {@link SearchQuery} syntax of boolean operators, phrases and prefixes, rank
+ * matches by BM25 and never rescan stored text.
+ * </p>
+ *
+ * <p>
+ * <strong>Incremental Updates:</strong> Updates are driven by
+ * {@link ContentEvent#getChangedFields()}: only the changed indexed fields are
+ * analyzed and merged into the postings of the document, and facet entries
+ * move only for facet fields whose value changed since the document was
+ * indexed. A tag edit analyzes the tags alone instead of the whole body, and
+ * updates that change no indexed text, such as a new category, skip text
+ * analysis entirely.
+ * </p>
+ *
+ * <p>
+ * <strong>Segments:</strong> Each indexing batch is flushed into a new
+ * immutable segment of the {@link InvertedIndex}, and segments are merged in
+ * the background on the {@link ExecutorRegistry#SEARCH_MERGE} pool. Searches
+ * read a point-in-time list of segments without locking, so indexing and
+ * merging never block queries; the search and facet maps are concurrent maps
+ * read without locks as well.
+ * </p>
+ *
+ * <p>
+ * <strong>Persistence:</strong> Constructed with an index directory, the
+ * observer commits its segments to disk at every {@link #checkpoint()} along
+ * with the last indexed event, storing each document's search entry and
+ * facet values with its postings. On startup the committed segments are
+ * memory-mapped and the search and facet indexes rebuilt from them; replayed
+ * events up to the checkpoint whose content is already indexed in the same
+ * or a newer version are skipped, so only newer events are analyzed.
+ * </p>
+ *
  * @see ContentObserver For the observer interface
  * @see ContentEvent For event data structure
  * @since 1.0
@@ -53,11 +94,21 @@ import java.util.stream.Collectors;
  */
 public class SearchIndexObserver implements ContentObserver {
 
+    private static final String STORED_TITLE = "title";
+    private static final String STORED_CONTENT_TYPE = "contentType";
+    private static final String STORED_LAST_MODIFIED = "lastModified";
+    private static final String STORED_BOOST = "boost";
+    private static final String STORED_FACET_PREFIX = "facet.";
+
+    /** Commit data keys of the last indexed event */
+    private static final String CHECKPOINT_NANOS = "lastEventNanos";
+    private static final String CHECKPOINT_EVENT_ID = "lastEventId";
+
     private final CMSLogger logger;
 
     // Search index data structures (Collections Framework)
     private final Map<String, SearchDocument> searchIndex; // Content ID -> Search Document
-    private final Map<String, Set<String>> invertedIndex; // Term -> Set of Content IDs
+    private final InvertedIndex invertedIndex; // Term -> positional postings
     private final Map<String, Map<String, Set<String>>> facetIndex; // Facet -> Value -> Content IDs
     private final Queue<IndexOperation> operationQueue; // Pending index operations
 
@@ -70,36 +121,78 @@ public class SearchIndexObserver implements ContentObserver {
     private final Map<ContentEvent.EventType, AtomicLong> operationStats;
     private final Map<String, AtomicLong> contentTypeStats;
 
-    // Performance optimization
+    // Performance optimization; the indexing pool is owned by the registry
     private final ExecutorService indexingExecutor;
     private final Set<String> pendingReindexing; // Content IDs pending reindex
     private final Map<String, Long> lastIndexTime; // Content ID -> last index timestamp
 
+    // Checkpoint of a persistent index: the newest event applied, and the one
+    // covered by the commit the index was reopened from
+    private final AtomicLong lastEventNanos = new AtomicLong();
+    private volatile String lastEventId;
+    private volatile long recoveredEventNanos;
+    private final AtomicLong replaySkipped = new AtomicLong();
+
     /**
      * Represents a document in the search index.
      */
     private static class SearchDocument {
         final String contentId;
         final String title;
-        final String content;
         final String contentType;
         final Map<String, Object> metadata;
-        final Set<String> keywords;
+        final Map<String, String> facetValues; // Facet field -> value indexed under
         final LocalDateTime indexedAt;
         final LocalDateTime lastModified;
         final double relevanceBoost;
 
-        SearchDocument(Content content, Set<String> keywords, double relevanceBoost) {
+        SearchDocument(Content content, Map<String, String> facetValues, double relevanceBoost) {
             this.contentId = content.getId();
             this.title = content.getTitle();
-            this.content = content.getBody();
             this.contentType = content.getClass().getSimpleName();
             this.metadata = new HashMap<>(content.getMetadata());
-            this.keywords = new HashSet<>(keywords);
+            this.facetValues = facetValues;
             this.indexedAt = LocalDateTime.now();
             this.lastModified = content.getModifiedDate();
             this.relevanceBoost = relevanceBoost;
         }
+
+        /** Restores a document from the values stored with its postings */
+        SearchDocument(String contentId, Map<String, String> stored) {
+            this.contentId = contentId;
+            this.title = stored.get(STORED_TITLE);
+            this.contentType = stored.get(STORED_CONTENT_TYPE);
+            this.metadata = Collections.emptyMap();
+            Map<String, String> facets = new HashMap<>();
+            for (Map.Entry<String, String> entry : stored.entrySet()) {
+                if (entry.getKey().startsWith(STORED_FACET_PREFIX)) {
+                    facets.put(entry.getKey().substring(STORED_FACET_PREFIX.length()), entry.getValue());
+                }
+            }
+            this.facetValues = facets;
+            this.indexedAt = LocalDateTime.now();
+            String modified = stored.get(STORED_LAST_MODIFIED);
+            this.lastModified = modified != null ? LocalDateTime.parse(modified) : null;
+            String boost = stored.get(STORED_BOOST);
+            this.relevanceBoost = boost != null ? Double.parseDouble(boost) : 1.0;
+        }
+
+        /** Values stored with the postings to restore this document on reopening */
+        Map<String, String> storedFields() {
+            Map<String, String> stored = new HashMap<>();
+            if (title != null) {
+                stored.put(STORED_TITLE, title);
+            }
+            stored.put(STORED_CONTENT_TYPE, contentType);
+            if (lastModified != null) {
+                stored.put(STORED_LAST_MODIFIED, lastModified.toString());
+            }
+            stored.put(STORED_BOOST, Double.toString(relevanceBoost));
+            for (Map.Entry<String, String> facet : facetValues.entrySet()) {
+                stored.put(STORED_FACET_PREFIX + facet.getKey(), facet.getValue());
+            }
+            return stored;
+        }
     }
 
     /**
@@ -109,17 +202,12 @@ public class SearchIndexObserver implements ContentObserver {
         final Set<String> indexedFields; // Fields to include in full-text search
         final Set<String> facetFields; // Fields to use for faceted search
         final Map<String, Double> fieldWeights; // Field -> weight for relevance
-        final boolean enableKeywordExtraction; // Whether to extract keywords automatically
-        final int maxKeywords; // Maximum keywords to extract
 
         IndexingStrategy(Set<String> indexedFields, Set<String> facetFields,
-                Map<String, Double> fieldWeights, boolean enableKeywordExtraction,
-                int maxKeywords) {
+                Map<String, Double> fieldWeights) {
             this.indexedFields = new HashSet<>(indexedFields);
             this.facetFields = new HashSet<>(facetFields);
             this.fieldWeights = new HashMap<>(fieldWeights);
-            this.enableKeywordExtraction = enableKeywordExtraction;
-            this.maxKeywords = maxKeywords;
         }
     }
 
@@ -165,11 +253,49 @@ public class SearchIndexObserver implements ContentObserver {
      * Constructs a SearchIndexObserver with default configuration.
      */
     public SearchIndexObserver() {
+        this(ExecutorRegistry.getInstance());
+    }
+
+    /**
+     * Constructs a SearchIndexObserver indexing in the background on the
+     * {@link ExecutorRegistry#SEARCH_INDEXING} pool of the given registry and
+     * merging index segments on its {@link ExecutorRegistry#SEARCH_MERGE}
+     * pool.
+     *
+     * @param executorRegistry Registry providing the indexing and merge pools
+     */
+    public SearchIndexObserver(ExecutorRegistry executorRegistry) {
+        this(executorRegistry, new InvertedIndex(requireRegistry(executorRegistry).executor(
+                ExecutorRegistry.SEARCH_MERGE)));
+    }
+
+    /**
+     * Constructs a SearchIndexObserver whose index persists in a directory.
+     *
+     * <p>
+     * The index segments committed there are memory-mapped and the search
+     * and facet indexes are rebuilt from the values stored with them, so
+     * search works immediately without re-analyzing any content. The index
+     * is committed at every {@link #checkpoint()}, which the event journal of
+     * {@code EventProcessingService} runs before advancing this observer's
+     * offset; the journal then replays only events after that checkpoint.
+     * </p>
+     *
+     * @param executorRegistry Registry providing the indexing and merge pools
+     * @param indexDirectory   Directory of the persistent index
+     * @throws IOException if the index cannot be opened
+     */
+    public SearchIndexObserver(ExecutorRegistry executorRegistry, Path indexDirectory) throws IOException {
+        this(executorRegistry, InvertedIndex.open(indexDirectory, requireRegistry(executorRegistry).executor(
+                ExecutorRegistry.SEARCH_MERGE)));
+    }
+
+    private SearchIndexObserver(ExecutorRegistry executorRegistry, InvertedIndex invertedIndex) {
         this.logger = CMSLogger.getInstance();
 
         // Initialize search data structures with concurrent collections
         this.searchIndex = new ConcurrentHashMap<>();
-        this.invertedIndex = new ConcurrentHashMap<>();
+        this.invertedIndex = invertedIndex;
         this.facetIndex = new ConcurrentHashMap<>();
         this.operationQueue = new PriorityBlockingQueue<>(1000,
                 Comparator.comparingInt((IndexOperation op) -> op.priority).reversed()
@@ -191,17 +317,41 @@ public class SearchIndexObserver implements ContentObserver {
         }
 
         // Initialize async processing
-        this.indexingExecutor = Executors.newFixedThreadPool(3, r -> {
-            Thread t = new Thread(r, "SearchIndex-" + System.nanoTime());
-            t.setDaemon(true);
-            return t;
-        });
+        this.indexingExecutor = executorRegistry.executor(ExecutorRegistry.SEARCH_INDEXING);
 
         // Set up default indexing strategies
         initializeIndexingStrategies();
 
+        if (invertedIndex.isPersistent()) {
+            restoreFromIndex();
+        }
+
         logger.logContentActivity("SearchIndexObserver initialized",
-                "strategies=" + indexingStrategies.size());
+                "strategies=" + indexingStrategies.size() + ", documents=" + searchIndex.size());
+    }
+
+    private static ExecutorRegistry requireRegistry(ExecutorRegistry executorRegistry) {
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
+        return executorRegistry;
+    }
+
+    /**
+     * Rebuilds the search and facet indexes from a reopened inverted index,
+     * and resumes from the checkpoint of its last commit.
+     */
+    private void restoreFromIndex() {
+        for (Map.Entry<String, Map<String, String>> entry : invertedIndex.storedFields().entrySet()) {
+            SearchDocument document = new SearchDocument(entry.getKey(), entry.getValue());
+            searchIndex.put(document.contentId, document);
+            updateFacetIndex(document.contentId, Collections.emptyMap(), document.facetValues);
+        }
+        Map<String, String> checkpoint = invertedIndex.getCommitData();
+        String nanos = checkpoint.get(CHECKPOINT_NANOS);
+        recoveredEventNanos = nanos != null ? Long.parseLong(nanos) : 0;
+        lastEventNanos.set(recoveredEventNanos);
+        lastEventId = checkpoint.get(CHECKPOINT_EVENT_ID);
     }
 
     /**
@@ -212,8 +362,7 @@ public class SearchIndexObserver implements ContentObserver {
         indexingStrategies.put(getContentClass("ArticleContent"), new IndexingStrategy(
                 Set.of("title", "body", "summary", "tags"),
                 Set.of("category", "author", "publishDate", "tags"),
-                Map.of("title", 2.0, "body", 1.0, "summary", 1.5, "tags", 1.8),
-                true, 50));
+                Map.of("title", 2.0, "body", 1.0, "summary", 1.5, "tags", 1.8)));
 
         contentWeights.put("ArticleContent", new ContentWeight(1.0, 1.2, 1.1, 1.0));
 
@@ -221,8 +370,7 @@ public class SearchIndexObserver implements ContentObserver {
         indexingStrategies.put(getContentClass("PageContent"), new IndexingStrategy(
                 Set.of("title", "body", "keywords"),
                 Set.of("template", "category", "lastModified"),
-                Map.of("title", 2.5, "body", 1.0, "keywords", 2.0),
-                true, 30));
+                Map.of("title", 2.5, "body", 1.0, "keywords", 2.0)));
 
         contentWeights.put("PageContent", new ContentWeight(1.2, 1.3, 1.05, 1.1));
 
@@ -230,8 +378,7 @@ public class SearchIndexObserver implements ContentObserver {
         indexingStrategies.put(getContentClass("ImageContent"), new IndexingStrategy(
                 Set.of("title", "description", "altText", "caption"),
                 Set.of("format", "resolution", "category", "photographer"),
-                Map.of("title", 2.0, "description", 1.5, "altText", 1.8, "caption", 1.3),
-                false, 20));
+                Map.of("title", 2.0, "description", 1.5, "altText", 1.8, "caption", 1.3)));
 
         contentWeights.put("ImageContent", new ContentWeight(0.8, 1.1, 1.02, 1.2));
 
@@ -239,8 +386,7 @@ public class SearchIndexObserver implements ContentObserver {
         indexingStrategies.put(getContentClass("VideoContent"), new IndexingStrategy(
                 Set.of("title", "description", "transcript", "tags"),
                 Set.of("duration", "resolution", "format", "category"),
-                Map.of("title", 2.2, "description", 1.4, "transcript", 1.6, "tags", 1.7),
-                true, 40));
+                Map.of("title", 2.2, "description", 1.4, "transcript", 1.6, "tags", 1.7)));
 
         contentWeights.put("VideoContent", new ContentWeight(0.9, 1.15, 1.08, 1.3));
 
@@ -263,6 +409,10 @@ public class SearchIndexObserver implements ContentObserver {
     @Override
     public void onContentCreated(ContentEvent event) {
         operationStats.get(ContentEvent.EventType.CREATED).incrementAndGet();
+        if (isAlreadyIndexed(event)) {
+            return;
+        }
+        recordEvent(event);
 
         logger.logContentActivity("Processing search index addition for new content",
                 "eventId=" + event.getEventId() +
@@ -293,6 +443,10 @@ public class SearchIndexObserver implements ContentObserver {
     @Override
     public void onContentUpdated(ContentEvent event) {
         operationStats.get(ContentEvent.EventType.UPDATED).incrementAndGet();
+        if (isAlreadyIndexed(event)) {
+            return;
+        }
+        recordEvent(event);
 
         logger.logContentActivity("Processing search index update for content changes",
                 "eventId=" + event.getEventId() +
@@ -305,9 +459,7 @@ public class SearchIndexObserver implements ContentObserver {
 
             // Determine if index update is necessary
             IndexingStrategy strategy = getIndexingStrategy(content);
-            boolean needsReindex = changedFields.stream()
-                    .anyMatch(field -> strategy.indexedFields.contains(field) ||
-                            strategy.facetFields.contains(field));
+            boolean needsReindex = affectsIndex(content, changedFields);
 
             if (needsReindex) {
                 // Priority based on field importance
@@ -341,6 +493,10 @@ public class SearchIndexObserver implements ContentObserver {
     @Override
     public void onContentPublished(ContentEvent event) {
         operationStats.get(ContentEvent.EventType.PUBLISHED).incrementAndGet();
+        if (isAlreadyIndexed(event)) {
+            return;
+        }
+        recordEvent(event);
 
         logger.logContentActivity("Processing search index update for content publication",
                 "eventId=" + event.getEventId() +
@@ -373,6 +529,10 @@ public class SearchIndexObserver implements ContentObserver {
     @Override
     public void onContentDeleted(ContentEvent event) {
         operationStats.get(ContentEvent.EventType.DELETED).incrementAndGet();
+        if (isAlreadyIndexed(event)) {
+            return;
+        }
+        recordEvent(event);
 
         logger.logContentActivity("Processing search index removal for content deletion",
                 "eventId=" + event.getEventId() +
@@ -418,6 +578,165 @@ public class SearchIndexObserver implements ContentObserver {
         }
     }
 
+    /**
+     * Applies a batch of events to the index with one inverted-index merge.
+     *
+     * <p>
+     * The batch is first reduced to one operation per content ID: a permanent
+     * deletion removes the document, anything else indexes the newest content
+     * state, with the publication boost if any event in the batch published
+     * it. Updates that touch no indexed or facet field are skipped as in
+     * {@link #onContentUpdated(ContentEvent)}. Content that was only updated
+     * in the batch is reindexed field by field over the union of its changed
+     * fields. All affected documents are then analyzed outside the index lock
+     * and applied to the inverted index under a single acquisition of its
+     * write lock, instead of once per document and event. Batched operations
+     * are applied directly rather than queued.
+     * </p>
+     *
+     * @param events The events of the batch, in arrival order
+     */
+    @Override
+    public void onEventsBatch(List<ContentEvent> events) {
+        long startTime = System.currentTimeMillis();
+
+        // Reduce to the last relevant event per content, in order of that event
+        Map<String, ContentEvent> finalEvents = new LinkedHashMap<>();
+        Set<String> publishedInBatch = new HashSet<>();
+        Map<String, Set<String>> changedInBatch = new HashMap<>();
+        Set<String> fullyIndexed = new HashSet<>();
+        for (ContentEvent event : events) {
+            ContentEvent.EventType type = event.getEventType();
+            operationStats.get(type == ContentEvent.EventType.CREATED || type == ContentEvent.EventType.PUBLISHED
+                    || type == ContentEvent.EventType.DELETED ? type : ContentEvent.EventType.UPDATED)
+                    .incrementAndGet();
+
+            Content content = event.getContent();
+            if (content == null || content.getId() == null || isAlreadyIndexed(event)) {
+                continue;
+            }
+            recordEvent(event);
+            if (type == ContentEvent.EventType.PUBLISHED) {
+                publishedInBatch.add(content.getId());
+            }
+            if (type != ContentEvent.EventType.CREATED && type != ContentEvent.EventType.PUBLISHED
+                    && type != ContentEvent.EventType.DELETED && !affectsIndex(content, event.getChangedFields())) {
+                continue;
+            }
+            if (type == ContentEvent.EventType.CREATED || type == ContentEvent.EventType.PUBLISHED
+                    || type == ContentEvent.EventType.DELETED) {
+                fullyIndexed.add(content.getId());
+            } else {
+                changedInBatch.computeIfAbsent(content.getId(), k -> new HashSet<>())
+                        .addAll(event.getChangedFields());
+            }
+            finalEvents.remove(content.getId());
+            finalEvents.put(content.getId(), event);
+        }
+
+        // Analyze documents, then merge them into the inverted index at once
+        List<String> removals = new ArrayList<>();
+        List<InvertedIndex.AnalyzedDocument> additions = new ArrayList<>();
+        for (ContentEvent event : finalEvents.values()) {
+            Content content = event.getContent();
+            String contentId = content.getId();
+            try {
+                SearchDocument oldDocument = searchIndex.get(contentId);
+
+                if (event.getEventType() == ContentEvent.EventType.DELETED && !event.isTemporaryDeletion()) {
+                    if (oldDocument != null) {
+                        searchIndex.remove(contentId);
+                        removals.add(contentId);
+                        updateFacetIndex(contentId, oldDocument.facetValues, Collections.emptyMap());
+                    }
+                    pendingReindexing.remove(contentId);
+                    lastIndexTime.remove(contentId);
+                    continue;
+                }
+
+                Map<String, Object> context = new HashMap<>();
+                context.put("reason", "event_batch");
+                if (publishedInBatch.contains(contentId)) {
+                    context.put("published", true);
+                }
+                double relevanceBoost = calculateRelevanceBoost(content, context);
+                SearchDocument document = new SearchDocument(content, facetValues(content), relevanceBoost);
+                boolean fieldUpdate = oldDocument != null && !fullyIndexed.contains(contentId);
+                additions.add(fieldUpdate
+                        ? analyzeChangedFields(content, changedInBatch.get(contentId), document)
+                        : analyzeContent(content, document));
+                searchIndex.put(contentId, document);
+                updateFacetIndex(contentId, oldDocument != null ? oldDocument.facetValues : Collections.emptyMap(),
+                        document.facetValues);
+
+                documentsIndexed.incrementAndGet();
+                contentTypeStats.computeIfAbsent(content.getClass().getSimpleName(), k -> new AtomicLong(0))
+                        .incrementAndGet();
+                lastIndexTime.put(contentId, System.currentTimeMillis());
+                pendingReindexing.remove(contentId);
+
+            } catch (Exception e) {
+                logger.logError(e, "Failed to index content in batch: " + content.getTitle(), null,
+                        "search_indexing");
+            }
+        }
+
+        // Field updates of documents dropped from the inverted index meanwhile
+        for (String contentId : invertedIndex.apply(removals, additions)) {
+            SearchDocument document = searchIndex.get(contentId);
+            if (document != null) {
+                invertedIndex.index(analyzeContent(finalEvents.get(contentId).getContent(), document));
+            }
+        }
+
+        logger.logContentActivity("Search index batch merged",
+                "events=" + events.size() +
+                        ", documents=" + finalEvents.size() +
+                        ", indexed=" + additions.size() +
+                        ", removed=" + removals.size() +
+                        ", processingTime=" + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Returns whether a replayed event is already reflected in the reopened
+     * index: it is not newer than the checkpoint the index was reopened from,
+     * and the indexed version of its content is at least as recent as the
+     * event's, or the content is gone for a permanent deletion.
+     */
+    private boolean isAlreadyIndexed(ContentEvent event) {
+        Content content = event.getContent();
+        if (event.getTimestampNanos() > recoveredEventNanos || content == null || content.getId() == null) {
+            return false;
+        }
+        SearchDocument document = searchIndex.get(content.getId());
+        boolean indexed;
+        if (event.getEventType() == ContentEvent.EventType.DELETED && !event.isTemporaryDeletion()) {
+            indexed = document == null;
+        } else {
+            indexed = document != null && document.lastModified != null && content.getModifiedDate() != null
+                    && !content.getModifiedDate().isAfter(document.lastModified);
+        }
+        if (indexed) {
+            replaySkipped.incrementAndGet();
+        }
+        return indexed;
+    }
+
+    /** Advances the checkpoint to an applied event */
+    private void recordEvent(ContentEvent event) {
+        long nanos = event.getTimestampNanos();
+        if (lastEventNanos.accumulateAndGet(nanos, Math::max) == nanos) {
+            lastEventId = event.getEventId();
+        }
+    }
+
+    private boolean affectsIndex(Content content, Set<String> changedFields) {
+        IndexingStrategy strategy = getIndexingStrategy(content);
+        return changedFields.stream()
+                .anyMatch(field -> strategy.indexedFields.contains(field) ||
+                        strategy.facetFields.contains(field));
+    }
+
     // Index processing methods
 
     private void processIndexOperation(IndexOperation operation) {
@@ -456,36 +775,51 @@ public class SearchIndexObserver implements ContentObserver {
     }
 
     private void addToIndex(Content content, Map<String, Object> context) {
-        // Extract search keywords and create document
-        Set<String> keywords = extractKeywords(content);
+        // Analyze indexed fields and create document
         double relevanceBoost = calculateRelevanceBoost(content, context);
-
-        SearchDocument document = new SearchDocument(content, keywords, relevanceBoost);
+        SearchDocument document = new SearchDocument(content, facetValues(content), relevanceBoost);
+        InvertedIndex.AnalyzedDocument analyzed = analyzeContent(content, document);
 
         // Add to main index
-        searchIndex.put(content.getId(), document);
+        SearchDocument oldDocument = searchIndex.put(content.getId(), document);
 
-        // Update inverted index
-        updateInvertedIndex(content.getId(), keywords, true);
+        // Update inverted index, replacing any earlier postings of the document
+        invertedIndex.index(analyzed);
 
         // Update facet indices
-        updateFacetIndex(content, true);
+        updateFacetIndex(content.getId(), oldDocument != null ? oldDocument.facetValues : Collections.emptyMap(),
+                document.facetValues);
 
         logger.logContentActivity("Content added to search index",
                 "content=" + content.getTitle() +
-                        ", keywords=" + keywords.size() +
+                        ", keywords=" + analyzed.terms().size() +
                         ", boost=" + relevanceBoost);
     }
 
+    @SuppressWarnings("unchecked")
     private void updateIndex(Content content, Map<String, Object> context) {
-        // Remove old index entries
+        Object changedFields = context.get("changedFields");
         SearchDocument oldDocument = searchIndex.get(content.getId());
-        if (oldDocument != null) {
-            updateInvertedIndex(content.getId(), oldDocument.keywords, false);
-            updateFacetIndex(content, false); // Remove old facet data
+
+        if (oldDocument != null && changedFields instanceof Collection) {
+            // Reindex only the changed fields of the indexed document
+            double relevanceBoost = calculateRelevanceBoost(content, context);
+            SearchDocument document = new SearchDocument(content, facetValues(content), relevanceBoost);
+            InvertedIndex.AnalyzedDocument changes = analyzeChangedFields(content,
+                    (Collection<String>) changedFields, document);
+            if (invertedIndex.update(changes)) {
+                searchIndex.put(content.getId(), document);
+                updateFacetIndex(content.getId(), oldDocument.facetValues, document.facetValues);
+
+                logger.logContentActivity("Content fields updated in search index",
+                        "content=" + content.getTitle() +
+                                ", analyzedFields=" + changes.terms().size() + " terms" +
+                                ", changedFields=" + changedFields);
+                return;
+            }
         }
 
-        // Add updated content
+        // Not indexed yet, or no changed fields known: index the whole content
         addToIndex(content, context);
 
         logger.logContentActivity("Content updated in search index",
@@ -497,10 +831,10 @@ public class SearchIndexObserver implements ContentObserver {
 
         if (document != null) {
             // Remove from inverted index
-            updateInvertedIndex(content.getId(), document.keywords, false);
+            invertedIndex.remove(content.getId());
 
             // Remove from facet indices
-            updateFacetIndex(content, false);
+            updateFacetIndex(document.contentId, document.facetValues, Collections.emptyMap());
 
             logger.logContentActivity("Content removed from search index",
                     "content=" + content.getTitle() +
@@ -511,40 +845,44 @@ public class SearchIndexObserver implements ContentObserver {
     private void reindexContent(Content content, Map<String, Object> context) {
         logger.logContentActivity("Reindexing content", "content=" + content.getTitle());
 
-        // Full reindex - remove and add back
-        removeFromIndex(content, context);
+        // Full reindex; the inverted index swaps the postings in one step, so
+        // the content stays searchable throughout
         addToIndex(content, context);
 
         pendingReindexing.remove(content.getId());
     }
 
-    private Set<String> extractKeywords(Content content) {
+    /**
+     * Analyzes the indexed fields of the content's strategy into positional
+     * postings, weighted per field, storing the document's search entry with
+     * them.
+     */
+    private InvertedIndex.AnalyzedDocument analyzeContent(Content content, SearchDocument document) {
         IndexingStrategy strategy = getIndexingStrategy(content);
-        Set<String> keywords = new HashSet<>();
-
-        // Extract from indexed fields
+        Map<String, String> fieldTexts = new LinkedHashMap<>();
         for (String field : strategy.indexedFields) {
-            String fieldValue = getFieldValue(content, field);
-            if (fieldValue != null && !fieldValue.trim().isEmpty()) {
-                keywords.addAll(tokenize(fieldValue));
-            }
+            fieldTexts.put(field, getFieldValue(content, field));
         }
+        return invertedIndex.analyze(content.getId(), fieldTexts, strategy.fieldWeights, document.relevanceBoost)
+                .withStoredFields(document.storedFields());
+    }
 
-        // Keyword extraction if enabled
-        if (strategy.enableKeywordExtraction) {
-            Set<String> extractedKeywords = performKeywordExtraction(content);
-            keywords.addAll(extractedKeywords.stream()
-                    .limit(strategy.maxKeywords)
-                    .collect(Collectors.toSet()));
+    /**
+     * Analyzes only the changed fields that the content's strategy indexes,
+     * for merging into the indexed document. Without such fields nothing is
+     * analyzed and the merge only updates the relevance boost.
+     */
+    private InvertedIndex.AnalyzedDocument analyzeChangedFields(Content content, Collection<String> changedFields,
+            SearchDocument document) {
+        IndexingStrategy strategy = getIndexingStrategy(content);
+        Map<String, String> fieldTexts = new LinkedHashMap<>();
+        for (String field : changedFields) {
+            if (strategy.indexedFields.contains(field)) {
+                fieldTexts.put(field, getFieldValue(content, field));
+            }
         }
-
-        // Clean and filter keywords
-        return keywords.stream()
-                .map(String::toLowerCase)
-                .map(String::trim)
-                .filter(keyword -> keyword.length() > 2)
-                .filter(this::isValidKeyword)
-                .collect(Collectors.toSet());
+        return invertedIndex.analyzeFields(content.getId(), fieldTexts, strategy.fieldWeights,
+                document.relevanceBoost).withStoredFields(document.storedFields());
     }
 
     private String getFieldValue(Content content, String field) {
@@ -567,48 +905,6 @@ public class SearchIndexObserver implements ContentObserver {
         }
     }
 
-    private Set<String> tokenize(String text) {
-        if (text == null)
-            return Collections.emptySet();
-
-        return Arrays.stream(text.split("\\W+"))
-                .filter(token -> token.length() > 2)
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
-    }
-
-    private Set<String> performKeywordExtraction(Content content) {
-        // Simplified keyword extraction - in practice would use NLP libraries
-        Set<String> keywords = new HashSet<>();
-
-        String text = content.getTitle() + " " + content.getBody();
-        Map<String, Integer> wordFrequency = new HashMap<>();
-
-        // Count word frequencies
-        Arrays.stream(text.toLowerCase().split("\\W+"))
-                .filter(word -> word.length() > 3)
-                .filter(this::isValidKeyword)
-                .forEach(word -> wordFrequency.merge(word, 1, Integer::sum));
-
-        // Return most frequent words
-        keywords.addAll(wordFrequency.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(20)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet()));
-
-        return keywords;
-    }
-
-    private boolean isValidKeyword(String keyword) {
-        // Filter out common stop words and invalid keywords
-        Set<String> stopWords = Set.of("the", "and", "for", "are", "but", "not",
-                "you", "all", "can", "had", "has", "was", "one", "our", "had", "by");
-
-        return !stopWords.contains(keyword.toLowerCase()) &&
-                keyword.matches("^[a-zA-Z0-9]+$");
-    }
-
     private double calculateRelevanceBoost(Content content, Map<String, Object> context) {
         ContentWeight weight = contentWeights.get(content.getClass().getSimpleName());
         if (weight == null) {
@@ -632,49 +928,51 @@ public class SearchIndexObserver implements ContentObserver {
         return boost;
     }
 
-    private void updateInvertedIndex(String contentId, Set<String> keywords, boolean add) {
-        for (String keyword : keywords) {
-            if (add) {
-                invertedIndex.computeIfAbsent(keyword, k -> ConcurrentHashMap.newKeySet())
-                        .add(contentId);
-            } else {
-                Set<String> contentIds = invertedIndex.get(keyword);
-                if (contentIds != null) {
-                    contentIds.remove(contentId);
-                    if (contentIds.isEmpty()) {
-                        invertedIndex.remove(keyword);
-                    }
-                }
+    private Map<String, String> facetValues(Content content) {
+        Map<String, String> values = new HashMap<>();
+        for (String facetField : getIndexingStrategy(content).facetFields) {
+            String facetValue = getFieldValue(content, facetField);
+            if (facetValue != null) {
+                values.put(facetField, facetValue);
             }
         }
+        return values;
     }
 
-    private void updateFacetIndex(Content content, boolean add) {
-        IndexingStrategy strategy = getIndexingStrategy(content);
-
-        for (String facetField : strategy.facetFields) {
-            String facetValue = getFieldValue(content, facetField);
-            if (facetValue != null) {
-                if (add) {
-                    facetIndex.computeIfAbsent(facetField, k -> new ConcurrentHashMap<>())
-                            .computeIfAbsent(facetValue, k -> ConcurrentHashMap.newKeySet())
-                            .add(content.getId());
-                } else {
-                    Map<String, Set<String>> facetMap = facetIndex.get(facetField);
-                    if (facetMap != null) {
-                        Set<String> contentIds = facetMap.get(facetValue);
-                        if (contentIds != null) {
-                            contentIds.remove(content.getId());
-                            if (contentIds.isEmpty()) {
-                                facetMap.remove(facetValue);
-                                if (facetMap.isEmpty()) {
-                                    facetIndex.remove(facetField);
-                                }
+    /**
+     * Moves content between facet entries, touching only the facet fields
+     * whose value differs between the old and new values.
+     */
+    private void updateFacetIndex(String contentId, Map<String, String> oldValues, Map<String, String> newValues) {
+        Set<String> facetFields = new HashSet<>(oldValues.keySet());
+        facetFields.addAll(newValues.keySet());
+
+        for (String facetField : facetFields) {
+            String oldValue = oldValues.get(facetField);
+            String newValue = newValues.get(facetField);
+            if (Objects.equals(oldValue, newValue)) {
+                continue;
+            }
+            if (oldValue != null) {
+                Map<String, Set<String>> facetMap = facetIndex.get(facetField);
+                if (facetMap != null) {
+                    Set<String> contentIds = facetMap.get(oldValue);
+                    if (contentIds != null) {
+                        contentIds.remove(contentId);
+                        if (contentIds.isEmpty()) {
+                            facetMap.remove(oldValue);
+                            if (facetMap.isEmpty()) {
+                                facetIndex.remove(facetField);
                             }
                         }
                     }
                 }
             }
+            if (newValue != null) {
+                facetIndex.computeIfAbsent(facetField, k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(newValue, k -> ConcurrentHashMap.newKeySet())
+                        .add(contentId);
+            }
         }
     }
 
@@ -685,8 +983,7 @@ public class SearchIndexObserver implements ContentObserver {
             strategy = new IndexingStrategy(
                     Set.of("title", "body"),
                     Set.of("contentType", "lastModified"),
-                    Map.of("title", 2.0, "body", 1.0),
-                    true, 25);
+                    Map.of("title", 2.0, "body", 1.0));
         }
         return strategy;
     }
@@ -738,55 +1035,32 @@ public class SearchIndexObserver implements ContentObserver {
     /**
      * Performs search query against the index.
      *
+     * <p>
+     * The query is parsed with {@link SearchQuery#parse(String)}: terms are
+     * required by default, and {@code OR}, {@code NOT}/{@code -}, quoted
+     * phrases and {@code prefix*} terms are supported. Matches are ranked by
+     * BM25 over their field-weighted term frequencies, multiplied by the
+     * document's relevance boost; only the best {@code maxResults} are kept
+     * while scoring.
+     * </p>
+     *
      * @param query      Search query string
      * @param maxResults Maximum number of results to return
      * @return List of matching content IDs sorted by relevance
      */
     public List<String> search(String query, int maxResults) {
-        Set<String> queryTerms = tokenize(query);
-        Map<String, Double> contentScores = new HashMap<>();
-
-        // Score content based on matching terms
-        for (String term : queryTerms) {
-            Set<String> matchingContent = invertedIndex.get(term.toLowerCase());
-            if (matchingContent != null) {
-                for (String contentId : matchingContent) {
-                    SearchDocument doc = searchIndex.get(contentId);
-                    if (doc != null) {
-                        double score = calculateSearchScore(doc, term);
-                        contentScores.merge(contentId, score, Double::sum);
-                    }
-                }
-            }
-        }
-
-        // Return top results sorted by score
-        return contentScores.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                .limit(maxResults)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+        return search(SearchQuery.parse(query), maxResults);
     }
 
-    private double calculateSearchScore(SearchDocument doc, String term) {
-        double score = doc.relevanceBoost;
-
-        // Title match gets higher score
-        if (doc.title.toLowerCase().contains(term.toLowerCase())) {
-            score += 10.0;
-        }
-
-        // Keyword match
-        if (doc.keywords.contains(term.toLowerCase())) {
-            score += 5.0;
-        }
-
-        // Content match (lower score)
-        if (doc.content != null && doc.content.toLowerCase().contains(term.toLowerCase())) {
-            score += 2.0;
-        }
-
-        return score;
+    /**
+     * Performs a parsed search query against the index.
+     *
+     * @param query      The parsed query
+     * @param maxResults Maximum number of results to return
+     * @return List of matching content IDs sorted by relevance
+     */
+    public List<String> search(SearchQuery query, int maxResults) {
+        return invertedIndex.search(query, maxResults);
     }
 
     /**
@@ -817,10 +1091,14 @@ public class SearchIndexObserver implements ContentObserver {
 
         stats.put("documentsIndexed", documentsIndexed.get());
         stats.put("totalDocuments", searchIndex.size());
-        stats.put("uniqueTerms", invertedIndex.size());
+        stats.put("uniqueTerms", invertedIndex.termCount());
+        stats.put("invertedIndex", invertedIndex.getStatistics());
         stats.put("facetFields", facetIndex.size());
         stats.put("pendingOperations", operationQueue.size());
         stats.put("pendingReindexing", pendingReindexing.size());
+        stats.put("persistent", invertedIndex.isPersistent());
+        stats.put("lastEventNanos", lastEventNanos.get());
+        stats.put("replaySkipped", replaySkipped.get());
 
         // Operation type breakdown
         Map<String, Long> operationCounts = new LinkedHashMap<>();
@@ -847,24 +1125,19 @@ public class SearchIndexObserver implements ContentObserver {
     public List<String> validateIndexConsistency() {
         List<String> issues = new ArrayList<>();
 
-        // Check for orphaned inverted index entries
+        // Check for orphaned inverted index documents
         Set<String> allContentIds = searchIndex.keySet();
-        for (Map.Entry<String, Set<String>> entry : invertedIndex.entrySet()) {
-            Set<String> orphanedIds = entry.getValue().stream()
-                    .filter(id -> !allContentIds.contains(id))
-                    .collect(Collectors.toSet());
-
-            if (!orphanedIds.isEmpty()) {
-                issues.add("Orphaned inverted index entries for term '" + entry.getKey() +
-                        "': " + orphanedIds.size() + " entries");
-            }
+        Set<String> orphanedIds = invertedIndex.contentIds().stream()
+                .filter(id -> !allContentIds.contains(id))
+                .collect(Collectors.toSet());
+        if (!orphanedIds.isEmpty()) {
+            issues.add("Orphaned inverted index documents: " + orphanedIds.size() + " entries");
         }
 
         // Check for missing inverted index entries
         for (SearchDocument doc : searchIndex.values()) {
-            for (String keyword : doc.keywords) {
-                Set<String> contentIds = invertedIndex.get(keyword);
-                if (contentIds == null || !contentIds.contains(doc.contentId)) {
+            for (String keyword : invertedIndex.terms(doc.contentId)) {
+                if (!invertedIndex.hasPosting(keyword, doc.contentId)) {
                     issues.add("Missing inverted index entry for document " + doc.contentId +
                             ", keyword: " + keyword);
                 }
@@ -877,25 +1150,45 @@ public class SearchIndexObserver implements ContentObserver {
         return issues;
     }
 
+    /**
+     * Commits a persistent index together with the checkpoint of the last
+     * indexed event, after applying the queued operations. Does nothing for
+     * an index kept only in memory.
+     *
+     * @throws IOException if the index cannot be committed
+     */
+    @Override
+    public void checkpoint() throws IOException {
+        if (!invertedIndex.isPersistent()) {
+            return;
+        }
+        while (processPendingOperations() > 0) {
+            // Queued operations belong to events already delivered
+        }
+        Map<String, String> checkpoint = new LinkedHashMap<>();
+        checkpoint.put(CHECKPOINT_NANOS, Long.toString(lastEventNanos.get()));
+        String eventId = lastEventId;
+        if (eventId != null) {
+            checkpoint.put(CHECKPOINT_EVENT_ID, eventId);
+        }
+        invertedIndex.commit(checkpoint);
+
+        logger.logContentActivity("Search index committed",
+                "documents=" + searchIndex.size() + ", lastEventId=" + eventId);
+    }
+
     /**
      * Shuts down the search index observer and releases resources.
      */
     public void shutdown() {
         logger.logSystemEvent("SHUTDOWN", "1.0", "Shutting down SearchIndexObserver");
 
-        // Process remaining operations
+        // Process remaining operations; the shared indexing pool keeps running
         processPendingOperations();
-
-        if (indexingExecutor != null && !indexingExecutor.isShutdown()) {
-            indexingExecutor.shutdown();
-            try {
-                if (!indexingExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    indexingExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                indexingExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            logger.logError("Failed to commit the search index on shutdown", e);
         }
 
         logger.logSystemEvent("SHUTDOWN_COMPLETE", "1.0", "SearchIndexObserver shutdown completed - " +
@@ -1,5 +1,6 @@
 package com.cms.patterns.strategy;
 
+import com.cms.concurrent.ExecutorRegistry;
 import com.cms.core.model.Content;
 import com.cms.core.model.ContentStatus;
 import com.cms.core.model.Role;
@@ -96,6 +97,9 @@ public class BatchPublishingStrategy implements PublishingStrategy {
     /** Executor service for parallel batch processing */
     private final ExecutorService executorService;
     
+    /** Whether shutdown() stops the executor; registry pools are shared and left running */
+    private final boolean ownsExecutor;
+    
     /** Map to track active batch operations */
     private final Map<String, BatchOperation> activeBatches;
     
@@ -260,10 +264,32 @@ public class BatchPublishingStrategy implements PublishingStrategy {
     
     /**
      * Creates a new BatchPublishingStrategy with default configuration.
+     * Processes chunks on the shared batch publishing pool of the executor registry.
      */
     public BatchPublishingStrategy() {
-        this.contentSubject = new ContentSubject();
-        this.executorService = Executors.newFixedThreadPool(WORKER_THREADS);
+        this(new ContentSubject(), ExecutorRegistry.getInstance());
+    }
+    
+    /**
+     * Creates a new BatchPublishingStrategy processing chunks on the
+     * {@link ExecutorRegistry#BATCH_PUBLISHING} pool of the given registry.
+     * The pool is shared, so {@link #shutdown()} leaves it running.
+     *
+     * @param contentSubject The content subject for event notifications
+     * @param executorRegistry The registry providing the worker pool
+     * @throws IllegalArgumentException If any parameter is null
+     */
+    public BatchPublishingStrategy(ContentSubject contentSubject, ExecutorRegistry executorRegistry) {
+        if (contentSubject == null) {
+            throw new IllegalArgumentException("Content subject cannot be null");
+        }
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
+        
+        this.contentSubject = contentSubject;
+        this.executorService = executorRegistry.executor(ExecutorRegistry.BATCH_PUBLISHING);
+        this.ownsExecutor = false;
         this.activeBatches = new ConcurrentHashMap<>();
         this.statistics = new BatchStatistics();
     }
@@ -285,6 +311,7 @@ public class BatchPublishingStrategy implements PublishingStrategy {
         
         this.contentSubject = contentSubject;
         this.executorService = executorService;
+        this.ownsExecutor = true;
         this.activeBatches = new ConcurrentHashMap<>();
         this.statistics = new BatchStatistics();
     }
@@ -950,10 +977,12 @@ public class BatchPublishingStrategy implements PublishingStrategy {
                 }
             }
             
-            // Shutdown executor service
-            executorService.shutdown();
-            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+            // Shutdown executor service unless it is a shared registry pool
+            if (ownsExecutor) {
+                executorService.shutdown();
+                if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                    executorService.shutdownNow();
+                }
             }
             
             CMSLogger.logSystemEvent(
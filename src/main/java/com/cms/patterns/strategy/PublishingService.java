@@ -1,5 +1,6 @@
 package com.cms.patterns.strategy;
 
+import com.cms.concurrent.ExecutorRegistry;
 import com.cms.core.model.Content;
 import com.cms.core.model.Role;
 import com.cms.core.exception.ContentManagementException;
@@ -529,14 +530,13 @@ public class PublishingService {
     // Private implementation methods
     
     private void initializeDefaultStrategies() {
-        // Initialize all default strategies with shared content subject
+        // Initialize all default strategies with shared content subject and registry pools
+        ExecutorRegistry executorRegistry = ExecutorRegistry.getInstance();
         registerStrategy(new ImmediatePublishingStrategy(contentSubject));
-        registerStrategy(new ScheduledPublishingStrategy(contentSubject, 
-            java.util.concurrent.Executors.newScheduledThreadPool(2)));
+        registerStrategy(new ScheduledPublishingStrategy(contentSubject, executorRegistry));
         registerStrategy(new ReviewBasedPublishingStrategy(contentSubject));
         registerStrategy(new AutoPublishingStrategy(contentSubject));
-        registerStrategy(new BatchPublishingStrategy(contentSubject, 
-            java.util.concurrent.Executors.newFixedThreadPool(4)));
+        registerStrategy(new BatchPublishingStrategy(contentSubject, executorRegistry));
     }
     
     private PublishingStrategy selectOptimalStrategy(Content content, PublishingContext context) 
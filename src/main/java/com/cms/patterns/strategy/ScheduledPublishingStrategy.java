@@ -1,5 +1,6 @@
 package com.cms.patterns.strategy;
 
+import com.cms.concurrent.ExecutorRegistry;
 import com.cms.core.model.Content;
 import com.cms.core.model.ContentStatus;
 import com.cms.core.model.Role;
@@ -81,6 +82,9 @@ public class ScheduledPublishingStrategy implements PublishingStrategy {
     /** Scheduled executor service for managing delayed publishing tasks */
     private final ScheduledExecutorService scheduledExecutor;
     
+    /** Whether shutdown() stops the executor; registry pools are shared and left running */
+    private final boolean ownsExecutor;
+    
     /** Map to track scheduled tasks for cancellation support */
     private final Map<String, ScheduledFuture<?>> scheduledTasks;
     
@@ -89,11 +93,32 @@ public class ScheduledPublishingStrategy implements PublishingStrategy {
     
     /**
      * Creates a new ScheduledPublishingStrategy with default configuration.
-     * Initializes the scheduled executor and tracking collections.
+     * Schedules on the shared publishing scheduler of the executor registry.
      */
     public ScheduledPublishingStrategy() {
-        this.contentSubject = new ContentSubject();
-        this.scheduledExecutor = Executors.newScheduledThreadPool(5); // Pool of 5 threads for scheduling
+        this(new ContentSubject(), ExecutorRegistry.getInstance());
+    }
+    
+    /**
+     * Creates a new ScheduledPublishingStrategy scheduling on the
+     * {@link ExecutorRegistry#PUBLISHING_SCHEDULER} pool of the given registry.
+     * The pool is shared, so {@link #shutdown()} leaves it running.
+     *
+     * @param contentSubject The content subject for event notifications
+     * @param executorRegistry The registry providing the scheduler
+     * @throws IllegalArgumentException If any parameter is null
+     */
+    public ScheduledPublishingStrategy(ContentSubject contentSubject, ExecutorRegistry executorRegistry) {
+        if (contentSubject == null) {
+            throw new IllegalArgumentException("Content subject cannot be null");
+        }
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
+        
+        this.contentSubject = contentSubject;
+        this.scheduledExecutor = executorRegistry.scheduler(ExecutorRegistry.PUBLISHING_SCHEDULER);
+        this.ownsExecutor = false;
         this.scheduledTasks = new ConcurrentHashMap<>();
         this.scheduledContentIds = ConcurrentHashMap.newKeySet();
     }
@@ -116,6 +141,7 @@ public class ScheduledPublishingStrategy implements PublishingStrategy {
         
         this.contentSubject = contentSubject;
         this.scheduledExecutor = scheduledExecutor;
+        this.ownsExecutor = true;
         this.scheduledTasks = new ConcurrentHashMap<>();
         this.scheduledContentIds = ConcurrentHashMap.newKeySet();
     }
@@ -729,10 +755,12 @@ public class ScheduledPublishingStrategy implements PublishingStrategy {
             scheduledTasks.clear();
             scheduledContentIds.clear();
             
-            // Shutdown executor
-            scheduledExecutor.shutdown();
-            if (!scheduledExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduledExecutor.shutdownNow();
+            // Shutdown executor unless it is a shared registry pool
+            if (ownsExecutor) {
+                scheduledExecutor.shutdown();
+                if (!scheduledExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    scheduledExecutor.shutdownNow();
+                }
             }
             
             CMSLogger.logSystemEvent(
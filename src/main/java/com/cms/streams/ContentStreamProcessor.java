@@ -1,19 +1,23 @@
 package com.cms.streams;
 
+import com.cms.concurrent.ExecutorRegistry;
 import com.cms.core.model.Content;
 import com.cms.core.model.ContentStatus;
 import com.cms.core.model.ContentManagementException;
+import com.cms.core.search.ContentTextIndex;
+import com.cms.core.search.InvertedIndex;
+import com.cms.core.search.SearchQuery;
 import com.cms.patterns.shield.ExceptionShielder;
 import com.cms.util.CMSLogger;
 import com.cms.streams.ContentMapper.ContentDTO;
 import com.cms.streams.ContentMapper.ContentSummary;
 
+import java.lang.ref.WeakReference;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -66,6 +70,52 @@ public class ContentStreamProcessor {
     private static final CMSLogger logger = CMSLogger.getInstance();
     private final ForkJoinPool customThreadPool;
 
+    /** Number of searched collections whose text index is kept */
+    private static final int MAX_TEXT_INDEXES = 8;
+
+    // Text indexes of the most recently searched collections, by identity
+    private final Map<SourceKey, ContentTextIndex> textIndexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SourceKey, ContentTextIndex> eldest) {
+            return size() > MAX_TEXT_INDEXES;
+        }
+    };
+
+    /**
+     * Identifies a searched collection without keeping it reachable; a key
+     * whose collection was collected equals only itself.
+     */
+    private static final class SourceKey {
+        private final WeakReference<Collection<Content>> source;
+        private final int hash;
+
+        SourceKey(Collection<Content> source) {
+            this.source = new WeakReference<>(source);
+            this.hash = System.identityHashCode(source);
+        }
+
+        boolean isCleared() {
+            return source.get() == null;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof SourceKey)) {
+                return false;
+            }
+            Collection<Content> collection = source.get();
+            return collection != null && collection == ((SourceKey) other).source.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     /**
      * Statistics record for stream processing results.
      *
@@ -102,16 +152,29 @@ public class ContentStreamProcessor {
     }
 
     /**
-     * Constructs ContentStreamProcessor with custom thread pool.
+     * Constructs ContentStreamProcessor on the shared work-stealing pool.
      *
      * <p>
-     * <strong>Thread Safety:</strong> Initializes with custom ForkJoinPool
-     * for optimal parallel stream performance and thread safety.
+     * <strong>Thread Safety:</strong> Runs parallel streams in the
+     * {@link ExecutorRegistry#PARALLEL} ForkJoinPool instead of the common
+     * pool, so stream work is bounded and visible in the registry metrics.
      * </p>
      */
     public ContentStreamProcessor() {
-        this.customThreadPool = new ForkJoinPool(
-                Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+        this(ExecutorRegistry.getInstance());
+    }
+
+    /**
+     * Constructs ContentStreamProcessor on the work-stealing pool of the given
+     * registry.
+     *
+     * @param executorRegistry Registry providing the ForkJoinPool
+     */
+    public ContentStreamProcessor(ExecutorRegistry executorRegistry) {
+        if (executorRegistry == null) {
+            throw new IllegalArgumentException("Executor registry cannot be null");
+        }
+        this.customThreadPool = executorRegistry.forkJoinPool(ExecutorRegistry.PARALLEL);
         logger.logSystemOperation(
                 "ContentStreamProcessor initialized with " + customThreadPool.getParallelism() + " threads");
     }
@@ -190,8 +253,33 @@ public class ContentStreamProcessor {
      * aggregating search statistics and metadata.
      * </p>
      *
+     * <p>
+     * <strong>Indexed Search:</strong> The search term is parsed as a
+     * {@link SearchQuery} and run against a {@link ContentTextIndex} of the
+     * titles and bodies, which is brought in line with the collection first;
+     * only new or modified content is analyzed, so repeated searches over the
+     * same collection do not rescan its text. Results are ordered by BM25
+     * relevance and the average relevance score is the mean BM25 score.
+     * </p>
+     *
+     * <p>
+     * <strong>Index Per Collection:</strong> Each collection instance gets its
+     * own index, kept for the {@value #MAX_TEXT_INDEXES} most recently
+     * searched collections and dropped once the collection is garbage
+     * collected, so alternating between collections does not re-analyze them
+     * and searches of different collections do not wait for each other.
+     * </p>
+     *
+     * <p>
+     * <strong>Unindexed Queries:</strong> Words shorter than three characters
+     * and common stop words are not indexed. A query made only of such words
+     * (for example {@code "of"} or {@code "C#"}) falls back to a
+     * case-insensitive substring scan of titles and bodies, limited to
+     * {@code maxResults}; its results are unranked and score 0.
+     * </p>
+     *
      * @param contents   the content collection to search
-     * @param searchTerm the search term
+     * @param searchTerm the search query
      * @param maxResults maximum number of results to return
      * @return comprehensive search results with statistics
      * @throws ContentManagementException if search fails
@@ -205,17 +293,25 @@ public class ContentStreamProcessor {
 
             try {
                 return customThreadPool.submit(() -> {
-                    // Create composite search predicate
-                    ContentPredicate titleSearch = ContentPredicate.byTitleContaining(searchTerm);
-                    ContentPredicate contentSearch = content -> content.getBody() != null &&
-                            content.getBody().toLowerCase().contains(searchTerm.toLowerCase());
-                    Predicate<Content> combinedSearch = titleSearch.or(contentSearch);
-
-                    // Perform parallel search with statistics
-                    List<Content> matchingContent = contents.parallelStream()
-                            .filter(combinedSearch)
-                            .limit(maxResults)
-                            .collect(Collectors.toList());
+                    SearchQuery query = SearchQuery.parse(searchTerm);
+                    List<Content> matchingContent = new ArrayList<>();
+                    double totalScore = 0.0;
+                    if (query.isEmpty()) {
+                        // Nothing the index can answer; scan titles and bodies instead
+                        matchingContent = scanContent(contents, searchTerm, maxResults);
+                    } else {
+                        // Query the text index, synchronized with this collection
+                        ContentTextIndex textIndex = textIndexFor(contents);
+                        textIndex.synchronize(contents);
+                        for (InvertedIndex.Hit hit : textIndex.searchHits(query, maxResults, null)) {
+                            // Null if a concurrent search of a changed collection removed it
+                            Content content = (Content) textIndex.get(hit.getContentId());
+                            if (content != null) {
+                                matchingContent.add(content);
+                                totalScore += hit.getScore();
+                            }
+                        }
+                    }
 
                     // Map to DTOs
                     List<ContentDTO> results = matchingContent.stream()
@@ -233,8 +329,7 @@ public class ContentStreamProcessor {
                                     ContentDTO::status,
                                     Collectors.counting()));
 
-                    double averageScore = results.size() > 0 ? calculateRelevanceScore(searchTerm, matchingContent)
-                            : 0.0;
+                    double averageScore = results.size() > 0 ? totalScore / results.size() : 0.0;
 
                     return new SearchResult(
                             results,
@@ -249,6 +344,34 @@ public class ContentStreamProcessor {
         }, "Content search failed");
     }
 
+    /**
+     * Finds up to {@code maxResults} items whose title or body contains the
+     * search term, ignoring case.
+     */
+    private List<Content> scanContent(Collection<Content> contents, String searchTerm, int maxResults) {
+        String lowerSearchTerm = searchTerm != null ? searchTerm.toLowerCase().trim() : "";
+        if (lowerSearchTerm.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return contents.parallelStream()
+                .filter(content -> (content.getTitle() != null &&
+                        content.getTitle().toLowerCase().contains(lowerSearchTerm)) ||
+                        (content.getBody() != null && content.getBody().toLowerCase().contains(lowerSearchTerm)))
+                .limit(maxResults)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the text index of a collection, creating it on first search and
+     * dropping indexes whose collection has been garbage collected.
+     */
+    private ContentTextIndex textIndexFor(Collection<Content> contents) {
+        synchronized (textIndexes) {
+            textIndexes.keySet().removeIf(SourceKey::isCleared);
+            return textIndexes.computeIfAbsent(new SourceKey(contents), key -> new ContentTextIndex());
+        }
+    }
+
     /**
      * Generates comprehensive processing statistics using stream operations.
      *
@@ -409,64 +532,15 @@ public class ContentStreamProcessor {
     }
 
     /**
-     * Calculates relevance score for search results.
-     *
-     * <p>
-     * <strong>Private Helper:</strong> Uses stream operations for
-     * calculating search relevance scores.
-     * </p>
-     *
-     * @param searchTerm the search term
-     * @param contents   the matching contents
-     * @return average relevance score
-     */
-    private double calculateRelevanceScore(String searchTerm, List<Content> contents) {
-        if (contents.isEmpty() || searchTerm == null || searchTerm.trim().isEmpty()) {
-            return 0.0;
-        }
-
-        String lowerSearchTerm = searchTerm.toLowerCase();
-
-        return contents.stream()
-                .mapToDouble(content -> {
-                    double score = 0.0;
-
-                    // Title match (higher weight)
-                    if (content.getTitle() != null &&
-                            content.getTitle().toLowerCase().contains(lowerSearchTerm)) {
-                        score += 10.0;
-                    }
-
-                    // Content match (lower weight)
-                    if (content.getBody() != null &&
-                            content.getBody().toLowerCase().contains(lowerSearchTerm)) {
-                        score += 5.0;
-                    }
-
-                    // Author match (medium weight)
-                    if (content.getCreatedBy() != null &&
-                            content.getCreatedBy().toLowerCase().contains(lowerSearchTerm)) {
-                        score += 7.0;
-                    }
-
-                    return score;
-                })
-                .average()
-                .orElse(0.0);
-    }
-
-    /**
-     * Closes the custom thread pool and releases resources.
+     * Releases the processor.
      *
      * <p>
-     * <strong>Resource Management:</strong> Properly closes thread pool
-     * to prevent resource leaks in stream processing.
+     * <strong>Resource Management:</strong> The ForkJoinPool is shared and
+     * owned by the {@link ExecutorRegistry}, which shuts it down; closing a
+     * processor leaves it running for other processors.
      * </p>
      */
     public void close() {
-        if (customThreadPool != null && !customThreadPool.isShutdown()) {
-            customThreadPool.shutdown();
-            logger.logSystemOperation("ContentStreamProcessor thread pool shut down");
-        }
+        logger.logSystemOperation("ContentStreamProcessor closed");
     }
 }
@@ -383,6 +383,15 @@ public class AuditLogger {
         queueAuditRecord(record);
     }
 
+    /**
+     * Writes all queued audit records to the audit log now instead of waiting
+     * for the next periodic write. Callers that queue many records at once use
+     * this to turn them into a single append.
+     */
+    public void flush() {
+        auditExecutor.submit(this::processQueuedRecords);
+    }
+
     // ============================================================================
     // PRIVATE AUDIT PROCESSING METHODS
     // ============================================================================
@@ -452,18 +452,27 @@ public class CMSLogger {
      * Logs errors with comprehensive context information while maintaining
      * security through exception shielding patterns.
      *
-     * @param exception The exception that occurred
+     * @param exception The exception that occurred (may be null for errors
+     *                  detected without one)
      * @param context   The context in which the error occurred
      * @param userId    The user associated with the operation (may be null)
      * @param operation The operation that failed
      */
     public void logError(Exception exception, String context, String userId, String operation) {
         String sanitizedContext = sanitizeInput(context);
+        String user = userId != null ? userId : "System";
+
+        if (exception == null) {
+            logger.severe(String.format("ERROR - Operation: %s, Context: %s, User: %s",
+                    operation, sanitizedContext, user));
+            return;
+        }
+
         String exceptionType = exception.getClass().getSimpleName();
         String exceptionMessage = sanitizeInput(exception.getMessage());
 
         String message = String.format("ERROR - Operation: %s, Type: %s, Message: %s, Context: %s, User: %s",
-                operation, exceptionType, exceptionMessage, sanitizedContext, userId != null ? userId : "System");
+                operation, exceptionType, exceptionMessage, sanitizedContext, user);
 
         logger.severe(message);
 
@@ -477,7 +486,7 @@ public class CMSLogger {
      * signature.
      *
      * @param message   The error message describing what went wrong
-     * @param exception The exception that was caught
+     * @param exception The exception that was caught, or null if there was none
      */
     public void logError(String message, Exception exception) {
         logError(exception, message, null, "Unknown Operation");
@@ -4,6 +4,7 @@ import com.cms.core.model.Content;
 import com.cms.core.model.ContentStatus;
 import com.cms.core.model.ArticleContent;
 import com.cms.core.model.PageContent;
+import com.cms.core.model.User;
 import com.cms.patterns.factory.ContentFactory;
 import com.cms.patterns.observer.ContentEvent;
 import com.cms.patterns.observer.ContentSubject;
@@ -168,6 +169,112 @@ public class MultithreadingTest {
         assertTrue(results.contains("IO-Task-" + (numTasks - 1)));
     }
 
+    @Test
+    @DisplayName("ThreadPoolManager - Virtual Thread I/O Mode")
+    void testThreadPoolManagerVirtualIOMode() throws Exception {
+        int numTasks = 200;
+        int maxConcurrency = 8;
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger peak = new AtomicInteger(0);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        threadPoolManager.setIOExecutionMode(ThreadPoolManager.IOExecutionMode.VIRTUAL, maxConcurrency);
+        try {
+            for (int i = 0; i < numTasks; i++) {
+                final int taskId = i;
+                futures.add(threadPoolManager.submitIOTask(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5); // Simulate blocking I/O
+                    running.decrementAndGet();
+                    return taskId;
+                }));
+            }
+
+            int sum = futures.stream().mapToInt(CompletableFuture::join).sum();
+            assertEquals(numTasks * (numTasks - 1) / 2, sum);
+
+            // The semaphore, not a pool size, bounds the concurrency
+            assertTrue(peak.get() <= maxConcurrency);
+            Map<String, Object> stats = threadPoolManager.getThreadPoolStatistics();
+            assertEquals("VIRTUAL", stats.get("ioExecutionMode"));
+            Map<?, ?> bounded = (Map<?, ?>) stats.get("boundedIOExecutor");
+            assertEquals(maxConcurrency, bounded.get("maxConcurrency"));
+            assertTrue((Long) bounded.get("submitted") >= numTasks);
+            assertTrue((Long) bounded.get("deferred") > 0);
+        } finally {
+            threadPoolManager.setIOExecutionMode(ThreadPoolManager.IOExecutionMode.PLATFORM);
+        }
+    }
+
+    @Test
+    @DisplayName("ExecutorRegistry - Named Bounded Pools and Saturation Metrics")
+    void testExecutorRegistryBoundedPools() throws Exception {
+        ExecutorRegistry registry = new ExecutorRegistry();
+        ExecutorRegistry.PoolOptions options = new ExecutorRegistry.PoolOptions(ExecutorRegistry.WorkloadType.IO, 2);
+        options.setQueueCapacity(4);
+        registry.configure("test-io", options);
+
+        try {
+            // The same name always yields the same shared pool
+            ExecutorService pool = registry.executor("test-io");
+            assertSame(pool, registry.executor("test-io"));
+            assertThrows(IllegalStateException.class, () -> registry.configure("test-io", options));
+            assertThrows(IllegalStateException.class, () -> registry.forkJoinPool("test-io"));
+
+            // Saturate 2 threads and 4 queue slots; the rest run on the caller
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger callerRuns = new AtomicInteger(0);
+            Thread submitter = Thread.currentThread();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(pool.submit(() -> {
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return null;
+                }));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            pool.execute(() -> {
+                if (Thread.currentThread() == submitter) {
+                    callerRuns.incrementAndGet();
+                }
+            });
+            assertEquals(1, callerRuns.get());
+
+            Map<?, ?> metrics = (Map<?, ?>) ((Map<?, ?>) registry.getStatistics().get("pools")).get("test-io");
+            assertEquals("IO", metrics.get("workloadType"));
+            assertEquals(2, metrics.get("threads"));
+            assertEquals(4L, metrics.get("queuedTasks"));
+            assertEquals(1.0, (Double) metrics.get("saturation"), 0.0001);
+            assertEquals(1.0, (Double) metrics.get("queueUtilization"), 0.0001);
+            assertEquals(1L, metrics.get("callerRuns"));
+
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            // Limited views share the pool's threads but keep their own cap
+            AtomicInteger running = new AtomicInteger(0);
+            AtomicInteger peak = new AtomicInteger(0);
+            CountDownLatch done = new CountDownLatch(20);
+            Executor limited = registry.limitedExecutor("test-io", 1);
+            for (int i = 0; i < 20; i++) {
+                limited.execute(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(1, peak.get());
+        } finally {
+            registry.shutdown();
+        }
+        assertTrue(registry.isShutdown());
+    }
+
     @Test
     @DisplayName("ThreadPoolManager - Scheduled Task Execution")
     void testThreadPoolManagerScheduledTasks() throws Exception {
@@ -396,6 +503,178 @@ public class MultithreadingTest {
         }
     }
 
+    @Test
+    @DisplayName("ConcurrentRepository - Snapshot Read Mode")
+    void testConcurrentRepositorySnapshotReads() throws Exception {
+        ConcurrentContentRepository snapshotRepository =
+            new ConcurrentContentRepository(ConcurrentContentRepository.ReadMode.SNAPSHOT);
+
+        Content content = ContentFactory.createArticle("Snapshot Article", "Snapshot body", "snapshot-user");
+        snapshotRepository.save(content);
+
+        // Reads share the published instance instead of cloning it
+        Content first = snapshotRepository.findById(content.getId()).orElseThrow();
+        Content second = snapshotRepository.findById(content.getId()).orElseThrow();
+        assertSame(first, second);
+        assertEquals(1L, snapshotRepository.findSnapshotById(content.getId()).orElseThrow().getVersion());
+
+        // A new save publishes a new version and moves index entries
+        content.setStatus(ContentStatus.PUBLISHED, "snapshot-user");
+        snapshotRepository.save(content);
+
+        ConcurrentContentRepository.ContentSnapshot snapshot =
+            snapshotRepository.findSnapshotById(content.getId()).orElseThrow();
+        assertEquals(2L, snapshot.getVersion());
+        assertNotSame(first, snapshot.getContent());
+        assertEquals(ContentStatus.DRAFT, first.getStatus());
+        assertTrue(snapshotRepository.findByStatus(ContentStatus.DRAFT).isEmpty());
+        assertEquals(1, snapshotRepository.findByStatus(ContentStatus.PUBLISHED).size());
+
+        Map<String, Object> stats = snapshotRepository.getStatistics();
+        assertEquals("SNAPSHOT", stats.get("readMode"));
+        assertTrue((Long) stats.get("snapshotReads") > 0);
+    }
+
+    @Test
+    @DisplayName("ConcurrentRepository - Striped Write Mode")
+    void testConcurrentRepositoryStripedWrites() throws Exception {
+        ConcurrentContentRepository stripedRepository = new ConcurrentContentRepository(
+            ConcurrentContentRepository.ReadMode.SNAPSHOT, ConcurrentContentRepository.WriteMode.STRIPED, 16);
+
+        int numThreads = 8;
+        int itemsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < numThreads; t++) {
+            final int threadId = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < itemsPerThread; i++) {
+                    Content content = ContentFactory.createArticle(
+                        "Striped-" + threadId + "-" + i, "Striped body", "striped-user-" + threadId);
+                    stripedRepository.save(content);
+                    content.setStatus(ContentStatus.PUBLISHED, "editor");
+                    stripedRepository.save(content);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Indexes stay consistent although writers never shared a global lock
+        assertEquals(numThreads * itemsPerThread, stripedRepository.findByStatus(ContentStatus.PUBLISHED).size());
+        assertTrue(stripedRepository.findByStatus(ContentStatus.DRAFT).isEmpty());
+        assertEquals(itemsPerThread, stripedRepository.findByAuthor("striped-user-3").size());
+
+        Map<String, Object> stats = stripedRepository.getStatistics();
+        assertEquals("STRIPED", stats.get("writeMode"));
+        assertEquals(16, ((List<?>) stats.get("writeStripes")).size());
+        assertNotNull(stats.get("writeStripeContention"));
+    }
+
+    @Test
+    @DisplayName("ConcurrentRepository - Bounded Operation History")
+    void testConcurrentRepositoryOperationHistory() throws Exception {
+        ConcurrentContentRepository historyRepository = new ConcurrentContentRepository();
+        Content content = ContentFactory.createArticle("History Article", "History body", "history-user");
+        historyRepository.save(content);
+
+        for (int i = 0; i < 20000; i++) {
+            historyRepository.findById(content.getId());
+        }
+        historyRepository.findByStatus(ContentStatus.DRAFT);
+
+        // History stays bounded and the newest entry comes last
+        Map<String, Object> stats = historyRepository.getStatistics();
+        assertTrue((Integer) stats.get("operationHistorySize") <= (Integer) stats.get("operationHistoryCapacity"));
+
+        List<ConcurrentContentRepository.OperationRecord> recent = historyRepository.getRecentOperations(3);
+        assertEquals(3, recent.size());
+        ConcurrentContentRepository.OperationRecord last = recent.get(2);
+        assertEquals("SEARCH", last.getOperation());
+        assertEquals("status:DRAFT", last.getTarget());
+        assertEquals("FOUND_1", last.getResult());
+
+        // Reads are not recorded with a sample rate of zero, writes still are
+        historyRepository.setHistorySampleRate(0);
+        historyRepository.findById(content.getId());
+        assertEquals("SEARCH", historyRepository.getRecentOperations(1).get(0).getOperation());
+        historyRepository.delete(content.getId());
+        assertEquals("DELETE", historyRepository.getRecentOperations(1).get(0).getOperation());
+    }
+
+    @Test
+    @DisplayName("ConcurrentRepository - Bulk Load")
+    void testConcurrentRepositoryBulkLoad() throws Exception {
+        ConcurrentContentRepository bulkRepository = new ConcurrentContentRepository(
+                ConcurrentContentRepository.ReadMode.SNAPSHOT, ConcurrentContentRepository.WriteMode.STRIPED, 8, 20000);
+
+        List<Content> items = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            items.add(ContentFactory.createContent("ARTICLE", "Bulk Article " + i,
+                    "Bulk article body that is long enough to pass validation", "bulk-user-" + (i % 10)));
+        }
+        items.add(items.get(0));
+
+        List<Content> saved = bulkRepository.saveBatch(items);
+
+        // Postings built in bulk match per-item indexing; the repeated item is an update
+        assertEquals(20001, saved.size());
+        assertEquals(20000, bulkRepository.getStatistics().get("totalContentItems"));
+        assertEquals(2000, bulkRepository.findByAuthor("bulk-user-3").size());
+        assertEquals(20000, bulkRepository.findByStatus(ContentStatus.DRAFT).size());
+        assertEquals(2L, bulkRepository.findSnapshotById(items.get(0).getId()).get().getVersion());
+        assertEquals("BULK_SAVE", bulkRepository.getRecentOperations(1).get(0).getOperation());
+        assertEquals("COUNT_20001", bulkRepository.getRecentOperations(1).get(0).getResult());
+    }
+
+    @Test
+    @DisplayName("ConcurrentRepository - Version Compare-And-Set")
+    void testConcurrentRepositoryVersionCompareAndSet() throws Exception {
+        ConcurrentContentRepository casRepository = new ConcurrentContentRepository(
+                ConcurrentContentRepository.ReadMode.SNAPSHOT, ConcurrentContentRepository.WriteMode.STRIPED, 16);
+        Content content = ContentFactory.createContent("ARTICLE", "Edited Article",
+                "Edited article body that is long enough to pass validation", "editor");
+        assertTrue(casRepository.saveIfVersion(content, 0).isPresent());
+        assertFalse(casRepository.saveIfVersion(content, 0).isPresent(), "Second create must conflict");
+
+        int editors = 8;
+        int editsPerEditor = 100;
+        ExecutorService editorPool = Executors.newFixedThreadPool(editors);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int e = 0; e < editors; e++) {
+            futures.add(editorPool.submit(() -> {
+                for (int i = 0; i < editsPerEditor; i++) {
+                    // Retry from a fresh snapshot until the edit is not lost
+                    while (true) {
+                        ConcurrentContentRepository.ContentSnapshot snapshot =
+                                casRepository.findSnapshotById(content.getId()).get();
+                        Content edit = snapshot.getContent().clone();
+                        edit.setTitle("Edit " + i, "editor");
+                        if (casRepository.saveIfVersion(edit, snapshot.getVersion()).isPresent()) {
+                            break;
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        editorPool.shutdown();
+
+        // Every edit applied exactly once on top of the initial version
+        assertEquals(1L + editors * editsPerEditor,
+                casRepository.findSnapshotById(content.getId()).get().getVersion());
+        Map<String, Object> stats = casRepository.getStatistics();
+        assertTrue((Long) stats.get("versionConflicts") >= 1);
+        assertEquals(1, ((Map<?, ?>) stats.get("indexSizes")).get("titleIndex"));
+    }
+
     // ====================================
     // Event Processing Service Tests
     // ====================================
@@ -500,6 +779,503 @@ public class MultithreadingTest {
         assertTrue((Double) stats.get("processingSuccessRate") > 0.5);
     }
 
+    @Test
+    @DisplayName("EventProcessingService - Ring Buffer Mode")
+    void testEventProcessingServiceRingBuffer() throws Exception {
+        EventProcessingService ringService = new EventProcessingService(1,
+                EventProcessingService.DispatchMode.RING_BUFFER, EventProcessingService.WaitStrategy.PARK, 1024);
+        User producer = new User("ringUser", "ring@example.com", "Ring User", "Password123!");
+        AtomicInteger delivered = new AtomicInteger(0);
+        ringService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { delivered.incrementAndGet(); }
+            @Override
+            public void onContentUpdated(ContentEvent event) { delivered.incrementAndGet(); }
+            @Override
+            public void onContentPublished(ContentEvent event) { delivered.incrementAndGet(); }
+            @Override
+            public void onContentDeleted(ContentEvent event) { delivered.incrementAndGet(); }
+        });
+        ringService.start();
+
+        int producers = 4;
+        int eventsPerProducer = 2000;
+        EventProcessingService.EventPriority[] priorities = EventProcessingService.EventPriority.values();
+        ExecutorService producerPool = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            futures.add(producerPool.submit(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    ContentEvent event = ContentEvent.builder()
+                        .eventType(ContentEvent.EventType.CREATED)
+                        .content(testContent.get(i % testContent.size()))
+                        .user(producer)
+                        .timestamp(LocalDateTime.now())
+                        .build();
+                    // Stay below the ring capacity so no event is refused
+                    while (ringService.getQueueSizes().values().stream().mapToInt(Integer::intValue).sum() > 512) {
+                        Thread.onSpinWait();
+                    }
+                    ringService.produceEvent(event, priorities[i % priorities.length]);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        producerPool.shutdown();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (delivered.get() < producers * eventsPerProducer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        ringService.stop();
+
+        // Every event reaches the observer exactly once
+        assertEquals(producers * eventsPerProducer, delivered.get());
+        Map<String, Object> stats = ringService.getStatistics();
+        assertEquals("RING_BUFFER", stats.get("dispatchMode"));
+        Map<?, ?> highLane = (Map<?, ?>) ((Map<?, ?>) stats.get("ringLanes")).get("high");
+        assertEquals((long) producers * eventsPerProducer / priorities.length, highLane.get("consumed"));
+        assertEquals(0L, highLane.get("rejected"));
+    }
+
+    @Test
+    @DisplayName("EventProcessingService - Observer Mailbox Isolation")
+    void testEventProcessingServiceObserverMailboxes() throws Exception {
+        EventProcessingService isolatedService = new EventProcessingService(1,
+                EventProcessingService.DispatchMode.RING_BUFFER, EventProcessingService.WaitStrategy.PARK, 4096);
+        User producer = new User("mailboxUser", "mailbox@example.com", "Mailbox User", "Password123!");
+        AtomicInteger fastDelivered = new AtomicInteger(0);
+        AtomicInteger slowDelivered = new AtomicInteger(0);
+        isolatedService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) { fastDelivered.incrementAndGet(); }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "FastObserver"; }
+        });
+        isolatedService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) {
+                slowDelivered.incrementAndGet();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "SlowObserver"; }
+        }, 8, EventProcessingService.OverflowPolicy.COALESCE_BY_CONTENT_ID);
+        isolatedService.start();
+
+        int numEvents = 1000;
+        for (int i = 0; i < numEvents; i++) {
+            ContentEvent event = ContentEvent.builder()
+                .eventType(ContentEvent.EventType.UPDATED)
+                .content(testContent.get(i % 5))
+                .user(producer)
+                .build();
+            isolatedService.produceEvent(event, EventProcessingService.EventPriority.HIGH);
+        }
+
+        // The slow observer must not hold back the fast one
+        long deadline = System.currentTimeMillis() + 5000;
+        while (fastDelivered.get() < numEvents && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(numEvents, fastDelivered.get());
+        assertTrue(slowDelivered.get() < numEvents / 2);
+
+        Map<?, ?> mailboxes = (Map<?, ?>) isolatedService.getStatistics().get("observerMailboxes");
+        Map<?, ?> slow = (Map<?, ?>) mailboxes.get("SlowObserver");
+        assertEquals("COALESCE_BY_CONTENT_ID", slow.get("policy"));
+        assertTrue((Long) slow.get("coalesced") > 0);
+        assertTrue((Integer) slow.get("maxDepth") <= 8);
+        assertTrue(slow.containsKey("averageLagMillis"));
+        isolatedService.stop();
+    }
+
+    @Test
+    @DisplayName("EventProcessingService - Failed Observer Events Are Retried")
+    void testEventProcessingServiceRetriesFailedObserverEvents() throws Exception {
+        EventProcessingService retryingService = new EventProcessingService(1);
+        User producer = new User("retryUser", "retry@example.com", "Retry User", "Password123!");
+        AtomicInteger attempts = new AtomicInteger(0);
+        CountDownLatch processed = new CountDownLatch(1);
+        retryingService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("Transient observer failure");
+                }
+                processed.countDown();
+            }
+            @Override
+            public void onContentUpdated(ContentEvent event) { }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "FlakyObserver"; }
+        });
+        retryingService.start();
+
+        retryingService.produceEvent(ContentEvent.contentCreated(testContent.get(0), producer),
+                EventProcessingService.EventPriority.HIGH);
+
+        // The failure is dead-lettered and retried instead of being acknowledged
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        Map<String, Object> stats = retryingService.getStatistics();
+        assertEquals(1L, stats.get("totalEventsFailed"));
+        assertEquals(1L, stats.get("totalEventsRetried"));
+        retryingService.stop();
+    }
+
+    @Test
+    @DisplayName("EventProcessingService - Update Event Coalescing")
+    void testEventProcessingServiceCoalescing() throws Exception {
+        EventProcessingService coalescingService = new EventProcessingService(1,
+                EventProcessingService.DispatchMode.RING_BUFFER, EventProcessingService.WaitStrategy.PARK, 4096);
+        User editor = new User("autosaveUser", "autosave@example.com", "Autosave User", "Password123!");
+        List<ContentEvent> updates = new CopyOnWriteArrayList<>();
+        List<String> order = new CopyOnWriteArrayList<>();
+        coalescingService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) {
+                updates.add(event);
+                order.add("updated:" + event.getContent().getId());
+            }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { order.add("deleted:" + event.getContent().getId()); }
+        });
+        coalescingService.setCoalescingWindow(200);
+        coalescingService.start();
+
+        // An autosave storm across three contents
+        for (int i = 0; i < 300; i++) {
+            coalescingService.produceEvent(ContentEvent.contentUpdated(testContent.get(i % 3), editor,
+                    Set.of("field" + (i % 4))), EventProcessingService.EventPriority.NORMAL);
+        }
+        Content deleted = testContent.get(0);
+        coalescingService.produceEvent(ContentEvent.contentDeleted(deleted, editor, "cleanup", false),
+                EventProcessingService.EventPriority.NORMAL);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (updates.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(300);
+        coalescingService.stop();
+
+        // One merged update per content, carrying every changed field
+        assertEquals(3, updates.size());
+        for (ContentEvent update : updates) {
+            assertEquals(Set.of("field0", "field1", "field2", "field3"), update.getChangedFields());
+            assertEquals(100, update.getMetadataValue("coalescedEvents"));
+        }
+        // The delete is not overtaken by the pending update of the same content
+        assertTrue(order.indexOf("updated:" + deleted.getId()) < order.indexOf("deleted:" + deleted.getId()));
+
+        Map<?, ?> coalescing = (Map<?, ?>) coalescingService.getStatistics().get("coalescing");
+        assertEquals(300L, coalescing.get("updatesReceived"));
+        assertEquals(3L, coalescing.get("updatesDispatched"));
+    }
+
+    @Test
+    @DisplayName("EventProcessingService - Weighted Fair Lanes with Starvation Protection")
+    void testEventProcessingServicePriorityLanes() throws Exception {
+        EventProcessingService laneService = new EventProcessingService(1);
+        EventProcessingService.LaneOptions laneOptions = new EventProcessingService.LaneOptions();
+        laneOptions.setHighWeight(1000);
+        laneOptions.setStarvationThresholdMillis(50);
+        laneService.setLaneOptions(laneOptions);
+
+        User producer = new User("laneUser", "lane@example.com", "Lane User", "Password123!");
+        Content highContent = testContent.get(0);
+        Content lowContent = testContent.get(1);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        // A slow observer with a one-slot mailbox keeps the single consumer busy
+        laneService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) {
+                delivered.add(event.getContent().getId());
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "LaneObserver"; }
+        }, 1, EventProcessingService.OverflowPolicy.BLOCK);
+        laneService.start();
+
+        int numHigh = 500;
+        for (int i = 0; i < numHigh; i++) {
+            laneService.produceEvent(ContentEvent.builder()
+                .eventType(ContentEvent.EventType.UPDATED)
+                .content(highContent)
+                .user(producer)
+                .build(), EventProcessingService.EventPriority.HIGH);
+        }
+        laneService.produceEvent(ContentEvent.builder()
+            .eventType(ContentEvent.EventType.UPDATED)
+            .content(lowContent)
+            .user(producer)
+            .build(), EventProcessingService.EventPriority.LOW);
+
+        long deadline = System.currentTimeMillis() + 20000;
+        while (delivered.size() < numHigh + 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(numHigh + 1, delivered.size());
+
+        // Despite a 1000:1 weight the LOW event is not left until the HIGH flood ends
+        assertTrue(delivered.indexOf(lowContent.getId()) < numHigh);
+
+        Map<?, ?> lanes = (Map<?, ?>) laneService.getStatistics().get("priorityLanes");
+        assertTrue((Long) lanes.get("starvationPromotions") >= 1);
+        Map<?, ?> high = (Map<?, ?>) lanes.get("high");
+        Map<?, ?> low = (Map<?, ?>) lanes.get("low");
+        assertEquals(1000, high.get("weight"));
+        assertEquals((long) numHigh, high.get("dequeued"));
+        Map<?, ?> lowWait = (Map<?, ?>) low.get("waitTime");
+        assertEquals(1L, lowWait.get("count"));
+        assertTrue((Long) lowWait.get("maxMicros") >= 50_000);
+        assertTrue(lowWait.containsKey("p99Micros"));
+        laneService.stop();
+    }
+
+    @Test
+    @DisplayName("EventProcessingService - Consumer Autoscaling")
+    void testEventProcessingServiceAutoscaling() throws Exception {
+        EventProcessingService scalingService = new EventProcessingService(1);
+        EventProcessingService.AutoscaleOptions autoscaleOptions = new EventProcessingService.AutoscaleOptions();
+        autoscaleOptions.setMinConsumers(1);
+        autoscaleOptions.setMaxConsumers(4);
+        autoscaleOptions.setIntervalMillis(50);
+        autoscaleOptions.setScaleDownIdleIntervals(2);
+        scalingService.enableAutoscaling(autoscaleOptions);
+
+        User producer = new User("scaleUser", "scale@example.com", "Scale User", "Password123!");
+        AtomicInteger delivered = new AtomicInteger(0);
+        scalingService.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) {
+                delivered.incrementAndGet();
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "ScalingObserver"; }
+        }, 1, EventProcessingService.OverflowPolicy.BLOCK);
+        scalingService.start();
+        assertEquals(1, scalingService.getStatistics().get("activeConsumers"));
+
+        int numEvents = 400;
+        for (int i = 0; i < numEvents; i++) {
+            scalingService.produceEvent(ContentEvent.builder()
+                .eventType(ContentEvent.EventType.UPDATED)
+                .content(testContent.get(i % 5))
+                .user(producer)
+                .build(), EventProcessingService.EventPriority.NORMAL);
+        }
+
+        // The backlog of a slow observer adds consumers, up to the maximum
+        int peakConsumers = 1;
+        long deadline = System.currentTimeMillis() + 20000;
+        while (delivered.get() < numEvents && System.currentTimeMillis() < deadline) {
+            peakConsumers = Math.max(peakConsumers, (Integer) scalingService.getStatistics().get("activeConsumers"));
+            Thread.sleep(10);
+        }
+        assertEquals(numEvents, delivered.get());
+        assertTrue(peakConsumers > 1);
+        assertTrue(peakConsumers <= 4);
+
+        // Once idle, consumers are retired back to the minimum
+        deadline = System.currentTimeMillis() + 5000;
+        while ((Integer) scalingService.getStatistics().get("activeConsumers") > 1 &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, scalingService.getStatistics().get("activeConsumers"));
+        Map<?, ?> autoscaling = (Map<?, ?>) scalingService.getStatistics().get("autoscaling");
+        assertTrue((Long) autoscaling.get("scaleUps") > 0);
+        assertTrue((Long) autoscaling.get("scaleDowns") > 0);
+        scalingService.stop();
+    }
+
+    @Test
+    @DisplayName("EventProcessingService - Journal Replay After Restart")
+    void testEventProcessingServiceJournalReplay() throws Exception {
+        java.nio.file.Path journalDir = java.nio.file.Files.createTempDirectory("event-journal");
+        User editor = new User("journalUser", "journal@example.com", "Journal User", "Password123!");
+        int numEvents = 5000;
+
+        // First instance: the observer never finishes an event before the "crash"
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        EventProcessingService crashed = new EventProcessingService(1,
+                EventProcessingService.DispatchMode.RING_BUFFER, EventProcessingService.WaitStrategy.PARK, 8192);
+        crashed.enableJournal(new EventProcessingService.JournalOptions(journalDir));
+        crashed.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) {
+                try {
+                    neverReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "JournaledObserver"; }
+        }, numEvents, EventProcessingService.OverflowPolicy.BLOCK);
+        crashed.start();
+        for (int i = 0; i < numEvents; i++) {
+            crashed.produceEvent(ContentEvent.contentUpdated(testContent.get(i % 5), editor, Set.of("title")),
+                    EventProcessingService.EventPriority.NORMAL);
+        }
+        crashed.stop();
+        crashed.closeJournal();
+
+        // Second instance over the same journal: the observer gets every event again
+        Set<String> replayedIds = ConcurrentHashMap.newKeySet();
+        EventProcessingService restarted = new EventProcessingService(1,
+                EventProcessingService.DispatchMode.RING_BUFFER, EventProcessingService.WaitStrategy.PARK, 1024);
+        restarted.enableJournal(new EventProcessingService.JournalOptions(journalDir));
+        restarted.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) {
+                assertEquals(Set.of("title"), event.getChangedFields());
+                assertNotNull(event.getContent().getId());
+                replayedIds.add(event.getEventId());
+            }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "JournaledObserver"; }
+        }, numEvents, EventProcessingService.OverflowPolicy.BLOCK);
+        restarted.start();
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (replayedIds.size() < numEvents && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(numEvents, replayedIds.size());
+
+        Map<?, ?> journal = (Map<?, ?>) restarted.getStatistics().get("journal");
+        assertEquals((long) numEvents, journal.get("replayedEvents"));
+        assertTrue((Double) journal.get("replayEventsPerSecond") > 0);
+
+        // Once delivered and checkpointed, nothing is replayed a third time
+        restarted.stop();
+        restarted.closeJournal();
+        EventProcessingService third = new EventProcessingService(1,
+                EventProcessingService.DispatchMode.RING_BUFFER, EventProcessingService.WaitStrategy.PARK, 1024);
+        third.enableJournal(new EventProcessingService.JournalOptions(journalDir));
+        third.registerObserver(new ContentObserver() {
+            @Override
+            public void onContentCreated(ContentEvent event) { }
+            @Override
+            public void onContentUpdated(ContentEvent event) { }
+            @Override
+            public void onContentPublished(ContentEvent event) { }
+            @Override
+            public void onContentDeleted(ContentEvent event) { }
+            @Override
+            public String getObserverName() { return "JournaledObserver"; }
+        });
+        third.start();
+        assertEquals(0L, ((Map<?, ?>) third.getStatistics().get("journal")).get("replayedEvents"));
+        third.stop();
+        third.closeJournal();
+        neverReleased.countDown();
+    }
+
+    @Test
+    @DisplayName("EventJournal - Segments Recovered On Restart Are Deleted Once Consumed")
+    void testEventJournalRetentionAfterRestart() throws Exception {
+        java.nio.file.Path journalDir = java.nio.file.Files.createTempDirectory("journal-retention");
+        User editor = new User("retentionUser", "retention@example.com", "Retention User", "Password123!");
+        Content content = testContent.get(0);
+
+        // First run: events are offered but never acknowledged, so every segment is kept
+        EventJournal crashed = EventJournal.open(journalDir, 16 * 1024, false, 60000);
+        crashed.registerConsumer("RetainedObserver");
+        for (int i = 0; i < 200; i++) {
+            ContentEvent event = ContentEvent.contentUpdated(content, editor, Set.of("title"));
+            long sequence = crashed.append(event, EventProcessingService.EventPriority.NORMAL);
+            crashed.track("RetainedObserver", sequence);
+            crashed.markDispatched(event, sequence);
+        }
+        crashed.close();
+
+        // Restart: replay, acknowledge new events and checkpoint
+        EventJournal restarted = EventJournal.open(journalDir, 16 * 1024, false, 60000);
+        int recoveredSegments = (Integer) restarted.getStatistics().get("segments");
+        assertTrue(recoveredSegments > 1);
+        long afterSequence = restarted.registerConsumer("RetainedObserver");
+        assertEquals(200, restarted.replay(afterSequence, (sequence, event, priority) -> { }));
+        for (int i = 0; i < 50; i++) {
+            ContentEvent event = ContentEvent.contentUpdated(content, editor, Set.of("title"));
+            long sequence = restarted.append(event, EventProcessingService.EventPriority.NORMAL);
+            restarted.track("RetainedObserver", sequence);
+            restarted.markDispatched(event, sequence);
+            restarted.acknowledge("RetainedObserver", sequence);
+        }
+        restarted.checkpoint();
+
+        // Only the active segment is left
+        Map<String, Object> stats = restarted.getStatistics();
+        assertEquals(1, stats.get("segments"));
+        assertTrue((Long) stats.get("deletedSegments") >= recoveredSegments - 1);
+        restarted.close();
+    }
+
     // ====================================
     // Integration Tests
     // ====================================
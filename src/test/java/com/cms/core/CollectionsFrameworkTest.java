@@ -1,12 +1,20 @@
 package com.cms.core;
 
 import com.cms.core.model.*;
+import com.cms.core.repository.BitmapIndex;
+import com.cms.core.repository.CachingContentRepository;
+import com.cms.core.repository.CompressedBitmap;
+import com.cms.core.repository.ContentIdInterner;
+import com.cms.core.repository.ContentRepository;
+import com.cms.core.repository.Page;
 import com.cms.core.repository.Repository;
 import com.cms.core.repository.RepositoryException;
+import com.cms.patterns.factory.ArticleContent;
 import com.cms.patterns.factory.ContentFactory;
 import com.cms.patterns.composite.Category;
 import com.cms.patterns.composite.ContentItem;
 import com.cms.patterns.iterator.ContentIterator;
+import com.cms.patterns.observer.ContentEvent;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -733,6 +741,422 @@ public class CollectionsFrameworkTest {
         }
     }
 
+    /**
+     * Tests for the bitmap-backed secondary index engine used by the repositories.
+     */
+    @Nested
+    @DisplayName("Bitmap Index Tests")
+    class BitmapIndexTests {
+
+        @Test
+        @DisplayName("Should match TreeSet semantics across sparse and dense chunks")
+        void shouldMatchTreeSetSemantics() {
+            // Arrange
+            Random random = new Random(42);
+            CompressedBitmap bitmap = CompressedBitmap.empty();
+            TreeSet<Integer> expected = new TreeSet<>();
+
+            // Act - dense low range forces bitmap chunks, sparse high range stays in arrays
+            for (int i = 0; i < 20000; i++) {
+                int value = i % 2 == 0 ? random.nextInt(8000) : 100000 + random.nextInt(1000000);
+                if (random.nextInt(4) == 0) {
+                    bitmap = bitmap.without(value);
+                    expected.remove(value);
+                } else {
+                    bitmap = bitmap.with(value);
+                    expected.add(value);
+                }
+            }
+
+            // Assert
+            assertEquals(expected.size(), bitmap.cardinality());
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), bitmap.toArray());
+        }
+
+        @Test
+        @DisplayName("Should intersect and union postings")
+        void shouldIntersectAndUnionPostings() {
+            // Arrange
+            CompressedBitmap published = CompressedBitmap.of(1, 2, 3, 70000);
+            CompressedBitmap byAuthor = CompressedBitmap.of(2, 3, 4, 70000);
+
+            // Act & Assert
+            assertArrayEquals(new int[] { 2, 3, 70000 }, published.and(byAuthor).toArray());
+            assertArrayEquals(new int[] { 1, 2, 3, 4, 70000 }, published.or(byAuthor).toArray());
+            assertSame(published, published.with(2));
+        }
+
+        @Test
+        @DisplayName("Should index interned ordinals by key and range")
+        void shouldIndexInternedOrdinalsByKeyAndRange() {
+            // Arrange
+            ContentIdInterner interner = new ContentIdInterner();
+            BitmapIndex<Integer> index = BitmapIndex.sorted();
+            int first = interner.intern("content-a");
+            int second = interner.intern("content-b");
+
+            // Act
+            index.add(1, first);
+            index.add(5, second);
+            index.add(9, first);
+
+            // Assert
+            assertEquals(first, interner.intern("content-a"));
+            assertEquals("content-b", interner.resolve(second));
+            assertArrayEquals(new int[] { first, second }, index.range(1, 5).toArray());
+            index.remove(5, second);
+            assertEquals(2, index.keyCount());
+            interner.release("content-b");
+            assertNull(interner.resolve(second));
+            assertEquals(second, interner.intern("content-c"));
+        }
+
+        @Test
+        @DisplayName("Should intern and release IDs concurrently without deadlocking")
+        void shouldInternAndReleaseConcurrently() throws Exception {
+            // Arrange
+            ContentIdInterner interner = new ContentIdInterner(16);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> workers = new ArrayList<>();
+
+            // Act - threads share a small ID space so interns and releases collide
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                workers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20000; i++) {
+                        String id = "content-" + random.nextInt(64);
+                        if (random.nextBoolean()) {
+                            int ordinal = interner.intern(id);
+                            assertTrue(ordinal >= 0);
+                        } else {
+                            interner.release(id);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // Assert - every live ID resolves back to itself
+            for (int i = 0; i < 64; i++) {
+                String id = "content-" + i;
+                int ordinal = interner.ordinalOf(id);
+                if (ordinal >= 0) {
+                    assertEquals(id, interner.resolve(ordinal));
+                }
+            }
+            assertTrue(interner.size() <= 64);
+        }
+    }
+
+    /**
+     * Tests for batch updates applied through the bitmap indexes.
+     */
+    @Nested
+    @DisplayName("Batch Update Tests")
+    class BatchUpdateTests {
+
+        @Test
+        @DisplayName("Should apply batch updates and move index postings")
+        void shouldApplyBatchUpdatesAndMoveIndexPostings() throws Exception {
+            // Arrange
+            ContentRepository repository = new ContentRepository();
+            for (int i = 0; i < 40; i++) {
+                Content content = ContentFactory.createContent("ARTICLE", "Batch Article " + i,
+                        "Batch article body that is long enough to pass validation",
+                        i % 2 == 0 ? "writer-a" : "writer-b");
+                repository.save(content);
+            }
+            Map<String, Object> criteria = new HashMap<>();
+            criteria.put("createdBy", "writer-a");
+            criteria.put("status", ContentStatus.DRAFT);
+            Map<String, Object> update = new HashMap<>();
+            update.put("status", ContentStatus.ARCHIVED);
+            update.put("createdBy", "writer-c");
+            update.put("modifiedBy", "nightly-job");
+
+            // Act
+            long updated = repository.batchUpdate(criteria, update);
+
+            // Assert
+            assertEquals(20, updated);
+            assertEquals(20, repository.findByStatus(ContentStatus.ARCHIVED).size());
+            assertEquals(20, repository.findByAuthor("writer-c").size());
+            assertTrue(repository.findByAuthor("writer-a").isEmpty());
+            assertEquals(20, repository.findByStatus(ContentStatus.DRAFT).size());
+            assertThrows(IllegalArgumentException.class,
+                    () -> repository.batchUpdate(criteria, Map.of("unknownField", "value")));
+        }
+
+        @Test
+        @DisplayName("Should bump versions so conditional saves from before the batch conflict")
+        void shouldBumpVersionsOfBatchUpdatedItems() throws Exception {
+            // Arrange
+            ContentRepository repository = new ContentRepository();
+            Content content = ContentFactory.createContent("ARTICLE", "Versioned Article",
+                    "Versioned article body that is long enough to pass validation", "writer-a");
+            repository.save(content);
+            long versionBeforeBatch = repository.getVersion(content.getId());
+
+            // Act
+            repository.batchUpdate(Map.of("createdBy", "writer-a"), Map.of("status", ContentStatus.ARCHIVED));
+
+            // Assert
+            assertEquals(versionBeforeBatch + 1, repository.getVersion(content.getId()));
+            assertFalse(repository.saveIfVersion(content, versionBeforeBatch));
+            assertEquals(1, repository.getVersionConflicts());
+            assertTrue(repository.saveIfVersion(content, versionBeforeBatch + 1));
+        }
+
+        @Test
+        @DisplayName("Should update large candidate sets in parallel partitions")
+        void shouldUpdateLargeCandidateSetsInParallel() throws Exception {
+            // Arrange - enough matching items to take the parallel path
+            ContentRepository repository = new ContentRepository();
+            for (int i = 0; i < 6000; i++) {
+                repository.save(ContentFactory.createContent("ARTICLE", "Bulk Article " + i,
+                        "Bulk article body that is long enough to pass validation",
+                        i % 3 == 0 ? "writer-b" : "writer-a"));
+            }
+            Map<String, Object> criteria = new HashMap<>();
+            criteria.put("createdBy", "writer-a");
+            Map<String, Object> update = new HashMap<>();
+            update.put("status", ContentStatus.PUBLISHED);
+            update.put("createdBy", "writer-c");
+
+            // Act
+            long updated = repository.batchUpdate(criteria, update);
+
+            // Assert
+            assertEquals(4000, updated);
+            assertEquals(4000, repository.findByAuthor("writer-c").size());
+            assertEquals(4000, repository.findByStatus(ContentStatus.PUBLISHED).size());
+            assertEquals(2000, repository.findByStatus(ContentStatus.DRAFT).size());
+            assertTrue(repository.findByAuthor("writer-a").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should keep indexes consistent when an update fails partway")
+        void shouldKeepIndexesConsistentWhenUpdateFails() throws Exception {
+            // Arrange - one item rejects the status change after its title changed
+            ContentRepository repository = new ContentRepository();
+            for (int i = 0; i < 10; i++) {
+                repository.save(ContentFactory.createContent("ARTICLE", "Batch Article " + i,
+                        "Batch article body that is long enough to pass validation", "writer-a"));
+            }
+            repository.save(new ArticleContent("Locked Article",
+                    "Locked article body that is long enough to pass validation", "writer-a", new HashMap<>()) {
+                @Override
+                public void setStatus(ContentStatus status, String modifiedBy) {
+                    throw new IllegalStateException("Status is locked");
+                }
+            });
+            Map<String, Object> update = new HashMap<>();
+            update.put("createdBy", "writer-c");
+            update.put("status", ContentStatus.ARCHIVED);
+
+            // Act
+            assertThrows(RepositoryException.class,
+                    () -> repository.batchUpdate(Map.of("createdBy", "writer-a"), update));
+
+            // Assert - every index lookup agrees with the content as it now is
+            List<Content> all = repository.findAll();
+            for (String author : List.of("writer-a", "writer-c")) {
+                long expected = all.stream().filter(content -> author.equals(content.getCreatedBy())).count();
+                assertEquals(expected, repository.findByAuthor(author).size());
+            }
+            for (ContentStatus status : ContentStatus.values()) {
+                long expected = all.stream().filter(content -> content.getStatus() == status).count();
+                assertEquals(expected, repository.findByStatus(status).size());
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep indexes consistent under concurrent saves and batch updates")
+        void shouldKeepIndexesConsistentUnderConcurrentSaves() throws Exception {
+            // Arrange
+            ContentRepository repository = new ContentRepository();
+            List<Content> contents = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Content content = ContentFactory.createContent("ARTICLE", "Concurrent Article " + i,
+                        "Concurrent article body that is long enough to pass validation", "writer-a");
+                contents.add(content);
+                repository.save(content);
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(5);
+            List<Future<?>> workers = new ArrayList<>();
+
+            // Act - saves of the same items race with batches moving them between authors
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                workers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2000; i++) {
+                        repository.save(contents.get(random.nextInt(contents.size())));
+                    }
+                    return null;
+                }));
+            }
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    String from = i % 2 == 0 ? "writer-a" : "writer-b";
+                    String to = i % 2 == 0 ? "writer-b" : "writer-a";
+                    repository.batchUpdate(Map.of("createdBy", from), Map.of("createdBy", to));
+                }
+                return null;
+            }));
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // Assert - the author index agrees with every item's current author
+            for (String author : List.of("writer-a", "writer-b")) {
+                long expected = contents.stream().filter(content -> author.equals(content.getCreatedBy())).count();
+                assertEquals(expected, repository.findByAuthor(author).size());
+            }
+            assertEquals(contents.size(), repository.findByAuthor("writer-a").size()
+                    + repository.findByAuthor("writer-b").size());
+        }
+    }
+
+    /**
+     * Tests for keyset pagination over the repository's sorted page index.
+     */
+    @Nested
+    @DisplayName("Cursor Pagination Tests")
+    class CursorPaginationTests {
+
+        @Test
+        @DisplayName("Should visit every item once while content is added between pages")
+        void shouldVisitEveryItemOnceUnderConcurrentInserts() throws Exception {
+            // Arrange
+            ContentRepository repository = new ContentRepository();
+            Set<String> original = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                Content content = ContentFactory.createContent("ARTICLE", "Paged Article " + i,
+                        "Paged article body that is long enough to pass validation", testUser.getUsername());
+                repository.save(content);
+                original.add(content.getId());
+            }
+
+            // Act
+            Set<String> seen = new HashSet<>();
+            String token = null;
+            int pages = 0;
+            do {
+                Page<Content> page = repository.findPage(token, 15);
+                for (Content content : page.getItems()) {
+                    assertTrue(seen.add(content.getId()), "No item should be returned twice");
+                }
+                token = page.getContinuationToken();
+                pages++;
+                repository.save(ContentFactory.createContent("ARTICLE", "Late Article " + pages,
+                        "Late article body that is long enough to pass validation", testUser.getUsername()));
+            } while (token != null);
+
+            // Assert
+            assertTrue(seen.containsAll(original), "Every item present throughout should be visited");
+            assertThrows(IllegalArgumentException.class, () -> repository.findPage("not-a-token", 15));
+        }
+
+        @Test
+        @DisplayName("Should fall back to offset tokens for repositories without a page index")
+        void shouldFallBackToOffsetTokens() throws Exception {
+            // Arrange
+            for (int i = 0; i < 5; i++) {
+                contentRepository.save(ContentFactory.createContent("ARTICLE", "Fallback Article " + i,
+                        "Fallback article body that is long enough to pass validation", testUser.getUsername()));
+            }
+
+            // Act
+            Page<Content> first = contentRepository.findPage(null, 3);
+            Page<Content> second = contentRepository.findPage(first.getContinuationToken(), 3);
+
+            // Assert
+            assertEquals(3, first.size());
+            assertTrue(first.hasNext());
+            assertEquals(2, second.size());
+            assertFalse(second.hasNext());
+        }
+    }
+
+    /**
+     * Tests for the read-through caching repository decorator.
+     */
+    @Nested
+    @DisplayName("Caching Repository Tests")
+    class CachingRepositoryTests {
+
+        @Test
+        @DisplayName("Should serve repeated and missing lookups from the cache")
+        void shouldServeRepeatedAndNegativeLookupsFromCache() throws Exception {
+            // Arrange
+            CachingContentRepository cache = new CachingContentRepository(new ContentRepository());
+            Content content = ContentFactory.createContent("ARTICLE", "Cached Article",
+                    "Cached article body that is long enough to pass validation", testUser.getUsername());
+            cache.save(content);
+
+            // Act
+            for (int i = 0; i < 5; i++) {
+                assertTrue(cache.findById(content.getId()).isPresent());
+                assertFalse(cache.findById("missing-id").isPresent());
+            }
+            cache.getInvalidationObserver().onContentUpdated(
+                    ContentEvent.contentUpdated(content, testUser, Set.of("title")));
+            cache.findById(content.getId());
+
+            // Assert
+            Map<String, Object> stats = cache.getStatistics();
+            assertEquals(2L, stats.get("misses"), "Only the first miss and the reload should reach the delegate");
+            assertEquals(9L, stats.get("hits"));
+            assertEquals(4L, stats.get("negativeHits"));
+            assertEquals(1L, stats.get("invalidations"));
+            assertEquals(9.0 / 11.0, (Double) stats.get("hitRatio"), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Should keep frequently read content when a scan exceeds capacity")
+        void shouldKeepHotContentDuringScan() throws Exception {
+            // Arrange
+            ContentRepository backing = new ContentRepository();
+            CachingContentRepository.CacheOptions options = new CachingContentRepository.CacheOptions();
+            options.setMaximumSize(50);
+            CachingContentRepository cache = new CachingContentRepository(backing, options);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                Content content = ContentFactory.createContent("ARTICLE", "Scan Article " + i,
+                        "Scan article body that is long enough to pass validation", testUser.getUsername());
+                backing.save(content);
+                ids.add(content.getId());
+            }
+            for (int round = 0; round < 10; round++) {
+                for (String id : ids.subList(0, 10)) {
+                    cache.findById(id);
+                }
+            }
+
+            // Act
+            for (String id : ids) {
+                cache.findById(id);
+            }
+            cache.cleanUp();
+            long missesBefore = (Long) cache.getStatistics().get("misses");
+            for (String id : ids.subList(0, 10)) {
+                cache.findById(id);
+            }
+
+            // Assert
+            Map<String, Object> stats = cache.getStatistics();
+            assertEquals(missesBefore, stats.get("misses"), "Hot entries should survive the scan");
+            assertTrue(cache.estimatedSize() <= 50);
+            assertEquals(250L, stats.get("evictions"));
+        }
+    }
+
     /**
      * Performance tests for collection operations.
      */
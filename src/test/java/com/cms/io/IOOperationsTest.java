@@ -1,6 +1,8 @@
 package com.cms.io;
 
 import com.cms.core.model.*;
+import com.cms.core.repository.PersistentContentRepository;
+import com.cms.core.repository.RepositoryException;
 import com.cms.patterns.factory.ContentFactory;
 import com.cms.util.CMSLogger;
 
@@ -21,6 +23,7 @@ import java.nio.file.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -1124,6 +1127,173 @@ public class IOOperationsTest {
         }
     }
 
+    /**
+     * Tests for the segment-log backed PersistentContentRepository.
+     */
+    @Nested
+    @DisplayName("Persistent Repository I/O Tests")
+    class PersistentRepositoryIOTests {
+
+        @Test
+        @DisplayName("Should recover saved and deleted content after reopening")
+        void shouldRecoverContentAfterReopening() throws Exception {
+            // Arrange
+            Path dataDir = tempDir.resolve("segment-log");
+            PersistentContentRepository.StorageOptions options = new PersistentContentRepository.StorageOptions();
+            options.setSegmentSize(64 * 1024);
+            options.setCompactionIntervalMillis(0);
+
+            List<String> ids = new ArrayList<>();
+            try (PersistentContentRepository repository = new PersistentContentRepository(dataDir, options)) {
+                for (int i = 0; i < 50; i++) {
+                    Content content = ContentFactory.createContent("ARTICLE", "Durable Article " + i,
+                            "Durable article body that is long enough to pass validation " + i,
+                            testUser.getUsername());
+                    repository.save(content);
+                    ids.add(content.getId());
+                }
+                for (int i = 0; i < 10; i++) {
+                    repository.deleteById(ids.get(i));
+                }
+            }
+
+            // Act
+            try (PersistentContentRepository reopened = new PersistentContentRepository(dataDir, options)) {
+                // Assert
+                assertEquals(40, reopened.count(), "Deletes should survive a restart");
+                assertFalse(reopened.existsById(ids.get(0)), "Deleted content should stay deleted");
+                Optional<Content> recovered = reopened.findById(ids.get(25));
+                assertTrue(recovered.isPresent(), "Saved content should be recovered");
+                assertEquals("Durable Article 25", recovered.get().getTitle());
+                assertEquals(60L, reopened.getStatistics().get("recoveredRecords"));
+            }
+        }
+
+        @Test
+        @DisplayName("Should compact superseded records and keep latest versions")
+        void shouldCompactSupersededRecords() throws Exception {
+            // Arrange
+            PersistentContentRepository.StorageOptions options = new PersistentContentRepository.StorageOptions();
+            options.setSegmentSize(64 * 1024);
+            options.setCompactionIntervalMillis(0);
+            options.setCompactionThreshold(0.3);
+
+            try (PersistentContentRepository repository =
+                    new PersistentContentRepository(tempDir.resolve("compaction"), options)) {
+                List<Content> saved = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    saved.add(ContentFactory.createContent("ARTICLE", "Article " + i,
+                            "Body text for article that is long enough to pass validation " + i,
+                            testUser.getUsername()));
+                }
+                repository.saveAll(saved);
+                for (Content content : saved) {
+                    content.setTitle("Updated " + content.getTitle(), testUser.getUsername());
+                }
+                repository.saveAll(saved);
+
+                // Act
+                int compacted = repository.compact();
+
+                // Assert
+                assertTrue(compacted > 0, "Segments holding superseded records should be compacted");
+                assertEquals(200, repository.count());
+                assertEquals("Updated Article 7",
+                        repository.findById(saved.get(7).getId()).get().getTitle());
+                assertTrue((double) repository.getStatistics().get("garbageRatio") < 0.3);
+            }
+        }
+
+        @Test
+        @DisplayName("Should ignore a torn record at the end of the log")
+        void shouldIgnoreTornTailRecord() throws Exception {
+            // Arrange
+            Path dataDir = tempDir.resolve("torn-tail");
+            String id;
+            try (PersistentContentRepository repository = new PersistentContentRepository(dataDir)) {
+                Content content = ContentFactory.createContent("ARTICLE", "Survivor",
+                        "Survivor body that is long enough to pass article validation", testUser.getUsername());
+                repository.save(content);
+                id = content.getId();
+            }
+
+            // Simulate a partially written record just past the last intact one
+            Path segment;
+            try (Stream<Path> files = Files.list(dataDir)) {
+                segment = files.findFirst().orElseThrow();
+            }
+            try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+                int firstLength = file.readInt();
+                file.seek(firstLength);
+                file.writeInt(512);
+                file.writeInt(0xCAFEBABE);
+            }
+
+            // Act & Assert
+            try (PersistentContentRepository reopened = new PersistentContentRepository(dataDir)) {
+                assertEquals(1, reopened.count(), "Torn tail record should be discarded");
+                assertEquals("Survivor", reopened.findById(id).get().getTitle());
+            }
+        }
+
+        @Test
+        @DisplayName("Should fail writes after close instead of reporting them durable")
+        void shouldFailWritesAfterClose() throws Exception {
+            // Arrange
+            Path dataDir = tempDir.resolve("closed-log");
+            PersistentContentRepository repository = new PersistentContentRepository(dataDir);
+            Content before = ContentFactory.createContent("ARTICLE", "Before Close",
+                    "Body written before the repository was closed", testUser.getUsername());
+            repository.save(before);
+            repository.close();
+
+            // Act & Assert
+            Content after = ContentFactory.createContent("ARTICLE", "After Close",
+                    "Body written after the repository was closed", testUser.getUsername());
+            assertThrows(RepositoryException.class, () -> repository.save(after));
+            assertThrows(RepositoryException.class, () -> repository.deleteById(before.getId()));
+            try (PersistentContentRepository reopened = new PersistentContentRepository(dataDir)) {
+                assertEquals(1, reopened.count());
+                assertTrue(reopened.existsById(before.getId()));
+            }
+        }
+
+        @Test
+        @DisplayName("Should page by content ID and follow added and deleted items")
+        void shouldPageByContentId() throws Exception {
+            // Arrange
+            PersistentContentRepository.StorageOptions options = new PersistentContentRepository.StorageOptions();
+            options.setCompactionIntervalMillis(0);
+
+            try (PersistentContentRepository repository =
+                    new PersistentContentRepository(tempDir.resolve("paging"), options)) {
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < 30; i++) {
+                    Content content = ContentFactory.createContent("ARTICLE", "Paged Article " + i,
+                            "Paged article body that is long enough to pass validation " + i,
+                            testUser.getUsername());
+                    repository.save(content);
+                    ids.add(content.getId());
+                }
+                Collections.sort(ids);
+
+                // Act
+                List<Content> secondPage = repository.findAll(1, 10);
+                repository.deleteById(ids.get(10));
+                List<Content> afterDelete = repository.findAll(1, 10);
+
+                // Assert
+                assertEquals(ids.subList(10, 20),
+                        secondPage.stream().map(Content::getId).collect(Collectors.toList()));
+                assertEquals(ids.subList(11, 21),
+                        afterDelete.stream().map(Content::getId).collect(Collectors.toList()),
+                        "Pages should reflect deletes made after an earlier read");
+                assertEquals(9, repository.findAll(2, 10).size());
+                assertTrue(repository.findAll(3, 10).isEmpty());
+            }
+        }
+    }
+
     // Helper classes and methods
 
     /**
@@ -1,15 +1,22 @@
 package com.cms.patterns.observer;
 
+import com.cms.concurrent.EventProcessingService;
+import com.cms.concurrent.ExecutorRegistry;
 import com.cms.core.model.*;
 import com.cms.patterns.factory.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -252,6 +259,61 @@ class ObserverPatternTest {
             });
         }
 
+        @Test
+        @DisplayName("Should keep events compact with monotonic numbers and explicit values")
+        void testContentEventCompactRepresentation() {
+            ContentEvent first = ContentEvent.contentCreated(testContent, testUser);
+            ContentEvent second = ContentEvent.contentCreated(testContent, testUser);
+
+            // Event numbers are monotonic and generated IDs unique
+            assertTrue(second.getEventNumber() > first.getEventNumber());
+            assertNotEquals(first.getEventId(), second.getEventId());
+            assertNotEquals(first, second);
+
+            // Generated timestamps follow the wall clock
+            java.time.Instant now = java.time.Instant.now();
+            long wallNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+            assertTrue(Math.abs(wallNanos - second.getTimestampNanos()) < TimeUnit.SECONDS.toNanos(1));
+
+            // Absent collections read as empty without being allocated per event
+            assertTrue(first.getMetadata().isEmpty());
+            assertTrue(first.getChangedFields().isEmpty());
+            assertNull(first.getMetadataValue("missing"));
+
+            // Explicit timestamps and IDs survive unchanged
+            LocalDateTime when = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456789);
+            ContentEvent updated = ContentEvent.builder()
+                .eventId("fixed-id")
+                .eventType(ContentEvent.EventType.UPDATED)
+                .content(testContent)
+                .user(testUser)
+                .timestamp(when)
+                .addMetadata("version", 2)
+                .addMetadata("version", 3)
+                .addPreviousValue("title", "Old Title")
+                .addChangedField("title")
+                .addContext("ip", "127.0.0.1")
+                .build();
+            assertEquals("fixed-id", updated.getEventId());
+            assertEquals(when, updated.getTimestamp());
+            assertEquals(when, ContentEvent.builder(ContentEvent.EventType.UPDATED, testContent)
+                .user(testUser).timestampNanos(updated.getTimestampNanos()).build().getTimestamp());
+
+            assertEquals(3, updated.getMetadataValue("version"));
+            assertEquals(Map.of("version", 3), updated.getMetadata());
+            assertEquals("Old Title", updated.getPreviousValue("title"));
+            assertTrue(updated.wasFieldChanged("title"));
+            assertEquals(Set.of("title"), updated.getChangedFields());
+            assertEquals("127.0.0.1", updated.getAdditionalContext().get("ip"));
+            assertThrows(UnsupportedOperationException.class, () -> updated.getMetadata().put("x", 1));
+
+            // Events sharing an explicit ID are equal
+            ContentEvent copy = ContentEvent.builder(ContentEvent.EventType.UPDATED, testContent)
+                .eventId("fixed-id").user(testUser).build();
+            assertEquals(updated, copy);
+            assertEquals(updated.hashCode(), copy.hashCode());
+        }
+
         @Test
         @DisplayName("Should maintain event immutability")
         void testContentEventImmutability() {
@@ -342,6 +404,75 @@ class ObserverPatternTest {
             assertTrue(testObserver1.getLastEvent().isTemporaryDeletion());
         }
 
+        @Test
+        @DisplayName("Should deliver each event once and follow registration changes")
+        void testSingleDeliveryPerObserver() {
+            contentSubject.addObserver(testObserver1);
+            contentSubject.addObserver(testObserver2);
+
+            contentSubject.notifyObservers(ContentEvent.contentCreated(testContent, testUser));
+            assertEquals(1, testObserver1.getNotificationCount());
+            assertEquals(1, testObserver2.getNotificationCount());
+
+            contentSubject.removeObserver(testObserver2);
+            contentSubject.notifyObservers(ContentEvent.contentUpdated(testContent, testUser, Set.of("title")));
+
+            assertEquals(2, testObserver1.getNotificationCount());
+            assertEquals(1, testObserver2.getNotificationCount());
+            assertEquals(2L, contentSubject.getObserverStatistics()
+                .get("TestObserver1").get("notificationsReceived"));
+        }
+
+        @Test
+        @DisplayName("Should publish events once through an attached event processing service")
+        void testDeliveryThroughEventProcessingService() throws InterruptedException {
+            EventProcessingService service = new EventProcessingService(2);
+            service.start();
+            try {
+                CountDownLatch delivered = new CountDownLatch(2);
+                AtomicInteger deliveries = new AtomicInteger();
+                ContentObserver counting = new ContentObserver() {
+                    @Override
+                    public void onContentCreated(ContentEvent event) {
+                        deliveries.incrementAndGet();
+                        delivered.countDown();
+                    }
+
+                    @Override
+                    public void onContentUpdated(ContentEvent event) {
+                        deliveries.incrementAndGet();
+                        delivered.countDown();
+                    }
+
+                    @Override
+                    public void onContentPublished(ContentEvent event) {
+                    }
+
+                    @Override
+                    public void onContentDeleted(ContentEvent event) {
+                    }
+
+                    @Override
+                    public String getObserverName() {
+                        return "CountingObserver";
+                    }
+                };
+                contentSubject.addObserver(counting);
+                contentSubject.setEventProcessingService(service);
+
+                contentSubject.notifyObservers(ContentEvent.contentCreated(testContent, testUser));
+                contentSubject.notifyObservers(ContentEvent.contentUpdated(testContent, testUser, Set.of("title")));
+
+                assertTrue(delivered.await(5, TimeUnit.SECONDS));
+                Thread.sleep(100);
+                assertEquals(2, deliveries.get());
+                assertEquals(2L, service.getStatistics().get("totalEventsProduced"));
+            } finally {
+                contentSubject.setEventProcessingService(null);
+                service.stop();
+            }
+        }
+
         @Test
         @DisplayName("Should handle null event parameter")
         void testNullEventHandling() {
@@ -501,6 +632,187 @@ class ObserverPatternTest {
             assertTrue(searchObserver.shouldObserve(Content.class));
         }
 
+        @Test
+        @DisplayName("Should rank SearchIndexObserver results by BM25")
+        void testSearchIndexObserverRanking() {
+            Content notes = ContentFactory.createContent(ArticleContent.class,
+                "Release notes", "These release notes list every change in the new version", testUser);
+            Content product = ContentFactory.createContent(ArticleContent.class,
+                "Product launch", "The launch shipped a release of the product", testUser);
+            StringBuilder longBody = new StringBuilder();
+            for (int i = 0; i < 2000; i++) {
+                longBody.append("background filler text ");
+            }
+            Content longArticle = ContentFactory.createContent(ArticleContent.class,
+                "Archive digest", longBody + "with one release mention", testUser);
+
+            searchObserver.onEventsBatch(List.of(
+                ContentEvent.contentCreated(notes, testUser),
+                ContentEvent.contentCreated(product, testUser),
+                ContentEvent.contentCreated(longArticle, testUser)));
+
+            // Title matches weigh more, long documents are length-normalized
+            List<String> results = searchObserver.search("release", 10);
+            assertEquals(List.of(notes.getId(), product.getId(), longArticle.getId()), results);
+            assertEquals(List.of(notes.getId()), searchObserver.search("release", 1));
+            assertTrue(searchObserver.search("nonexistent", 10).isEmpty());
+
+            // Removed documents drop out of the postings
+            searchObserver.onContentDeleted(ContentEvent.contentDeleted(notes, testUser, "cleanup", false));
+            assertEquals(List.of(product.getId(), longArticle.getId()), searchObserver.search("release", 10));
+            assertTrue(searchObserver.validateIndexConsistency().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should support boolean, phrase and prefix queries in SearchIndexObserver")
+        void testSearchIndexObserverQuerySyntax() {
+            Content releaseNotes = ContentFactory.createContent(ArticleContent.class,
+                "Quarterly update", "The release notes cover the quarterly platform changes", testUser);
+            Content scattered = ContentFactory.createContent(ArticleContent.class,
+                "Meeting notes", "Notes taken before the release of the mobile platform", testUser);
+            Content relay = ContentFactory.createContent(ArticleContent.class,
+                "Relay hardware", "Installing a relay on the mobile platform board", testUser);
+
+            searchObserver.onEventsBatch(List.of(
+                ContentEvent.contentCreated(releaseNotes, testUser),
+                ContentEvent.contentCreated(scattered, testUser),
+                ContentEvent.contentCreated(relay, testUser)));
+
+            // Terms are required by default; quotes require adjacency
+            assertEquals(Set.of(releaseNotes.getId(), scattered.getId()),
+                new HashSet<>(searchObserver.search("release notes", 10)));
+            assertEquals(List.of(releaseNotes.getId()), searchObserver.search("\"release notes\"", 10));
+
+            // OR, exclusion and prefixes
+            assertEquals(3, searchObserver.search("quarterly OR mobile", 10).size());
+            assertEquals(List.of(relay.getId()), searchObserver.search("mobile -notes", 10));
+            assertEquals(List.of(relay.getId()), searchObserver.search("platform NOT release", 10));
+            assertEquals(3, searchObserver.search("rel*", 10).size());
+            assertEquals(Set.of(scattered.getId(), relay.getId()),
+                new HashSet<>(searchObserver.search("rel* mobile", 10)));
+
+            // Malformed input degrades gracefully
+            assertEquals(List.of(releaseNotes.getId()), searchObserver.search("(quarterly", 10));
+            assertTrue(searchObserver.search("the AND", 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should reindex only the changed fields of updated content")
+        void testSearchIndexObserverFieldLevelUpdates() {
+            Content article = ContentFactory.createContent(ArticleContent.class,
+                "Cluster guide", "Deploying services across a cluster of machines with rolling upgrades", testUser);
+            searchObserver.onEventsBatch(List.of(ContentEvent.contentCreated(article, testUser)));
+
+            // A tag edit analyzes the tags alone: one new posting, body untouched
+            article.addMetadata("tags", "kubernetes", testUser.getUsername());
+            article.addMetadata("category", "operations", testUser.getUsername());
+            searchObserver.onContentUpdated(ContentEvent.builder()
+                .content(article)
+                .eventType(ContentEvent.EventType.UPDATED)
+                .user(testUser)
+                .changedFields(Set.of("tags", "category"))
+                .build());
+            searchObserver.processPendingOperations();
+
+            assertEquals(1L, invertedIndexStatistic("postingUpdates"));
+            assertEquals(List.of(article.getId()), searchObserver.search("kubernetes rolling", 10));
+            assertEquals(Map.of("operations", 1), searchObserver.getFacetCounts("category"));
+
+            // A facet-only change moves the facet entry without touching postings
+            article.addMetadata("category", "infrastructure", testUser.getUsername());
+            searchObserver.onEventsBatch(List.of(ContentEvent.builder()
+                .content(article)
+                .eventType(ContentEvent.EventType.UPDATED)
+                .user(testUser)
+                .changedFields(Set.of("category"))
+                .build()));
+
+            assertEquals(1L, invertedIndexStatistic("postingUpdates"));
+            assertEquals(2L, invertedIndexStatistic("fieldUpdates"));
+            assertEquals(Map.of("infrastructure", 1), searchObserver.getFacetCounts("category"));
+            assertTrue(searchObserver.validateIndexConsistency().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should keep indexed content searchable while segments are flushed and merged")
+        void testSearchIndexObserverSegmentsDoNotBlockQueries() throws InterruptedException {
+            Content anchor = ContentFactory.createContent(ArticleContent.class,
+                "Anchor article", "Lighthouse keepers record the weather along the coast every single night", testUser);
+            searchObserver.onEventsBatch(List.of(ContentEvent.contentCreated(anchor, testUser)));
+
+            AtomicBoolean indexing = new AtomicBoolean(true);
+            AtomicInteger misses = new AtomicInteger();
+            AtomicInteger queries = new AtomicInteger();
+            Thread reader = new Thread(() -> {
+                while (indexing.get()) {
+                    if (!searchObserver.search("lighthouse", 10).equals(List.of(anchor.getId()))) {
+                        misses.incrementAndGet();
+                    }
+                    queries.incrementAndGet();
+                }
+            });
+            reader.start();
+
+            // Every batch flushes a segment; merges run in the background
+            for (int i = 0; i < 40; i++) {
+                Content article = ContentFactory.createContent(ArticleContent.class,
+                    "Harbor report " + i, "Fishing boats returned to the harbor early because of rising waves", testUser);
+                searchObserver.onEventsBatch(List.of(ContentEvent.contentCreated(article, testUser)));
+            }
+            indexing.set(false);
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+
+            assertTrue(queries.get() > 0);
+            assertEquals(0, misses.get());
+            assertEquals(40, searchObserver.search("harbor", 100).size());
+            assertTrue((Long) invertedIndexStatistic("flushes") >= 41L);
+            assertTrue(searchObserver.validateIndexConsistency().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should restore persisted segments and replay only newer events")
+        void testSearchIndexObserverPersistsAndReplaysOnlyNewerEvents() throws IOException {
+            Path indexDirectory = Files.createTempDirectory("search-index");
+            SearchIndexObserver persistent = new SearchIndexObserver(ExecutorRegistry.getInstance(), indexDirectory);
+            List<ContentEvent> events = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Content article = ContentFactory.createContent(ArticleContent.class,
+                    "Harbor report " + i, "Fishing boats returned to the harbor early because of rising waves", testUser);
+                article.addMetadata("category", i % 2 == 0 ? "news" : "weather", testUser.getUsername());
+                events.add(ContentEvent.contentCreated(article, testUser));
+            }
+            persistent.onEventsBatch(events);
+            persistent.checkpoint();
+            List<String> ranked = persistent.search("harbor", 100);
+            persistent.shutdown();
+
+            // Reopening maps the committed segments instead of re-tokenizing
+            SearchIndexObserver restored = new SearchIndexObserver(ExecutorRegistry.getInstance(), indexDirectory);
+            try {
+                assertEquals(10, ranked.size());
+                assertEquals(Set.copyOf(ranked), Set.copyOf(restored.search("harbor", 100)));
+                assertEquals(Map.of("news", 5, "weather", 5), restored.getFacetCounts("category"));
+                assertTrue(restored.validateIndexConsistency().isEmpty());
+
+                // Events up to the checkpoint are already indexed
+                restored.onEventsBatch(events);
+                assertEquals(10L, restored.getSearchStatistics().get("replaySkipped"));
+
+                Content newer = ContentFactory.createContent(ArticleContent.class,
+                    "Lighthouse log", "Keepers record the weather along the coast every single night", testUser);
+                restored.onEventsBatch(List.of(ContentEvent.contentCreated(newer, testUser)));
+                assertEquals(List.of(newer.getId()), restored.search("lighthouse", 10));
+                assertEquals(11, restored.search("harbor OR lighthouse", 100).size());
+            } finally {
+                restored.shutdown();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object invertedIndexStatistic(String name) {
+            return ((Map<String, Object>) searchObserver.getSearchStatistics().get("invertedIndex")).get(name);
+        }
+
         @Test
         @DisplayName("Should test AuditObserver functionality")
         void testAuditObserver() {
@@ -532,6 +844,65 @@ class ObserverPatternTest {
             assertEquals(5, auditObserver.getPriority()); // Highest priority
             assertTrue(auditObserver.shouldObserve(Content.class));
         }
+
+        @Test
+        @DisplayName("Should route batched events to the per-event callbacks by default")
+        void testDefaultEventsBatchRouting() {
+            testObserver1.onEventsBatch(List.of(
+                ContentEvent.contentCreated(testContent, testUser),
+                ContentEvent.contentUpdated(testContent, testUser, Set.of("title")),
+                ContentEvent.contentDeleted(testContent, testUser, "cleanup", false)));
+
+            assertEquals(3, testObserver1.getNotificationCount());
+            assertEquals("onContentDeleted", testObserver1.getLastMethod());
+        }
+
+        @Test
+        @DisplayName("Should apply event batches like the same events one by one")
+        void testObserverEventsBatch() {
+            List<ContentEvent> batch = new ArrayList<>();
+            List<Content> contents = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Content content = ContentFactory.createContent(ArticleContent.class,
+                    "Batch Article " + i, "Batch indexed article body number " + i + " with enough words to pass validation", testUser);
+                contents.add(content);
+                batch.add(ContentEvent.contentPublished(content, testUser, LocalDateTime.now()));
+            }
+            batch.add(ContentEvent.contentDeleted(contents.get(0), testUser, "cleanup", false));
+
+            SearchIndexObserver perEventSearch = new SearchIndexObserver();
+            for (ContentEvent event : batch) {
+                if (event.getEventType() == ContentEvent.EventType.DELETED) {
+                    perEventSearch.onContentDeleted(event);
+                } else {
+                    perEventSearch.onContentPublished(event);
+                }
+            }
+            searchObserver.onEventsBatch(batch);
+
+            // Search index: same documents and postings as per-event processing
+            assertEquals(perEventSearch.search("batch indexed", 100).size(),
+                searchObserver.search("batch indexed", 100).size());
+            assertEquals(19, searchObserver.search("indexed", 100).size());
+            assertTrue(searchObserver.validateIndexConsistency().isEmpty());
+            perEventSearch.shutdown();
+
+            // Cache: shared keys such as feeds are invalidated once for the whole batch
+            cacheObserver.onEventsBatch(batch);
+            Map<String, Object> cacheStats = cacheObserver.getCacheStatistics();
+            CacheInvalidationObserver perEventCache = new CacheInvalidationObserver();
+            for (ContentEvent event : batch.subList(0, 20)) {
+                perEventCache.onContentPublished(event);
+            }
+            long perEventKeys = (Long) perEventCache.getCacheStatistics().get("totalInvalidations");
+            assertTrue((Long) cacheStats.get("totalInvalidations") < perEventKeys);
+
+            // Audit: one record per event, stored together
+            auditObserver.onEventsBatch(batch);
+            assertEquals(21L, auditObserver.getAuditStatistics().get("totalAuditRecords"));
+            assertEquals(2, auditObserver.getContentAuditHistory(contents.get(0).getId()).size());
+            assertEquals(100.0, (Double) auditObserver.verifyAuditIntegrity().get("integrityPercentage"));
+        }
     }
 
     @Nested
@@ -17,6 +17,7 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -251,6 +252,40 @@ public class StreamAPITest {
         assertTrue(results.averageRelevanceScore() >= 0, "Relevance score should be non-negative");
     }
 
+    @Test
+    @DisplayName("Stream Search - Separate Index Per Collection")
+    void testStreamSearchAcrossCollections() throws ContentManagementException {
+        List<Content> first = new ArrayList<>(testContent.subList(0, 10));
+        List<Content> second = new ArrayList<>(testContent.subList(10, 20));
+        Set<String> firstIds = first.stream().map(Content::getId).collect(Collectors.toSet());
+        Set<String> secondIds = second.stream().map(Content::getId).collect(Collectors.toSet());
+
+        // Alternate between the collections; each search sees only its own
+        for (int round = 0; round < 3; round++) {
+            SearchResult firstResults = streamProcessor.searchContent(first, "content", 20);
+            SearchResult secondResults = streamProcessor.searchContent(second, "content", 20);
+
+            assertEquals(10, firstResults.totalMatches(), "Should match every item of the first collection");
+            assertEquals(10, secondResults.totalMatches(), "Should match every item of the second collection");
+            firstResults.results().forEach(dto -> assertTrue(firstIds.contains(dto.id())));
+            secondResults.results().forEach(dto -> assertTrue(secondIds.contains(dto.id())));
+        }
+    }
+
+    @Test
+    @DisplayName("Stream Search - Short and Stop Word Queries")
+    void testStreamSearchUnindexedTerms() throws ContentManagementException {
+        // "is a" has no indexable word, so the titles and bodies are scanned
+        SearchResult limited = streamProcessor.searchContent(testContent, "is a", 5);
+        assertEquals(5, limited.totalMatches(), "Should match stop words and respect maxResults");
+
+        SearchResult all = streamProcessor.searchContent(testContent, "IS A", 50);
+        assertEquals(testContent.size(), all.totalMatches(), "Should match case-insensitively");
+
+        SearchResult none = streamProcessor.searchContent(testContent, "zq", 50);
+        assertEquals(0, none.totalMatches(), "Should not match absent short terms");
+    }
+
     @Test
     @DisplayName("Stream Statistics - Custom Collectors")
     void testStreamStatistics() throws ContentManagementException {
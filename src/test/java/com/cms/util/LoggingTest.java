@@ -441,6 +441,18 @@ public class LoggingTest {
                                 !msg.contains("test@example.com"));
             assertTrue(hasEmailParameter, "Database queries should use parameterized logging");
         }
+
+        @Test
+        @DisplayName("Should log errors reported without an exception")
+        void shouldLogErrorsWithoutException() {
+            // Act - Errors detected without a caught exception
+            assertDoesNotThrow(() -> cmsLogger.logError("Queue is full, cannot produce event", null));
+
+            // Assert - The error is still logged with its context
+            boolean logged = logCapture.getAllMessages().stream()
+                .anyMatch(msg -> msg.contains("ERROR") && msg.contains("Queue is full"));
+            assertTrue(logged, "Errors without an exception should still be logged");
+        }
     }
 
     /**